@@ -14,6 +14,7 @@ import dev.dsf.bpe.v1.service.MailService;
 import dev.dsf.bpe.v1.service.OrganizationProvider;
 import dev.dsf.bpe.v1.service.QuestionnaireResponseHelper;
 import dev.dsf.bpe.v1.service.TaskHelper;
+import dev.dsf.bpe.v1.service.TaskOutbox;
 import dev.dsf.bpe.v1.variables.Variables;
 import dev.dsf.fhir.authorization.process.ProcessAuthorizationHelper;
 import dev.dsf.fhir.authorization.read.ReadAccessHelper;
@@ -48,5 +49,7 @@ public interface ProcessPluginApi
 
 	TaskHelper getTaskHelper();
 
+	TaskOutbox getTaskOutbox();
+
 	Variables getVariables(DelegateExecution execution);
 }
@@ -1,9 +1,20 @@
 package dev.dsf.bpe.v1.activity;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import org.camunda.bpm.engine.delegate.DelegateExecution;
@@ -34,9 +45,11 @@ import dev.dsf.bpe.v1.ProcessPluginDefinition;
 import dev.dsf.bpe.v1.constants.BpmnExecutionVariables;
 import dev.dsf.bpe.v1.constants.CodeSystems.BpmnMessage;
 import dev.dsf.bpe.v1.constants.NamingSystems.OrganizationIdentifier;
+import dev.dsf.bpe.v1.service.TaskOutbox;
 import dev.dsf.bpe.v1.variables.Target;
 import dev.dsf.bpe.v1.variables.Targets;
 import dev.dsf.bpe.v1.variables.Variables;
+import dev.dsf.fhir.client.AsyncFhirWebserviceClient;
 import dev.dsf.fhir.client.FhirWebserviceClient;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response.StatusType;
@@ -64,6 +77,9 @@ public abstract class AbstractTaskMessageSend implements JavaDelegate, Initializ
 {
 	private static final Logger logger = LoggerFactory.getLogger(AbstractTaskMessageSend.class);
 
+	private static final int SEND_THREADS = 32;
+	private static final ExecutorService SEND_EXECUTOR = createSendExecutor();
+
 	protected final ProcessPluginApi api;
 
 	// set via field injection
@@ -71,6 +87,18 @@ public abstract class AbstractTaskMessageSend implements JavaDelegate, Initializ
 	private FixedValue messageName;
 	private FixedValue profile;
 
+	private static ExecutorService createSendExecutor()
+	{
+		AtomicInteger threadCount = new AtomicInteger();
+		// no queue, additional workers only start if a thread is free, see sendTasks
+		return new ThreadPoolExecutor(0, SEND_THREADS, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), r ->
+		{
+			Thread thread = new Thread(r, "task-send-" + threadCount.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
 	/**
 	 * @param api
 	 *            not <code>null</code>
@@ -196,34 +224,43 @@ public abstract class AbstractTaskMessageSend implements JavaDelegate, Initializ
 		}
 		catch (Exception e)
 		{
-			String exceptionMessage = e.getMessage();
-			if (e instanceof WebApplicationException && (e.getMessage() == null || e.getMessage().isBlank()))
-			{
-				StatusType statusInfo = ((WebApplicationException) e).getResponse().getStatusInfo();
-				exceptionMessage = statusInfo.getStatusCode() + " " + statusInfo.getReasonPhrase();
-			}
-
-			String errorMessage = "Task " + instantiatesCanonical + " send failed [recipient: "
-					+ target.getOrganizationIdentifierValue() + ", endpoint: " + target.getEndpointIdentifierValue()
-					+ ", businessKey: " + businessKey
-					+ (target.getCorrelationKey() == null ? "" : ", correlationKey: " + target.getCorrelationKey())
-					+ ", message: " + messageName + ", error: " + e.getClass().getName() + " - " + exceptionMessage
-					+ "]";
+			String errorMessage = createErrorMessage(e, target, instantiatesCanonical, businessKey, messageName);
 			logger.warn(errorMessage);
 			logger.debug("Error while sending Task", e);
 
-			if (execution.getBpmnModelElementInstance() instanceof IntermediateThrowEvent)
-				handleIntermediateThrowEventError(execution, variables, e, errorMessage);
-			else if (execution.getBpmnModelElementInstance() instanceof EndEvent)
-				handleEndEventError(execution, variables, e, errorMessage);
-			else if (execution.getBpmnModelElementInstance() instanceof SendTask)
-				handleSendTaskError(execution, variables, e, errorMessage);
-			else
-				logger.warn("Error handling for {} not implemented",
-						execution.getBpmnModelElementInstance().getClass().getName());
+			handleError(execution, variables, e, errorMessage);
 		}
 	}
 
+	static String createErrorMessage(Exception e, Target target, String instantiatesCanonical, String businessKey,
+			String messageName)
+	{
+		String exceptionMessage = e.getMessage();
+		if (e instanceof WebApplicationException && (e.getMessage() == null || e.getMessage().isBlank()))
+		{
+			StatusType statusInfo = ((WebApplicationException) e).getResponse().getStatusInfo();
+			exceptionMessage = statusInfo.getStatusCode() + " " + statusInfo.getReasonPhrase();
+		}
+
+		return "Task " + instantiatesCanonical + " send failed [recipient: " + target.getOrganizationIdentifierValue()
+				+ ", endpoint: " + target.getEndpointIdentifierValue() + ", businessKey: " + businessKey
+				+ (target.getCorrelationKey() == null ? "" : ", correlationKey: " + target.getCorrelationKey())
+				+ ", message: " + messageName + ", error: " + e.getClass().getName() + " - " + exceptionMessage + "]";
+	}
+
+	void handleError(DelegateExecution execution, Variables variables, Exception exception, String errorMessage)
+	{
+		if (execution.getBpmnModelElementInstance() instanceof IntermediateThrowEvent)
+			handleIntermediateThrowEventError(execution, variables, exception, errorMessage);
+		else if (execution.getBpmnModelElementInstance() instanceof EndEvent)
+			handleEndEventError(execution, variables, exception, errorMessage);
+		else if (execution.getBpmnModelElementInstance() instanceof SendTask)
+			handleSendTaskError(execution, variables, exception, errorMessage);
+		else
+			logger.warn("Error handling for {} not implemented",
+					execution.getBpmnModelElementInstance().getClass().getName());
+	}
+
 	protected void handleIntermediateThrowEventError(DelegateExecution execution, Variables variables,
 			Exception exception, String errorMessage)
 	{
@@ -288,7 +325,7 @@ public abstract class AbstractTaskMessageSend implements JavaDelegate, Initializ
 		}
 	}
 
-	private void addErrorIfInprogress(List<Task> tasks, String errorMessage)
+	void addErrorIfInprogress(List<Task> tasks, String errorMessage)
 	{
 		for (int i = tasks.size() - 1; i >= 0; i--)
 		{
@@ -415,6 +452,233 @@ public abstract class AbstractTaskMessageSend implements JavaDelegate, Initializ
 	protected void sendTask(DelegateExecution execution, Variables variables, Target target,
 			String instantiatesCanonical, String messageName, String businessKey, String profile,
 			Stream<ParameterComponent> additionalInputParameters)
+	{
+		Task task = createTask(getRequester(), target, instantiatesCanonical, messageName, businessKey, profile,
+				additionalInputParameters);
+
+		if (isSendViaTaskOutbox(execution, variables))
+		{
+			logSending(task, target, businessKey, messageName);
+
+			String outboxId = api.getTaskOutbox().add(execution, target.getEndpointUrl(), task);
+
+			logger.info("Task {} queued for sending after transaction commit [outboxId: {}]",
+					task.getInstantiatesCanonical(), outboxId);
+			return;
+		}
+
+		FhirWebserviceClient client = api.getFhirWebserviceClientProvider()
+				.getWebserviceClient(target.getEndpointUrl());
+
+		logSending(task, target, businessKey, messageName);
+
+		IdType created = doSend(client, task);
+
+		logger.info("Task {} send [task: {}]", task.getInstantiatesCanonical(), created.toVersionless().getValue());
+	}
+
+	/**
+	 * Sends Task resources to all given <b>targets</b> concurrently, using the calling thread and at most
+	 * {@link #getMaxParallelSends()} - 1 additional threads of a bounded thread pool shared by all send activities.
+	 * Additional threads are only used if available, Tasks are never queued behind sends of other activities. Tasks are
+	 * send via {@link #doSend(FhirWebserviceClient, Task, Target)}, override to configure per target retries, per
+	 * target timeouts via {@link #getSendTimeout(Target)}. Returns after all requests completed, a target is only
+	 * reported as failed after its request failed or was aborted by the client, a Task can not be created after it was
+	 * reported as failed. If {@link #isSendViaTaskOutbox(DelegateExecution, Variables)} all Tasks are added to the
+	 * {@link TaskOutbox} instead and returned as {@link TaskSendOutcome#isQueued()}.
+	 * <p>
+	 * The process engine {@link DelegateExecution} and {@link Variables} are only accessed from the calling thread.
+	 *
+	 * @param execution
+	 *            not <code>null</code>
+	 * @param variables
+	 *            not <code>null</code>
+	 * @param targets
+	 *            not <code>null</code>, e.g. {@link Targets#getEntries()}
+	 * @param instantiatesCanonical
+	 *            not <code>null</code>, not empty
+	 * @param messageName
+	 *            not <code>null</code>, not empty
+	 * @param businessKey
+	 *            not <code>null</code>, not empty
+	 * @param profile
+	 *            not <code>null</code>, not empty
+	 * @param additionalInputParameters
+	 *            may be <code>null</code>, copied for every target
+	 * @return one outcome per target in the order of the given <b>targets</b>
+	 * @throws IllegalStateException
+	 *             if {@link #getMaxParallelSends()} is not <code>&gt; 0</code>
+	 * @see AbstractTaskMessageSendToTargets
+	 */
+	protected List<TaskSendOutcome> sendTasks(DelegateExecution execution, Variables variables,
+			List<? extends Target> targets, String instantiatesCanonical, String messageName, String businessKey,
+			String profile, List<ParameterComponent> additionalInputParameters)
+	{
+		Objects.requireNonNull(targets, "targets");
+
+		if (targets.isEmpty())
+			return Collections.emptyList();
+
+		Reference requester = getRequester();
+		List<Task> tasks = targets.stream()
+				.map(t -> createTask(requester, t, instantiatesCanonical, messageName, businessKey, profile,
+						additionalInputParameters == null ? null
+								: additionalInputParameters.stream().map(ParameterComponent::copy)))
+				.toList();
+
+		if (isSendViaTaskOutbox(execution, variables))
+			return queueTasks(execution, targets, tasks, businessKey, messageName);
+
+		int maxParallelSends = getMaxParallelSends();
+		if (maxParallelSends <= 0)
+			throw new IllegalStateException("maxParallelSends <= 0");
+
+		IdType[] created = new IdType[targets.size()];
+		Exception[] errors = new Exception[targets.size()];
+		@SuppressWarnings("unchecked")
+		CompletableFuture<Void>[] sent = Stream.generate(CompletableFuture<Void>::new).limit(targets.size())
+				.toArray(CompletableFuture[]::new);
+		AtomicInteger next = new AtomicInteger();
+
+		Runnable worker = () ->
+		{
+			for (int i = next.getAndIncrement(); i < targets.size(); i = next.getAndIncrement())
+			{
+				try
+				{
+					created[i] = send(targets.get(i), tasks.get(i), businessKey, messageName);
+				}
+				catch (Exception e)
+				{
+					errors[i] = e;
+				}
+				finally
+				{
+					sent[i].complete(null);
+				}
+			}
+		};
+
+		for (int w = 1; w < Math.min(targets.size(), maxParallelSends); w++)
+		{
+			try
+			{
+				SEND_EXECUTOR.execute(worker);
+			}
+			catch (RejectedExecutionException e)
+			{
+				logger.debug("No free send thread, sending remaining Tasks with {} threads", w);
+				break;
+			}
+		}
+
+		worker.run();
+
+		// returns after every request finished or was aborted by the client, e.g. after its timeout
+		CompletableFuture.allOf(sent).join();
+
+		List<TaskSendOutcome> outcomes = new ArrayList<>(targets.size());
+		for (int i = 0; i < targets.size(); i++)
+		{
+			if (errors[i] != null)
+				outcomes.add(TaskSendOutcome.failure(targets.get(i), tasks.get(i), errors[i]));
+			else if (created[i] == null)
+				outcomes.add(TaskSendOutcome.failure(targets.get(i), tasks.get(i),
+						new IllegalStateException("No id of created Task returned")));
+			else
+			{
+				logger.info("Task {} send [task: {}]", tasks.get(i).getInstantiatesCanonical(),
+						created[i].toVersionless().getValue());
+				outcomes.add(TaskSendOutcome.success(targets.get(i), tasks.get(i), created[i]));
+			}
+		}
+
+		return outcomes;
+	}
+
+	private List<TaskSendOutcome> queueTasks(DelegateExecution execution, List<? extends Target> targets,
+			List<Task> tasks, String businessKey, String messageName)
+	{
+		List<TaskSendOutcome> outcomes = new ArrayList<>(targets.size());
+		for (int i = 0; i < targets.size(); i++)
+		{
+			Target target = targets.get(i);
+			Task task = tasks.get(i);
+
+			logSending(task, target, businessKey, messageName);
+
+			String outboxId = api.getTaskOutbox().add(execution, target.getEndpointUrl(), task);
+
+			logger.info("Task {} queued for sending after transaction commit [outboxId: {}]",
+					task.getInstantiatesCanonical(), outboxId);
+
+			outcomes.add(TaskSendOutcome.queued(target, task, outboxId));
+		}
+
+		return outcomes;
+	}
+
+	private IdType send(Target target, Task task, String businessKey, String messageName)
+	{
+		FhirWebserviceClient client = api.getFhirWebserviceClientProvider()
+				.getWebserviceClient(target.getEndpointUrl());
+
+		logSending(task, target, businessKey, messageName);
+
+		return doSend(client, task, target);
+	}
+
+	/**
+	 * <i>Override this method to send Tasks via the {@link TaskOutbox} from
+	 * {@link #sendTask(DelegateExecution, Variables, Target, String, String, String, String, Stream)} and
+	 * {@link #sendTasks(DelegateExecution, Variables, List, String, String, String, String, List)}.</i>
+	 * <p>
+	 * Tasks send via the outbox are only delivered if the process engine transaction of this activity commits and are
+	 * retried by the BPE in the background. Send errors are not handled by this activity, delivered Tasks are reported
+	 * via the process variable {@link TaskOutbox#getDeliveredTaskVariableName(String)}, Tasks that can not be delivered
+	 * as process incidents. Use with an asynchronous continuation after this activity.
+	 *
+	 * @param execution
+	 *            not <code>null</code>
+	 * @param variables
+	 *            not <code>null</code>
+	 * @return <code>true</code> to send via {@link TaskOutbox}, default <code>false</code>
+	 */
+	protected boolean isSendViaTaskOutbox(DelegateExecution execution, Variables variables)
+	{
+		return false;
+	}
+
+	/**
+	 * <i>Override this method to configure the number of parallel sends used by
+	 * {@link #sendTasks(DelegateExecution, Variables, List, String, String, String, String, List)}.</i>
+	 *
+	 * @return <code>&gt; 0</code>, default 10
+	 */
+	protected int getMaxParallelSends()
+	{
+		return 10;
+	}
+
+	/**
+	 * <i>Override this method to configure per target timeouts used by
+	 * {@link #sendTasks(DelegateExecution, Variables, List, String, String, String, String, List)}.</i>
+	 * <p>
+	 * If a timeout is returned, {@link #doSend(FhirWebserviceClient, Task, Target)} creates the Task via
+	 * {@link FhirWebserviceClient#async()} with {@link AsyncFhirWebserviceClient#withTimeout(long)}. The request is
+	 * aborted by the HTTP connector if the timeout elapses, the target is reported as failed afterwards.
+	 *
+	 * @param target
+	 *            not <code>null</code>
+	 * @return may be <code>null</code>, default <code>null</code> to use the read timeout configured for the client
+	 */
+	protected Duration getSendTimeout(Target target)
+	{
+		return null;
+	}
+
+	private Task createTask(Reference requester, Target target, String instantiatesCanonical, String messageName,
+			String businessKey, String profile, Stream<ParameterComponent> additionalInputParameters)
 	{
 		Objects.requireNonNull(target, "target");
 		Objects.requireNonNull(instantiatesCanonical, "instantiatesCanonical");
@@ -435,7 +699,7 @@ public abstract class AbstractTaskMessageSend implements JavaDelegate, Initializ
 		task.setStatus(TaskStatus.REQUESTED);
 		task.setIntent(TaskIntent.ORDER);
 		task.setAuthoredOn(new Date());
-		task.setRequester(getRequester());
+		task.setRequester(requester);
 		task.getRestriction().addRecipient(getRecipient(target));
 		task.setInstantiatesCanonical(instantiatesCanonical);
 
@@ -458,24 +722,22 @@ public abstract class AbstractTaskMessageSend implements JavaDelegate, Initializ
 		if (additionalInputParameters != null)
 			additionalInputParameters.forEach(task.getInput()::add);
 
-		FhirWebserviceClient client = api.getFhirWebserviceClientProvider()
-				.getWebserviceClient(target.getEndpointUrl());
+		return task;
+	}
 
-		if (correlationKey != null)
+	private void logSending(Task task, Target target, String businessKey, String messageName)
+	{
+		if (target.getCorrelationKey() != null)
 			logger.info(
 					"Sending task {} [recipient: {}, endpoint: {}, businessKey: {}, correlationKey: {}, message: {}] ...",
 					task.getInstantiatesCanonical(), target.getOrganizationIdentifierValue(),
-					target.getEndpointIdentifierValue(), businessKey, correlationKey, messageName);
+					target.getEndpointIdentifierValue(), businessKey, target.getCorrelationKey(), messageName);
 		else
 			logger.info("Sending task {} [recipient: {}, endpoint: {}, businessKey: {}, message: {}] ...",
 					task.getInstantiatesCanonical(), target.getOrganizationIdentifierValue(),
 					target.getEndpointIdentifierValue(), businessKey, messageName);
 
 		logger.trace("Task resource to send: {}", api.getFhirContext().newJsonParser().encodeResourceToString(task));
-
-		IdType created = doSend(client, task);
-
-		logger.info("Task {} send [task: {}]", task.getInstantiatesCanonical(), created.toVersionless().getValue());
 	}
 
 	/**
@@ -502,6 +764,53 @@ public abstract class AbstractTaskMessageSend implements JavaDelegate, Initializ
 		return client.withMinimalReturn().create(task);
 	}
 
+	/**
+	 * <i>Override this method to modify the remote task create behavior of
+	 * {@link #sendTasks(DelegateExecution, Variables, List, String, String, String, String, List)} per target, e.g. to
+	 * implement retries depending on the target</i>
+	 * <p>
+	 * Uses {@link #doSend(FhirWebserviceClient, Task)} if {@link #getSendTimeout(Target)} returns <code>null</code>, an
+	 * {@link AsyncFhirWebserviceClient} with the returned timeout otherwise.
+	 *
+	 * <pre>
+	 * <code>
+	 * &#64;Override
+	 * protected IdType doSend(FhirWebserviceClient client, Task task, Target target)
+	 * {
+	 *     return client.withMinimalReturn().withRetry(2, 1_000).create(task);
+	 * }
+	 * </code>
+	 * </pre>
+	 *
+	 * @param client
+	 *            not <code>null</code>
+	 * @param task
+	 *            not <code>null</code>
+	 * @param target
+	 *            not <code>null</code>
+	 * @return id of created task
+	 * @see #doSend(FhirWebserviceClient, Task)
+	 */
+	protected IdType doSend(FhirWebserviceClient client, Task task, Target target)
+	{
+		Duration timeout = getSendTimeout(target);
+		if (timeout == null)
+			return doSend(client, task);
+
+		try
+		{
+			Task created = client.async().withTimeout(timeout.toMillis()).create(task).join();
+			return created.getIdElement().withServerBase(client.getBaseUrl(), ResourceType.Task.name());
+		}
+		catch (CompletionException e)
+		{
+			if (e.getCause() instanceof RuntimeException r)
+				throw r;
+			else
+				throw e;
+		}
+	}
+
 	protected Reference getRecipient(Target target)
 	{
 		return new Reference().setType(ResourceType.Organization.name())
@@ -0,0 +1,118 @@
+package dev.dsf.bpe.v1.activity;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.hl7.fhir.r4.model.Task;
+import org.hl7.fhir.r4.model.Task.ParameterComponent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.dsf.bpe.v1.ProcessPluginApi;
+import dev.dsf.bpe.v1.constants.BpmnExecutionVariables;
+import dev.dsf.bpe.v1.variables.Target;
+import dev.dsf.bpe.v1.variables.Targets;
+import dev.dsf.bpe.v1.variables.Variables;
+
+/**
+ * Base class for BPMN message send tasks, intermediate message throw events and message end events sending FHIR Task
+ * resources to all {@link Targets} from the {@link BpmnExecutionVariables#TARGETS} variable concurrently. Use instead
+ * of a multi instance send task with a {@link AbstractTaskMessageSend} implementation to avoid a single slow target
+ * delaying all other sends.
+ * <p>
+ * Targets that could not be reached are removed from the {@link BpmnExecutionVariables#TARGETS} variable and an error
+ * output is added to in-progress Task resources, same as with a multi instance send task. If no Task could be send the
+ * configured error handling for the BPMN element is executed, see
+ * {@link #handleSendTaskError(DelegateExecution, Variables, Exception, String)}.
+ * <p>
+ * Requires the same BPMN field injections as {@link AbstractTaskMessageSend}, retries, timeouts and parallelism can be
+ * configured by overriding {@link #doSend(dev.dsf.fhir.client.FhirWebserviceClient, Task, Target)},
+ * {@link #getSendTimeout(Target)} and {@link #getMaxParallelSends()}. Without a send timeout unreachable targets are
+ * detected by the connect and read timeouts of the FHIR webservice client.
+ */
+public abstract class AbstractTaskMessageSendToTargets extends AbstractTaskMessageSend
+{
+	private static final Logger logger = LoggerFactory.getLogger(AbstractTaskMessageSendToTargets.class);
+
+	/**
+	 * @param api
+	 *            not <code>null</code>
+	 */
+	public AbstractTaskMessageSendToTargets(ProcessPluginApi api)
+	{
+		super(api);
+	}
+
+	@Override
+	protected void doExecute(DelegateExecution execution, Variables variables) throws Exception
+	{
+		final String instantiatesCanonical = getInstantiatesCanonical(execution, variables);
+		final String messageName = getMessageName(execution, variables);
+		final String profile = getProfile(execution, variables);
+		final String businessKey = execution.getBusinessKey();
+		final Targets targets = variables.getTargets();
+
+		if (targets == null || targets.isEmpty())
+		{
+			logger.warn("No targets for Task {} [businessKey: {}, message: {}], nothing to send", instantiatesCanonical,
+					businessKey, messageName);
+			return;
+		}
+
+		Stream<ParameterComponent> additionalInputParameters = getAdditionalInputParameters(execution, variables);
+		List<TaskSendOutcome> outcomes = sendTasks(execution, variables, targets.getEntries(), instantiatesCanonical,
+				messageName, businessKey, profile,
+				additionalInputParameters == null ? null : additionalInputParameters.toList());
+
+		handleSendOutcomes(execution, variables, targets, outcomes);
+	}
+
+	/**
+	 * <i>Override this method to modify the handling of failed sends.</i>
+	 *
+	 * @param execution
+	 *            not <code>null</code>
+	 * @param variables
+	 *            not <code>null</code>
+	 * @param targets
+	 *            not <code>null</code>, targets Tasks where send to
+	 * @param outcomes
+	 *            not <code>null</code>, one outcome per target
+	 */
+	protected void handleSendOutcomes(DelegateExecution execution, Variables variables, Targets targets,
+			List<TaskSendOutcome> outcomes)
+	{
+		List<TaskSendOutcome> failed = outcomes.stream().filter(o -> !o.isSuccess()).toList();
+		if (failed.isEmpty())
+			return;
+
+		String messageName = getMessageName(execution, variables);
+		List<String> errorMessages = failed.stream().map(o -> createErrorMessage(o.getError(), o.getTarget(),
+				o.getTask().getInstantiatesCanonical(), execution.getBusinessKey(), messageName)).toList();
+
+		for (int i = 0; i < failed.size(); i++)
+		{
+			logger.warn(errorMessages.get(i));
+			logger.debug("Error while sending Task", failed.get(i).getError());
+		}
+
+		Targets remaining = targets.removeAllByEndpointIdentifierValue(
+				failed.stream().map(o -> o.getTarget().getEndpointIdentifierValue()).toList());
+		variables.setTargets(remaining);
+
+		if (remaining.isEmpty())
+		{
+			// no Task send, handleSendTaskError with empty targets executes the not multi instance error handling
+			handleError(execution, variables, failed.get(failed.size() - 1).getError(),
+					errorMessages.get(errorMessages.size() - 1));
+		}
+		else
+		{
+			List<Task> tasks = variables.getTasks();
+			errorMessages.forEach(m -> addErrorIfInprogress(tasks, m));
+
+			logger.debug("{} of {} targets with send errors removed from target list", failed.size(), outcomes.size());
+		}
+	}
+}
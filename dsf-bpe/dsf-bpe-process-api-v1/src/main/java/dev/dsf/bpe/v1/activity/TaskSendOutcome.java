@@ -0,0 +1,109 @@
+package dev.dsf.bpe.v1.activity;
+
+import java.util.Objects;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Task;
+
+import dev.dsf.bpe.v1.service.TaskOutbox;
+import dev.dsf.bpe.v1.variables.Target;
+import dev.dsf.bpe.v1.variables.Variables;
+
+/**
+ * Result of sending a FHIR Task resource to a single {@link Target}.
+ *
+ * @see AbstractTaskMessageSend#sendTasks(DelegateExecution, Variables, java.util.List, String, String, String, String,
+ *      java.util.List)
+ */
+public final class TaskSendOutcome
+{
+	private final Target target;
+	private final Task task;
+	private final IdType created;
+	private final String outboxId;
+	private final Exception error;
+
+	private TaskSendOutcome(Target target, Task task, IdType created, String outboxId, Exception error)
+	{
+		this.target = Objects.requireNonNull(target, "target");
+		this.task = Objects.requireNonNull(task, "task");
+		this.created = created;
+		this.outboxId = outboxId;
+		this.error = error;
+	}
+
+	static TaskSendOutcome success(Target target, Task task, IdType created)
+	{
+		return new TaskSendOutcome(target, task, Objects.requireNonNull(created, "created"), null, null);
+	}
+
+	static TaskSendOutcome queued(Target target, Task task, String outboxId)
+	{
+		return new TaskSendOutcome(target, task, null, Objects.requireNonNull(outboxId, "outboxId"), null);
+	}
+
+	static TaskSendOutcome failure(Target target, Task task, Exception error)
+	{
+		return new TaskSendOutcome(target, task, null, null, Objects.requireNonNull(error, "error"));
+	}
+
+	/**
+	 * @return not <code>null</code>
+	 */
+	public Target getTarget()
+	{
+		return target;
+	}
+
+	/**
+	 * @return not <code>null</code>, the Task resource send to the target
+	 */
+	public Task getTask()
+	{
+		return task;
+	}
+
+	/**
+	 * @return id of the Task created at the target, <code>null</code> if not {@link #isSuccess()} or
+	 *         {@link #isQueued()}
+	 */
+	public IdType getCreated()
+	{
+		return created;
+	}
+
+	/**
+	 * @return outbox id of the Task, <code>null</code> if not {@link #isQueued()}
+	 * @see TaskOutbox#getDeliveredTaskVariableName(String)
+	 */
+	public String getOutboxId()
+	{
+		return outboxId;
+	}
+
+	/**
+	 * @return <code>null</code> if {@link #isSuccess()}
+	 */
+	public Exception getError()
+	{
+		return error;
+	}
+
+	/**
+	 * @return <code>true</code> if the Task was send or queued for sending via the {@link TaskOutbox}
+	 */
+	public boolean isSuccess()
+	{
+		return error == null;
+	}
+
+	/**
+	 * @return <code>true</code> if the Task was queued for sending via the {@link TaskOutbox}, delivery happens after
+	 *         the process engine transaction committed
+	 */
+	public boolean isQueued()
+	{
+		return outboxId != null;
+	}
+}
@@ -0,0 +1,42 @@
+package dev.dsf.bpe.v1.service;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.hl7.fhir.r4.model.Task;
+
+/**
+ * Stores Task resources within the current process engine transaction for delivery by the BPE after the transaction
+ * committed. Tasks are only send if the process engine transaction commits, failed deliveries are retried with
+ * exponential backoff.
+ * <p>
+ * Delivered Tasks are reported to the process instance with a String variable named
+ * {@link #getDeliveredTaskVariableName(String)}, containing the absolute versionless url of the Task created at the
+ * target. Tasks that can not be delivered are reported as process incidents of type
+ * {@value #INCIDENT_TYPE_FAILED_TASK_DELIVERY} with the outbox id as configuration.
+ */
+public interface TaskOutbox
+{
+	String INCIDENT_TYPE_FAILED_TASK_DELIVERY = "failedTaskDelivery";
+
+	String VARIABLE_PREFIX_DELIVERED_TASK = "taskOutboxDeliveredTask_";
+
+	/**
+	 * @param outboxId
+	 *            not <code>null</code>, see {@link #add(DelegateExecution, String, Task)}
+	 * @return name of the process variable set after the Task with the given outbox id was delivered
+	 */
+	static String getDeliveredTaskVariableName(String outboxId)
+	{
+		return VARIABLE_PREFIX_DELIVERED_TASK + outboxId;
+	}
+
+	/**
+	 * @param execution
+	 *            not <code>null</code>
+	 * @param endpointUrl
+	 *            not <code>null</code>, base url of the target DSF FHIR server
+	 * @param task
+	 *            not <code>null</code>
+	 * @return outbox id of the Task
+	 */
+	String add(DelegateExecution execution, String endpointUrl, Task task);
+}
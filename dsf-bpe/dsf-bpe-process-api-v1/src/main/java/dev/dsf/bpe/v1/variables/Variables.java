@@ -6,6 +6,7 @@ import java.util.Date;
 import java.util.List;
 
 import org.camunda.bpm.engine.variable.value.TypedValue;
+import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.QuestionnaireResponse;
 import org.hl7.fhir.r4.model.Resource;
 import org.hl7.fhir.r4.model.Task;
@@ -201,6 +202,26 @@ public interface Variables
 	 */
 	<R extends Resource> R getResource(String variableName);
 
+	/**
+	 * Sets execution variable with the given <b>variableName</b> to a reference of a FHIR {@link Resource} stored on a
+	 * DSF FHIR server. Only the reference is stored in the process instance, the resource is read on first access via
+	 * {@link #getResource(String)} and cached until the current BPMN activity completes. Use instead of
+	 * {@link #setResource(String, Resource)} for large resources like Bundles or Binaries that do not change.
+	 *
+	 * @param variableName
+	 *            not <code>null</code>
+	 * @param reference
+	 *            absolute and versioned, e.g. <code>https://foo.bar/fhir/Binary/[id]/_history/[version]</code>, may be
+	 *            <code>null</code>
+	 * @param resourceType
+	 *            not <code>null</code> if <b>reference</b> is not <code>null</code>
+	 * @throws IllegalArgumentException
+	 *             if the given <b>reference</b> is not absolute or not versioned
+	 * @see IdType#withServerBase(String, String)
+	 */
+	void setResourceReference(String variableName, IdType reference, Class<? extends Resource> resourceType)
+			throws IllegalArgumentException;
+
 	/**
 	 * Returns the {@link Task} associated with the message start event of the process.
 	 *
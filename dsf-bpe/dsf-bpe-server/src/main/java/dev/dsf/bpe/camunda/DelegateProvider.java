@@ -23,6 +23,23 @@ public interface DelegateProvider extends ProcessPluginConsumer
 	 */
 	ApplicationContext getApplicationContext(ProcessIdAndVersion processIdAndVersion);
 
+	/**
+	 * Loads the delegate class via {@link #getClassLoader(ProcessIdAndVersion)} and returns a bean of this class from
+	 * {@link #getApplicationContext(ProcessIdAndVersion)}. The resolved class and bean name are cached until process
+	 * plugins are set again, see {@link #setProcessPlugins(java.util.List)}.
+	 *
+	 * @param processIdAndVersion
+	 *            not <code>null</code>
+	 * @param className
+	 *            not <code>null</code>
+	 * @return a new instance for prototype scoped beans
+	 * @throws ClassNotFoundException
+	 *             if the class can not be loaded
+	 * @throws org.springframework.beans.BeansException
+	 *             if the bean could not be created
+	 */
+	Object getDelegate(ProcessIdAndVersion processIdAndVersion, String className) throws ClassNotFoundException;
+
 	/**
 	 * @param processPluginApiVersion
 	 *            not <code>null</code>
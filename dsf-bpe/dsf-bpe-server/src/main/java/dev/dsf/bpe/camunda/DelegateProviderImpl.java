@@ -4,6 +4,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.camunda.bpm.engine.delegate.TaskListener;
@@ -41,6 +44,7 @@ public class DelegateProviderImpl implements DelegateProvider, ProcessPluginCons
 	private final ApplicationContext defaultApplicationContext;
 
 	private final Map<ProcessIdAndVersion, ProcessPlugin<?, ?>> processPluginsByIdAndVersion = new HashMap<>();
+	private final ConcurrentMap<ProcessIdAndVersion, ConcurrentMap<String, Supplier<Object>>> delegateFactories = new ConcurrentHashMap<>();
 
 	public DelegateProviderImpl(ClassLoader mainClassLoader, ApplicationContext mainApplicationContext)
 	{
@@ -58,6 +62,8 @@ public class DelegateProviderImpl implements DelegateProvider, ProcessPluginCons
 	@Override
 	public void setProcessPlugins(List<ProcessPlugin<?, ?>> plugins)
 	{
+		delegateFactories.clear();
+
 		processPluginsByIdAndVersion.putAll(plugins.stream()
 				.flatMap(plugin -> plugin.getProcessKeysAndVersions().stream()
 						.map(idAndVersion -> new ProcessByIdAndVersion(idAndVersion, plugin)))
@@ -93,6 +99,43 @@ public class DelegateProviderImpl implements DelegateProvider, ProcessPluginCons
 			return plugin.getApplicationContext();
 	}
 
+	@Override
+	public Object getDelegate(ProcessIdAndVersion processIdAndVersion, String className) throws ClassNotFoundException
+	{
+		Objects.requireNonNull(processIdAndVersion, "processIdAndVersion");
+		Objects.requireNonNull(className, "className");
+
+		ConcurrentMap<String, Supplier<Object>> factories = delegateFactories.computeIfAbsent(processIdAndVersion,
+				k -> new ConcurrentHashMap<>());
+
+		Supplier<Object> factory = factories.get(className);
+		if (factory == null)
+		{
+			factory = createDelegateFactory(processIdAndVersion, className);
+			factories.putIfAbsent(className, factory);
+		}
+
+		return factory.get();
+	}
+
+	private Supplier<Object> createDelegateFactory(ProcessIdAndVersion processIdAndVersion, String className)
+			throws ClassNotFoundException
+	{
+		Class<?> delegateClass = getClassLoader(processIdAndVersion).loadClass(className);
+		ApplicationContext applicationContext = getApplicationContext(processIdAndVersion);
+
+		String[] beanNames = applicationContext.getBeanNamesForType(delegateClass);
+
+		// bean lookup by name skips the by type resolution, prototype scoped beans are still created on every call
+		if (beanNames.length == 1)
+		{
+			String beanName = beanNames[0];
+			return () -> applicationContext.getBean(beanName, delegateClass);
+		}
+		else
+			return () -> applicationContext.getBean(delegateClass);
+	}
+
 	@Override
 	public Class<? extends TaskListener> getDefaultUserTaskListenerClass(String processPluginApiVersion)
 	{
@@ -0,0 +1,123 @@
+package dev.dsf.bpe.camunda;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.camunda.bpm.engine.impl.ProcessEngineImpl;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
+import org.eclipse.jetty.util.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import dev.dsf.bpe.concurrent.LimitedExecutorService;
+
+/**
+ * Job executor starting a new thread for every batch of acquired jobs, the number of concurrently executed batches is
+ * limited by a semaphore. Jobs acquired while all permits are taken are handed to the configured rejected jobs handler,
+ * the acquisition thread backs off as with a full thread pool queue.
+ *
+ * @see VirtualThreads
+ */
+public class LimitedConcurrencyJobExecutor extends JobExecutor
+{
+	private static final Logger logger = LoggerFactory.getLogger(LimitedConcurrencyJobExecutor.class);
+
+	private final Executor threadPerTaskExecutor;
+	private final int maxConcurrentJobs;
+
+	private LimitedExecutorService executor;
+
+	/**
+	 * Creates a job executor using virtual threads.
+	 *
+	 * @param maxConcurrentJobs
+	 *            <code>&gt; 0</code>
+	 * @throws UnsupportedOperationException
+	 *             if virtual threads are not supported by the JVM
+	 */
+	public LimitedConcurrencyJobExecutor(int maxConcurrentJobs)
+	{
+		this(virtualThreadsExecutor(), maxConcurrentJobs);
+	}
+
+	/**
+	 * @param threadPerTaskExecutor
+	 *            not <code>null</code>, not shut down by this job executor
+	 * @param maxConcurrentJobs
+	 *            <code>&gt; 0</code>
+	 */
+	public LimitedConcurrencyJobExecutor(Executor threadPerTaskExecutor, int maxConcurrentJobs)
+	{
+		if (maxConcurrentJobs <= 0)
+			throw new IllegalArgumentException("maxConcurrentJobs <= 0");
+
+		this.threadPerTaskExecutor = Objects.requireNonNull(threadPerTaskExecutor, "threadPerTaskExecutor");
+		this.maxConcurrentJobs = maxConcurrentJobs;
+	}
+
+	private static Executor virtualThreadsExecutor()
+	{
+		if (!VirtualThreads.areSupported())
+			throw new UnsupportedOperationException("Virtual threads not supported, Java 21 or later required");
+
+		return VirtualThreads.getDefaultVirtualThreadsExecutor();
+	}
+
+	@Override
+	protected void startExecutingJobs()
+	{
+		if (executor == null)
+			executor = new LimitedExecutorService(threadPerTaskExecutor, maxConcurrentJobs);
+
+		startJobAcquisitionThread();
+	}
+
+	@Override
+	protected void stopExecutingJobs()
+	{
+		stopJobAcquisitionThread();
+
+		executor.shutdown();
+		try
+		{
+			if (!executor.awaitTermination(60, TimeUnit.SECONDS))
+				logger.warn("Timeout during shutdown of job executor, {} jobs still running",
+						maxConcurrentJobs - executor.getAvailablePermits());
+		}
+		catch (InterruptedException e)
+		{
+			logger.warn("Interrupted while shutting down job executor", e);
+			Thread.currentThread().interrupt();
+		}
+
+		executor = null;
+	}
+
+	@Override
+	public void executeJobs(List<String> jobIds, ProcessEngineImpl processEngine)
+	{
+		boolean executed;
+		try
+		{
+			executed = executor.tryExecute(getExecuteJobsRunnable(jobIds, processEngine));
+		}
+		catch (RejectedExecutionException e)
+		{
+			executed = false;
+		}
+
+		if (!executed)
+		{
+			logRejectedExecution(processEngine, jobIds.size());
+			rejectedJobsHandler.jobsRejected(jobIds, processEngine, this);
+		}
+	}
+
+	public int getMaxConcurrentJobs()
+	{
+		return maxConcurrentJobs;
+	}
+}
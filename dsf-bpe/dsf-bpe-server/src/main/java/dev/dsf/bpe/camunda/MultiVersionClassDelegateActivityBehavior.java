@@ -56,8 +56,7 @@ public class MultiVersionClassDelegateActivityBehavior extends ClassDelegateActi
 	{
 		try
 		{
-			Class<?> clazz = delegateProvider.getClassLoader(processKeyAndVersion).loadClass(className);
-			Object bean = delegateProvider.getApplicationContext(processKeyAndVersion).getBean(clazz);
+			Object bean = delegateProvider.getDelegate(processKeyAndVersion, className);
 
 			ClassDelegateUtil.applyFieldDeclaration(fieldDeclarations, bean);
 			return bean;
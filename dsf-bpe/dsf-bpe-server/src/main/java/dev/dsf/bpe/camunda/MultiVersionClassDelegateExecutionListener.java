@@ -70,8 +70,7 @@ public class MultiVersionClassDelegateExecutionListener extends ClassDelegateExe
 	{
 		try
 		{
-			Class<?> clazz = delegateProvider.getClassLoader(processKeyAndVersion).loadClass(className);
-			Object bean = delegateProvider.getApplicationContext(processKeyAndVersion).getBean(clazz);
+			Object bean = delegateProvider.getDelegate(processKeyAndVersion, className);
 
 			ClassDelegateUtil.applyFieldDeclaration(fieldDeclarations, bean);
 			return bean;
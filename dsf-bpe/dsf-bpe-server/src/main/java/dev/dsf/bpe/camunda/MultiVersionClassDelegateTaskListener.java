@@ -69,8 +69,7 @@ public class MultiVersionClassDelegateTaskListener extends ClassDelegateTaskList
 	{
 		try
 		{
-			Class<?> clazz = delegateProvider.getClassLoader(processKeyAndVersion).loadClass(className);
-			Object bean = delegateProvider.getApplicationContext(processKeyAndVersion).getBean(clazz);
+			Object bean = delegateProvider.getDelegate(processKeyAndVersion, className);
 
 			ClassDelegateUtil.applyFieldDeclaration(fieldDeclarations, bean);
 			return bean;
@@ -12,6 +12,7 @@ import org.springframework.beans.factory.InitializingBean;
 
 import ca.uhn.fhir.context.FhirContext;
 import dev.dsf.common.config.ProxyConfig;
+import dev.dsf.fhir.client.ClientConnectionPool;
 import dev.dsf.fhir.client.FhirWebserviceClient;
 import dev.dsf.fhir.client.FhirWebserviceClientJersey;
 import dev.dsf.fhir.client.WebsocketClient;
@@ -35,9 +36,7 @@ public class FhirClientProviderImpl implements FhirClientProvider, InitializingB
 	private final int localWebserviceConnectTimeout;
 	private final boolean localWebserviceLogRequests;
 
-	private final KeyStore webserviceTrustStore;
-	private final KeyStore webserviceKeyStore;
-	private final char[] webserviceKeyStorePassword;
+	private final ClientConnectionPool webserviceConnectionPool;
 
 	private final int remoteWebserviceReadTimeout;
 	private final int remoteWebserviceConnectTimeout;
@@ -47,17 +46,21 @@ public class FhirClientProviderImpl implements FhirClientProvider, InitializingB
 	private final KeyStore localWebsocketTrustStore;
 	private final KeyStore localWebsocketKeyStore;
 	private final char[] localWebsocketKeyStorePassword;
+	private final long localWebsocketReconnectDelayInitialMillis;
+	private final long localWebsocketReconnectDelayMaxMillis;
+	private final long localWebsocketMaxIdleTimeoutMillis;
 
 	private final ProxyConfig proxyConfig;
 	private final BuildInfoReader buildInfoReader;
 
 	public FhirClientProviderImpl(FhirContext fhirContext, ReferenceCleaner referenceCleaner,
 			String localWebserviceBaseUrl, int localWebserviceReadTimeout, int localWebserviceConnectTimeout,
-			boolean localWebserviceLogRequests, KeyStore webserviceTrustStore, KeyStore webserviceKeyStore,
-			char[] webserviceKeyStorePassword, int remoteWebserviceReadTimeout, int remoteWebserviceConnectTimeout,
-			boolean remoteWebserviceLogRequests, String localWebsocketUrl, KeyStore localWebsocketTrustStore,
-			KeyStore localWebsocketKeyStore, char[] localWebsocketKeyStorePassword, ProxyConfig proxyConfig,
-			BuildInfoReader buildInfoReader)
+			boolean localWebserviceLogRequests, ClientConnectionPool webserviceConnectionPool,
+			int remoteWebserviceReadTimeout, int remoteWebserviceConnectTimeout, boolean remoteWebserviceLogRequests,
+			String localWebsocketUrl, KeyStore localWebsocketTrustStore, KeyStore localWebsocketKeyStore,
+			char[] localWebsocketKeyStorePassword, long localWebsocketReconnectDelayInitialMillis,
+			long localWebsocketReconnectDelayMaxMillis, long localWebsocketMaxIdleTimeoutMillis,
+			ProxyConfig proxyConfig, BuildInfoReader buildInfoReader)
 	{
 		this.fhirContext = fhirContext;
 		this.referenceCleaner = referenceCleaner;
@@ -67,9 +70,7 @@ public class FhirClientProviderImpl implements FhirClientProvider, InitializingB
 		this.localWebserviceConnectTimeout = localWebserviceConnectTimeout;
 		this.localWebserviceLogRequests = localWebserviceLogRequests;
 
-		this.webserviceTrustStore = webserviceTrustStore;
-		this.webserviceKeyStore = webserviceKeyStore;
-		this.webserviceKeyStorePassword = webserviceKeyStorePassword;
+		this.webserviceConnectionPool = webserviceConnectionPool;
 
 		this.remoteWebserviceReadTimeout = remoteWebserviceReadTimeout;
 		this.remoteWebserviceConnectTimeout = remoteWebserviceConnectTimeout;
@@ -79,6 +80,9 @@ public class FhirClientProviderImpl implements FhirClientProvider, InitializingB
 		this.localWebsocketTrustStore = localWebsocketTrustStore;
 		this.localWebsocketKeyStore = localWebsocketKeyStore;
 		this.localWebsocketKeyStorePassword = localWebsocketKeyStorePassword;
+		this.localWebsocketReconnectDelayInitialMillis = localWebsocketReconnectDelayInitialMillis;
+		this.localWebsocketReconnectDelayMaxMillis = localWebsocketReconnectDelayMaxMillis;
+		this.localWebsocketMaxIdleTimeoutMillis = localWebsocketMaxIdleTimeoutMillis;
 
 		this.proxyConfig = proxyConfig;
 		this.buildInfoReader = buildInfoReader;
@@ -93,9 +97,7 @@ public class FhirClientProviderImpl implements FhirClientProvider, InitializingB
 			throw new IllegalArgumentException("localReadTimeout < 0");
 		if (localWebserviceConnectTimeout < 0)
 			throw new IllegalArgumentException("localConnectTimeout < 0");
-		Objects.requireNonNull(webserviceTrustStore, "webserviceTrustStore");
-		Objects.requireNonNull(webserviceKeyStore, "webserviceKeyStore");
-		Objects.requireNonNull(webserviceKeyStorePassword, "webserviceKeyStorePassword");
+		Objects.requireNonNull(webserviceConnectionPool, "webserviceConnectionPool");
 		if (remoteWebserviceReadTimeout < 0)
 			throw new IllegalArgumentException("remoteReadTimeout < 0");
 		if (remoteWebserviceConnectTimeout < 0)
@@ -104,6 +106,11 @@ public class FhirClientProviderImpl implements FhirClientProvider, InitializingB
 		Objects.requireNonNull(localWebsocketTrustStore, "localWebsocketTrustStore");
 		Objects.requireNonNull(localWebsocketKeyStore, "localWebsocketKeyStore");
 		Objects.requireNonNull(localWebsocketKeyStorePassword, "localWebsocketKeyStorePassword");
+		if (localWebsocketReconnectDelayInitialMillis <= 0)
+			throw new IllegalArgumentException("localWebsocketReconnectDelayInitialMillis <= 0");
+		if (localWebsocketReconnectDelayMaxMillis < localWebsocketReconnectDelayInitialMillis)
+			throw new IllegalArgumentException(
+					"localWebsocketReconnectDelayMaxMillis < localWebsocketReconnectDelayInitialMillis");
 
 		Objects.requireNonNull(proxyConfig, "proxyConfig");
 		Objects.requireNonNull(buildInfoReader, "buildInfoReader");
@@ -128,15 +135,15 @@ public class FhirClientProviderImpl implements FhirClientProvider, InitializingB
 
 				FhirWebserviceClient client;
 				if (localWebserviceBaseUrl.equals(webserviceUrl))
-					client = new FhirWebserviceClientJersey(webserviceUrl, webserviceTrustStore, webserviceKeyStore,
-							webserviceKeyStorePassword, null, proxyUrl, proxyUsername, proxyPassword,
-							localWebserviceConnectTimeout, localWebserviceReadTimeout, localWebserviceLogRequests,
-							USER_AGENT_VALUE + buildInfoReader.getProjectVersion(), fhirContext, referenceCleaner);
+					client = new FhirWebserviceClientJersey(webserviceUrl, webserviceConnectionPool, null, proxyUrl,
+							proxyUsername, proxyPassword, localWebserviceConnectTimeout, localWebserviceReadTimeout,
+							localWebserviceLogRequests, USER_AGENT_VALUE + buildInfoReader.getProjectVersion(),
+							fhirContext, referenceCleaner);
 				else
-					client = new FhirWebserviceClientJersey(webserviceUrl, webserviceTrustStore, webserviceKeyStore,
-							webserviceKeyStorePassword, null, proxyUrl, proxyUsername, proxyPassword,
-							remoteWebserviceConnectTimeout, remoteWebserviceReadTimeout, remoteWebserviceLogRequests,
-							USER_AGENT_VALUE + buildInfoReader.getProjectVersion(), fhirContext, referenceCleaner);
+					client = new FhirWebserviceClientJersey(webserviceUrl, webserviceConnectionPool, null, proxyUrl,
+							proxyUsername, proxyPassword, remoteWebserviceConnectTimeout, remoteWebserviceReadTimeout,
+							remoteWebserviceLogRequests, USER_AGENT_VALUE + buildInfoReader.getProjectVersion(),
+							fhirContext, referenceCleaner);
 
 				webserviceClientsByUrl.put(webserviceUrl, client);
 				return client;
@@ -186,7 +193,9 @@ public class FhirClientProviderImpl implements FhirClientProvider, InitializingB
 				proxyConfig.isEnabled(localWebsocketUrl) ? proxyConfig.getUrl() : null,
 				proxyConfig.isEnabled(localWebsocketUrl) ? proxyConfig.getUsername() : null,
 				proxyConfig.isEnabled(localWebsocketUrl) ? proxyConfig.getPassword() : null,
-				USER_AGENT_VALUE + buildInfoReader.getProjectVersion(), subscriptionId);
+				USER_AGENT_VALUE + buildInfoReader.getProjectVersion(), subscriptionId,
+				localWebsocketReconnectDelayInitialMillis, localWebsocketReconnectDelayMaxMillis,
+				localWebsocketMaxIdleTimeoutMillis);
 	}
 
 	@Override
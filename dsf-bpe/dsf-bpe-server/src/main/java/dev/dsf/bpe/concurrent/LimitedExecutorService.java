@@ -0,0 +1,259 @@
+package dev.dsf.bpe.concurrent;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the number of concurrently running tasks of a thread-per-task {@link Executor} with a {@link Semaphore}
+ * instead of a fixed number of threads. Tasks submitted via {@link #execute(Runnable)} wait for a permit on their own
+ * thread, intended for virtual threads where waiting threads are cheap. {@link #tryExecute(Runnable)} does not start a
+ * thread if no permit is available.
+ * <p>
+ * The delegate may be shared, e.g. {@link org.eclipse.jetty.util.VirtualThreads#getDefaultVirtualThreadsExecutor()},
+ * shutting down this executor service only affects tasks submitted via this instance, the delegate is not shut down.
+ */
+public class LimitedExecutorService extends AbstractExecutorService
+{
+	private final Executor delegate;
+	private final Semaphore semaphore;
+
+	private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition terminated = lock.newCondition();
+
+	private int tasks;
+	private boolean shutdown;
+	private volatile boolean stopped;
+
+	/**
+	 * @param delegate
+	 *            not <code>null</code>, thread-per-task executor
+	 * @param maxConcurrentTasks
+	 *            <code>&gt; 0</code>
+	 */
+	public LimitedExecutorService(Executor delegate, int maxConcurrentTasks)
+	{
+		if (maxConcurrentTasks <= 0)
+			throw new IllegalArgumentException("maxConcurrentTasks <= 0");
+
+		this.delegate = Objects.requireNonNull(delegate, "delegate");
+		this.semaphore = new Semaphore(maxConcurrentTasks, true);
+	}
+
+	@Override
+	public void execute(Runnable command)
+	{
+		Objects.requireNonNull(command, "command");
+
+		submit();
+		try
+		{
+			delegate.execute(() -> run(command, true));
+		}
+		catch (RuntimeException e)
+		{
+			finish();
+			throw e;
+		}
+	}
+
+	/**
+	 * @param command
+	 *            not <code>null</code>
+	 * @return <code>false</code> if the maximum number of concurrent tasks is reached, the command was not executed
+	 * @throws RejectedExecutionException
+	 *             if this executor service was shut down
+	 */
+	public boolean tryExecute(Runnable command)
+	{
+		Objects.requireNonNull(command, "command");
+
+		if (!semaphore.tryAcquire())
+			return false;
+
+		try
+		{
+			submit();
+		}
+		catch (RejectedExecutionException e)
+		{
+			semaphore.release();
+			throw e;
+		}
+
+		try
+		{
+			delegate.execute(() -> run(command, false));
+			return true;
+		}
+		catch (RuntimeException e)
+		{
+			semaphore.release();
+			finish();
+			throw e;
+		}
+	}
+
+	private void run(Runnable command, boolean acquire)
+	{
+		Thread thread = Thread.currentThread();
+		threads.add(thread);
+
+		try
+		{
+			if (acquire)
+				semaphore.acquire();
+
+			try
+			{
+				if (!stopped)
+					command.run();
+			}
+			finally
+			{
+				semaphore.release();
+			}
+		}
+		catch (InterruptedException e)
+		{
+			thread.interrupt();
+		}
+		finally
+		{
+			threads.remove(thread);
+			finish();
+		}
+	}
+
+	private void submit()
+	{
+		lock.lock();
+		try
+		{
+			if (shutdown)
+				throw new RejectedExecutionException("Executor service shut down");
+
+			tasks++;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	private void finish()
+	{
+		lock.lock();
+		try
+		{
+			if (--tasks == 0 && shutdown)
+				terminated.signalAll();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * @return number of tasks that can be started without waiting
+	 */
+	public int getAvailablePermits()
+	{
+		return semaphore.availablePermits();
+	}
+
+	@Override
+	public void shutdown()
+	{
+		lock.lock();
+		try
+		{
+			shutdown = true;
+
+			if (tasks == 0)
+				terminated.signalAll();
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Interrupts running tasks, tasks not yet started are not executed.
+	 *
+	 * @return empty list, tasks are handed to the delegate immediately
+	 */
+	@Override
+	public List<Runnable> shutdownNow()
+	{
+		stopped = true;
+		shutdown();
+
+		threads.forEach(Thread::interrupt);
+
+		return List.of();
+	}
+
+	@Override
+	public boolean isShutdown()
+	{
+		lock.lock();
+		try
+		{
+			return shutdown;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean isTerminated()
+	{
+		lock.lock();
+		try
+		{
+			return shutdown && tasks == 0;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException
+	{
+		long nanos = unit.toNanos(timeout);
+
+		lock.lock();
+		try
+		{
+			while (!shutdown || tasks > 0)
+			{
+				if (nanos <= 0)
+					return false;
+
+				nanos = terminated.awaitNanos(nanos);
+			}
+
+			return true;
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+}
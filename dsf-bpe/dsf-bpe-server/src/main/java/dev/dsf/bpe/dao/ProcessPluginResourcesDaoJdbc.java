@@ -37,7 +37,7 @@ public class ProcessPluginResourcesDaoJdbc extends AbstractDaoJdbc implements Pr
 	{
 		try (Connection connection = dataSource.getConnection();
 				PreparedStatement statement = connection.prepareStatement(
-						"SELECT process_key_and_version, resource_type, resource_id, url, version, name, identifier FROM process_plugin_resources ORDER BY process_key_and_version"))
+						"SELECT process_key_and_version, resource_type, resource_id, url, version, name, identifier, content_hash FROM process_plugin_resources ORDER BY process_key_and_version"))
 		{
 			logger.trace("Executing query '{}'", statement);
 			try (ResultSet result = statement.executeQuery())
@@ -64,10 +64,11 @@ public class ProcessPluginResourcesDaoJdbc extends AbstractDaoJdbc implements Pr
 					String version = result.getString(5);
 					String name = result.getString(6);
 					String identifier = result.getString(7);
+					String contentHash = result.getString(8);
 
 					ResourceInfo resourceInfo = new ResourceInfo(
 							resourceTypeString == null ? null : ResourceType.valueOf(resourceTypeString), url, version,
-							name, identifier).setResourceId(resourceId);
+							name, identifier).setResourceId(resourceId).setContentHash(contentHash);
 					processKeyAndVersionResources.add(resourceInfo);
 				}
 
@@ -102,9 +103,10 @@ public class ProcessPluginResourcesDaoJdbc extends AbstractDaoJdbc implements Pr
 					if (!ResourceType.NamingSystem.equals(resourceType) && !ResourceType.Task.equals(resourceType))
 					{
 						try (PreparedStatement statement = connection.prepareStatement(
-								"INSERT INTO process_plugin_resources (process_key_and_version, resource_type, resource_id, url, version) VALUES (?, ?, ?, ?, ?) "
+								"INSERT INTO process_plugin_resources (process_key_and_version, resource_type, resource_id, url, version, content_hash) VALUES (?, ?, ?, ?, ?, ?) "
 										+ "ON CONFLICT (process_key_and_version, resource_type, url, version) "
-										+ "WHERE resource_type <> 'NamingSystem'" + " DO UPDATE SET resource_id = ?"))
+										+ "WHERE resource_type <> 'NamingSystem'"
+										+ " DO UPDATE SET resource_id = ?, content_hash = ?"))
 						{
 							ResourceInfo resourceInfo = resource.getResourceInfo();
 
@@ -113,8 +115,10 @@ public class ProcessPluginResourcesDaoJdbc extends AbstractDaoJdbc implements Pr
 							statement.setObject(3, uuidToPgObject(resourceInfo.getResourceId()));
 							statement.setString(4, resourceInfo.getUrl());
 							statement.setString(5, resourceInfo.getVersion());
+							statement.setString(6, resourceInfo.getContentHash());
 
-							statement.setObject(6, uuidToPgObject(resourceInfo.getResourceId()));
+							statement.setObject(7, uuidToPgObject(resourceInfo.getResourceId()));
+							statement.setString(8, resourceInfo.getContentHash());
 
 							statement.addBatch();
 							logger.trace("Executing query '{}'", statement);
@@ -131,9 +135,10 @@ public class ProcessPluginResourcesDaoJdbc extends AbstractDaoJdbc implements Pr
 					{
 						// NamingSystem resources
 						try (PreparedStatement statement = connection.prepareStatement(
-								"INSERT INTO process_plugin_resources (process_key_and_version, resource_type, resource_id, name) VALUES (?, 'NamingSystem', ?, ?) "
+								"INSERT INTO process_plugin_resources (process_key_and_version, resource_type, resource_id, name, content_hash) VALUES (?, 'NamingSystem', ?, ?, ?) "
 										+ "ON CONFLICT (process_key_and_version, resource_type, name) "
-										+ "WHERE resource_type = 'NamingSystem'" + " DO UPDATE SET resource_id = ?"))
+										+ "WHERE resource_type = 'NamingSystem'"
+										+ " DO UPDATE SET resource_id = ?, content_hash = ?"))
 						{
 
 							ResourceInfo resourceInfo = resource.getResourceInfo();
@@ -141,8 +146,10 @@ public class ProcessPluginResourcesDaoJdbc extends AbstractDaoJdbc implements Pr
 							statement.setString(1, process.toString());
 							statement.setObject(2, uuidToPgObject(resourceInfo.getResourceId()));
 							statement.setString(3, resourceInfo.getName());
+							statement.setString(4, resourceInfo.getContentHash());
 
-							statement.setObject(4, uuidToPgObject(resourceInfo.getResourceId()));
+							statement.setObject(5, uuidToPgObject(resourceInfo.getResourceId()));
+							statement.setString(6, resourceInfo.getContentHash());
 
 							statement.addBatch();
 							logger.trace("Executing query '{}'", statement);
@@ -159,9 +166,10 @@ public class ProcessPluginResourcesDaoJdbc extends AbstractDaoJdbc implements Pr
 					{
 						// Task resources
 						try (PreparedStatement statement = connection.prepareStatement(
-								"INSERT INTO process_plugin_resources (process_key_and_version, resource_type, resource_id, identifier) VALUES (?, 'Task', ?, ?) "
+								"INSERT INTO process_plugin_resources (process_key_and_version, resource_type, resource_id, identifier, content_hash) VALUES (?, 'Task', ?, ?, ?) "
 										+ "ON CONFLICT (process_key_and_version, resource_type, identifier) "
-										+ "WHERE resource_type = 'Task'" + " DO UPDATE SET resource_id = ?"))
+										+ "WHERE resource_type = 'Task'"
+										+ " DO UPDATE SET resource_id = ?, content_hash = ?"))
 						{
 
 							ResourceInfo resourceInfo = resource.getResourceInfo();
@@ -169,8 +177,10 @@ public class ProcessPluginResourcesDaoJdbc extends AbstractDaoJdbc implements Pr
 							statement.setString(1, process.toString());
 							statement.setObject(2, uuidToPgObject(resourceInfo.getResourceId()));
 							statement.setString(3, resourceInfo.getIdentifier());
+							statement.setString(4, resourceInfo.getContentHash());
 
-							statement.setObject(4, uuidToPgObject(resourceInfo.getResourceId()));
+							statement.setObject(5, uuidToPgObject(resourceInfo.getResourceId()));
+							statement.setString(6, resourceInfo.getContentHash());
 
 							statement.addBatch();
 							logger.trace("Executing query '{}'", statement);
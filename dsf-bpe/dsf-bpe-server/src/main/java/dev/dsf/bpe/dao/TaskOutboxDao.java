@@ -0,0 +1,76 @@
+package dev.dsf.bpe.dao;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface TaskOutboxDao
+{
+	/**
+	 * Inserts a new pending entry within the current process engine transaction.
+	 *
+	 * @param entry
+	 *            not <code>null</code>
+	 * @throws SQLException
+	 */
+	void create(TaskOutboxEntry entry) throws SQLException;
+
+	/**
+	 * @param now
+	 *            not <code>null</code>
+	 * @param limit
+	 *            <code>&gt; 0</code>
+	 * @return pending entries with next attempt not after <b>now</b>, ordered by next attempt
+	 * @throws SQLException
+	 */
+	List<TaskOutboxEntry> readDue(LocalDateTime now, int limit) throws SQLException;
+
+	/**
+	 * Claims a pending entry for delivery by moving its next attempt to <b>leaseUntil</b>. Entries not deleted or
+	 * updated until <b>leaseUntil</b>, e.g. because the BPE was stopped during delivery, become due again.
+	 *
+	 * @param outboxId
+	 *            not <code>null</code>
+	 * @param now
+	 *            not <code>null</code>
+	 * @param leaseUntil
+	 *            not <code>null</code>
+	 * @return <code>true</code> if the entry was pending and due
+	 * @throws SQLException
+	 */
+	boolean claim(UUID outboxId, LocalDateTime now, LocalDateTime leaseUntil) throws SQLException;
+
+	/**
+	 * @param outboxId
+	 *            not <code>null</code>
+	 * @throws SQLException
+	 */
+	void delete(UUID outboxId) throws SQLException;
+
+	/**
+	 * @param outboxId
+	 *            not <code>null</code>
+	 * @param attempts
+	 *            number of failed delivery attempts
+	 * @param nextAttempt
+	 *            not <code>null</code>
+	 * @param lastError
+	 *            may be <code>null</code>
+	 * @throws SQLException
+	 */
+	void updateRetry(UUID outboxId, int attempts, LocalDateTime nextAttempt, String lastError) throws SQLException;
+
+	/**
+	 * Marks the entry as failed, failed entries are not delivered again.
+	 *
+	 * @param outboxId
+	 *            not <code>null</code>
+	 * @param attempts
+	 *            number of failed delivery attempts
+	 * @param lastError
+	 *            may be <code>null</code>
+	 * @throws SQLException
+	 */
+	void updateFailed(UUID outboxId, int attempts, String lastError) throws SQLException;
+}
@@ -0,0 +1,189 @@
+package dev.dsf.bpe.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class TaskOutboxDaoJdbc extends AbstractDaoJdbc implements TaskOutboxDao
+{
+	private static final Logger logger = LoggerFactory.getLogger(TaskOutboxDaoJdbc.class);
+
+	private static final String STATUS_PENDING = "PENDING";
+	private static final String STATUS_FAILED = "FAILED";
+
+	private final DataSource engineTransactionDataSource;
+
+	/**
+	 * @param dataSource
+	 *            not <code>null</code>
+	 * @param engineTransactionDataSource
+	 *            not <code>null</code>, returning the connection of the current process engine transaction
+	 */
+	public TaskOutboxDaoJdbc(BasicDataSource dataSource, DataSource engineTransactionDataSource)
+	{
+		super(dataSource);
+
+		this.engineTransactionDataSource = engineTransactionDataSource;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception
+	{
+		super.afterPropertiesSet();
+
+		Objects.requireNonNull(engineTransactionDataSource, "engineTransactionDataSource");
+	}
+
+	@Override
+	public void create(TaskOutboxEntry entry) throws SQLException
+	{
+		Objects.requireNonNull(entry, "entry");
+
+		// connection bound to the process engine transaction, close does not commit
+		try (Connection connection = engineTransactionDataSource.getConnection();
+				PreparedStatement statement = connection.prepareStatement(
+						"INSERT INTO task_outbox (outbox_id, created, endpoint_url, task, process_instance_id, business_key, status, attempts, next_attempt) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"))
+		{
+			Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+			statement.setObject(1, entry.getOutboxId());
+			statement.setTimestamp(2, now);
+			statement.setString(3, entry.getEndpointUrl());
+			statement.setString(4, entry.getTask());
+			statement.setString(5, entry.getProcessInstanceId());
+			statement.setString(6, entry.getBusinessKey());
+			statement.setString(7, STATUS_PENDING);
+			statement.setInt(8, entry.getAttempts());
+			statement.setTimestamp(9, now);
+
+			logger.trace("Executing query '{}'", statement);
+			statement.execute();
+		}
+	}
+
+	@Override
+	public List<TaskOutboxEntry> readDue(LocalDateTime now, int limit) throws SQLException
+	{
+		Objects.requireNonNull(now, "now");
+		if (limit <= 0)
+			throw new IllegalArgumentException("limit <= 0");
+
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement statement = connection.prepareStatement(
+						"SELECT outbox_id, endpoint_url, task, process_instance_id, business_key, attempts FROM task_outbox WHERE status = ? AND next_attempt <= ? ORDER BY next_attempt LIMIT ?"))
+		{
+			statement.setString(1, STATUS_PENDING);
+			statement.setTimestamp(2, Timestamp.valueOf(now));
+			statement.setInt(3, limit);
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				List<TaskOutboxEntry> entries = new ArrayList<>();
+				while (result.next())
+					entries.add(new TaskOutboxEntry(result.getObject(1, UUID.class), result.getString(2),
+							result.getString(3), result.getString(4), result.getString(5), result.getInt(6)));
+
+				return entries;
+			}
+		}
+	}
+
+	@Override
+	public boolean claim(UUID outboxId, LocalDateTime now, LocalDateTime leaseUntil) throws SQLException
+	{
+		Objects.requireNonNull(outboxId, "outboxId");
+		Objects.requireNonNull(now, "now");
+		Objects.requireNonNull(leaseUntil, "leaseUntil");
+
+		try (Connection connection = dataSource.getConnection())
+		{
+			connection.setReadOnly(false);
+
+			try (PreparedStatement statement = connection.prepareStatement(
+					"UPDATE task_outbox SET next_attempt = ? WHERE outbox_id = ? AND status = ? AND next_attempt <= ?"))
+			{
+				statement.setTimestamp(1, Timestamp.valueOf(leaseUntil));
+				statement.setObject(2, outboxId);
+				statement.setString(3, STATUS_PENDING);
+				statement.setTimestamp(4, Timestamp.valueOf(now));
+
+				logger.trace("Executing query '{}'", statement);
+				return statement.executeUpdate() == 1;
+			}
+		}
+	}
+
+	@Override
+	public void delete(UUID outboxId) throws SQLException
+	{
+		Objects.requireNonNull(outboxId, "outboxId");
+
+		try (Connection connection = dataSource.getConnection())
+		{
+			connection.setReadOnly(false);
+
+			try (PreparedStatement statement = connection
+					.prepareStatement("DELETE FROM task_outbox WHERE outbox_id = ?"))
+			{
+				statement.setObject(1, outboxId);
+
+				logger.trace("Executing query '{}'", statement);
+				statement.execute();
+			}
+		}
+	}
+
+	@Override
+	public void updateRetry(UUID outboxId, int attempts, LocalDateTime nextAttempt, String lastError)
+			throws SQLException
+	{
+		Objects.requireNonNull(outboxId, "outboxId");
+		Objects.requireNonNull(nextAttempt, "nextAttempt");
+
+		update(outboxId, STATUS_PENDING, attempts, nextAttempt, lastError);
+	}
+
+	@Override
+	public void updateFailed(UUID outboxId, int attempts, String lastError) throws SQLException
+	{
+		Objects.requireNonNull(outboxId, "outboxId");
+
+		update(outboxId, STATUS_FAILED, attempts, LocalDateTime.now(), lastError);
+	}
+
+	private void update(UUID outboxId, String status, int attempts, LocalDateTime nextAttempt, String lastError)
+			throws SQLException
+	{
+		try (Connection connection = dataSource.getConnection())
+		{
+			connection.setReadOnly(false);
+
+			try (PreparedStatement statement = connection.prepareStatement(
+					"UPDATE task_outbox SET status = ?, attempts = ?, next_attempt = ?, last_error = ? WHERE outbox_id = ?"))
+			{
+				statement.setString(1, status);
+				statement.setInt(2, attempts);
+				statement.setTimestamp(3, Timestamp.valueOf(nextAttempt));
+				statement.setString(4, lastError);
+				statement.setObject(5, outboxId);
+
+				logger.trace("Executing query '{}'", statement);
+				statement.execute();
+			}
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package dev.dsf.bpe.dao;
+
+import java.util.Objects;
+import java.util.UUID;
+
+public class TaskOutboxEntry
+{
+	private final UUID outboxId;
+	private final String endpointUrl;
+	private final String task;
+	private final String processInstanceId;
+	private final String businessKey;
+	private final int attempts;
+
+	/**
+	 * @param outboxId
+	 *            not <code>null</code>
+	 * @param endpointUrl
+	 *            not <code>null</code>
+	 * @param task
+	 *            not <code>null</code>, JSON encoded Task resource
+	 * @param processInstanceId
+	 *            not <code>null</code>
+	 * @param businessKey
+	 *            may be <code>null</code>
+	 * @param attempts
+	 *            <code>&gt;= 0</code>, number of failed delivery attempts
+	 */
+	public TaskOutboxEntry(UUID outboxId, String endpointUrl, String task, String processInstanceId, String businessKey,
+			int attempts)
+	{
+		this.outboxId = Objects.requireNonNull(outboxId, "outboxId");
+		this.endpointUrl = Objects.requireNonNull(endpointUrl, "endpointUrl");
+		this.task = Objects.requireNonNull(task, "task");
+		this.processInstanceId = Objects.requireNonNull(processInstanceId, "processInstanceId");
+		this.businessKey = businessKey;
+		this.attempts = attempts;
+	}
+
+	public UUID getOutboxId()
+	{
+		return outboxId;
+	}
+
+	public String getEndpointUrl()
+	{
+		return endpointUrl;
+	}
+
+	public String getTask()
+	{
+		return task;
+	}
+
+	public String getProcessInstanceId()
+	{
+		return processInstanceId;
+	}
+
+	public String getBusinessKey()
+	{
+		return businessKey;
+	}
+
+	public int getAttempts()
+	{
+		return attempts;
+	}
+}
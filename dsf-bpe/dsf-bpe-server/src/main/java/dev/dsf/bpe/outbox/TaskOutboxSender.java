@@ -0,0 +1,402 @@
+package dev.dsf.bpe.outbox;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.ProcessEngineException;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.exception.NullValueException;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.DataFormatException;
+import dev.dsf.bpe.client.FhirClientProvider;
+import dev.dsf.bpe.dao.TaskOutboxDao;
+import dev.dsf.bpe.dao.TaskOutboxEntry;
+import dev.dsf.bpe.v1.service.TaskOutbox;
+import jakarta.ws.rs.WebApplicationException;
+
+/**
+ * Delivers Task resources stored by {@link TaskOutbox} implementations. Due entries are polled in a fixed interval or
+ * after {@link #wakeup()}, each entry is claimed before delivery with a lease of {@link #LEASE}, entries of a BPE
+ * stopped during delivery are send again after the lease expired.
+ * <p>
+ * Delivered Tasks are reported to the process instance via the variable
+ * {@link TaskOutbox#getDeliveredTaskVariableName(String)}. Failed deliveries are retried with exponential backoff,
+ * client errors other than 408 and 429 are not retried. Entries that can not be delivered are marked as failed and
+ * reported as process incidents of type {@value TaskOutbox#INCIDENT_TYPE_FAILED_TASK_DELIVERY}.
+ * <p>
+ * Entries are only deleted after the delivered Task was reported or the process instance no longer exists. If the
+ * variable can not be set, e.g. because of concurrent modifications of the process instance, the entry is not send
+ * again but kept as failed and reported as incident.
+ */
+public class TaskOutboxSender implements InitializingBean
+{
+	private static final Logger logger = LoggerFactory.getLogger(TaskOutboxSender.class);
+
+	static final Duration LEASE = Duration.ofMinutes(10);
+	static final int REPORT_ATTEMPTS = 3;
+	static final long REPORT_RETRY_DELAY_MILLIS = 100;
+
+	private final TaskOutboxDao dao;
+	private final FhirClientProvider clientProvider;
+	private final FhirContext fhirContext;
+	private final RuntimeService runtimeService;
+	private final int threads;
+	private final int endpointConcurrency;
+	private final int maxAttempts;
+	private final long initialRetryDelayMillis;
+	private final long maxRetryDelayMillis;
+	private final long pollIntervalMillis;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final ConcurrentMap<String, AtomicInteger> inFlightByEndpoint = new ConcurrentHashMap<>();
+
+	private ScheduledExecutorService pollExecutor;
+	private ExecutorService sendExecutor;
+
+	/**
+	 * @param dao
+	 *            not <code>null</code>
+	 * @param clientProvider
+	 *            not <code>null</code>
+	 * @param fhirContext
+	 *            not <code>null</code>
+	 * @param runtimeService
+	 *            not <code>null</code>
+	 * @param threads
+	 *            <code>&gt; 0</code>, maximum number of parallel deliveries
+	 * @param endpointConcurrency
+	 *            <code>&gt; 0</code>, maximum number of parallel deliveries per endpoint
+	 * @param maxAttempts
+	 *            <code>&gt; 0</code>
+	 * @param initialRetryDelayMillis
+	 *            <code>&gt; 0</code>, doubled with every failed attempt
+	 * @param maxRetryDelayMillis
+	 *            <code>&gt;= initialRetryDelayMillis</code>
+	 * @param pollIntervalMillis
+	 *            <code>&gt; 0</code>
+	 */
+	public TaskOutboxSender(TaskOutboxDao dao, FhirClientProvider clientProvider, FhirContext fhirContext,
+			RuntimeService runtimeService, int threads, int endpointConcurrency, int maxAttempts,
+			long initialRetryDelayMillis, long maxRetryDelayMillis, long pollIntervalMillis)
+	{
+		this.dao = dao;
+		this.clientProvider = clientProvider;
+		this.fhirContext = fhirContext;
+		this.runtimeService = runtimeService;
+		this.threads = threads;
+		this.endpointConcurrency = endpointConcurrency;
+		this.maxAttempts = maxAttempts;
+		this.initialRetryDelayMillis = initialRetryDelayMillis;
+		this.maxRetryDelayMillis = maxRetryDelayMillis;
+		this.pollIntervalMillis = pollIntervalMillis;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception
+	{
+		Objects.requireNonNull(dao, "dao");
+		Objects.requireNonNull(clientProvider, "clientProvider");
+		Objects.requireNonNull(fhirContext, "fhirContext");
+		Objects.requireNonNull(runtimeService, "runtimeService");
+
+		if (threads <= 0)
+			throw new IllegalArgumentException("threads <= 0");
+		if (endpointConcurrency <= 0)
+			throw new IllegalArgumentException("endpointConcurrency <= 0");
+		if (maxAttempts <= 0)
+			throw new IllegalArgumentException("maxAttempts <= 0");
+		if (initialRetryDelayMillis <= 0)
+			throw new IllegalArgumentException("initialRetryDelayMillis <= 0");
+		if (maxRetryDelayMillis < initialRetryDelayMillis)
+			throw new IllegalArgumentException("maxRetryDelayMillis < initialRetryDelayMillis");
+		if (pollIntervalMillis <= 0)
+			throw new IllegalArgumentException("pollIntervalMillis <= 0");
+	}
+
+	public synchronized void start()
+	{
+		if (pollExecutor != null)
+			return;
+
+		AtomicInteger threadCount = new AtomicInteger();
+		sendExecutor = Executors.newFixedThreadPool(threads,
+				r -> new Thread(r, "task-outbox-sender-" + threadCount.getAndIncrement()));
+		pollExecutor = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "task-outbox-poll"));
+		pollExecutor.scheduleWithFixedDelay(this::poll, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	public synchronized void stop()
+	{
+		if (pollExecutor == null)
+			return;
+
+		pollExecutor.shutdownNow();
+		sendExecutor.shutdown();
+
+		try
+		{
+			if (!sendExecutor.awaitTermination(30, TimeUnit.SECONDS))
+				sendExecutor.shutdownNow();
+		}
+		catch (InterruptedException e)
+		{
+			sendExecutor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+
+		pollExecutor = null;
+		sendExecutor = null;
+	}
+
+	/**
+	 * Triggers an immediate poll, e.g. after a transaction with new outbox entries committed. Does nothing if the
+	 * sender is not started.
+	 */
+	public synchronized void wakeup()
+	{
+		if (pollExecutor != null && !pollExecutor.isShutdown())
+			pollExecutor.execute(this::poll);
+	}
+
+	void poll()
+	{
+		try
+		{
+			int available = threads - inFlight.get();
+			if (available <= 0)
+				return;
+
+			LocalDateTime now = LocalDateTime.now();
+
+			// reading more entries than available threads, entries of saturated endpoints are skipped
+			List<TaskOutboxEntry> entries = dao.readDue(now, available * endpointConcurrency);
+			for (TaskOutboxEntry entry : entries)
+			{
+				if (inFlight.get() >= threads)
+					break;
+
+				AtomicInteger endpointInFlight = inFlightByEndpoint.computeIfAbsent(entry.getEndpointUrl(),
+						e -> new AtomicInteger());
+				if (endpointInFlight.get() >= endpointConcurrency)
+					continue;
+
+				if (!dao.claim(entry.getOutboxId(), now, now.plus(LEASE)))
+					continue;
+
+				inFlight.incrementAndGet();
+				endpointInFlight.incrementAndGet();
+
+				// not executed if stopped, entry send again after lease expired
+				if (!execute(() ->
+				{
+					try
+					{
+						deliver(entry);
+					}
+					finally
+					{
+						endpointInFlight.decrementAndGet();
+						inFlight.decrementAndGet();
+					}
+				}))
+				{
+					endpointInFlight.decrementAndGet();
+					inFlight.decrementAndGet();
+					return;
+				}
+			}
+		}
+		catch (SQLException e)
+		{
+			logger.warn("Unable to read task outbox from db: {} - {}", e.getClass().getName(), e.getMessage());
+		}
+		catch (Exception e)
+		{
+			logger.error("Error while polling task outbox", e);
+		}
+	}
+
+	private synchronized boolean execute(Runnable delivery)
+	{
+		if (sendExecutor == null || sendExecutor.isShutdown())
+			return false;
+
+		sendExecutor.execute(delivery);
+		return true;
+	}
+
+	void deliver(TaskOutboxEntry entry)
+	{
+		try
+		{
+			Task task = fhirContext.newJsonParser().parseResource(Task.class, entry.getTask());
+
+			IdType created = clientProvider.getWebserviceClient(entry.getEndpointUrl()).withMinimalReturn()
+					.create(task);
+
+			logger.info("Task {} send from outbox [task: {}, businessKey: {}]", task.getInstantiatesCanonical(),
+					created.toVersionless().getValue(), entry.getBusinessKey());
+
+			String taskUrl = created.toVersionless().getValue();
+			if (setDeliveredVariable(entry, taskUrl))
+				dao.delete(entry.getOutboxId());
+			else
+			{
+				// not send again, Task already created on the target
+				String error = "Task delivered as " + taskUrl + ", unable to report to process instance";
+				dao.updateFailed(entry.getOutboxId(), entry.getAttempts() + 1, error);
+				createIncident(entry, error);
+			}
+		}
+		catch (SQLException e)
+		{
+			logger.error(
+					"Unable to delete or update task outbox entry " + entry.getOutboxId() + ", Task may be send again",
+					e);
+		}
+		catch (Exception e)
+		{
+			handleError(entry, e);
+		}
+	}
+
+	private void handleError(TaskOutboxEntry entry, Exception exception)
+	{
+		int attempts = entry.getAttempts() + 1;
+		String error = exception.getClass().getName() + ": " + exception.getMessage();
+
+		try
+		{
+			if (attempts < maxAttempts && isRetryable(exception))
+			{
+				long delay = getRetryDelayMillis(attempts);
+
+				logger.warn("Unable to send Task from outbox to {} [businessKey: {}, attempt: {}], retry in {} ms: {}",
+						entry.getEndpointUrl(), entry.getBusinessKey(), attempts, delay, error);
+
+				dao.updateRetry(entry.getOutboxId(), attempts, LocalDateTime.now().plusNanos(delay * 1_000_000), error);
+			}
+			else
+			{
+				logger.error("Unable to send Task from outbox to {} [businessKey: {}, attempt: {}], giving up: {}",
+						entry.getEndpointUrl(), entry.getBusinessKey(), attempts, error);
+
+				dao.updateFailed(entry.getOutboxId(), attempts, error);
+				createIncident(entry, error);
+			}
+		}
+		catch (SQLException e)
+		{
+			logger.error("Unable to update task outbox entry " + entry.getOutboxId(), e);
+		}
+	}
+
+	long getRetryDelayMillis(int attempts)
+	{
+		// attempts limited to avoid overflow, 2^30 * initial delay larger than any sensible max delay
+		long delay = initialRetryDelayMillis << Math.min(attempts - 1, 30);
+		return delay <= 0 ? maxRetryDelayMillis : Math.min(delay, maxRetryDelayMillis);
+	}
+
+	static boolean isRetryable(Exception exception)
+	{
+		if (exception instanceof WebApplicationException w && w.getResponse() != null)
+		{
+			int status = w.getResponse().getStatus();
+			return status < 400 || status >= 500 || status == 408 || status == 429;
+		}
+
+		return !(exception instanceof DataFormatException);
+	}
+
+	/**
+	 * @return <code>true</code> if the variable was set or the process instance no longer exists
+	 */
+	private boolean setDeliveredVariable(TaskOutboxEntry entry, String taskUrl)
+	{
+		for (int attempt = 1;; attempt++)
+		{
+			try
+			{
+				runtimeService.setVariable(entry.getProcessInstanceId(),
+						TaskOutbox.getDeliveredTaskVariableName(entry.getOutboxId().toString()), taskUrl);
+				return true;
+			}
+			catch (NullValueException e)
+			{
+				// process instance already finished or deleted
+				logger.warn("Unable to report delivered Task {} to process instance {} [businessKey: {}]: {} - {}",
+						taskUrl, entry.getProcessInstanceId(), entry.getBusinessKey(), e.getClass().getName(),
+						e.getMessage());
+				return true;
+			}
+			catch (OptimisticLockingException e)
+			{
+				if (attempt >= REPORT_ATTEMPTS || !sleep(REPORT_RETRY_DELAY_MILLIS * attempt))
+				{
+					logReportError(entry, taskUrl, e);
+					return false;
+				}
+
+				logger.debug("Process instance {} modified concurrently, reporting delivered Task {} again",
+						entry.getProcessInstanceId(), taskUrl);
+			}
+			catch (ProcessEngineException e)
+			{
+				logReportError(entry, taskUrl, e);
+				return false;
+			}
+		}
+	}
+
+	private void logReportError(TaskOutboxEntry entry, String taskUrl, ProcessEngineException e)
+	{
+		logger.error("Unable to report delivered Task {} to process instance {} [businessKey: {}]: {} - {}", taskUrl,
+				entry.getProcessInstanceId(), entry.getBusinessKey(), e.getClass().getName(), e.getMessage());
+	}
+
+	private static boolean sleep(long millis)
+	{
+		try
+		{
+			Thread.sleep(millis);
+			return true;
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private void createIncident(TaskOutboxEntry entry, String error)
+	{
+		try
+		{
+			runtimeService.createIncident(TaskOutbox.INCIDENT_TYPE_FAILED_TASK_DELIVERY, entry.getProcessInstanceId(),
+					entry.getOutboxId().toString(), "Unable to send Task to " + entry.getEndpointUrl() + ": " + error);
+		}
+		catch (ProcessEngineException e)
+		{
+			logger.error("Unable to create incident for process instance {} [businessKey: {}]: {} - {}",
+					entry.getProcessInstanceId(), entry.getBusinessKey(), e.getClass().getName(), e.getMessage());
+		}
+	}
+}
@@ -1,11 +1,15 @@
 package dev.dsf.bpe.plugin;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -338,9 +342,16 @@ public class FhirResourceHandlerImpl implements FhirResourceHandler, Initializin
 			return resources.map(fhirResource ->
 			{
 				ProcessesResource resource = ProcessesResource.from(fhirResource).add(process);
+				resource.getResourceInfo().setContentHash(getContentHash(fhirResource));
 
-				Optional<UUID> resourceId = getResourceId(dbResourcesByProcess, process, resource.getResourceInfo());
-				resourceId.ifPresent(id -> resource.getResourceInfo().setResourceId(id));
+				Optional<ResourceInfo> dbResource = getDbResource(dbResourcesByProcess, process,
+						resource.getResourceInfo());
+				dbResource.ifPresent(db ->
+				{
+					resource.getResourceInfo().setResourceId(db.getResourceId());
+					resource.setContentUnchanged(db.getContentHash() != null
+							&& db.getContentHash().equals(resource.getResourceInfo().getContentHash()));
+				});
 				// not present: new resource, unknown to bpe db
 
 				return resource;
@@ -374,11 +385,34 @@ public class FhirResourceHandlerImpl implements FhirResourceHandler, Initializin
 		}
 	}
 
-	private Optional<UUID> getResourceId(Map<ProcessIdAndVersion, List<ResourceInfo>> dbResourcesByProcess,
+	private Optional<ResourceInfo> getDbResource(Map<ProcessIdAndVersion, List<ResourceInfo>> dbResourcesByProcess,
 			ProcessIdAndVersion process, ResourceInfo resourceInfo)
 	{
 		return dbResourcesByProcess.getOrDefault(process, Collections.emptyList()).stream()
-				.filter(r -> r.equals(resourceInfo)).findFirst().map(ResourceInfo::getResourceId);
+				.filter(r -> r.equals(resourceInfo)).findFirst();
+	}
+
+	/**
+	 * Hash of the resource as loaded from the process plugin, needs to be calculated before the resource status is
+	 * modified for the batch bundle.
+	 *
+	 * @param resource
+	 *            not <code>null</code>
+	 * @return hex encoded SHA-256 hash of the resources JSON representation
+	 */
+	private String getContentHash(Resource resource)
+	{
+		try
+		{
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			byte[] json = fhirContext.newJsonParser().encodeResourceToString(resource).getBytes(StandardCharsets.UTF_8);
+
+			return HexFormat.of().formatHex(digest.digest(json));
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new RuntimeException(e);
+		}
 	}
 
 	private Map<ProcessIdAndVersion, List<ResourceInfo>> getResourceInfosFromDb()
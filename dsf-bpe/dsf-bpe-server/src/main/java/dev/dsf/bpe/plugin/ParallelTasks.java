@@ -0,0 +1,82 @@
+package dev.dsf.bpe.plugin;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Applies a function to all elements of a list using one thread per available processor, used to load and initialize
+ * process plugins concurrently during startup.
+ */
+final class ParallelTasks
+{
+	private ParallelTasks()
+	{
+	}
+
+	/**
+	 * @param <T>
+	 *            element type
+	 * @param <R>
+	 *            result type
+	 * @param threadNamePrefix
+	 *            not <code>null</code>
+	 * @param elements
+	 *            not <code>null</code>
+	 * @param function
+	 *            not <code>null</code>
+	 * @return results in the order of the given <b>elements</b>
+	 */
+	static <T, R> List<R> map(String threadNamePrefix, List<T> elements, Function<T, R> function)
+	{
+		int threads = Math.min(elements.size(), Runtime.getRuntime().availableProcessors());
+		if (threads <= 1)
+			return elements.stream().map(function).toList();
+
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threads,
+				r -> new Thread(r, threadNamePrefix + threadCount.getAndIncrement()));
+
+		try
+		{
+			List<Future<R>> futures = new ArrayList<>(elements.size());
+			for (T element : elements)
+				futures.add(executor.submit(() -> function.apply(element)));
+
+			List<R> results = new ArrayList<>(elements.size());
+			for (Future<R> future : futures)
+				results.add(get(future));
+
+			return results;
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	private static <R> R get(Future<R> future)
+	{
+		try
+		{
+			return future.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+		catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof RuntimeException r)
+				throw r;
+			else
+				throw new RuntimeException(e.getCause());
+		}
+	}
+}
@@ -59,10 +59,27 @@ public class ProcessPluginLoaderImpl implements ProcessPluginLoader, Initializin
 
 	@Override
 	public List<ProcessPlugin<?, ?>> loadPlugins()
+	{
+		long start = System.currentTimeMillis();
+
+		List<Path> jars = getJarFiles();
+
+		// class loader creation and service loading concurrently, result in order of file names
+		List<ProcessPlugin<?, ?>> plugins = ParallelTasks.map("process-plugin-loader-", jars, this::load).stream()
+				.filter(Objects::nonNull).collect(Collectors.toList());
+
+		logger.info("Loaded {} process plugin{} from {} jar file{} in {} ms", plugins.size(),
+				plugins.size() != 1 ? "s" : "", jars.size(), jars.size() != 1 ? "s" : "",
+				System.currentTimeMillis() - start);
+
+		return plugins;
+	}
+
+	private List<Path> getJarFiles()
 	{
 		try (DirectoryStream<Path> directoryStream = Files.newDirectoryStream(pluginDirectory))
 		{
-			List<ProcessPlugin<?, ?>> plugins = new ArrayList<>();
+			List<Path> jars = new ArrayList<>();
 
 			directoryStream.forEach(p ->
 			{
@@ -71,14 +88,12 @@ public class ProcessPluginLoaderImpl implements ProcessPluginLoader, Initializin
 				else if (!p.getFileName().toString().endsWith(".jar"))
 					logger.warn("Ignoring {}: {}", p.toAbsolutePath().toString(), "Not a .jar file");
 				else
-				{
-					ProcessPlugin<?, ?> plugin = load(p);
-					if (plugin != null)
-						plugins.add(plugin);
-				}
+					jars.add(p);
 			});
 
-			return plugins;
+			jars.sort(Comparator.comparing(p -> p.getFileName().toString()));
+
+			return jars;
 		}
 		catch (IOException e)
 		{
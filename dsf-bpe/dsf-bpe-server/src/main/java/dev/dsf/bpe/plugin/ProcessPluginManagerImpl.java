@@ -13,6 +13,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import org.hl7.fhir.r4.model.Bundle;
@@ -37,6 +38,7 @@ public class ProcessPluginManagerImpl implements ProcessPluginManager, Initializ
 	private static final Logger logger = LoggerFactory.getLogger(ProcessPluginManagerImpl.class);
 
 	private final List<ProcessPluginConsumer> processPluginConsumers = new ArrayList<>();
+	private final List<ProcessStateChangeListener> processStateChangeListeners = new ArrayList<>();
 
 	private final ProcessPluginLoader processPluginLoader;
 	private final BpmnProcessStateChangeService bpmnProcessStateChangeService;
@@ -48,13 +50,15 @@ public class ProcessPluginManagerImpl implements ProcessPluginManager, Initializ
 	private final long fhirServerRetryDelayMillis;
 
 	public ProcessPluginManagerImpl(List<ProcessPluginConsumer> processPluginConsumers,
-			ProcessPluginLoader processPluginLoader, BpmnProcessStateChangeService bpmnProcessStateChangeService,
-			FhirResourceHandler fhirResourceHandler, String localEndpointAddress,
-			FhirWebserviceClient localWebserviceClient, int fhirServerRequestMaxRetries,
+			List<ProcessStateChangeListener> processStateChangeListeners, ProcessPluginLoader processPluginLoader,
+			BpmnProcessStateChangeService bpmnProcessStateChangeService, FhirResourceHandler fhirResourceHandler,
+			String localEndpointAddress, FhirWebserviceClient localWebserviceClient, int fhirServerRequestMaxRetries,
 			long fhirServerRetryDelayMillis)
 	{
 		if (processPluginConsumers != null)
 			this.processPluginConsumers.addAll(processPluginConsumers);
+		if (processStateChangeListeners != null)
+			this.processStateChangeListeners.addAll(processStateChangeListeners);
 
 		this.processPluginLoader = processPluginLoader;
 		this.bpmnProcessStateChangeService = bpmnProcessStateChangeService;
@@ -84,8 +88,16 @@ public class ProcessPluginManagerImpl implements ProcessPluginManager, Initializ
 		if (localOrganizationIdentifierValue.isEmpty())
 			logger.warn("Local organization identifier unknown, check DSF FHIR server allow list");
 
-		List<ProcessPlugin<?, ?>> plugins = removeDuplicates(processPluginLoader.loadPlugins().stream()
-				.filter(p -> p.initializeAndValidateResources(localOrganizationIdentifierValue.orElse(null))));
+		List<ProcessPlugin<?, ?>> loaded = processPluginLoader.loadPlugins();
+
+		// FHIR resource and BPMN parsing, validation and spring context creation concurrently per plugin
+		long start = System.currentTimeMillis();
+		List<Boolean> initialized = ParallelTasks.map("process-plugin-initializer-", loaded,
+				p -> p.initializeAndValidateResources(localOrganizationIdentifierValue.orElse(null)));
+		List<ProcessPlugin<?, ?>> plugins = removeDuplicates(
+				IntStream.range(0, loaded.size()).filter(initialized::get).mapToObj(loaded::get));
+		logger.info("Initialized and validated {} of {} process plugin{} in {} ms", plugins.size(), loaded.size(),
+				loaded.size() != 1 ? "s" : "", System.currentTimeMillis() - start);
 
 		if (plugins.isEmpty())
 			logger.warn("No process plugins deployed");
@@ -93,14 +105,21 @@ public class ProcessPluginManagerImpl implements ProcessPluginManager, Initializ
 		processPluginConsumers.forEach(c -> c.setProcessPlugins(plugins));
 
 		// deploy BPMN models
+		start = System.currentTimeMillis();
 		List<BpmnFileAndModel> models = plugins.stream().flatMap(p -> p.getProcessModels().stream()).toList();
 		List<ProcessStateChangeOutcome> outcomes = bpmnProcessStateChangeService
 				.deploySuspendOrActivateProcesses(models);
+		processStateChangeListeners.forEach(l -> l.onProcessStateChanges(outcomes));
+		logger.info("Deployed {} BPMN process{} in {} ms", models.size(), models.size() != 1 ? "es" : "",
+				System.currentTimeMillis() - start);
 
 		// deploy FHIR resources
+		start = System.currentTimeMillis();
 		Map<ProcessIdAndVersion, List<Resource>> resources = plugins.stream().map(ProcessPlugin::getFhirResources)
 				.flatMap(m -> m.entrySet().stream()).collect(Collectors.toMap(Entry::getKey, Entry::getValue));
 		fhirResourceHandler.applyStateChangesAndStoreNewResourcesInDb(resources, outcomes);
+		logger.info("Deployed FHIR resources of {} process{} in {} ms", resources.size(),
+				resources.size() != 1 ? "es" : "", System.currentTimeMillis() - start);
 
 		onProcessesDeployed(outcomes, plugins);
 	}
@@ -0,0 +1,14 @@
+package dev.dsf.bpe.plugin;
+
+import java.util.List;
+
+public interface ProcessStateChangeListener
+{
+	/**
+	 * Called after BPMN processes have been deployed, activated, suspended or retired.
+	 *
+	 * @param outcomes
+	 *            not <code>null</code>
+	 */
+	void onProcessStateChanges(List<ProcessStateChangeOutcome> outcomes);
+}
@@ -91,6 +91,7 @@ public final class ProcessesResource
 
 	private ProcessState oldState;
 	private ProcessState newState;
+	private boolean contentUnchanged;
 
 	private ProcessesResource(ResourceInfo resourceInfo, Resource resource)
 	{
@@ -149,10 +150,36 @@ public final class ProcessesResource
 		return newState;
 	}
 
+	/**
+	 * @param contentUnchanged
+	 *            <code>true</code> if the content hash of the resource matches the hash stored in the BPE database
+	 * @return this
+	 */
+	public ProcessesResource setContentUnchanged(boolean contentUnchanged)
+	{
+		this.contentUnchanged = contentUnchanged;
+
+		return this;
+	}
+
+	public boolean isContentUnchanged()
+	{
+		return contentUnchanged;
+	}
+
 	public boolean hasStateChangeOrDraft()
 	{
-		return !Objects.equals(getOldProcessState(), getNewProcessState())
-				|| (ProcessState.DRAFT.equals(getOldProcessState()) && ProcessState.DRAFT.equals(getNewProcessState()));
+		return !Objects.equals(getOldProcessState(), getNewProcessState()) || isChangedDraft();
+	}
+
+	private boolean isDraft()
+	{
+		return ProcessState.DRAFT.equals(getOldProcessState()) && ProcessState.DRAFT.equals(getNewProcessState());
+	}
+
+	private boolean isChangedDraft()
+	{
+		return isDraft() && !isContentUnchanged();
 	}
 
 	public boolean notNewToExcludedChange()
@@ -164,7 +191,8 @@ public final class ProcessesResource
 	{
 		return (ProcessState.ACTIVE.equals(getOldProcessState()) && ProcessState.ACTIVE.equals(getNewProcessState()))
 				|| (ProcessState.RETIRED.equals(getOldProcessState())
-						&& ProcessState.RETIRED.equals(getNewProcessState()));
+						&& ProcessState.RETIRED.equals(getNewProcessState()))
+				|| (isDraft() && isContentUnchanged());
 	}
 
 	public BundleEntryComponent toBundleEntry(String baseUrl)
@@ -195,6 +223,8 @@ public final class ProcessesResource
 		{
 			case ACTIVE:
 				return createAsActive();
+			case DRAFT:
+				return createAsDraft();
 			case RETIRED:
 				return createAsRetired();
 			default:
@@ -381,6 +411,9 @@ public final class ProcessesResource
 					case ACTIVE:
 						// conditional create NamingSystem: name=..., Task: identifier=..., others: url=...&version=...
 						return Arrays.asList("200", "201");
+					case DRAFT:
+						// conditional create NamingSystem: name=..., Task: identifier=..., others: url=...&version=...
+						return Arrays.asList("200", "201");
 					case RETIRED:
 						// conditional create NamingSystem: name=..., Task: identifier=..., others: url=...&version=...
 						return Arrays.asList("200", "201");
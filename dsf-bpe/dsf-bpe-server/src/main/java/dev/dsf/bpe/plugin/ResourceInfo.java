@@ -17,6 +17,7 @@ public class ResourceInfo implements Comparable<ResourceInfo>
 	private final String identifier;
 
 	private UUID resourceId;
+	private String contentHash;
 
 	public ResourceInfo(ResourceType resourceType, String url, String version, String name, String identifier)
 	{
@@ -130,7 +131,7 @@ public class ResourceInfo implements Comparable<ResourceInfo>
 	public String toString()
 	{
 		return "ResourceInfo [resourceType=" + resourceType + ", url=" + url + ", version=" + version + ", name=" + name
-				+ ", identifier=" + identifier + ", resourceId=" + resourceId + "]";
+				+ ", identifier=" + identifier + ", resourceId=" + resourceId + ", contentHash=" + contentHash + "]";
 	}
 
 	public String toConditionalUrl()
@@ -159,4 +160,19 @@ public class ResourceInfo implements Comparable<ResourceInfo>
 	{
 		return resourceId != null;
 	}
+
+	/**
+	 * @return hash of the resource content as deployed by the process plugin, <code>null</code> if not known
+	 */
+	public String getContentHash()
+	{
+		return contentHash;
+	}
+
+	public ResourceInfo setContentHash(String contentHash)
+	{
+		this.contentHash = contentHash;
+
+		return this;
+	}
 }
@@ -2,12 +2,16 @@ package dev.dsf.bpe.spring.config;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.function.Function;
 
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.impl.jobexecutor.DefaultJobExecutor;
+import org.camunda.bpm.engine.impl.jobexecutor.JobExecutor;
 import org.camunda.bpm.engine.spring.ProcessEngineFactoryBean;
 import org.camunda.bpm.engine.spring.SpringProcessEngineConfiguration;
+import org.eclipse.jetty.util.VirtualThreads;
 import org.postgresql.Driver;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
@@ -21,12 +25,16 @@ import dev.dsf.bpe.camunda.DelegateProvider;
 import dev.dsf.bpe.camunda.DelegateProviderImpl;
 import dev.dsf.bpe.camunda.FallbackSerializerFactory;
 import dev.dsf.bpe.camunda.FallbackSerializerFactoryImpl;
+import dev.dsf.bpe.camunda.LimitedConcurrencyJobExecutor;
 import dev.dsf.bpe.camunda.MultiVersionSpringProcessEngineConfiguration;
 import dev.dsf.bpe.listener.ContinueListener;
 import dev.dsf.bpe.listener.DebugLoggingBpmnParseListener;
 import dev.dsf.bpe.listener.DefaultBpmnParseListener;
 import dev.dsf.bpe.listener.EndListener;
+import dev.dsf.bpe.listener.ListenerVariables;
 import dev.dsf.bpe.listener.StartListener;
+import dev.dsf.bpe.v1.service.FhirWebserviceClientProvider;
+import dev.dsf.bpe.v1.service.FhirWebserviceClientProviderImpl;
 import dev.dsf.bpe.variables.VariablesImpl;
 
 @Configuration
@@ -75,23 +83,30 @@ public class CamundaConfig
 		return password == null ? null : String.valueOf(password);
 	}
 
+	private Function<DelegateExecution, ListenerVariables> listenerVariablesFactory()
+	{
+		FhirWebserviceClientProvider clientProvider = new FhirWebserviceClientProviderImpl(
+				fhirClientConfig.clientProvider());
+		return execution -> new VariablesImpl(execution, clientProvider);
+	}
+
 	@Bean
 	public StartListener startListener()
 	{
-		return new StartListener(propertiesConfig.getServerBaseUrl(), VariablesImpl::new);
+		return new StartListener(propertiesConfig.getServerBaseUrl(), listenerVariablesFactory());
 	}
 
 	@Bean
 	public EndListener endListener()
 	{
-		return new EndListener(propertiesConfig.getServerBaseUrl(), VariablesImpl::new,
+		return new EndListener(propertiesConfig.getServerBaseUrl(), listenerVariablesFactory(),
 				fhirClientConfig.clientProvider().getLocalWebserviceClient());
 	}
 
 	@Bean
 	public ContinueListener continueListener()
 	{
-		return new ContinueListener(propertiesConfig.getServerBaseUrl(), VariablesImpl::new);
+		return new ContinueListener(propertiesConfig.getServerBaseUrl(), listenerVariablesFactory());
 	}
 
 	@Bean
@@ -118,24 +133,41 @@ public class CamundaConfig
 		c.setDatabaseSchemaUpdate("false");
 		c.setJobExecutorActivate(false);
 		c.setCustomPreBPMNParseListeners(List.of(defaultBpmnParseListener(), debugLoggingBpmnParseListener()));
-		c.setCustomPreVariableSerializers(
-				List.of(serializerConfig.targetSerializer(), serializerConfig.targetsSerializer(),
-						serializerConfig.fhirResourceSerializer(), serializerConfig.fhirResourcesListSerializer()));
+		c.setCustomPreVariableSerializers(List.of(serializerConfig.targetSerializer(),
+				serializerConfig.targetsSerializer(), serializerConfig.fhirResourceSerializer(),
+				serializerConfig.fhirResourcesListSerializer(), serializerConfig.fhirResourceReferenceSerializer()));
 		c.setFallbackSerializerFactory(fallbackSerializerFactory());
 
 		// see also MultiVersionSpringProcessEngineConfiguration
 		c.setInitializeTelemetry(false);
 		c.setTelemetryReporterActivate(false);
 
-		DefaultJobExecutor jobExecutor = new DefaultJobExecutor();
-		jobExecutor.setCorePoolSize(propertiesConfig.getProcessEngineJobExecutorCorePoolSize());
-		jobExecutor.setQueueSize(propertiesConfig.getProcessEngineJobExecutorQueueSize());
-		jobExecutor.setMaxPoolSize(propertiesConfig.getProcessEngineJobExecutorMaxPoolSize());
-		c.setJobExecutor(jobExecutor);
+		c.setJobExecutor(jobExecutor());
 
 		return c;
 	}
 
+	private JobExecutor jobExecutor()
+	{
+		if (propertiesConfig.getProcessVirtualThreads() && VirtualThreads.areSupported())
+		{
+			// jobs limited by number of db connections, blocking calls to FHIR servers do not block platform threads
+			int concurrency = propertiesConfig.getProcessEngineVirtualThreadsConcurrency() > 0
+					? propertiesConfig.getProcessEngineVirtualThreadsConcurrency()
+					: camundaDataSource().getMaxTotal();
+
+			return new LimitedConcurrencyJobExecutor(concurrency);
+		}
+		else
+		{
+			DefaultJobExecutor jobExecutor = new DefaultJobExecutor();
+			jobExecutor.setCorePoolSize(propertiesConfig.getProcessEngineJobExecutorCorePoolSize());
+			jobExecutor.setQueueSize(propertiesConfig.getProcessEngineJobExecutorQueueSize());
+			jobExecutor.setMaxPoolSize(propertiesConfig.getProcessEngineJobExecutorMaxPoolSize());
+			return jobExecutor;
+		}
+	}
+
 	@Bean
 	public FallbackSerializerFactory fallbackSerializerFactory()
 	{
@@ -12,6 +12,8 @@ import dev.dsf.bpe.dao.ProcessPluginResourcesDao;
 import dev.dsf.bpe.dao.ProcessPluginResourcesDaoJdbc;
 import dev.dsf.bpe.dao.ProcessStateDao;
 import dev.dsf.bpe.dao.ProcessStateDaoJdbc;
+import dev.dsf.bpe.dao.TaskOutboxDao;
+import dev.dsf.bpe.dao.TaskOutboxDaoJdbc;
 
 @Configuration
 public class DaoConfig
@@ -19,6 +21,9 @@ public class DaoConfig
 	@Autowired
 	private PropertiesConfig propertiesConfig;
 
+	@Autowired
+	private CamundaConfig camundaConfig;
+
 	@Bean
 	public BasicDataSource dataSource()
 	{
@@ -62,4 +67,11 @@ public class DaoConfig
 	{
 		return new LastEventTimeDaoJdbc(dataSource(), "QuestionnaireResponse");
 	}
+
+	@Bean
+	public TaskOutboxDao taskOutboxDao()
+	{
+		// inserts within process engine transactions
+		return new TaskOutboxDaoJdbc(dataSource(), camundaConfig.transactionAwareDataSource());
+	}
 }
@@ -27,6 +27,7 @@ import de.rwh.utils.crypto.io.CertificateReader;
 import de.rwh.utils.crypto.io.PemIo;
 import dev.dsf.bpe.client.FhirClientProvider;
 import dev.dsf.bpe.client.FhirClientProviderImpl;
+import dev.dsf.fhir.client.ClientConnectionPool;
 import dev.dsf.fhir.service.ReferenceCleaner;
 import dev.dsf.fhir.service.ReferenceCleanerImpl;
 import dev.dsf.fhir.service.ReferenceExtractor;
@@ -75,6 +76,12 @@ public class FhirClientConfig implements InitializingBean
 				propertiesConfig.proxyConfig().isEnabled()
 						? "enabled if remote server not in " + propertiesConfig.proxyConfig().getNoProxyUrls()
 						: "disabled");
+		logger.info(
+				"Webservice client connection pool config: {maxTotal: {}, maxPerServer: {}, idleTimeout: {}, http2: {}}",
+				propertiesConfig.getWebserviceClientConnectionsMax(),
+				propertiesConfig.getWebserviceClientConnectionsMaxPerServer(),
+				propertiesConfig.getWebserviceClientConnectionsIdleTimeout(),
+				propertiesConfig.getWebserviceClientHttp2());
 	}
 
 	@Bean
@@ -89,6 +96,31 @@ public class FhirClientConfig implements InitializingBean
 		return new ReferenceExtractorImpl();
 	}
 
+	@Bean
+	public ClientConnectionPool webserviceClientConnectionPool()
+	{
+		char[] keyStorePassword = UUID.randomUUID().toString().toCharArray();
+
+		try
+		{
+			KeyStore webserviceKeyStore = createKeyStore(propertiesConfig.getClientCertificateFile(),
+					propertiesConfig.getClientCertificatePrivateKeyFile(),
+					propertiesConfig.getClientCertificatePrivateKeyFilePassword(), keyStorePassword);
+			KeyStore webserviceTrustStore = createTrustStore(propertiesConfig.getClientCertificateTrustStoreFile());
+
+			return new ClientConnectionPool(webserviceTrustStore, webserviceKeyStore, keyStorePassword,
+					propertiesConfig.getWebserviceClientConnectionsMax(),
+					propertiesConfig.getWebserviceClientConnectionsMaxPerServer(),
+					propertiesConfig.getWebserviceClientConnectionsIdleTimeout(),
+					propertiesConfig.getWebserviceClientHttp2(),
+					propertiesConfig.getWebserviceClientRequestCompression());
+		}
+		catch (KeyStoreException | CertificateException | NoSuchAlgorithmException | IOException | PKCSException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
 	@Bean
 	public FhirClientProvider clientProvider()
 	{
@@ -104,11 +136,13 @@ public class FhirClientConfig implements InitializingBean
 			return new FhirClientProviderImpl(fhirConfig.fhirContext(), referenceCleaner(),
 					propertiesConfig.getServerBaseUrl(), propertiesConfig.getWebserviceClientLocalReadTimeout(),
 					propertiesConfig.getWebserviceClientLocalConnectTimeout(),
-					propertiesConfig.getWebserviceClientLocalVerbose(), webserviceTrustStore, webserviceKeyStore,
-					keyStorePassword, propertiesConfig.getWebserviceClientRemoteReadTimeout(),
+					propertiesConfig.getWebserviceClientLocalVerbose(), webserviceClientConnectionPool(),
+					propertiesConfig.getWebserviceClientRemoteReadTimeout(),
 					propertiesConfig.getWebserviceClientRemoteConnectTimeout(),
 					propertiesConfig.getWebserviceClientRemoteVerbose(), getWebsocketUrl(), webserviceTrustStore,
-					webserviceKeyStore, keyStorePassword, propertiesConfig.proxyConfig(),
+					webserviceKeyStore, keyStorePassword, propertiesConfig.getWebsocketReconnectDelayInitialMillis(),
+					propertiesConfig.getWebsocketReconnectDelayMaxMillis(),
+					propertiesConfig.getWebsocketMaxIdleTimeoutMillis(), propertiesConfig.proxyConfig(),
 					buildInfoReaderConfig.buildInfoReader());
 		}
 		catch (KeyStoreException | CertificateException | NoSuchAlgorithmException | IOException | PKCSException e)
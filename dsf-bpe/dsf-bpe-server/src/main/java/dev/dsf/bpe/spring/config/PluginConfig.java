@@ -73,6 +73,12 @@ public class PluginConfig
 	@Autowired
 	private CamundaConfig camundaConfig;
 
+	@Autowired
+	private WebsocketConfig websocketConfig;
+
+	@Autowired
+	private TaskOutboxConfig taskOutboxConfig;
+
 	@Bean
 	public ProcessPluginApi processPluginApiV1()
 	{
@@ -96,7 +102,7 @@ public class PluginConfig
 
 		return new ProcessPluginApiImpl(proxyConfig, endpointProvider, fhirContext, clientProvider, mailService,
 				objectMapper, organizationProvider, processAuthorizationHelper, questionnaireResponseHelper,
-				readAccessHelper, taskHelper);
+				readAccessHelper, taskHelper, taskOutboxConfig.taskOutboxV1());
 	}
 
 	@Bean
@@ -139,8 +145,9 @@ public class PluginConfig
 	{
 		return new ProcessPluginManagerImpl(
 				List.of(camundaConfig.delegateProvider(), camundaConfig.fallbackSerializerFactory()),
-				processPluginLoader(), bpmnProcessStateChangeService(), fhirResourceHandler(),
-				propertiesConfig.getServerBaseUrl(), fhirClientConfig.clientProvider().getLocalWebserviceClient(),
+				List.of(websocketConfig.taskHandler()), processPluginLoader(), bpmnProcessStateChangeService(),
+				fhirResourceHandler(), propertiesConfig.getServerBaseUrl(),
+				fhirClientConfig.clientProvider().getLocalWebserviceClient(),
 				propertiesConfig.getFhirServerRequestMaxRetries(), propertiesConfig.getFhirServerRetryDelayMillis());
 	}
 }
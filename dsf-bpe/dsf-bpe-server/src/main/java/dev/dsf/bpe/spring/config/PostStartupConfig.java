@@ -21,6 +21,9 @@ public class PostStartupConfig
 	@Autowired
 	private CamundaConfig camundaConfig;
 
+	@Autowired
+	private TaskOutboxConfig taskOutboxConfig;
+
 	@EventListener({ ContextRefreshedEvent.class })
 	public void onContextRefreshedEvent(ContextRefreshedEvent event)
 	{
@@ -32,6 +35,10 @@ public class PostStartupConfig
 		camundaConfig.processEngineConfiguration().getJobExecutor().start();
 		logger.info("Staring process engine [Done]");
 
+		logger.info("Starting task outbox sender ...");
+		taskOutboxConfig.taskOutboxSender().start();
+		logger.info("Starting task outbox sender [Done]");
+
 		logger.info("Connecting to websockets ...");
 		fhirConfig.fhirConnectorTask().connect();
 		fhirConfig.fhirConnectorQuestionnaireResponse().connect();
@@ -7,6 +7,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import org.eclipse.jetty.util.VirtualThreads;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
@@ -92,6 +93,26 @@ public class PropertiesConfig implements InitializingBean
 	@Value("${dev.dsf.bpe.fhir.client.local.verbose:false}")
 	private boolean webserviceClientLocalVerbose;
 
+	@Documentation(description = "Maximum number of pooled connections to the local and all remote DSF FHIR servers, connections are shared by all webservice clients")
+	@Value("${dev.dsf.bpe.fhir.client.connections.max:200}")
+	private int webserviceClientConnectionsMax;
+
+	@Documentation(description = "Maximum number of pooled connections to a single DSF FHIR server", recommendation = "Increase if many Tasks are send to the same DSF FHIR server concurrently")
+	@Value("${dev.dsf.bpe.fhir.client.connections.max.per.server:20}")
+	private int webserviceClientConnectionsMaxPerServer;
+
+	@Documentation(description = "Time in milliseconds after which idle pooled connections to DSF FHIR servers are closed")
+	@Value("${dev.dsf.bpe.fhir.client.connections.idle.timeout:60000}")
+	private long webserviceClientConnectionsIdleTimeout;
+
+	@Documentation(description = "To use HTTP/2 for connections to DSF FHIR servers supporting it, set to `true`; not used for connections via forward proxy")
+	@Value("${dev.dsf.bpe.fhir.client.http2:false}")
+	private boolean webserviceClientHttp2;
+
+	@Documentation(description = "To gzip compress request bodies sent to DSF FHIR servers, set to `true`; compressed responses are always accepted", recommendation = "Only enable if all servers support compressed requests")
+	@Value("${dev.dsf.bpe.fhir.client.compression.request:false}")
+	private boolean webserviceClientRequestCompression;
+
 	@Documentation(description = "Subscription to receive notifications about task resources from the DSF FHIR server")
 	@Value("${dev.dsf.bpe.fhir.task.subscription.search.parameter:?criteria=Task%3Fstatus%3Drequested&status=active&type=websocket&payload=application/fhir%2Bjson}")
 	private String taskSubscriptionSearchParameter;
@@ -108,6 +129,22 @@ public class PropertiesConfig implements InitializingBean
 	@Value("${dev.dsf.bpe.fhir.task.subscription.retry.sleep:5000}")
 	private long websocketRetrySleepMillis;
 
+	@Documentation(description = "Maximum milliseconds until the first attempt to reestablish a lost websocket connection with the DSF FHIR server, doubled with every failed attempt; actual delays are randomized between half the maximum and the maximum")
+	@Value("${dev.dsf.bpe.fhir.subscription.reconnect.delay.initial:5000}")
+	private long websocketReconnectDelayInitialMillis;
+
+	@Documentation(description = "Maximum milliseconds between two attempts to reestablish a lost websocket connection with the DSF FHIR server")
+	@Value("${dev.dsf.bpe.fhir.subscription.reconnect.delay.max:300000}")
+	private long websocketReconnectDelayMaxMillis;
+
+	@Documentation(description = "Milliseconds without messages or pings from the DSF FHIR server until a websocket connection is considered lost and reestablished; the DSF FHIR server sends pings every 28 seconds", recommendation = "Use a multiple of 28 seconds")
+	@Value("${dev.dsf.bpe.fhir.subscription.idle.timeout:90000}")
+	private long websocketMaxIdleTimeoutMillis;
+
+	@Documentation(description = "Number of Task / QuestionnaireResponse resources requested per search while loading resources created during a downtime of the DSF BPE server")
+	@Value("${dev.dsf.bpe.fhir.subscription.existing.resources.page.count:200}")
+	private int existingResourcePageCount;
+
 	@Documentation(description = "Directory containing the DSF BPE process plugins for deployment on startup of the DSF BPE server", recommendation = "Change only if you don't use the provided directory structure from the installation guide or made changes to tit")
 	@Value("${dev.dsf.bpe.process.plugin.directroy:process}")
 	private String processPluginDirectory;
@@ -136,6 +173,18 @@ public class PropertiesConfig implements InitializingBean
 	@Value("${dev.dsf.bpe.process.engine.maxPoolSize:10}")
 	private int processEngineJobExecutorMaxPoolSize;
 
+	@Documentation(description = "Set to `true` to execute process engine jobs and Task / QuestionnaireResponse handlers on virtual threads, concurrency is limited by *DEV_DSF_BPE_PROCESS_ENGINE_VIRTUAL_THREADS_CONCURRENCY* and *DEV_DSF_BPE_PROCESS_THREADS* instead of thread pool sizes; requires Java 21 or later, thread pools are used if virtual threads are not supported")
+	@Value("${dev.dsf.bpe.process.virtual.threads:false}")
+	private boolean processVirtualThreads;
+
+	@Documentation(description = "Maximum number of concurrently executed process engine jobs if virtual threads are enabled, a value `<= 0` means max number of process engine database connections")
+	@Value("${dev.dsf.bpe.process.engine.virtual.threads.concurrency:-1}")
+	private int processEngineVirtualThreadsConcurrency;
+
+	@Documentation(description = "Set to `false` to store FHIR resource process variables as uncompressed JSON; compressed variables can not be read by DSF BPE versions without variable compression support")
+	@Value("${dev.dsf.bpe.process.engine.variables.compression:true}")
+	private boolean processEngineVariablesCompression;
+
 	@Documentation(description = "Number of retries until a connection can be established with the local DSF FHIR server during process deployment, `-1` means infinite number of retries")
 	@Value("${dev.dsf.bpe.process.fhir.server.retry.max:-1}")
 	private int fhirServerRequestMaxRetries;
@@ -144,6 +193,30 @@ public class PropertiesConfig implements InitializingBean
 	@Value("${dev.dsf.bpe.process.fhir.server.retry.sleep:5000}")
 	private long fhirServerRetryDelayMillis;
 
+	@Documentation(description = "Number of threads delivering Task resources queued in the task outbox by process plugins")
+	@Value("${dev.dsf.bpe.process.task.outbox.threads:4}")
+	private int taskOutboxThreads;
+
+	@Documentation(description = "Maximum number of parallel Task deliveries from the task outbox per target endpoint")
+	@Value("${dev.dsf.bpe.process.task.outbox.endpoint.concurrency:2}")
+	private int taskOutboxEndpointConcurrency;
+
+	@Documentation(description = "Number of delivery attempts for Task resources in the task outbox, undeliverable Tasks are reported as process incidents")
+	@Value("${dev.dsf.bpe.process.task.outbox.retry.max:10}")
+	private int taskOutboxMaxAttempts;
+
+	@Documentation(description = "Milliseconds until the first retry of a failed Task delivery from the task outbox, doubled with every failed attempt")
+	@Value("${dev.dsf.bpe.process.task.outbox.retry.delay.initial:5000}")
+	private long taskOutboxInitialRetryDelayMillis;
+
+	@Documentation(description = "Maximum milliseconds between two delivery attempts of a Task in the task outbox")
+	@Value("${dev.dsf.bpe.process.task.outbox.retry.delay.max:600000}")
+	private long taskOutboxMaxRetryDelayMillis;
+
+	@Documentation(description = "Milliseconds between two polls of the task outbox for due Task deliveries")
+	@Value("${dev.dsf.bpe.process.task.outbox.poll.interval:1000}")
+	private long taskOutboxPollIntervalMillis;
+
 	@Documentation(description = "Mail service sender address", example = "sender@localhost")
 	@Value("${dev.dsf.bpe.mail.fromAddress:}")
 	private String mailFromAddress;
@@ -292,6 +365,10 @@ public class PropertiesConfig implements InitializingBean
 				"Concurrency config: {process-threads: {}, engine-core-pool: {}, engine-queue: {}, engine-max-pool: {}}",
 				getProcessStartOrContinueThreads(), processEngineJobExecutorCorePoolSize,
 				processEngineJobExecutorQueueSize, processEngineJobExecutorMaxPoolSize);
+
+		if (processVirtualThreads && !VirtualThreads.areSupported())
+			logger.warn(
+					"Virtual threads enabled but not supported by JVM, Java 21 or later required, using thread pools");
 	}
 
 	public String getDbUrl()
@@ -376,6 +453,31 @@ public class PropertiesConfig implements InitializingBean
 		return webserviceClientLocalVerbose;
 	}
 
+	public int getWebserviceClientConnectionsMax()
+	{
+		return webserviceClientConnectionsMax;
+	}
+
+	public int getWebserviceClientConnectionsMaxPerServer()
+	{
+		return webserviceClientConnectionsMaxPerServer;
+	}
+
+	public long getWebserviceClientConnectionsIdleTimeout()
+	{
+		return webserviceClientConnectionsIdleTimeout;
+	}
+
+	public boolean getWebserviceClientHttp2()
+	{
+		return webserviceClientHttp2;
+	}
+
+	public boolean getWebserviceClientRequestCompression()
+	{
+		return webserviceClientRequestCompression;
+	}
+
 	public String getTaskSubscriptionSearchParameter()
 	{
 		return taskSubscriptionSearchParameter;
@@ -396,6 +498,26 @@ public class PropertiesConfig implements InitializingBean
 		return websocketMaxRetries;
 	}
 
+	public long getWebsocketReconnectDelayInitialMillis()
+	{
+		return websocketReconnectDelayInitialMillis;
+	}
+
+	public long getWebsocketReconnectDelayMaxMillis()
+	{
+		return websocketReconnectDelayMaxMillis;
+	}
+
+	public long getWebsocketMaxIdleTimeoutMillis()
+	{
+		return websocketMaxIdleTimeoutMillis;
+	}
+
+	public int getExistingResourcePageCount()
+	{
+		return existingResourcePageCount;
+	}
+
 	public Path getProcessPluginDirectory()
 	{
 		return Paths.get(processPluginDirectory);
@@ -434,6 +556,21 @@ public class PropertiesConfig implements InitializingBean
 		return processEngineJobExecutorMaxPoolSize;
 	}
 
+	public boolean getProcessVirtualThreads()
+	{
+		return processVirtualThreads;
+	}
+
+	public int getProcessEngineVirtualThreadsConcurrency()
+	{
+		return processEngineVirtualThreadsConcurrency;
+	}
+
+	public boolean getProcessEngineVariablesCompression()
+	{
+		return processEngineVariablesCompression;
+	}
+
 	public int getFhirServerRequestMaxRetries()
 	{
 		return fhirServerRequestMaxRetries;
@@ -444,6 +581,36 @@ public class PropertiesConfig implements InitializingBean
 		return fhirServerRetryDelayMillis;
 	}
 
+	public int getTaskOutboxThreads()
+	{
+		return taskOutboxThreads;
+	}
+
+	public int getTaskOutboxEndpointConcurrency()
+	{
+		return taskOutboxEndpointConcurrency;
+	}
+
+	public int getTaskOutboxMaxAttempts()
+	{
+		return taskOutboxMaxAttempts;
+	}
+
+	public long getTaskOutboxInitialRetryDelayMillis()
+	{
+		return taskOutboxInitialRetryDelayMillis;
+	}
+
+	public long getTaskOutboxMaxRetryDelayMillis()
+	{
+		return taskOutboxMaxRetryDelayMillis;
+	}
+
+	public long getTaskOutboxPollIntervalMillis()
+	{
+		return taskOutboxPollIntervalMillis;
+	}
+
 	public String getMailFromAddress()
 	{
 		return mailFromAddress;
@@ -6,6 +6,7 @@ import org.springframework.context.annotation.Configuration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import dev.dsf.bpe.variables.FhirResourceReferenceSerializer;
 import dev.dsf.bpe.variables.FhirResourceSerializer;
 import dev.dsf.bpe.variables.FhirResourcesListSerializer;
 import dev.dsf.bpe.variables.ObjectMapperFactory;
@@ -15,6 +16,9 @@ import dev.dsf.bpe.variables.TargetsSerializer;
 @Configuration
 public class SerializerConfig
 {
+	@Autowired
+	private PropertiesConfig propertiesConfig;
+
 	@Autowired
 	private FhirConfig fhirConfig;
 
@@ -27,13 +31,20 @@ public class SerializerConfig
 	@Bean
 	public FhirResourceSerializer fhirResourceSerializer()
 	{
-		return new FhirResourceSerializer(fhirConfig.fhirContext());
+		return new FhirResourceSerializer(fhirConfig.fhirContext(),
+				propertiesConfig.getProcessEngineVariablesCompression());
+	}
+
+	@Bean
+	public FhirResourceReferenceSerializer fhirResourceReferenceSerializer()
+	{
+		return new FhirResourceReferenceSerializer();
 	}
 
 	@Bean
 	public FhirResourcesListSerializer fhirResourcesListSerializer()
 	{
-		return new FhirResourcesListSerializer(objectMapper());
+		return new FhirResourcesListSerializer(objectMapper(), propertiesConfig.getProcessEngineVariablesCompression());
 	}
 
 	@Bean
@@ -0,0 +1,53 @@
+package dev.dsf.bpe.spring.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+
+import dev.dsf.bpe.outbox.TaskOutboxSender;
+import dev.dsf.bpe.v1.service.TaskOutbox;
+import dev.dsf.bpe.v1.service.TaskOutboxImpl;
+
+@Configuration
+public class TaskOutboxConfig
+{
+	@Autowired
+	private PropertiesConfig propertiesConfig;
+
+	@Autowired
+	private FhirConfig fhirConfig;
+
+	@Autowired
+	private FhirClientConfig fhirClientConfig;
+
+	@Autowired
+	private DaoConfig daoConfig;
+
+	@Autowired
+	private CamundaConfig camundaConfig;
+
+	@Bean
+	public TaskOutboxSender taskOutboxSender()
+	{
+		return new TaskOutboxSender(daoConfig.taskOutboxDao(), fhirClientConfig.clientProvider(),
+				fhirConfig.fhirContext(), camundaConfig.processEngine().getRuntimeService(),
+				propertiesConfig.getTaskOutboxThreads(), propertiesConfig.getTaskOutboxEndpointConcurrency(),
+				propertiesConfig.getTaskOutboxMaxAttempts(), propertiesConfig.getTaskOutboxInitialRetryDelayMillis(),
+				propertiesConfig.getTaskOutboxMaxRetryDelayMillis(),
+				propertiesConfig.getTaskOutboxPollIntervalMillis());
+	}
+
+	@Bean
+	public TaskOutbox taskOutboxV1()
+	{
+		return new TaskOutboxImpl(daoConfig.taskOutboxDao(), fhirConfig.fhirContext(), taskOutboxSender());
+	}
+
+	@EventListener({ ContextClosedEvent.class })
+	public void onContextClosedEvent(ContextClosedEvent event)
+	{
+		taskOutboxSender().stop();
+	}
+}
@@ -1,11 +1,15 @@
 package dev.dsf.bpe.spring.config;
 
+import java.util.concurrent.ExecutorService;
+
+import org.eclipse.jetty.util.VirtualThreads;
 import org.hl7.fhir.r4.model.QuestionnaireResponse;
 import org.hl7.fhir.r4.model.Task;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import dev.dsf.bpe.concurrent.LimitedExecutorService;
 import dev.dsf.bpe.subscription.ConcurrentSubscriptionHandlerFactory;
 import dev.dsf.bpe.subscription.FhirConnector;
 import dev.dsf.bpe.subscription.FhirConnectorImpl;
@@ -34,8 +38,18 @@ public class WebsocketConfig
 	@Autowired
 	private FhirClientConfig fhirClientConfig;
 
+	private ExecutorService subscriptionHandlerExecutor()
+	{
+		if (propertiesConfig.getProcessVirtualThreads() && VirtualThreads.areSupported())
+			return new LimitedExecutorService(VirtualThreads.getDefaultVirtualThreadsExecutor(),
+					propertiesConfig.getProcessStartOrContinueThreads());
+		else
+			return ConcurrentSubscriptionHandlerFactory
+					.createThreadPoolExecutor(propertiesConfig.getProcessStartOrContinueThreads());
+	}
+
 	@Bean
-	public ResourceHandler<Task> taskHandler()
+	public TaskHandler taskHandler()
 	{
 		return new TaskHandler(camundaConfig.processEngine().getRuntimeService(),
 				camundaConfig.processEngine().getRepositoryService(),
@@ -45,8 +59,9 @@ public class WebsocketConfig
 	@Bean
 	public SubscriptionHandlerFactory<Task> taskSubscriptionHandlerFactory()
 	{
-		return new ConcurrentSubscriptionHandlerFactory<>(propertiesConfig.getProcessStartOrContinueThreads(),
-				new TaskSubscriptionHandlerFactory(taskHandler(), daoConfig.lastEventTimeDaoTask()));
+		return new ConcurrentSubscriptionHandlerFactory<>(subscriptionHandlerExecutor(),
+				new TaskSubscriptionHandlerFactory(taskHandler(), daoConfig.lastEventTimeDaoTask(),
+						propertiesConfig.getExistingResourcePageCount()));
 	}
 
 	@Bean
@@ -66,9 +81,10 @@ public class WebsocketConfig
 	@Bean
 	public SubscriptionHandlerFactory<QuestionnaireResponse> questionnaireResponseSubscriptionHandlerFactory()
 	{
-		return new ConcurrentSubscriptionHandlerFactory<>(propertiesConfig.getProcessStartOrContinueThreads(),
+		return new ConcurrentSubscriptionHandlerFactory<>(subscriptionHandlerExecutor(),
 				new QuestionnaireResponseSubscriptionHandlerFactory(questionnaireResponseHandler(),
-						daoConfig.lastEventTimeDaoQuestionnaireResponse()));
+						daoConfig.lastEventTimeDaoQuestionnaireResponse(),
+						propertiesConfig.getExistingResourcePageCount()));
 	}
 
 	@Bean
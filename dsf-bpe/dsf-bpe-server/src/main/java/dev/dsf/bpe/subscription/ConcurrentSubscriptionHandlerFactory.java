@@ -1,7 +1,7 @@
 package dev.dsf.bpe.subscription;
 
 import java.util.Objects;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -11,6 +11,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 
+import dev.dsf.bpe.concurrent.LimitedExecutorService;
 import dev.dsf.fhir.client.FhirWebserviceClient;
 
 public class ConcurrentSubscriptionHandlerFactory<R extends Resource>
@@ -20,30 +21,42 @@ public class ConcurrentSubscriptionHandlerFactory<R extends Resource>
 
 	private final SubscriptionHandlerFactory<R> delegate;
 
-	private final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
-	private final ThreadPoolExecutor executor;
+	private final ExecutorService executor;
 
 	/**
-	 * @param corePoolSize
-	 *            <code>&gt; 0</code>
+	 * @param executor
+	 *            not <code>null</code>, executor for resource and ping handlers, e.g. a {@link LimitedExecutorService}
+	 *            using virtual threads
 	 * @param delegate
 	 *            not <code>null</code>
 	 */
-	public ConcurrentSubscriptionHandlerFactory(int corePoolSize, SubscriptionHandlerFactory<R> delegate)
+	public ConcurrentSubscriptionHandlerFactory(ExecutorService executor, SubscriptionHandlerFactory<R> delegate)
+	{
+		this.executor = executor;
+		this.delegate = delegate;
+	}
+
+	/**
+	 * @param corePoolSize
+	 *            <code>&gt; 0</code>
+	 * @return thread pool with a fixed number of threads and unbounded queue
+	 */
+	public static ExecutorService createThreadPoolExecutor(int corePoolSize)
 	{
 		if (corePoolSize <= 0)
 			throw new IllegalArgumentException("corePoolSize <= 0");
 
-		executor = new ThreadPoolExecutor(corePoolSize, corePoolSize, 30, TimeUnit.MINUTES, queue,
-				(r, executor) -> logger.error("Unable to handle Task - execution rejected"));
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(corePoolSize, corePoolSize, 30, TimeUnit.MINUTES,
+				new LinkedBlockingQueue<>(), (r, e) -> logger.error("Unable to handle Task - execution rejected"));
 		executor.allowCoreThreadTimeOut(true);
 
-		this.delegate = delegate;
+		return executor;
 	}
 
 	@Override
 	public void afterPropertiesSet() throws Exception
 	{
+		Objects.requireNonNull(executor, "executor");
 		Objects.requireNonNull(delegate, "delegate");
 	}
 
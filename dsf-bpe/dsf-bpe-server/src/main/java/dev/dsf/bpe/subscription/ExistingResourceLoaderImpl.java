@@ -2,13 +2,22 @@ package dev.dsf.bpe.subscription;
 
 import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
@@ -21,62 +30,196 @@ import dev.dsf.bpe.dao.LastEventTimeDao;
 import dev.dsf.fhir.client.FhirWebserviceClient;
 import jakarta.ws.rs.core.UriBuilder;
 
+/**
+ * Loads resources matching the subscription criteria that were created while the BPE was not connected to the DSF FHIR
+ * server.
+ * <p>
+ * Resources are searched with a (<code>_lastUpdated</code>, <code>_id</code>) keyset: The search includes resources
+ * with the same <code>_lastUpdated</code> value as the last handled resource, already handled resources with this value
+ * are skipped. The next page is requested while resources of the current page are handled, the last event time is
+ * written once per page.
+ */
 public class ExistingResourceLoaderImpl<R extends Resource> implements ExistingResourceLoader<R>
 {
 	private static final Logger logger = LoggerFactory.getLogger(ExistingResourceLoaderImpl.class);
 
 	private static final String PARAM_LAST_UPDATED = "_lastUpdated";
+	private static final String PARAM_ID = "_id";
 	private static final String PARAM_COUNT = "_count";
 	private static final String PARAM_PAGE = "_page";
 	private static final String PARAM_SORT = "_sort";
-	private static final int RESULT_PAGE_COUNT = 20;
 
 	private final LastEventTimeDao lastEventTimeDao;
 	private final FhirWebserviceClient webserviceClient;
 	private final ResourceHandler<R> handler;
 	private final String resourceName;
 	private final Class<R> resourceClass;
+	private final int resultPageCount;
 
+	/**
+	 * @param lastEventTimeDao
+	 *            not <code>null</code>
+	 * @param handler
+	 *            not <code>null</code>
+	 * @param webserviceClient
+	 *            not <code>null</code>
+	 * @param resourceName
+	 *            not <code>null</code>
+	 * @param resourceClass
+	 *            not <code>null</code>
+	 * @param resultPageCount
+	 *            <code>&gt; 0</code>, number of resources requested per search
+	 */
 	public ExistingResourceLoaderImpl(LastEventTimeDao lastEventTimeDao, ResourceHandler<R> handler,
-			FhirWebserviceClient webserviceClient, String resourceName, Class<R> resourceClass)
+			FhirWebserviceClient webserviceClient, String resourceName, Class<R> resourceClass, int resultPageCount)
 	{
+		if (resultPageCount <= 0)
+			throw new IllegalArgumentException("resultPageCount <= 0");
+
 		this.lastEventTimeDao = lastEventTimeDao;
 		this.handler = handler;
 		this.webserviceClient = webserviceClient;
 		this.resourceName = resourceName;
 		this.resourceClass = resourceClass;
+		this.resultPageCount = resultPageCount;
 	}
 
+	@Override
 	public void readExistingResources(Map<String, List<String>> searchCriteriaQueryParameters)
 	{
-		// executing search until call results in no more found tasks
-		while (doReadExistingResources(searchCriteriaQueryParameters))
-			;
+		ExecutorService searchExecutor = Executors
+				.newSingleThreadExecutor(r -> new Thread(r, "existing-" + resourceName + "-loader"));
+
+		try
+		{
+			doReadExistingResources(searchCriteriaQueryParameters, searchExecutor);
+		}
+		finally
+		{
+			searchExecutor.shutdownNow();
+		}
+	}
+
+	private void doReadExistingResources(Map<String, List<String>> searchCriteriaQueryParameters,
+			ExecutorService searchExecutor)
+	{
+		LocalDateTime lastEventTime = readLastEventTime().orElse(null);
+		Set<String> handledAtLastEventTime = new HashSet<>();
+
+		int page = 1;
+		Future<Bundle> nextBundle = submitSearch(searchExecutor, searchCriteriaQueryParameters, lastEventTime, page);
+
+		// executing search until call results in no more new resources
+		while (nextBundle != null)
+		{
+			Bundle bundle = get(nextBundle);
+			nextBundle = null;
+
+			List<R> resources = getNotHandledResources(bundle, lastEventTime, handledAtLastEventTime);
+			boolean nextPageAvailable = bundle.getTotal() > page * resultPageCount;
+
+			if (resources.isEmpty())
+			{
+				// all resources on this page already handled, happens if more resources than the page count share the
+				// same _lastUpdated value
+				if (nextPageAvailable)
+					nextBundle = submitSearch(searchExecutor, searchCriteriaQueryParameters, lastEventTime, ++page);
+
+				continue;
+			}
+
+			LocalDateTime pageLastEventTime = resources.stream().map(this::getLastUpdated).filter(Objects::nonNull)
+					.max(LocalDateTime::compareTo).orElse(lastEventTime);
+
+			// prefetching next page while handling resources, search results expected to continue after this page
+			if (nextPageAvailable)
+				nextBundle = submitSearch(searchExecutor, searchCriteriaQueryParameters, pageLastEventTime, 1);
+
+			LocalDateTime writtenLastEventTime = lastEventTime;
+			try
+			{
+				for (R resource : resources)
+				{
+					handler.onResource(resource);
+
+					LocalDateTime lastUpdated = getLastUpdated(resource);
+					if (lastUpdated == null)
+						continue;
+
+					if (lastEventTime == null || lastUpdated.isAfter(lastEventTime))
+					{
+						lastEventTime = lastUpdated;
+						handledAtLastEventTime.clear();
+					}
+
+					if (lastUpdated.equals(lastEventTime))
+						handledAtLastEventTime.add(resource.getIdElement().getIdPart());
+				}
+			}
+			finally
+			{
+				if (lastEventTime != null && !lastEventTime.equals(writtenLastEventTime))
+					writeLastEventTime(lastEventTime);
+			}
+
+			page = 1;
+
+			if (nextBundle == null)
+				nextBundle = submitSearch(searchExecutor, searchCriteriaQueryParameters, lastEventTime, page);
+		}
 	}
 
-	private boolean doReadExistingResources(Map<String, List<String>> searchCriteriaQueryParameters)
+	private Future<Bundle> submitSearch(ExecutorService searchExecutor,
+			Map<String, List<String>> searchCriteriaQueryParameters, LocalDateTime lastEventTime, int page)
 	{
 		Map<String, List<String>> queryParams = new HashMap<>(searchCriteriaQueryParameters);
-		Optional<LocalDateTime> readLastEventTime = readLastEventTime();
 
-		readLastEventTime.ifPresent(lastEventTime -> queryParams.put(PARAM_LAST_UPDATED,
-				Collections.singletonList("gt" + lastEventTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))));
+		if (lastEventTime != null)
+			queryParams.put(PARAM_LAST_UPDATED,
+					Collections.singletonList("ge" + lastEventTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME)));
+
+		queryParams.put(PARAM_COUNT, Collections.singletonList(String.valueOf(resultPageCount)));
+		queryParams.put(PARAM_PAGE, Collections.singletonList(String.valueOf(page)));
+		queryParams.put(PARAM_SORT, Collections.singletonList(PARAM_LAST_UPDATED + "," + PARAM_ID));
 
-		queryParams.put(PARAM_COUNT, Collections.singletonList(String.valueOf(RESULT_PAGE_COUNT)));
-		queryParams.put(PARAM_PAGE, Collections.singletonList("1"));
-		queryParams.put(PARAM_SORT, Collections.singletonList(PARAM_LAST_UPDATED));
+		return searchExecutor.submit(() ->
+		{
+			if (logger.isDebugEnabled())
+			{
+				UriBuilder builder = UriBuilder.fromPath(resourceName);
+				queryParams.forEach((k, v) -> builder.replaceQueryParam(k, v.toArray()));
 
-		UriBuilder builder = UriBuilder.fromPath(resourceName);
-		queryParams.forEach((k, v) -> builder.replaceQueryParam(k, v.toArray()));
+				logger.debug("Executing search {}", builder.toString());
+			}
 
-		logger.debug("Executing search {}", builder.toString());
-		Bundle bundle = webserviceClient.searchWithStrictHandling(resourceClass, queryParams);
+			return webserviceClient.searchWithStrictHandling(resourceClass, queryParams);
+		});
+	}
 
-		if (bundle.getTotal() <= 0)
+	private Bundle get(Future<Bundle> bundle)
+	{
+		try
+		{
+			return bundle.get();
+		}
+		catch (InterruptedException e)
 		{
-			logger.debug("Result bundle.total <= 0");
-			return false;
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
 		}
+		catch (ExecutionException e)
+		{
+			if (e.getCause() instanceof RuntimeException r)
+				throw r;
+			else
+				throw new RuntimeException(e.getCause());
+		}
+	}
+
+	private List<R> getNotHandledResources(Bundle bundle, LocalDateTime lastEventTime,
+			Set<String> handledAtLastEventTime)
+	{
+		List<R> resources = new ArrayList<>(bundle.getEntry().size());
 
 		for (BundleEntryComponent entry : bundle.getEntry())
 		{
@@ -86,8 +229,13 @@ public class ExistingResourceLoaderImpl<R extends Resource> implements ExistingR
 				{
 					@SuppressWarnings("unchecked")
 					R resource = (R) entry.getResource();
-					handler.onResource(resource);
-					writeLastEventTime(resource.getMeta().getLastUpdated());
+
+					if (lastEventTime != null && lastEventTime.equals(getLastUpdated(resource))
+							&& handledAtLastEventTime.contains(resource.getIdElement().getIdPart()))
+						logger.debug("Skipping already handled {} with id {}", resourceName,
+								resource.getIdElement().getIdPart());
+					else
+						resources.add(resource);
 				}
 				else
 				{
@@ -101,7 +249,16 @@ public class ExistingResourceLoaderImpl<R extends Resource> implements ExistingR
 			}
 		}
 
-		return true;
+		return resources;
+	}
+
+	private LocalDateTime getLastUpdated(R resource)
+	{
+		if (!resource.hasMeta() || resource.getMeta().getLastUpdated() == null)
+			return null;
+
+		return LocalDateTime.ofInstant(resource.getMeta().getLastUpdated().toInstant(), ZoneId.systemDefault())
+				.truncatedTo(ChronoUnit.MILLIS);
 	}
 
 	private Optional<LocalDateTime> readLastEventTime()
@@ -117,7 +274,7 @@ public class ExistingResourceLoaderImpl<R extends Resource> implements ExistingR
 		}
 	}
 
-	private void writeLastEventTime(Date lastUpdated)
+	private void writeLastEventTime(LocalDateTime lastUpdated)
 	{
 		try
 		{
@@ -4,6 +4,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Supplier;
 
@@ -37,6 +38,9 @@ public class FhirConnectorImpl<R extends Resource> implements FhirConnector, Ini
 	private final int maxRetries;
 	private final Map<String, List<String>> subscriptionSearchParameter;
 
+	private final ExecutorService catchUpExecutor = Executors
+			.newSingleThreadExecutor(r -> new Thread(r, "websocket-catch-up"));
+
 	public FhirConnectorImpl(String resourcePath, FhirClientProvider clientProvider,
 			SubscriptionHandlerFactory<R> subscriptionHandlerFactory, FhirContext fhirContext,
 			String subscriptionSearchParameter, long retrySleepMillis, int maxRetries)
@@ -202,6 +206,8 @@ public class FhirConnectorImpl<R extends Resource> implements FhirConnector, Ini
 		else
 			setResourceEventHandler(client, eventType);
 
+		client.setReconnectedHandler(() -> catchUp(subscription));
+
 		try
 		{
 			logger.info("Connecting websocket to local FHIR server with subscription id {}",
@@ -215,6 +221,17 @@ public class FhirConnectorImpl<R extends Resource> implements FhirConnector, Ini
 		}
 	}
 
+	private void catchUp(Subscription subscription)
+	{
+		logger.info("Websocket reconnected, downloading resources created while disconnected");
+
+		CompletableFuture.runAsync(() -> loadExistingResources(subscription), catchUpExecutor).exceptionally(t ->
+		{
+			logger.error("Error while downloading resources created while disconnected", t);
+			return null;
+		});
+	}
+
 	private Void onError(Throwable t)
 	{
 		logger.error("Error while connecting to websocket", t);
@@ -242,6 +259,7 @@ public class FhirConnectorImpl<R extends Resource> implements FhirConnector, Ini
 	@EventListener({ ContextClosedEvent.class })
 	public void onContextClosedEvent(ContextClosedEvent event)
 	{
+		catchUpExecutor.shutdownNow();
 		clientProvider.disconnectAll();
 	}
 
@@ -0,0 +1,161 @@
+package dev.dsf.bpe.subscription;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.repository.ProcessDefinition;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.camunda.bpm.model.bpmn.instance.MessageEventDefinition;
+import org.camunda.bpm.model.bpmn.instance.StartEvent;
+
+/**
+ * Caches the active process definition and its start event message names by Task.instantiatesCanonical. Needs to be
+ * cleared if process definitions are deployed, activated or suspended, see {@link #clear()}.
+ */
+class ProcessDefinitionRoutingTable
+{
+	static final String INSTANTIATES_CANONICAL_PATTERN_STRING = "(?<processUrl>http://(?<processDomain>(?:(?:[a-zA-Z0-9]|[a-zA-Z0-9][a-zA-Z0-9\\-]*[a-zA-Z0-9])\\.)*(?:[A-Za-z0-9]|[A-Za-z0-9][A-Za-z0-9\\-]*[A-Za-z0-9]))/bpe/Process/(?<processDefinitionKey>[-\\w]+))\\|(?<processVersion>\\d+\\.\\d+)";
+	private static final Pattern INSTANTIATES_CANONICAL_PATTERN = Pattern
+			.compile(INSTANTIATES_CANONICAL_PATTERN_STRING);
+
+	static final class Route
+	{
+		private final String processDomain;
+		private final String processDefinitionKey;
+		private final String processVersion;
+		private final String processDefinitionId;
+		private final Set<String> startMessageNames;
+
+		private Route(String processDomain, String processDefinitionKey, String processVersion,
+				String processDefinitionId, Set<String> startMessageNames)
+		{
+			this.processDomain = processDomain;
+			this.processDefinitionKey = processDefinitionKey;
+			this.processVersion = processVersion;
+			this.processDefinitionId = processDefinitionId;
+			this.startMessageNames = startMessageNames;
+		}
+
+		String getProcessDomain()
+		{
+			return processDomain;
+		}
+
+		String getProcessDefinitionKey()
+		{
+			return processDefinitionKey;
+		}
+
+		String getProcessVersion()
+		{
+			return processVersion;
+		}
+
+		/**
+		 * @return <code>null</code> if no active process definition exists
+		 */
+		String getProcessDefinitionId()
+		{
+			return processDefinitionId;
+		}
+
+		boolean isStartMessage(String messageName)
+		{
+			return startMessageNames.contains(messageName);
+		}
+	}
+
+	private final RepositoryService repositoryService;
+	private final ConcurrentMap<String, Route> routesByInstantiatesCanonical = new ConcurrentHashMap<>();
+
+	ProcessDefinitionRoutingTable(RepositoryService repositoryService)
+	{
+		this.repositoryService = repositoryService;
+	}
+
+	/**
+	 * @param instantiatesCanonical
+	 *            not <code>null</code>
+	 * @return route with {@link Route#getProcessDefinitionId()} <code>null</code> if no active process definition
+	 *         exists, routes without process definition are not cached
+	 * @throws IllegalArgumentException
+	 *             if the given <b>instantiatesCanonical</b> does not match
+	 *             {@link #INSTANTIATES_CANONICAL_PATTERN_STRING}
+	 */
+	Route getRoute(String instantiatesCanonical)
+	{
+		Objects.requireNonNull(instantiatesCanonical, "instantiatesCanonical");
+
+		Route route = routesByInstantiatesCanonical.get(instantiatesCanonical);
+		if (route != null)
+			return route;
+
+		route = createRoute(instantiatesCanonical);
+		if (route.getProcessDefinitionId() != null)
+			routesByInstantiatesCanonical.put(instantiatesCanonical, route);
+
+		return route;
+	}
+
+	void clear()
+	{
+		routesByInstantiatesCanonical.clear();
+	}
+
+	private Route createRoute(String instantiatesCanonical)
+	{
+		Matcher matcher = INSTANTIATES_CANONICAL_PATTERN.matcher(instantiatesCanonical);
+		if (!matcher.matches())
+			throw new IllegalArgumentException(
+					"InstantiatesCanonical does not match " + INSTANTIATES_CANONICAL_PATTERN_STRING);
+
+		String processDomain = matcher.group("processDomain").replace(".", "");
+		String processDefinitionKey = matcher.group("processDefinitionKey");
+		String processVersion = matcher.group("processVersion");
+
+		ProcessDefinition processDefinition = getProcessDefinition(processDomain, processDefinitionKey, processVersion);
+
+		if (processDefinition == null)
+			return new Route(processDomain, processDefinitionKey, processVersion, null, Collections.emptySet());
+		else
+			return new Route(processDomain, processDefinitionKey, processVersion, processDefinition.getId(),
+					getStartMessageNames(processDefinition));
+	}
+
+	private ProcessDefinition getProcessDefinition(String processDomain, String processDefinitionKey,
+			String processVersion)
+	{
+		if (processVersion != null && !processVersion.isBlank())
+			return repositoryService.createProcessDefinitionQuery().active()
+					.processDefinitionKey(processDomain + "_" + processDefinitionKey).versionTag(processVersion).list()
+					.stream().sorted(Comparator.comparing(ProcessDefinition::getVersion).reversed()).findFirst()
+					.orElse(null);
+		else
+			return repositoryService.createProcessDefinitionQuery().active()
+					.processDefinitionKey(processDomain + "_" + processDefinitionKey).latestVersion().singleResult();
+	}
+
+	private Set<String> getStartMessageNames(ProcessDefinition processDefinition)
+	{
+		BpmnModelInstance model = repositoryService.getBpmnModelInstance(processDefinition.getId());
+		Collection<StartEvent> startEvents = model == null ? Collections.emptySet()
+				: model.getModelElementsByType(StartEvent.class);
+
+		return startEvents.stream().flatMap(e ->
+		{
+			Collection<MessageEventDefinition> m = e.getChildElementsByType(MessageEventDefinition.class);
+			return m == null ? Stream.empty() : m.stream();
+		}).filter(d -> d.getMessage() != null).map(d -> d.getMessage().getName()).filter(Objects::nonNull)
+				.collect(Collectors.toUnmodifiableSet());
+	}
+}
@@ -13,12 +13,14 @@ public class QuestionnaireResponseSubscriptionHandlerFactory
 {
 	private final ResourceHandler<QuestionnaireResponse> resourceHandler;
 	private final LastEventTimeDao lastEventTimeDao;
+	private final int existingResourcePageCount;
 
 	public QuestionnaireResponseSubscriptionHandlerFactory(ResourceHandler<QuestionnaireResponse> resourceHandler,
-			LastEventTimeDao lastEventTimeDao)
+			LastEventTimeDao lastEventTimeDao, int existingResourcePageCount)
 	{
 		this.resourceHandler = resourceHandler;
 		this.lastEventTimeDao = lastEventTimeDao;
+		this.existingResourcePageCount = existingResourcePageCount;
 	}
 
 	@Override
@@ -26,13 +28,16 @@ public class QuestionnaireResponseSubscriptionHandlerFactory
 	{
 		Objects.requireNonNull(resourceHandler, "resourceHandler");
 		Objects.requireNonNull(lastEventTimeDao, "lastEventTimeDao");
+
+		if (existingResourcePageCount <= 0)
+			throw new IllegalArgumentException("existingResourcePageCount <= 0");
 	}
 
 	@Override
 	public ExistingResourceLoader<QuestionnaireResponse> createExistingResourceLoader(FhirWebserviceClient client)
 	{
 		return new ExistingResourceLoaderImpl<>(lastEventTimeDao, resourceHandler, client, "QuestionnaireResponse",
-				QuestionnaireResponse.class);
+				QuestionnaireResponse.class, existingResourcePageCount);
 	}
 
 	@Override
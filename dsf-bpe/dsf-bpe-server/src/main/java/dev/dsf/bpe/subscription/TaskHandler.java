@@ -1,14 +1,10 @@
 package dev.dsf.bpe.subscription;
 
-import java.util.Collection;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -16,13 +12,9 @@ import org.camunda.bpm.engine.MismatchingMessageCorrelationException;
 import org.camunda.bpm.engine.ProcessEngineException;
 import org.camunda.bpm.engine.RepositoryService;
 import org.camunda.bpm.engine.RuntimeService;
-import org.camunda.bpm.engine.repository.ProcessDefinition;
 import org.camunda.bpm.engine.runtime.MessageCorrelationBuilder;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
 import org.camunda.bpm.engine.runtime.ProcessInstanceQuery;
-import org.camunda.bpm.model.bpmn.BpmnModelInstance;
-import org.camunda.bpm.model.bpmn.instance.MessageEventDefinition;
-import org.camunda.bpm.model.bpmn.instance.StartEvent;
 import org.hl7.fhir.r4.model.CodeableConcept;
 import org.hl7.fhir.r4.model.Coding;
 import org.hl7.fhir.r4.model.StringType;
@@ -32,12 +24,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 
+import dev.dsf.bpe.plugin.ProcessStateChangeListener;
+import dev.dsf.bpe.plugin.ProcessStateChangeOutcome;
+import dev.dsf.bpe.subscription.ProcessDefinitionRoutingTable.Route;
 import dev.dsf.bpe.v1.constants.BpmnExecutionVariables;
 import dev.dsf.bpe.v1.constants.CodeSystems.BpmnMessage;
 import dev.dsf.bpe.variables.FhirResourceValues;
 import dev.dsf.fhir.client.FhirWebserviceClient;
 
-public class TaskHandler implements ResourceHandler<Task>, InitializingBean
+public class TaskHandler implements ResourceHandler<Task>, ProcessStateChangeListener, InitializingBean
 {
 	private static final Logger logger = LoggerFactory.getLogger(TaskHandler.class);
 
@@ -90,20 +85,20 @@ public class TaskHandler implements ResourceHandler<Task>, InitializingBean
 
 	public static final String TASK_VARIABLE = TaskHandler.class.getName() + ".task";
 
-	private static final String INSTANTIATES_CANONICAL_PATTERN_STRING = "(?<processUrl>http://(?<processDomain>(?:(?:[a-zA-Z0-9]|[a-zA-Z0-9][a-zA-Z0-9\\-]*[a-zA-Z0-9])\\.)*(?:[A-Za-z0-9]|[A-Za-z0-9][A-Za-z0-9\\-]*[A-Za-z0-9]))/bpe/Process/(?<processDefinitionKey>[-\\w]+))\\|(?<processVersion>\\d+\\.\\d+)";
-	private static final Pattern INSTANTIATES_CANONICAL_PATTERN = Pattern
-			.compile(INSTANTIATES_CANONICAL_PATTERN_STRING);
-
 	private final RuntimeService runtimeService;
 	private final RepositoryService repositoryService;
 	private final FhirWebserviceClient webserviceClient;
 
+	private final ProcessDefinitionRoutingTable routingTable;
+
 	public TaskHandler(RuntimeService runtimeService, RepositoryService repositoryService,
 			FhirWebserviceClient webserviceClient)
 	{
 		this.runtimeService = runtimeService;
 		this.repositoryService = repositoryService;
 		this.webserviceClient = webserviceClient;
+
+		routingTable = new ProcessDefinitionRoutingTable(repositoryService);
 	}
 
 	@Override
@@ -114,25 +109,35 @@ public class TaskHandler implements ResourceHandler<Task>, InitializingBean
 		Objects.requireNonNull(webserviceClient, "webserviceClient");
 	}
 
+	@Override
+	public void onProcessStateChanges(List<ProcessStateChangeOutcome> outcomes)
+	{
+		logger.debug("Process states changed, clearing process definition routing table");
+		routingTable.clear();
+	}
+
 	public void onResource(Task task)
 	{
 		Objects.requireNonNull(task, "task");
 		Objects.requireNonNull(task.getInstantiatesCanonical(), "task.instantiatesCanonical");
 
-		Matcher matcher = INSTANTIATES_CANONICAL_PATTERN.matcher(task.getInstantiatesCanonical());
-		if (!matcher.matches())
+		Route route;
+		try
+		{
+			route = routingTable.getRoute(task.getInstantiatesCanonical());
+		}
+		catch (IllegalArgumentException e)
+		{
 			throw new IllegalStateException("InstantiatesCanonical of Task with id " + task.getIdElement().getIdPart()
-					+ " does not match " + INSTANTIATES_CANONICAL_PATTERN_STRING);
-
-		String processDomain = matcher.group("processDomain").replace(".", "");
-		String processDefinitionKey = matcher.group("processDefinitionKey");
-		String processVersion = matcher.group("processVersion");
+					+ " does not match " + ProcessDefinitionRoutingTable.INSTANTIATES_CANONICAL_PATTERN_STRING);
+		}
 
 		String messageName = getFirstInputParameter(task, BpmnMessage.messageName());
 		String businessKey = getFirstInputParameter(task, BpmnMessage.businessKey());
 		String correlationKey = getFirstInputParameter(task, BpmnMessage.correlationKey());
 
-		if (businessKey == null)
+		boolean newBusinessKey = businessKey == null;
+		if (newBusinessKey)
 		{
 			businessKey = UUID.randomUUID().toString();
 			logger.debug("Adding business-key {} to Task with id {}", businessKey, task.getId());
@@ -146,8 +151,7 @@ public class TaskHandler implements ResourceHandler<Task>, InitializingBean
 
 		try
 		{
-			onMessage(businessKey, correlationKey, processDomain, processDefinitionKey, processVersion, messageName,
-					variables);
+			onMessage(businessKey, newBusinessKey, correlationKey, route, messageName, variables);
 		}
 		catch (MismatchingMessageCorrelationException e)
 		{
@@ -201,49 +205,61 @@ public class TaskHandler implements ResourceHandler<Task>, InitializingBean
 	}
 
 	/**
+	 * Starts a new process instance or correlates with a waiting process instance. Process definition lookups are
+	 * served from the {@link ProcessDefinitionRoutingTable}. No process instance query is executed for generated
+	 * business-keys, the alternative business-key query only if a sender supplied business-key can not be correlated
+	 * with a single process instance of the routed process definition, or if the message starts the process.
+	 *
 	 * @param businessKey
 	 *            may be <code>null</code>
+	 * @param newBusinessKey
+	 *            <code>true</code> if the business-key was generated for this message, no process instance can exist
 	 * @param correlationKey
 	 *            may be <code>null</code>
-	 * @param processDomain
-	 *            not <code>null</code>
-	 * @param processDefinitionKey
-	 *            not <code>null</code>
-	 * @param processVersion
+	 * @param route
 	 *            not <code>null</code>
 	 * @param messageName
 	 *            not <code>null</code>
 	 * @param variables
 	 *            may be <code>null</code>
 	 */
-	protected void onMessage(String businessKey, String correlationKey, String processDomain,
-			String processDefinitionKey, String processVersion, String messageName, Map<String, Object> variables)
+	protected void onMessage(String businessKey, boolean newBusinessKey, String correlationKey, Route route,
+			String messageName, Map<String, Object> variables)
 	{
 		// businessKey may be null
 		// correlationKey may be null
-		Objects.requireNonNull(processDomain, "processDomain");
-		Objects.requireNonNull(processDefinitionKey, "processDefinitionKey");
-		Objects.requireNonNull(processVersion, "processVersion");
+		Objects.requireNonNull(route, "route");
 		Objects.requireNonNull(messageName, "messageName");
 
 		if (variables == null)
 			variables = Collections.emptyMap();
 
-		ProcessDefinition processDefinition = getProcessDefinition(processDomain, processDefinitionKey, processVersion);
+		String processDefinitionId = route.getProcessDefinitionId();
 
-		if (processDefinition == null)
-			throw new ProcessNotFoundException(processDomain, processDefinitionKey, processVersion, null);
+		if (processDefinitionId == null)
+			throw new ProcessNotFoundException(route.getProcessDomain(), route.getProcessDefinitionKey(),
+					route.getProcessVersion(), null);
 
 		if (businessKey == null)
 		{
-			runtimeService.startProcessInstanceByMessageAndProcessDefinitionId(messageName, processDefinition.getId(),
+			runtimeService.startProcessInstanceByMessageAndProcessDefinitionId(messageName, processDefinitionId,
 					UUID.randomUUID().toString(), variables);
 		}
+		else if (newBusinessKey)
+		{
+			startProcessInstance(businessKey, route, messageName, variables);
+		}
+		else if (!route.isStartMessage(messageName) && correlateWithProcessInstance(businessKey, correlationKey,
+				processDefinitionId, messageName, variables))
+		{
+			logger.debug("Message {} correlated with process instance of {} via business-key {}", messageName,
+					processDefinitionId, businessKey);
+		}
 		else
 		{
-			List<ProcessInstance> instances = getProcessInstanceQuery(processDefinition, businessKey).list();
+			List<ProcessInstance> instances = getProcessInstanceQuery(processDefinitionId, businessKey).list();
 			List<ProcessInstance> instancesWithAlternativeBusinessKey = getAlternativeProcessInstanceQuery(
-					processDefinition, businessKey).list();
+					processDefinitionId, businessKey).list();
 
 			if (instances.size() + instancesWithAlternativeBusinessKey.size() > 1)
 				logger.warn("instance-ids {}",
@@ -252,23 +268,7 @@ public class TaskHandler implements ResourceHandler<Task>, InitializingBean
 
 			if (instances.size() + instancesWithAlternativeBusinessKey.size() <= 0)
 			{
-				BpmnModelInstance model = repositoryService.getBpmnModelInstance(processDefinition.getId());
-				Collection<StartEvent> startEvents = model == null ? Collections.emptySet()
-						: model.getModelElementsByType(StartEvent.class);
-				Stream<String> startEventMesssageNames = startEvents.stream().flatMap(e ->
-				{
-					Collection<MessageEventDefinition> m = e.getChildElementsByType(MessageEventDefinition.class);
-					return m == null ? Stream.empty() : m.stream();
-				}).map(d -> d.getMessage().getName());
-
-				if (startEventMesssageNames.anyMatch(m -> m.equals(messageName)))
-				{
-					runtimeService.createMessageCorrelation(messageName).processDefinitionId(processDefinition.getId())
-							.processInstanceBusinessKey(businessKey).setVariables(variables).correlateStartMessage();
-				}
-				else
-					throw new ProcessNotFoundException(processDomain, processDefinitionKey, processVersion,
-							messageName);
+				startProcessInstance(businessKey, route, messageName, variables);
 			}
 			else
 			{
@@ -293,29 +293,60 @@ public class TaskHandler implements ResourceHandler<Task>, InitializingBean
 		}
 	}
 
-	private ProcessDefinition getProcessDefinition(String processDomain, String processDefinitionKey,
-			String processVersion)
+	private void startProcessInstance(String businessKey, Route route, String messageName,
+			Map<String, Object> variables)
 	{
-		if (processVersion != null && !processVersion.isBlank())
-			return repositoryService.createProcessDefinitionQuery().active()
-					.processDefinitionKey(processDomain + "_" + processDefinitionKey).versionTag(processVersion).list()
-					.stream().sorted(Comparator.comparing(ProcessDefinition::getVersion).reversed()).findFirst()
-					.orElse(null);
+		if (route.isStartMessage(messageName))
+		{
+			runtimeService.createMessageCorrelation(messageName).processDefinitionId(route.getProcessDefinitionId())
+					.processInstanceBusinessKey(businessKey).setVariables(variables).correlateStartMessage();
+		}
 		else
-			return repositoryService.createProcessDefinitionQuery().active()
-					.processDefinitionKey(processDomain + "_" + processDefinitionKey).latestVersion().singleResult();
+			throw new ProcessNotFoundException(route.getProcessDomain(), route.getProcessDefinitionKey(),
+					route.getProcessVersion(), messageName);
+	}
+
+	/**
+	 * Message correlations may not be restricted by process definition id, only start message correlations. The
+	 * correlation is restricted to the single process instance of the given process definition and business-key
+	 * instead.
+	 *
+	 * @return <code>false</code> if no or more than one process instance of the given process definition or no or more
+	 *         than one execution of the process instance could be matched, nothing correlated
+	 */
+	private boolean correlateWithProcessInstance(String businessKey, String correlationKey, String processDefinitionId,
+			String messageName, Map<String, Object> variables)
+	{
+		List<ProcessInstance> instances = getProcessInstanceQuery(processDefinitionId, businessKey).list();
+		if (instances.size() != 1)
+			return false;
+
+		MessageCorrelationBuilder correlation = runtimeService.createMessageCorrelation(messageName)
+				.processInstanceId(instances.get(0).getId()).setVariables(variables);
+
+		if (correlationKey != null)
+			correlation = correlation.localVariableEquals(BpmnExecutionVariables.CORRELATION_KEY, correlationKey);
+
+		try
+		{
+			correlation.correlate();
+			return true;
+		}
+		catch (MismatchingMessageCorrelationException e)
+		{
+			return false;
+		}
 	}
 
-	private ProcessInstanceQuery getProcessInstanceQuery(ProcessDefinition processDefinition, String businessKey)
+	private ProcessInstanceQuery getProcessInstanceQuery(String processDefinitionId, String businessKey)
 	{
-		return runtimeService.createProcessInstanceQuery().processDefinitionId(processDefinition.getId())
+		return runtimeService.createProcessInstanceQuery().processDefinitionId(processDefinitionId)
 				.processInstanceBusinessKey(businessKey);
 	}
 
-	private ProcessInstanceQuery getAlternativeProcessInstanceQuery(ProcessDefinition processDefinition,
-			String businessKey)
+	private ProcessInstanceQuery getAlternativeProcessInstanceQuery(String processDefinitionId, String businessKey)
 	{
-		return runtimeService.createProcessInstanceQuery().processDefinitionId(processDefinition.getId())
+		return runtimeService.createProcessInstanceQuery().processDefinitionId(processDefinitionId)
 				.variableValueEquals(BpmnExecutionVariables.ALTERNATIVE_BUSINESS_KEY, businessKey);
 	}
 }
@@ -12,11 +12,14 @@ public class TaskSubscriptionHandlerFactory implements SubscriptionHandlerFactor
 {
 	private final ResourceHandler<Task> resourceHandler;
 	private final LastEventTimeDao lastEventTimeDao;
+	private final int existingResourcePageCount;
 
-	public TaskSubscriptionHandlerFactory(ResourceHandler<Task> resourceHandler, LastEventTimeDao lastEventTimeDao)
+	public TaskSubscriptionHandlerFactory(ResourceHandler<Task> resourceHandler, LastEventTimeDao lastEventTimeDao,
+			int existingResourcePageCount)
 	{
 		this.resourceHandler = resourceHandler;
 		this.lastEventTimeDao = lastEventTimeDao;
+		this.existingResourcePageCount = existingResourcePageCount;
 	}
 
 	@Override
@@ -24,12 +27,16 @@ public class TaskSubscriptionHandlerFactory implements SubscriptionHandlerFactor
 	{
 		Objects.requireNonNull(resourceHandler, "resourceHandler");
 		Objects.requireNonNull(lastEventTimeDao, "lastEventTimeDao");
+
+		if (existingResourcePageCount <= 0)
+			throw new IllegalArgumentException("existingResourcePageCount <= 0");
 	}
 
 	@Override
 	public ExistingResourceLoader<Task> createExistingResourceLoader(FhirWebserviceClient client)
 	{
-		return new ExistingResourceLoaderImpl<>(lastEventTimeDao, resourceHandler, client, "Task", Task.class);
+		return new ExistingResourceLoaderImpl<>(lastEventTimeDao, resourceHandler, client, "Task", Task.class,
+				existingResourcePageCount);
 	}
 
 	@Override
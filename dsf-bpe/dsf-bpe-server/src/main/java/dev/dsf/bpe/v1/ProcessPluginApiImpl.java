@@ -15,6 +15,7 @@ import dev.dsf.bpe.v1.service.MailService;
 import dev.dsf.bpe.v1.service.OrganizationProvider;
 import dev.dsf.bpe.v1.service.QuestionnaireResponseHelper;
 import dev.dsf.bpe.v1.service.TaskHelper;
+import dev.dsf.bpe.v1.service.TaskOutbox;
 import dev.dsf.bpe.v1.variables.Variables;
 import dev.dsf.bpe.variables.VariablesImpl;
 import dev.dsf.fhir.authorization.process.ProcessAuthorizationHelper;
@@ -33,13 +34,14 @@ public class ProcessPluginApiImpl implements ProcessPluginApi, InitializingBean
 	private final QuestionnaireResponseHelper questionnaireResponseHelper;
 	private final ReadAccessHelper readAccessHelper;
 	private final TaskHelper taskHelper;
+	private final TaskOutbox taskOutbox;
 
 	public ProcessPluginApiImpl(ProxyConfig proxyConfig, EndpointProvider endpointProvider, FhirContext fhirContext,
 			FhirWebserviceClientProvider fhirWebserviceClientProvider, MailService mailService,
 			ObjectMapper objectMapper, OrganizationProvider organizationProvider,
 			ProcessAuthorizationHelper processAuthorizationHelper,
 			QuestionnaireResponseHelper questionnaireResponseHelper, ReadAccessHelper readAccessHelper,
-			TaskHelper taskHelper)
+			TaskHelper taskHelper, TaskOutbox taskOutbox)
 	{
 		this.proxyConfig = proxyConfig;
 		this.endpointProvider = endpointProvider;
@@ -52,6 +54,7 @@ public class ProcessPluginApiImpl implements ProcessPluginApi, InitializingBean
 		this.questionnaireResponseHelper = questionnaireResponseHelper;
 		this.readAccessHelper = readAccessHelper;
 		this.taskHelper = taskHelper;
+		this.taskOutbox = taskOutbox;
 	}
 
 	@Override
@@ -68,6 +71,7 @@ public class ProcessPluginApiImpl implements ProcessPluginApi, InitializingBean
 		Objects.requireNonNull(questionnaireResponseHelper, "questionnaireResponseHelper");
 		Objects.requireNonNull(readAccessHelper, "readAccessHelper");
 		Objects.requireNonNull(taskHelper, "taskHelper");
+		Objects.requireNonNull(taskOutbox, "taskOutbox");
 	}
 
 	@Override
@@ -136,10 +140,16 @@ public class ProcessPluginApiImpl implements ProcessPluginApi, InitializingBean
 		return taskHelper;
 	}
 
+	@Override
+	public TaskOutbox getTaskOutbox()
+	{
+		return taskOutbox;
+	}
+
 	@Override
 	public Variables getVariables(DelegateExecution execution)
 	{
 		// returning a new VariablesImpl since DelegateExecution is BPMN activity specific
-		return new VariablesImpl(execution);
+		return new VariablesImpl(execution, fhirWebserviceClientProvider);
 	}
 }
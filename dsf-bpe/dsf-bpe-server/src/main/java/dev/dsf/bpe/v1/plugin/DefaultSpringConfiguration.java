@@ -17,6 +17,7 @@ import dev.dsf.bpe.v1.service.MailService;
 import dev.dsf.bpe.v1.service.OrganizationProvider;
 import dev.dsf.bpe.v1.service.QuestionnaireResponseHelper;
 import dev.dsf.bpe.v1.service.TaskHelper;
+import dev.dsf.bpe.v1.service.TaskOutbox;
 import dev.dsf.fhir.authorization.process.ProcessAuthorizationHelper;
 import dev.dsf.fhir.authorization.read.ReadAccessHelper;
 
@@ -92,4 +93,10 @@ public class DefaultSpringConfiguration
 	{
 		return api.getTaskHelper();
 	}
+
+	@Bean
+	public TaskOutbox getTaskOutbox()
+	{
+		return api.getTaskOutbox();
+	}
 }
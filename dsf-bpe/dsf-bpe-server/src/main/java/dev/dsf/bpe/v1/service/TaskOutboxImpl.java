@@ -0,0 +1,81 @@
+package dev.dsf.bpe.v1.service;
+
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.UUID;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.hl7.fhir.r4.model.Task;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import ca.uhn.fhir.context.FhirContext;
+import dev.dsf.bpe.dao.TaskOutboxDao;
+import dev.dsf.bpe.dao.TaskOutboxEntry;
+import dev.dsf.bpe.outbox.TaskOutboxSender;
+
+public class TaskOutboxImpl implements TaskOutbox, InitializingBean
+{
+	private final TaskOutboxDao dao;
+	private final FhirContext fhirContext;
+	private final TaskOutboxSender sender;
+
+	/**
+	 * @param dao
+	 *            not <code>null</code>
+	 * @param fhirContext
+	 *            not <code>null</code>
+	 * @param sender
+	 *            not <code>null</code>
+	 */
+	public TaskOutboxImpl(TaskOutboxDao dao, FhirContext fhirContext, TaskOutboxSender sender)
+	{
+		this.dao = dao;
+		this.fhirContext = fhirContext;
+		this.sender = sender;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception
+	{
+		Objects.requireNonNull(dao, "dao");
+		Objects.requireNonNull(fhirContext, "fhirContext");
+		Objects.requireNonNull(sender, "sender");
+	}
+
+	@Override
+	public String add(DelegateExecution execution, String endpointUrl, Task task)
+	{
+		Objects.requireNonNull(execution, "execution");
+		Objects.requireNonNull(endpointUrl, "endpointUrl");
+		Objects.requireNonNull(task, "task");
+
+		TaskOutboxEntry entry = new TaskOutboxEntry(UUID.randomUUID(), endpointUrl,
+				fhirContext.newJsonParser().encodeResourceToString(task), execution.getProcessInstanceId(),
+				execution.getBusinessKey(), 0);
+
+		try
+		{
+			dao.create(entry);
+		}
+		catch (SQLException e)
+		{
+			throw new RuntimeException(e);
+		}
+
+		if (TransactionSynchronizationManager.isSynchronizationActive())
+		{
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+			{
+				@Override
+				public void afterCommit()
+				{
+					sender.wakeup();
+				}
+			});
+		}
+
+		return entry.getOutboxId().toString();
+	}
+}
@@ -16,17 +16,19 @@ import ca.uhn.fhir.parser.IParser;
 public class FhirResourceJacksonDeserializer extends JsonDeserializer<Resource>
 {
 	private final FhirContext fhirContext;
+	private final ThreadLocal<IParser> jsonParser;
 
 	public FhirResourceJacksonDeserializer(FhirContext fhirContext)
 	{
 		this.fhirContext = Objects.requireNonNull(fhirContext, "fhirContext");
+		this.jsonParser = ThreadLocal.withInitial(this::newJsonParser);
 	}
 
 	@Override
 	public Resource deserialize(JsonParser p, DeserializationContext ctxt) throws IOException, JsonProcessingException
 	{
 		String string = p.readValueAsTree().toString();
-		return (Resource) newJsonParser().parseResource(string);
+		return (Resource) jsonParser.get().parseResource(string);
 	}
 
 	private IParser newJsonParser()
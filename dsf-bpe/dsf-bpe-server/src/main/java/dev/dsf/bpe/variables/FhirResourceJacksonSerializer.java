@@ -16,17 +16,19 @@ import ca.uhn.fhir.parser.IParser;
 public class FhirResourceJacksonSerializer extends JsonSerializer<Resource>
 {
 	private final FhirContext fhirContext;
+	private final ThreadLocal<IParser> jsonParser;
 
 	public FhirResourceJacksonSerializer(FhirContext fhirContext)
 	{
 		this.fhirContext = Objects.requireNonNull(fhirContext, "fhirContext");
+		this.jsonParser = ThreadLocal.withInitial(this::newJsonParser);
 	}
 
 	@Override
 	public void serialize(Resource value, JsonGenerator jgen, SerializerProvider provider)
 			throws IOException, JsonGenerationException
 	{
-		String text = newJsonParser().encodeResourceToString(value);
+		String text = jsonParser.get().encodeResourceToString(value);
 		jgen.writeRawValue(text);
 	}
 
@@ -0,0 +1,76 @@
+package dev.dsf.bpe.variables;
+
+import java.util.Objects;
+
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Resource;
+
+import dev.dsf.bpe.v1.service.FhirWebserviceClientProvider;
+
+/**
+ * Absolute, versioned reference to a FHIR resource stored as process variable instead of the resource itself. The
+ * resource is read on first access, see {@link #getResource(FhirWebserviceClientProvider)}. Since the process engine
+ * deserializes variables once per command, the read resource is cached for the duration of the current job.
+ */
+public class FhirResourceReference
+{
+	private final String reference;
+	private final Class<? extends Resource> resourceType;
+
+	private Resource resource;
+
+	/**
+	 * @param reference
+	 *            not <code>null</code>, absolute url with resource type, id and version
+	 * @param resourceType
+	 *            not <code>null</code>
+	 * @throws IllegalArgumentException
+	 *             if the given <b>reference</b> is not absolute or not versioned
+	 */
+	public FhirResourceReference(String reference, Class<? extends Resource> resourceType)
+	{
+		Objects.requireNonNull(reference, "reference");
+		this.resourceType = Objects.requireNonNull(resourceType, "resourceType");
+
+		IdType id = new IdType(reference);
+		if (!id.isAbsolute() || !id.hasResourceType() || !id.hasIdPart() || !id.hasVersionIdPart())
+			throw new IllegalArgumentException("Reference '" + reference + "' not absolute or not versioned");
+
+		this.reference = id.getValue();
+	}
+
+	public String getReference()
+	{
+		return reference;
+	}
+
+	public Class<? extends Resource> getResourceType()
+	{
+		return resourceType;
+	}
+
+	/**
+	 * @param clientProvider
+	 *            not <code>null</code>
+	 * @return the referenced resource, read from the FHIR server on first access
+	 */
+	public synchronized Resource getResource(FhirWebserviceClientProvider clientProvider)
+	{
+		Objects.requireNonNull(clientProvider, "clientProvider");
+
+		if (resource == null)
+		{
+			IdType id = new IdType(reference);
+			resource = clientProvider.getWebserviceClient(id.getBaseUrl()).read(resourceType, id.getIdPart(),
+					id.getVersionIdPart());
+		}
+
+		return resource;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "FhirResourceReference[" + reference + "]";
+	}
+}
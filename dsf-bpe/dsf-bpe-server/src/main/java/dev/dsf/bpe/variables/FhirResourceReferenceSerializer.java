@@ -0,0 +1,57 @@
+package dev.dsf.bpe.variables;
+
+import org.camunda.bpm.engine.impl.variable.serializer.PrimitiveValueSerializer;
+import org.camunda.bpm.engine.impl.variable.serializer.ValueFields;
+import org.camunda.bpm.engine.variable.impl.value.UntypedValueImpl;
+import org.hl7.fhir.r4.model.Resource;
+
+import dev.dsf.bpe.variables.FhirResourceReferenceValues.FhirResourceReferenceValue;
+
+/**
+ * Stores the absolute, versioned reference as text value and the resource class name as second text value.
+ */
+public class FhirResourceReferenceSerializer extends PrimitiveValueSerializer<FhirResourceReferenceValue>
+{
+	public FhirResourceReferenceSerializer()
+	{
+		super(FhirResourceReferenceValues.VALUE_TYPE);
+	}
+
+	@Override
+	public void writeValue(FhirResourceReferenceValue value, ValueFields valueFields)
+	{
+		FhirResourceReference reference = value.getValue();
+		if (reference != null)
+		{
+			valueFields.setTextValue(reference.getReference());
+			valueFields.setTextValue2(reference.getResourceType().getName());
+		}
+	}
+
+	@Override
+	public FhirResourceReferenceValue convertToTypedValue(UntypedValueImpl untypedValue)
+	{
+		return FhirResourceReferenceValues.create((FhirResourceReference) untypedValue.getValue());
+	}
+
+	@Override
+	public FhirResourceReferenceValue readValue(ValueFields valueFields, boolean asTransientValue)
+	{
+		String reference = valueFields.getTextValue();
+		String className = valueFields.getTextValue2();
+
+		if (reference == null || className == null)
+			return FhirResourceReferenceValues.create(null);
+
+		try
+		{
+			@SuppressWarnings("unchecked")
+			Class<? extends Resource> clazz = (Class<? extends Resource>) Class.forName(className);
+			return FhirResourceReferenceValues.create(new FhirResourceReference(reference, clazz));
+		}
+		catch (ClassNotFoundException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+}
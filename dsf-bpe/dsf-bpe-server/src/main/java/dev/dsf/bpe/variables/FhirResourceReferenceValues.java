@@ -0,0 +1,54 @@
+package dev.dsf.bpe.variables;
+
+import java.util.Map;
+
+import org.camunda.bpm.engine.variable.impl.type.PrimitiveValueTypeImpl;
+import org.camunda.bpm.engine.variable.impl.value.PrimitiveTypeValueImpl;
+import org.camunda.bpm.engine.variable.type.PrimitiveValueType;
+import org.camunda.bpm.engine.variable.value.PrimitiveValue;
+import org.camunda.bpm.engine.variable.value.TypedValue;
+
+public final class FhirResourceReferenceValues
+{
+	public static interface FhirResourceReferenceValue extends PrimitiveValue<FhirResourceReference>
+	{
+	}
+
+	private static class FhirResourceReferenceValueImpl extends PrimitiveTypeValueImpl<FhirResourceReference>
+			implements FhirResourceReferenceValue
+	{
+		private static final long serialVersionUID = 1L;
+
+		public FhirResourceReferenceValueImpl(FhirResourceReference value, PrimitiveValueType type)
+		{
+			super(value, type);
+		}
+	}
+
+	public static class FhirResourceReferenceTypeImpl extends PrimitiveValueTypeImpl
+	{
+		private static final long serialVersionUID = 1L;
+
+		private FhirResourceReferenceTypeImpl()
+		{
+			super(FhirResourceReference.class);
+		}
+
+		@Override
+		public TypedValue createValue(Object value, Map<String, Object> valueInfo)
+		{
+			return new FhirResourceReferenceValueImpl((FhirResourceReference) value, VALUE_TYPE);
+		}
+	}
+
+	public static final PrimitiveValueType VALUE_TYPE = new FhirResourceReferenceTypeImpl();
+
+	private FhirResourceReferenceValues()
+	{
+	}
+
+	public static FhirResourceReferenceValue create(FhirResourceReference reference)
+	{
+		return new FhirResourceReferenceValueImpl(reference, VALUE_TYPE);
+	}
+}
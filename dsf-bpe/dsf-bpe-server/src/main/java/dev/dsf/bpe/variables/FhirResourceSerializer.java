@@ -1,6 +1,7 @@
 package dev.dsf.bpe.variables;
 
-import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 
@@ -17,17 +18,36 @@ import ca.uhn.fhir.parser.DataFormatException;
 import ca.uhn.fhir.parser.IParser;
 import dev.dsf.bpe.variables.FhirResourceValues.FhirResourceValue;
 
+/**
+ * Stores FHIR resources as JSON, values are written in the {@link VariableByteArrayFormat} and compressed if enabled.
+ * Values written by previous versions are read transparently.
+ */
 public class FhirResourceSerializer extends PrimitiveValueSerializer<FhirResourceValue> implements InitializingBean
 {
 	private static final Logger logger = LoggerFactory.getLogger(FhirResourceSerializer.class);
 
 	private final FhirContext fhirContext;
+	private final boolean compress;
+	private final ThreadLocal<IParser> jsonParser;
 
 	public FhirResourceSerializer(FhirContext fhirContext)
+	{
+		this(fhirContext, false);
+	}
+
+	/**
+	 * @param fhirContext
+	 *            not <code>null</code>
+	 * @param compress
+	 *            <code>true</code> to compress large values, see {@link VariableByteArrayFormat#COMPRESSION_THRESHOLD}
+	 */
+	public FhirResourceSerializer(FhirContext fhirContext, boolean compress)
 	{
 		super(FhirResourceValues.VALUE_TYPE);
 
 		this.fhirContext = fhirContext;
+		this.compress = compress;
+		this.jsonParser = ThreadLocal.withInitial(this::newJsonParser);
 	}
 
 	@Override
@@ -44,9 +64,10 @@ public class FhirResourceSerializer extends PrimitiveValueSerializer<FhirResourc
 		{
 			if (resource != null)
 			{
-				String s = newJsonParser().encodeResourceToString(resource);
+				String s = jsonParser.get().encodeResourceToString(resource);
 				valueFields.setTextValue(resource.getClass().getName());
-				valueFields.setByteArrayValue(s.getBytes(StandardCharsets.UTF_8));
+				valueFields.setByteArrayValue(
+						VariableByteArrayFormat.encode(s.getBytes(StandardCharsets.UTF_8), compress));
 			}
 		}
 		catch (DataFormatException e)
@@ -75,24 +96,24 @@ public class FhirResourceSerializer extends PrimitiveValueSerializer<FhirResourc
 		String className = valueFields.getTextValue();
 		byte[] bytes = valueFields.getByteArrayValue();
 
-		try
+		try (InputStream json = VariableByteArrayFormat.decode(bytes))
 		{
 			Resource resource;
 			if (className != null)
 			{
 				@SuppressWarnings("unchecked")
 				Class<Resource> clazz = (Class<Resource>) Class.forName(className);
-				resource = newJsonParser().parseResource(clazz, new ByteArrayInputStream(bytes));
+				resource = jsonParser.get().parseResource(clazz, json);
 			}
 			else
 			{
 				logger.warn("ClassName from DB null, trying to parse FHIR resource without type information");
-				resource = (Resource) newJsonParser().parseResource(new ByteArrayInputStream(bytes));
+				resource = (Resource) jsonParser.get().parseResource(json);
 			}
 
 			return FhirResourceValues.create(resource);
 		}
-		catch (ClassNotFoundException e)
+		catch (ClassNotFoundException | IOException e)
 		{
 			throw new RuntimeException(e);
 		}
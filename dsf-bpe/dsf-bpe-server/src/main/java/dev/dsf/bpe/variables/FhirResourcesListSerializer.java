@@ -1,7 +1,7 @@
 package dev.dsf.bpe.variables;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Objects;
 
 import org.camunda.bpm.engine.impl.variable.serializer.PrimitiveValueSerializer;
@@ -17,12 +17,25 @@ public class FhirResourcesListSerializer extends PrimitiveValueSerializer<FhirRe
 		implements InitializingBean
 {
 	private final ObjectMapper objectMapper;
+	private final boolean compress;
 
 	public FhirResourcesListSerializer(ObjectMapper objectMapper)
+	{
+		this(objectMapper, false);
+	}
+
+	/**
+	 * @param objectMapper
+	 *            not <code>null</code>
+	 * @param compress
+	 *            <code>true</code> to compress large values, see {@link VariableByteArrayFormat#COMPRESSION_THRESHOLD}
+	 */
+	public FhirResourcesListSerializer(ObjectMapper objectMapper, boolean compress)
 	{
 		super(FhirResourcesListValues.VALUE_TYPE);
 
 		this.objectMapper = objectMapper;
+		this.compress = compress;
 	}
 
 	@Override
@@ -39,11 +52,10 @@ public class FhirResourcesListSerializer extends PrimitiveValueSerializer<FhirRe
 		{
 			if (resource != null)
 			{
-				ByteArrayOutputStream out = new ByteArrayOutputStream();
-				objectMapper.writeValue(out, resource);
+				byte[] json = objectMapper.writeValueAsBytes(resource);
 
 				valueFields.setTextValue(resource.getClass().getName());
-				valueFields.setByteArrayValue(out.toByteArray());
+				valueFields.setByteArrayValue(VariableByteArrayFormat.encode(json, compress));
 			}
 		}
 		catch (IOException e)
@@ -64,11 +76,11 @@ public class FhirResourcesListSerializer extends PrimitiveValueSerializer<FhirRe
 		String className = valueFields.getTextValue();
 		byte[] bytes = valueFields.getByteArrayValue();
 
-		try
+		try (InputStream json = VariableByteArrayFormat.decode(bytes))
 		{
 			@SuppressWarnings("unchecked")
 			Class<FhirResourcesList> clazz = (Class<FhirResourcesList>) Class.forName(className);
-			FhirResourcesList resource = objectMapper.readValue(bytes, clazz);
+			FhirResourcesList resource = objectMapper.readValue(json, clazz);
 
 			return FhirResourcesListValues.create(resource);
 		}
@@ -0,0 +1,94 @@
+package dev.dsf.bpe.variables;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Versioned encoding of JSON process variables stored as byte arrays in the process engine database.
+ * <p>
+ * Version 1 values start with the ASCII bytes <code>DSF</code> and the version byte <code>1</code>, followed by the
+ * gzip compressed JSON. Values without header are plain UTF-8 JSON as written by previous DSF versions, or by this
+ * version if compression is disabled or the JSON is smaller than {@link #COMPRESSION_THRESHOLD}. JSON never starts with
+ * the header bytes, both formats can be read transparently.
+ */
+public final class VariableByteArrayFormat
+{
+	public static final int COMPRESSION_THRESHOLD = 512;
+
+	private static final byte VERSION_GZIP_JSON = 1;
+	private static final byte[] HEADER = { 'D', 'S', 'F', VERSION_GZIP_JSON };
+
+	private VariableByteArrayFormat()
+	{
+	}
+
+	/**
+	 * @param json
+	 *            not <code>null</code>, UTF-8 encoded JSON
+	 * @param compress
+	 *            <code>true</code> to gzip compress values with at least {@link #COMPRESSION_THRESHOLD} bytes
+	 * @return encoded value
+	 */
+	public static byte[] encode(byte[] json, boolean compress)
+	{
+		if (!compress || json.length < COMPRESSION_THRESHOLD)
+			return json;
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + HEADER.length);
+		out.writeBytes(HEADER);
+
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192))
+		{
+			gzip.write(json);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+
+		return out.toByteArray();
+	}
+
+	/**
+	 * @param bytes
+	 *            not <code>null</code>, encoded value
+	 * @return stream with the UTF-8 encoded JSON
+	 * @throws IllegalStateException
+	 *             if the value has an unknown format version
+	 */
+	public static InputStream decode(byte[] bytes)
+	{
+		if (!hasHeaderPrefix(bytes))
+			return new ByteArrayInputStream(bytes);
+
+		if (bytes[HEADER.length - 1] != VERSION_GZIP_JSON)
+			throw new IllegalStateException("Unsupported process variable format version " + bytes[HEADER.length - 1]);
+
+		try
+		{
+			return new GZIPInputStream(new ByteArrayInputStream(bytes, HEADER.length, bytes.length - HEADER.length),
+					8192);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static boolean hasHeaderPrefix(byte[] bytes)
+	{
+		if (bytes.length < HEADER.length)
+			return false;
+
+		for (int i = 0; i < HEADER.length - 1; i++)
+			if (bytes[i] != HEADER[i])
+				return false;
+
+		return true;
+	}
+}
@@ -9,6 +9,7 @@ import java.util.stream.Stream;
 
 import org.camunda.bpm.engine.delegate.DelegateExecution;
 import org.camunda.bpm.engine.variable.value.TypedValue;
+import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.QuestionnaireResponse;
 import org.hl7.fhir.r4.model.Resource;
 import org.hl7.fhir.r4.model.Task;
@@ -18,9 +19,11 @@ import org.slf4j.LoggerFactory;
 import dev.dsf.bpe.listener.ListenerVariables;
 import dev.dsf.bpe.subscription.QuestionnaireResponseHandler;
 import dev.dsf.bpe.v1.constants.BpmnExecutionVariables;
+import dev.dsf.bpe.v1.service.FhirWebserviceClientProvider;
 import dev.dsf.bpe.v1.variables.Target;
 import dev.dsf.bpe.v1.variables.Targets;
 import dev.dsf.bpe.v1.variables.Variables;
+import dev.dsf.bpe.variables.FhirResourceReferenceValues.FhirResourceReferenceValue;
 import dev.dsf.bpe.variables.FhirResourceValues.FhirResourceValue;
 import dev.dsf.bpe.variables.FhirResourcesListValues.FhirResourcesListValue;
 import dev.dsf.bpe.variables.TargetValues.TargetValue;
@@ -64,10 +67,18 @@ public class VariablesImpl implements Variables, ListenerVariables
 	}
 
 	private final DelegateExecution execution;
-
-	public VariablesImpl(DelegateExecution execution)
+	private final FhirWebserviceClientProvider clientProvider;
+
+	/**
+	 * @param execution
+	 *            not <code>null</code>
+	 * @param clientProvider
+	 *            not <code>null</code>, used to read resources of {@link FhirResourceReference} variables
+	 */
+	public VariablesImpl(DelegateExecution execution, FhirWebserviceClientProvider clientProvider)
 	{
 		this.execution = Objects.requireNonNull(execution, "execution");
+		this.clientProvider = Objects.requireNonNull(clientProvider, "clientProvider");
 	}
 
 	@Override
@@ -179,8 +190,21 @@ public class VariablesImpl implements Variables, ListenerVariables
 	@SuppressWarnings("unchecked")
 	public <R extends Resource> R getResource(String variableName)
 	{
-		Resource resource = (Resource) execution.getVariable(variableName);
-		return (R) resource;
+		Object variable = execution.getVariable(variableName);
+
+		if (variable instanceof FhirResourceReference reference)
+			return (R) reference.getResource(clientProvider);
+		else
+			return (R) variable;
+	}
+
+	@Override
+	public void setResourceReference(String variableName, IdType reference, Class<? extends Resource> resourceType)
+			throws IllegalArgumentException
+	{
+		FhirResourceReferenceValue variable = reference == null ? null
+				: FhirResourceReferenceValues.create(new FhirResourceReference(reference.getValue(), resourceType));
+		execution.setVariable(variableName, variable);
 	}
 
 	@Override
@@ -0,0 +1,73 @@
+package dev.dsf.bpe.camunda;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Scope;
+
+import dev.dsf.bpe.plugin.ProcessIdAndVersion;
+
+public class DelegateProviderImplTest
+{
+	public static class PrototypeDelegate
+	{
+	}
+
+	public static class SingletonDelegate
+	{
+	}
+
+	@Configuration
+	public static class TestConfig
+	{
+		@Bean
+		@Scope("prototype")
+		public PrototypeDelegate prototypeDelegate()
+		{
+			return new PrototypeDelegate();
+		}
+
+		@Bean
+		public SingletonDelegate singletonDelegate()
+		{
+			return new SingletonDelegate();
+		}
+	}
+
+	@Test
+	public void testGetDelegate() throws Exception
+	{
+		try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(TestConfig.class))
+		{
+			DelegateProviderImpl provider = new DelegateProviderImpl(getClass().getClassLoader(), context);
+			ProcessIdAndVersion processIdAndVersion = new ProcessIdAndVersion("dsfdev_test", "1.0");
+
+			Object p1 = provider.getDelegate(processIdAndVersion, PrototypeDelegate.class.getName());
+			Object p2 = provider.getDelegate(processIdAndVersion, PrototypeDelegate.class.getName());
+			assertNotNull(p1);
+			assertNotSame(p1, p2);
+
+			Object s1 = provider.getDelegate(processIdAndVersion, SingletonDelegate.class.getName());
+			provider.setProcessPlugins(List.of());
+			Object s2 = provider.getDelegate(processIdAndVersion, SingletonDelegate.class.getName());
+			assertSame(s1, s2);
+		}
+	}
+
+	@Test(expected = ClassNotFoundException.class)
+	public void testGetDelegateClassNotFound() throws Exception
+	{
+		try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(TestConfig.class))
+		{
+			new DelegateProviderImpl(getClass().getClassLoader(), context)
+					.getDelegate(new ProcessIdAndVersion("dsfdev_test", "1.0"), "dev.dsf.bpe.NotExisting");
+		}
+	}
+}
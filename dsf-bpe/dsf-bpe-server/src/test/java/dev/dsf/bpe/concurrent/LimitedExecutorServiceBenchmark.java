@@ -0,0 +1,103 @@
+package dev.dsf.bpe.concurrent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.util.VirtualThreads;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the throughput of a batch of blocking tasks, simulating process instances waiting for FHIR server responses,
+ * executed by a fixed thread pool with the default job executor max pool size and by a {@link LimitedExecutorService}
+ * with a higher concurrency limit. Uses virtual threads if supported by the JVM, platform threads otherwise.
+ * <p>
+ * Not executed as part of the build, run {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LimitedExecutorServiceBenchmark
+{
+	private static final int TASKS = 200;
+	private static final long BLOCKING_MILLIS = 5;
+
+	public static void main(String[] args) throws Exception
+	{
+		Options options = new OptionsBuilder().include(LimitedExecutorServiceBenchmark.class.getSimpleName()).build();
+		new Runner(options).run();
+	}
+
+	@Param({ "fixed-10", "limited-100" })
+	private String executorType;
+
+	private ExecutorService executor;
+	private ExecutorService threadPerTask;
+
+	@Setup
+	public void setup()
+	{
+		executor = switch (executorType)
+		{
+			case "fixed-10" -> Executors.newFixedThreadPool(10);
+			case "limited-100" -> new LimitedExecutorService(
+					VirtualThreads.areSupported() ? VirtualThreads.getDefaultVirtualThreadsExecutor() : threadPerTask(),
+					100);
+			default -> throw new IllegalArgumentException(executorType);
+		};
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		executor.shutdownNow();
+
+		if (threadPerTask != null)
+			threadPerTask.shutdownNow();
+	}
+
+	private ExecutorService threadPerTask()
+	{
+		threadPerTask = Executors.newCachedThreadPool();
+		return threadPerTask;
+	}
+
+	@Benchmark
+	public void executeBlockingTasks() throws InterruptedException
+	{
+		CountDownLatch done = new CountDownLatch(TASKS);
+		for (int i = 0; i < TASKS; i++)
+			executor.execute(() ->
+			{
+				try
+				{
+					Thread.sleep(BLOCKING_MILLIS);
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+				done.countDown();
+			});
+
+		done.await();
+	}
+}
@@ -0,0 +1,197 @@
+package dev.dsf.bpe.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class LimitedExecutorServiceTest
+{
+	private final ExecutorService threadPerTask = Executors.newCachedThreadPool();
+
+	@After
+	public void after()
+	{
+		threadPerTask.shutdownNow();
+	}
+
+	@Test
+	public void testExecuteLimitsConcurrentTasks() throws Exception
+	{
+		LimitedExecutorService executor = new LimitedExecutorService(threadPerTask, 3);
+
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		CountDownLatch done = new CountDownLatch(20);
+
+		for (int i = 0; i < 20; i++)
+			executor.execute(() ->
+			{
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				try
+				{
+					Thread.sleep(10);
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+				running.decrementAndGet();
+				done.countDown();
+			});
+
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+		assertTrue(maxRunning.get() <= 3);
+		assertEquals(3, executor.getAvailablePermits());
+	}
+
+	@Test
+	public void testTryExecuteRejectsIfSaturated() throws Exception
+	{
+		LimitedExecutorService executor = new LimitedExecutorService(threadPerTask, 1);
+
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(1);
+
+		assertTrue(executor.tryExecute(() ->
+		{
+			try
+			{
+				release.await();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			done.countDown();
+		}));
+		assertFalse(executor.tryExecute(() ->
+		{}));
+
+		release.countDown();
+		assertTrue(done.await(10, TimeUnit.SECONDS));
+
+		// permit released after task completed
+		for (int i = 0; i < 100 && executor.getAvailablePermits() == 0; i++)
+			Thread.sleep(10);
+		assertTrue(executor.tryExecute(() ->
+		{}));
+	}
+
+	@Test
+	public void testShutdownKeepsDelegateRunning() throws Exception
+	{
+		LimitedExecutorService executor = new LimitedExecutorService(threadPerTask, 1);
+
+		CountDownLatch release = new CountDownLatch(1);
+		executor.execute(() ->
+		{
+			try
+			{
+				release.await();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+		});
+
+		executor.shutdown();
+		assertTrue(executor.isShutdown());
+		assertFalse(executor.awaitTermination(50, TimeUnit.MILLISECONDS));
+		assertFalse(executor.isTerminated());
+
+		release.countDown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+		assertTrue(executor.isTerminated());
+
+		// shared delegate not shut down
+		assertFalse(threadPerTask.isShutdown());
+	}
+
+	@Test(expected = RejectedExecutionException.class)
+	public void testExecuteAfterShutdown() throws Exception
+	{
+		LimitedExecutorService executor = new LimitedExecutorService(threadPerTask, 1);
+		executor.shutdown();
+
+		executor.execute(() ->
+		{});
+	}
+
+	@Test
+	public void testTryExecuteAfterShutdownReleasesPermit() throws Exception
+	{
+		LimitedExecutorService executor = new LimitedExecutorService(threadPerTask, 1);
+		executor.shutdown();
+
+		try
+		{
+			executor.tryExecute(() ->
+			{});
+			fail("RejectedExecutionException expected");
+		}
+		catch (RejectedExecutionException e)
+		{
+			// expected
+		}
+
+		assertEquals(1, executor.getAvailablePermits());
+		assertTrue(executor.isTerminated());
+	}
+
+	@Test
+	public void testShutdownNowInterruptsRunningTasks() throws Exception
+	{
+		LimitedExecutorService executor = new LimitedExecutorService(threadPerTask, 1);
+
+		CountDownLatch started = new CountDownLatch(1);
+		AtomicBoolean interrupted = new AtomicBoolean();
+		AtomicInteger executed = new AtomicInteger();
+
+		executor.execute(() ->
+		{
+			executed.incrementAndGet();
+			started.countDown();
+			try
+			{
+				Thread.sleep(10_000);
+			}
+			catch (InterruptedException e)
+			{
+				interrupted.set(true);
+			}
+		});
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+
+		// waiting for a permit, not executed after shutdownNow
+		executor.execute(executed::incrementAndGet);
+
+		assertTrue(executor.shutdownNow().isEmpty());
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+		assertTrue(interrupted.get());
+		assertEquals(1, executed.get());
+		assertEquals(1, executor.getAvailablePermits());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMaxConcurrentTasksNotPositive() throws Exception
+	{
+		new LimitedExecutorService(threadPerTask, 0);
+	}
+}
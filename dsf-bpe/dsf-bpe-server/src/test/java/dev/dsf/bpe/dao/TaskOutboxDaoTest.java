@@ -0,0 +1,269 @@
+package dev.dsf.bpe.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TaskOutboxDaoTest extends AbstractDaoTest
+{
+	// connection of the process engine transaction, not read only
+	private static final BasicDataSource engineDataSource = createEngineDataSource();
+
+	private static BasicDataSource createEngineDataSource()
+	{
+		BasicDataSource dataSource = createCamundaDataSource();
+		dataSource.setDefaultReadOnly(false);
+		return dataSource;
+	}
+
+	@BeforeClass
+	public static void beforeClassEngineDataSource() throws Exception
+	{
+		engineDataSource.start();
+	}
+
+	@AfterClass
+	public static void afterClassEngineDataSource() throws Exception
+	{
+		engineDataSource.close();
+	}
+
+	private final TaskOutboxDao dao = new TaskOutboxDaoJdbc(defaultDataSource, engineDataSource);
+
+	private TaskOutboxEntry create() throws SQLException
+	{
+		TaskOutboxEntry entry = new TaskOutboxEntry(UUID.randomUUID(), "https://remote.test/fhir",
+				"{\"resourceType\":\"Task\"}", "process-instance-id", "business-key", 0);
+		dao.create(entry);
+		return entry;
+	}
+
+	@Test
+	public void testCreateReadDue() throws Exception
+	{
+		TaskOutboxEntry entry = create();
+
+		List<TaskOutboxEntry> due = dao.readDue(LocalDateTime.now().plusSeconds(1), 10);
+		assertNotNull(due);
+		assertEquals(1, due.size());
+		assertEquals(entry.getOutboxId(), due.get(0).getOutboxId());
+		assertEquals(entry.getEndpointUrl(), due.get(0).getEndpointUrl());
+		assertEquals(entry.getTask(), due.get(0).getTask());
+		assertEquals(entry.getProcessInstanceId(), due.get(0).getProcessInstanceId());
+		assertEquals(entry.getBusinessKey(), due.get(0).getBusinessKey());
+		assertEquals(0, due.get(0).getAttempts());
+	}
+
+	@Test
+	public void testReadDueNotYetDue() throws Exception
+	{
+		create();
+
+		assertTrue(dao.readDue(LocalDateTime.now().minusMinutes(1), 10).isEmpty());
+	}
+
+	@Test
+	public void testReadDueLimitOrderedByNextAttempt() throws Exception
+	{
+		TaskOutboxEntry entry1 = create();
+		TaskOutboxEntry entry2 = create();
+		TaskOutboxEntry entry3 = create();
+
+		LocalDateTime now = LocalDateTime.now();
+		dao.updateRetry(entry1.getOutboxId(), 1, now.minusSeconds(10), null);
+		dao.updateRetry(entry2.getOutboxId(), 1, now.minusSeconds(30), null);
+		dao.updateRetry(entry3.getOutboxId(), 1, now.minusSeconds(20), null);
+
+		List<TaskOutboxEntry> due = dao.readDue(now, 2);
+		assertEquals(2, due.size());
+		assertEquals(entry2.getOutboxId(), due.get(0).getOutboxId());
+		assertEquals(entry3.getOutboxId(), due.get(1).getOutboxId());
+	}
+
+	@Test
+	public void testClaim() throws Exception
+	{
+		TaskOutboxEntry entry = create();
+
+		LocalDateTime now = LocalDateTime.now().plusSeconds(1);
+		assertTrue(dao.claim(entry.getOutboxId(), now, now.plusMinutes(10)));
+
+		// claimed entries not due until lease expired
+		assertTrue(dao.readDue(now, 10).isEmpty());
+		assertFalse(dao.claim(entry.getOutboxId(), now, now.plusMinutes(10)));
+	}
+
+	@Test
+	public void testClaimExclusive() throws Exception
+	{
+		TaskOutboxEntry entry = create();
+
+		LocalDateTime now = LocalDateTime.now().plusSeconds(1);
+		int threads = 8;
+		CountDownLatch start = new CountDownLatch(1);
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try
+		{
+			List<Future<Boolean>> claims = new ArrayList<>();
+			for (int i = 0; i < threads; i++)
+			{
+				Callable<Boolean> claim = () ->
+				{
+					start.await();
+					return dao.claim(entry.getOutboxId(), now, now.plusMinutes(10));
+				};
+				claims.add(executor.submit(claim));
+			}
+
+			start.countDown();
+
+			int claimed = 0;
+			for (Future<Boolean> claim : claims)
+				if (claim.get())
+					claimed++;
+
+			assertEquals(1, claimed);
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testClaimAfterLeaseExpired() throws Exception
+	{
+		TaskOutboxEntry entry = create();
+
+		LocalDateTime now = LocalDateTime.now().plusSeconds(1);
+		LocalDateTime leaseUntil = now.plusMinutes(10);
+		assertTrue(dao.claim(entry.getOutboxId(), now, leaseUntil));
+
+		assertTrue(dao.readDue(leaseUntil.minusSeconds(1), 10).isEmpty());
+		assertFalse(dao.claim(entry.getOutboxId(), leaseUntil.minusSeconds(1), leaseUntil.plusMinutes(10)));
+
+		List<TaskOutboxEntry> due = dao.readDue(leaseUntil, 10);
+		assertEquals(1, due.size());
+		assertEquals(entry.getOutboxId(), due.get(0).getOutboxId());
+		assertTrue(dao.claim(entry.getOutboxId(), leaseUntil, leaseUntil.plusMinutes(10)));
+	}
+
+	@Test
+	public void testDelete() throws Exception
+	{
+		TaskOutboxEntry entry = create();
+
+		dao.delete(entry.getOutboxId());
+
+		assertTrue(dao.readDue(LocalDateTime.now().plusSeconds(1), 10).isEmpty());
+		assertNull(readLastError(entry.getOutboxId()));
+	}
+
+	@Test
+	public void testUpdateRetry() throws Exception
+	{
+		TaskOutboxEntry entry = create();
+
+		LocalDateTime now = LocalDateTime.now().plusSeconds(1);
+		assertTrue(dao.claim(entry.getOutboxId(), now, now.plusMinutes(10)));
+
+		LocalDateTime nextAttempt = now.plusSeconds(30);
+		dao.updateRetry(entry.getOutboxId(), 1, nextAttempt, "test error");
+
+		assertTrue(dao.readDue(nextAttempt.minusSeconds(1), 10).isEmpty());
+
+		List<TaskOutboxEntry> due = dao.readDue(nextAttempt, 10);
+		assertEquals(1, due.size());
+		assertEquals(1, due.get(0).getAttempts());
+		assertEquals("test error", readLastError(entry.getOutboxId()));
+	}
+
+	@Test
+	public void testUpdateFailed() throws Exception
+	{
+		TaskOutboxEntry entry = create();
+
+		LocalDateTime now = LocalDateTime.now().plusSeconds(1);
+		assertTrue(dao.claim(entry.getOutboxId(), now, now.plusMinutes(10)));
+
+		dao.updateFailed(entry.getOutboxId(), 1, "test error");
+
+		// failed entries never due again
+		LocalDateTime later = now.plusYears(1);
+		assertTrue(dao.readDue(later, 10).isEmpty());
+		assertFalse(dao.claim(entry.getOutboxId(), later, later.plusMinutes(10)));
+		assertEquals("test error", readLastError(entry.getOutboxId()));
+	}
+
+	@Test
+	public void testServerUsersGroupPrivileges() throws Exception
+	{
+		assertTrue(hasTablePrivilege(DATABASE_USERS_GROUP, "SELECT"));
+		assertTrue(hasTablePrivilege(DATABASE_USERS_GROUP, "INSERT"));
+		assertTrue(hasTablePrivilege(DATABASE_USERS_GROUP, "UPDATE"));
+		assertTrue(hasTablePrivilege(DATABASE_USERS_GROUP, "DELETE"));
+	}
+
+	@Test
+	public void testCamundaUsersGroupPrivileges() throws Exception
+	{
+		assertTrue(hasTablePrivilege(DATABASE_CAMUNDA_USERS_GROUP, "INSERT"));
+		assertFalse(hasTablePrivilege(DATABASE_CAMUNDA_USERS_GROUP, "SELECT"));
+		assertFalse(hasTablePrivilege(DATABASE_CAMUNDA_USERS_GROUP, "UPDATE"));
+		assertFalse(hasTablePrivilege(DATABASE_CAMUNDA_USERS_GROUP, "DELETE"));
+	}
+
+	private String readLastError(UUID outboxId) throws SQLException
+	{
+		try (Connection connection = defaultDataSource.getConnection();
+				PreparedStatement statement = connection
+						.prepareStatement("SELECT last_error FROM task_outbox WHERE outbox_id = ?"))
+		{
+			statement.setObject(1, outboxId);
+
+			try (ResultSet result = statement.executeQuery())
+			{
+				return result.next() ? result.getString(1) : null;
+			}
+		}
+	}
+
+	private boolean hasTablePrivilege(String role, String privilege) throws SQLException
+	{
+		try (Connection connection = defaultDataSource.getConnection();
+				PreparedStatement statement = connection
+						.prepareStatement("SELECT has_table_privilege(?, 'task_outbox', ?)"))
+		{
+			statement.setString(1, role);
+			statement.setString(2, privilege);
+
+			try (ResultSet result = statement.executeQuery())
+			{
+				assertTrue(result.next());
+				return result.getBoolean(1);
+			}
+		}
+	}
+}
@@ -0,0 +1,243 @@
+package dev.dsf.bpe.outbox;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.camunda.bpm.engine.OptimisticLockingException;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.exception.NullValueException;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Task;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import ca.uhn.fhir.context.FhirContext;
+import dev.dsf.bpe.client.FhirClientProvider;
+import dev.dsf.bpe.dao.TaskOutboxDao;
+import dev.dsf.bpe.dao.TaskOutboxEntry;
+import dev.dsf.bpe.v1.service.TaskOutbox;
+import dev.dsf.fhir.client.FhirWebserviceClient;
+import dev.dsf.fhir.client.PreferReturnMinimalWithRetry;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.WebApplicationException;
+
+public class TaskOutboxSenderTest
+{
+	private static final String ENDPOINT = "https://remote.test/fhir";
+
+	private final FhirContext fhirContext = FhirContext.forR4();
+	private final TaskOutboxDao dao = Mockito.mock(TaskOutboxDao.class);
+	private final FhirClientProvider clientProvider = Mockito.mock(FhirClientProvider.class);
+	private final FhirWebserviceClient client = Mockito.mock(FhirWebserviceClient.class);
+	private final PreferReturnMinimalWithRetry minimalReturnClient = Mockito.mock(PreferReturnMinimalWithRetry.class);
+	private final RuntimeService runtimeService = Mockito.mock(RuntimeService.class);
+
+	private TaskOutboxSender createSender(int threads, int endpointConcurrency, int maxAttempts) throws Exception
+	{
+		Mockito.when(clientProvider.getWebserviceClient(ENDPOINT)).thenReturn(client);
+		Mockito.when(client.withMinimalReturn()).thenReturn(minimalReturnClient);
+
+		TaskOutboxSender sender = new TaskOutboxSender(dao, clientProvider, fhirContext, runtimeService, threads,
+				endpointConcurrency, maxAttempts, 1000, 8000, 60000);
+		sender.afterPropertiesSet();
+		return sender;
+	}
+
+	private TaskOutboxEntry entry(int attempts)
+	{
+		Task task = new Task().setInstantiatesCanonical("http://test.org/bpe/Process/test|1.0");
+		return new TaskOutboxEntry(UUID.randomUUID(), ENDPOINT,
+				fhirContext.newJsonParser().encodeResourceToString(task), "process-instance-id", "business-key",
+				attempts);
+	}
+
+	@Test
+	public void testDeliverSuccessDeletesEntry() throws Exception
+	{
+		TaskOutboxSender sender = createSender(1, 1, 3);
+		TaskOutboxEntry entry = entry(0);
+		Mockito.when(minimalReturnClient.create(Mockito.any(Task.class)))
+				.thenReturn(new IdType(ENDPOINT, "Task", "1", "1"));
+
+		sender.deliver(entry);
+
+		ArgumentCaptor<Task> sent = ArgumentCaptor.forClass(Task.class);
+		Mockito.verify(minimalReturnClient).create(sent.capture());
+		assertEquals("http://test.org/bpe/Process/test|1.0", sent.getValue().getInstantiatesCanonical());
+		Mockito.verify(dao).delete(entry.getOutboxId());
+		Mockito.verify(runtimeService).setVariable("process-instance-id",
+				TaskOutbox.getDeliveredTaskVariableName(entry.getOutboxId().toString()), ENDPOINT + "/Task/1");
+		Mockito.verifyNoMoreInteractions(runtimeService);
+	}
+
+	@Test
+	public void testDeliverSuccessProcessInstanceFinishedDeletesEntry() throws Exception
+	{
+		TaskOutboxSender sender = createSender(1, 1, 3);
+		TaskOutboxEntry entry = entry(0);
+		Mockito.when(minimalReturnClient.create(Mockito.any(Task.class)))
+				.thenReturn(new IdType(ENDPOINT, "Task", "1", "1"));
+		Mockito.doThrow(new NullValueException("execution not found")).when(runtimeService)
+				.setVariable(Mockito.anyString(), Mockito.anyString(), Mockito.any());
+
+		sender.deliver(entry);
+
+		Mockito.verify(dao).delete(entry.getOutboxId());
+		Mockito.verify(dao, Mockito.never()).updateRetry(Mockito.any(), Mockito.anyInt(), Mockito.any(), Mockito.any());
+		Mockito.verify(runtimeService, Mockito.never()).createIncident(Mockito.anyString(), Mockito.anyString(),
+				Mockito.anyString(), Mockito.anyString());
+	}
+
+	@Test
+	public void testDeliverSuccessConcurrentModificationReportedAgain() throws Exception
+	{
+		TaskOutboxSender sender = createSender(1, 1, 3);
+		TaskOutboxEntry entry = entry(0);
+		Mockito.when(minimalReturnClient.create(Mockito.any(Task.class)))
+				.thenReturn(new IdType(ENDPOINT, "Task", "1", "1"));
+		Mockito.doThrow(new OptimisticLockingException("concurrent update")).doNothing().when(runtimeService)
+				.setVariable(Mockito.anyString(), Mockito.anyString(), Mockito.any());
+
+		sender.deliver(entry);
+
+		Mockito.verify(runtimeService, Mockito.times(2)).setVariable("process-instance-id",
+				TaskOutbox.getDeliveredTaskVariableName(entry.getOutboxId().toString()), ENDPOINT + "/Task/1");
+		Mockito.verify(dao).delete(entry.getOutboxId());
+		Mockito.verify(minimalReturnClient).create(Mockito.any(Task.class));
+	}
+
+	@Test
+	public void testDeliverSuccessNotReportedKeepsEntry() throws Exception
+	{
+		TaskOutboxSender sender = createSender(1, 1, 3);
+		TaskOutboxEntry entry = entry(0);
+		Mockito.when(minimalReturnClient.create(Mockito.any(Task.class)))
+				.thenReturn(new IdType(ENDPOINT, "Task", "1", "1"));
+		Mockito.doThrow(new OptimisticLockingException("concurrent update")).when(runtimeService)
+				.setVariable(Mockito.anyString(), Mockito.anyString(), Mockito.any());
+
+		sender.deliver(entry);
+
+		Mockito.verify(runtimeService, Mockito.times(TaskOutboxSender.REPORT_ATTEMPTS)).setVariable(Mockito.anyString(),
+				Mockito.anyString(), Mockito.any());
+		Mockito.verify(dao, Mockito.never()).delete(Mockito.any());
+		Mockito.verify(dao, Mockito.never()).updateRetry(Mockito.any(), Mockito.anyInt(), Mockito.any(), Mockito.any());
+		Mockito.verify(dao).updateFailed(Mockito.eq(entry.getOutboxId()), Mockito.eq(1),
+				Mockito.contains(ENDPOINT + "/Task/1"));
+		Mockito.verify(runtimeService).createIncident(Mockito.eq(TaskOutbox.INCIDENT_TYPE_FAILED_TASK_DELIVERY),
+				Mockito.eq("process-instance-id"), Mockito.eq(entry.getOutboxId().toString()),
+				Mockito.contains(ENDPOINT + "/Task/1"));
+	}
+
+	@Test
+	public void testDeliverConnectionErrorRetriedWithBackoff() throws Exception
+	{
+		TaskOutboxSender sender = createSender(1, 1, 5);
+		TaskOutboxEntry entry = entry(2);
+		Mockito.when(minimalReturnClient.create(Mockito.any(Task.class)))
+				.thenThrow(new ProcessingException("connection refused"));
+
+		LocalDateTime before = LocalDateTime.now();
+		sender.deliver(entry);
+
+		ArgumentCaptor<LocalDateTime> nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+		Mockito.verify(dao).updateRetry(Mockito.eq(entry.getOutboxId()), Mockito.eq(3), nextAttempt.capture(),
+				Mockito.contains("connection refused"));
+		assertFalse(nextAttempt.getValue().isBefore(before.plusSeconds(4)));
+		Mockito.verify(dao, Mockito.never()).delete(Mockito.any());
+		Mockito.verifyNoInteractions(runtimeService);
+	}
+
+	@Test
+	public void testDeliverClientErrorCreatesIncident() throws Exception
+	{
+		TaskOutboxSender sender = createSender(1, 1, 5);
+		TaskOutboxEntry entry = entry(0);
+		Mockito.when(minimalReturnClient.create(Mockito.any(Task.class))).thenThrow(new WebApplicationException(403));
+
+		sender.deliver(entry);
+
+		Mockito.verify(dao).updateFailed(Mockito.eq(entry.getOutboxId()), Mockito.eq(1), Mockito.anyString());
+		Mockito.verify(runtimeService).createIncident(Mockito.eq(TaskOutbox.INCIDENT_TYPE_FAILED_TASK_DELIVERY),
+				Mockito.eq("process-instance-id"), Mockito.eq(entry.getOutboxId().toString()),
+				Mockito.contains(ENDPOINT));
+	}
+
+	@Test
+	public void testDeliverMaxAttemptsCreatesIncident() throws Exception
+	{
+		TaskOutboxSender sender = createSender(1, 1, 3);
+		TaskOutboxEntry entry = entry(2);
+		Mockito.when(minimalReturnClient.create(Mockito.any(Task.class))).thenThrow(new WebApplicationException(503));
+
+		sender.deliver(entry);
+
+		Mockito.verify(dao).updateFailed(Mockito.eq(entry.getOutboxId()), Mockito.eq(3), Mockito.anyString());
+		Mockito.verify(runtimeService).createIncident(Mockito.eq(TaskOutbox.INCIDENT_TYPE_FAILED_TASK_DELIVERY),
+				Mockito.eq("process-instance-id"), Mockito.anyString(), Mockito.anyString());
+	}
+
+	@Test
+	public void testRetryDelay() throws Exception
+	{
+		TaskOutboxSender sender = createSender(1, 1, 3);
+
+		assertEquals(1000, sender.getRetryDelayMillis(1));
+		assertEquals(2000, sender.getRetryDelayMillis(2));
+		assertEquals(4000, sender.getRetryDelayMillis(3));
+		assertEquals(8000, sender.getRetryDelayMillis(4));
+		assertEquals(8000, sender.getRetryDelayMillis(100));
+	}
+
+	@Test
+	public void testIsRetryable() throws Exception
+	{
+		assertTrue(TaskOutboxSender.isRetryable(new ProcessingException("test")));
+		assertTrue(TaskOutboxSender.isRetryable(new WebApplicationException(408)));
+		assertTrue(TaskOutboxSender.isRetryable(new WebApplicationException(429)));
+		assertTrue(TaskOutboxSender.isRetryable(new WebApplicationException(502)));
+		assertFalse(TaskOutboxSender.isRetryable(new WebApplicationException(400)));
+		assertFalse(TaskOutboxSender.isRetryable(new WebApplicationException(404)));
+	}
+
+	@Test
+	public void testPollLimitsDeliveriesPerEndpoint() throws Exception
+	{
+		TaskOutboxSender sender = createSender(4, 2, 3);
+		List<TaskOutboxEntry> entries = List.of(entry(0), entry(0), entry(0));
+		Mockito.when(dao.readDue(Mockito.any(), Mockito.anyInt())).thenReturn(entries);
+		Mockito.when(dao.claim(Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(true);
+
+		// deliveries blocked until all entries of the poll are processed
+		Object lock = new Object();
+		Mockito.when(minimalReturnClient.create(Mockito.any(Task.class))).thenAnswer(i ->
+		{
+			synchronized (lock)
+			{
+				return new IdType(ENDPOINT, "Task", "1", "1");
+			}
+		});
+
+		try
+		{
+			synchronized (lock)
+			{
+				// first poll executed after start
+				sender.start();
+				Mockito.verify(dao, Mockito.after(500).times(2)).claim(Mockito.any(), Mockito.any(), Mockito.any());
+			}
+
+			Mockito.verify(dao, Mockito.timeout(5000).times(2)).delete(Mockito.any());
+		}
+		finally
+		{
+			sender.stop();
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package dev.dsf.bpe.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class ParallelTasksTest
+{
+	@Test
+	public void testMapKeepsOrder() throws Exception
+	{
+		List<Integer> elements = IntStream.range(0, 50).boxed().toList();
+		Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+		List<Integer> results = ParallelTasks.map("test-", elements, i ->
+		{
+			threadNames.add(Thread.currentThread().getName());
+			try
+			{
+				// later elements finish first
+				Thread.sleep(50 - i);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			return i * 2;
+		});
+
+		assertEquals(elements.stream().map(i -> i * 2).toList(), results);
+		if (Runtime.getRuntime().availableProcessors() > 1)
+			assertTrue(threadNames.stream().allMatch(n -> n.startsWith("test-")));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testMapRethrowsRuntimeException() throws Exception
+	{
+		ParallelTasks.map("test-", List.of(1, 2, 3), i ->
+		{
+			if (i == 2)
+				throw new IllegalStateException("test");
+			return i;
+		});
+	}
+}
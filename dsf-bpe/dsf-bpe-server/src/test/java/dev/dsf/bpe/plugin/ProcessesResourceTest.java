@@ -0,0 +1,56 @@
+package dev.dsf.bpe.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.hl7.fhir.r4.model.ActivityDefinition;
+import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
+import org.hl7.fhir.r4.model.Bundle.HTTPVerb;
+import org.hl7.fhir.r4.model.Enumerations.PublicationStatus;
+import org.junit.Test;
+
+public class ProcessesResourceTest
+{
+	private static ProcessesResource draft(boolean contentUnchanged)
+	{
+		ActivityDefinition resource = new ActivityDefinition().setUrl("http://dsf.dev/bpe/Process/test")
+				.setVersion("1.0");
+
+		return ProcessesResource.from(resource).setOldProcessState(ProcessState.DRAFT)
+				.setNewProcessState(ProcessState.DRAFT).setContentUnchanged(contentUnchanged);
+	}
+
+	@Test
+	public void testChangedDraftUpdated() throws Exception
+	{
+		ProcessesResource resource = draft(false);
+
+		assertTrue(resource.hasStateChangeOrDraft());
+		assertFalse(resource.shouldExist());
+		assertEquals(HTTPVerb.PUT, resource.toBundleEntry("https://localhost/fhir").getRequest().getMethod());
+	}
+
+	@Test
+	public void testUnchangedDraftNotUpdated() throws Exception
+	{
+		ProcessesResource resource = draft(true);
+
+		assertFalse(resource.hasStateChangeOrDraft());
+		assertTrue(resource.shouldExist());
+	}
+
+	@Test
+	public void testUnchangedDraftMissingCreated() throws Exception
+	{
+		ProcessesResource resource = draft(true);
+		resource.setOldProcessState(ProcessState.MISSING);
+
+		assertTrue(resource.hasStateChangeOrDraft());
+
+		BundleEntryComponent entry = resource.toBundleEntry("https://localhost/fhir");
+		assertEquals(HTTPVerb.POST, entry.getRequest().getMethod());
+		assertEquals(PublicationStatus.DRAFT, ((ActivityDefinition) entry.getResource()).getStatus());
+		assertTrue(resource.getExpectedStatus().contains("201"));
+	}
+}
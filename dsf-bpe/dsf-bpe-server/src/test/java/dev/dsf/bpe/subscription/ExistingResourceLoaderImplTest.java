@@ -0,0 +1,88 @@
+package dev.dsf.bpe.subscription;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.BundleType;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Task;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import dev.dsf.bpe.dao.LastEventTimeDao;
+import dev.dsf.fhir.client.FhirWebserviceClient;
+
+public class ExistingResourceLoaderImplTest
+{
+	private static final LocalDateTime T0 = LocalDateTime.of(2023, 1, 1, 12, 0, 0);
+
+	private static Task task(String id, LocalDateTime lastUpdated)
+	{
+		Task task = new Task();
+		task.setIdElement(new IdType("Task", id));
+		task.getMeta().setLastUpdated(Date.from(lastUpdated.atZone(ZoneId.systemDefault()).toInstant()));
+		return task;
+	}
+
+	private static Bundle bundle(int total, Task... tasks)
+	{
+		Bundle bundle = new Bundle().setType(BundleType.SEARCHSET).setTotal(total);
+		for (Task task : tasks)
+			bundle.addEntry().setResource(task);
+		return bundle;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testReadExistingResourcesKeysetAndBatchedLastEventTime() throws Exception
+	{
+		LastEventTimeDao lastEventTimeDao = Mockito.mock(LastEventTimeDao.class);
+		FhirWebserviceClient client = Mockito.mock(FhirWebserviceClient.class);
+		List<String> handled = new ArrayList<>();
+		ResourceHandler<Task> handler = t -> handled.add(t.getIdElement().getIdPart());
+
+		Mockito.when(lastEventTimeDao.readLastEventTime()).thenReturn(Optional.empty());
+		Mockito.when(lastEventTimeDao.writeLastEventTime(Mockito.any(LocalDateTime.class)))
+				.thenAnswer(i -> i.getArgument(0));
+
+		// first page full, all three resources on the second page share the same millisecond as the last resource
+		// of the first page, final search returns only already handled resources
+		Mockito.when(client.searchWithStrictHandling(Mockito.eq(Task.class), Mockito.anyMap())).thenReturn(
+				bundle(4, task("1", T0), task("2", T0.plusNanos(1_000_000))),
+				bundle(3, task("2", T0.plusNanos(1_000_000)), task("3", T0.plusNanos(1_000_000)),
+						task("4", T0.plusNanos(2_000_000))),
+				bundle(1, task("4", T0.plusNanos(2_000_000))));
+
+		new ExistingResourceLoaderImpl<>(lastEventTimeDao, handler, client, "Task", Task.class, 2)
+				.readExistingResources(Map.of());
+
+		assertEquals(List.of("1", "2", "3", "4"), handled);
+
+		ArgumentCaptor<LocalDateTime> written = ArgumentCaptor.forClass(LocalDateTime.class);
+		Mockito.verify(lastEventTimeDao, Mockito.times(2)).writeLastEventTime(written.capture());
+		assertEquals(List.of(T0.plusNanos(1_000_000), T0.plusNanos(2_000_000)), written.getAllValues());
+
+		ArgumentCaptor<Map<String, List<String>>> searches = ArgumentCaptor.forClass(Map.class);
+		Mockito.verify(client, Mockito.times(3)).searchWithStrictHandling(Mockito.eq(Task.class), searches.capture());
+		assertEquals(List.of("ge2023-01-01T12:00:00.001"), searches.getAllValues().get(1).get("_lastUpdated"));
+		assertEquals(List.of("_lastUpdated,_id"), searches.getAllValues().get(1).get("_sort"));
+		assertEquals(List.of("2"), searches.getAllValues().get(1).get("_count"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testPageCountNotPositive() throws SQLException
+	{
+		new ExistingResourceLoaderImpl<>(Mockito.mock(LastEventTimeDao.class), t ->
+		{}, Mockito.mock(FhirWebserviceClient.class), "Task", Task.class, 0);
+	}
+}
@@ -0,0 +1,120 @@
+package dev.dsf.bpe.subscription;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.dbcp2.BasicDataSource;
+import org.camunda.bpm.engine.ProcessEngine;
+import org.camunda.bpm.engine.RepositoryService;
+import org.camunda.bpm.engine.RuntimeService;
+import org.camunda.bpm.engine.impl.cfg.StandaloneProcessEngineConfiguration;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
+import org.hl7.fhir.r4.model.CodeableConcept;
+import org.hl7.fhir.r4.model.ResourceType;
+import org.hl7.fhir.r4.model.StringType;
+import org.hl7.fhir.r4.model.Task;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import ca.uhn.fhir.context.FhirContext;
+import dev.dsf.bpe.dao.AbstractDaoTest;
+import dev.dsf.bpe.v1.constants.CodeSystems.BpmnMessage;
+import dev.dsf.bpe.variables.FhirResourceSerializer;
+import dev.dsf.fhir.client.FhirWebserviceClient;
+
+public class TaskHandlerIntegrationTest extends AbstractDaoTest
+{
+	private static final String BUSINESS_KEY = "0b6e4a1f-3d7c-4c8e-9f2a-5d1b7e3c9a40";
+
+	private final FhirWebserviceClient webserviceClient = mock(FhirWebserviceClient.class);
+
+	private BasicDataSource engineDataSource;
+	private ProcessEngine processEngine;
+	private TaskHandler taskHandler;
+
+	@Before
+	public void before() throws Exception
+	{
+		engineDataSource = createCamundaDataSource();
+		engineDataSource.setDefaultReadOnly(false);
+		engineDataSource.start();
+
+		StandaloneProcessEngineConfiguration c = new StandaloneProcessEngineConfiguration();
+		c.setProcessEngineName("test");
+		c.setDataSource(engineDataSource);
+		c.setDatabaseSchemaUpdate("false");
+		c.setJobExecutorActivate(false);
+		c.setCustomPreVariableSerializers(List.of(new FhirResourceSerializer(FhirContext.forR4())));
+		c.setInitializeTelemetry(false);
+		c.setTelemetryReporterActivate(false);
+		processEngine = c.buildProcessEngine();
+
+		RepositoryService repositoryService = processEngine.getRepositoryService();
+		repositoryService.createDeployment().addModelInstance("foo.bpmn", model()).deploy();
+
+		when(webserviceClient.update(any(Task.class))).thenAnswer(i -> i.getArgument(0));
+
+		taskHandler = new TaskHandler(processEngine.getRuntimeService(), repositoryService, webserviceClient);
+		taskHandler.afterPropertiesSet();
+	}
+
+	@After
+	public void after() throws Exception
+	{
+		if (processEngine != null)
+			processEngine.close();
+
+		engineDataSource.close();
+	}
+
+	@Test
+	public void testIntermediateMessageCorrelatedWithRunningProcessInstance() throws Exception
+	{
+		RuntimeService runtimeService = processEngine.getRuntimeService();
+
+		taskHandler.onResource(task("start"));
+		assertEquals(1, runtimeService.createProcessInstanceQuery().processInstanceBusinessKey(BUSINESS_KEY).count());
+
+		taskHandler.onResource(task("intermediate"));
+		assertEquals(0, runtimeService.createProcessInstanceQuery().processInstanceBusinessKey(BUSINESS_KEY).count());
+
+		ArgumentCaptor<Task> updated = ArgumentCaptor.forClass(Task.class);
+		verify(webserviceClient, atLeastOnce()).update(updated.capture());
+		updated.getAllValues().forEach(t -> assertEquals(Task.TaskStatus.INPROGRESS, t.getStatus()));
+	}
+
+	private BpmnModelInstance model()
+	{
+		return Bpmn.createExecutableProcess("dsfdev_foo").camundaVersionTag("0.1").startEvent().message("start")
+				.intermediateCatchEvent().message("intermediate").endEvent().done();
+	}
+
+	private Task task(String messageName)
+	{
+		Task task = new Task();
+		task.getMeta().addProfile("http://dsf.dev/fhir/StructureDefinition/task-base");
+		task.setInstantiatesCanonical("http://dsf.dev/bpe/Process/foo|0.1");
+		task.setStatus(Task.TaskStatus.REQUESTED);
+		task.setIntent(Task.TaskIntent.ORDER);
+		task.setAuthoredOn(new Date());
+		task.getRequester().setType(ResourceType.Organization.name()).getIdentifier()
+				.setSystem("http://dsf.dev/sid/organization-identifier").setValue("Test_DIC");
+		task.getRestriction().addRecipient().setType(ResourceType.Organization.name()).getIdentifier()
+				.setSystem("http://dsf.dev/sid/organization-identifier").setValue("Test_DIC");
+
+		task.addInput().setType(new CodeableConcept(BpmnMessage.messageName())).setValue(new StringType(messageName));
+		task.addInput().setType(new CodeableConcept(BpmnMessage.businessKey())).setValue(new StringType(BUSINESS_KEY));
+
+		return task;
+	}
+}
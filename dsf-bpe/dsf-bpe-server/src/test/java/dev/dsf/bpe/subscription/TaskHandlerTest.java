@@ -14,6 +14,8 @@ import org.camunda.bpm.engine.repository.ProcessDefinitionQuery;
 import org.camunda.bpm.engine.runtime.MessageCorrelationBuilder;
 import org.camunda.bpm.engine.runtime.ProcessInstance;
 import org.camunda.bpm.engine.runtime.ProcessInstanceQuery;
+import org.camunda.bpm.model.bpmn.Bpmn;
+import org.camunda.bpm.model.bpmn.BpmnModelInstance;
 import org.hl7.fhir.r4.model.ResourceType;
 import org.hl7.fhir.r4.model.StringType;
 import org.hl7.fhir.r4.model.Task;
@@ -77,17 +79,12 @@ public class TaskHandlerTest
 		Mockito.when(processDefinitionQuery.list()).thenReturn(List.of(processDefinition));
 		Mockito.when(processDefinition.getId()).thenReturn(UUID.randomUUID().toString());
 
-		Mockito.when(runtimeService.createProcessInstanceQuery()).thenReturn(processInstanceQuery);
-		Mockito.when(processInstanceQuery.processDefinitionId(Mockito.anyString())).thenReturn(processInstanceQuery);
-		Mockito.when(processInstanceQuery.processInstanceBusinessKey(Mockito.anyString()))
-				.thenReturn(processInstanceQuery);
-		Mockito.when(processInstanceQuery
-				.variableValueEquals(Mockito.eq(BpmnExecutionVariables.ALTERNATIVE_BUSINESS_KEY), Mockito.anyString()))
-				.thenReturn(processInstanceQuery);
-		Mockito.when(processInstanceQuery.list()).thenReturn(List.of(processInstance)).thenReturn(List.of());
+		Mockito.when(repositoryService.getBpmnModelInstance(Mockito.anyString())).thenReturn(model());
 
 		Mockito.when(runtimeService.createMessageCorrelation(Mockito.anyString()))
 				.thenReturn(messageCorrelationBuilder);
+		Mockito.when(messageCorrelationBuilder.processDefinitionId(Mockito.anyString()))
+				.thenReturn(messageCorrelationBuilder);
 		Mockito.when(messageCorrelationBuilder.setVariables(Mockito.anyMap())).thenReturn(messageCorrelationBuilder);
 		Mockito.when(messageCorrelationBuilder.processInstanceBusinessKey(Mockito.anyString()))
 				.thenReturn(messageCorrelationBuilder);
@@ -115,6 +112,69 @@ public class TaskHandlerTest
 						.count());
 	}
 
+	@Test
+	public void testRoutingTableCachedAndIntermediateMessageCorrelatedWithProcessInstance()
+	{
+		// Mock preparations
+		Mockito.when(webserviceClient.update(Mockito.any(Task.class))).thenAnswer(i -> i.getArguments()[0]);
+
+		Mockito.when(repositoryService.createProcessDefinitionQuery()).thenReturn(processDefinitionQuery);
+		Mockito.when(processDefinitionQuery.active()).thenReturn(processDefinitionQuery);
+		Mockito.when(processDefinitionQuery.processDefinitionKey(Mockito.anyString()))
+				.thenReturn(processDefinitionQuery);
+		Mockito.when(processDefinitionQuery.versionTag(Mockito.anyString())).thenReturn(processDefinitionQuery);
+		Mockito.when(processDefinitionQuery.list()).thenReturn(List.of(processDefinition));
+		Mockito.when(processDefinition.getId()).thenReturn(UUID.randomUUID().toString());
+
+		Mockito.when(repositoryService.getBpmnModelInstance(Mockito.anyString())).thenReturn(model());
+
+		Mockito.when(runtimeService.createMessageCorrelation(Mockito.anyString()))
+				.thenReturn(messageCorrelationBuilder);
+		Mockito.when(messageCorrelationBuilder.setVariables(Mockito.anyMap())).thenReturn(messageCorrelationBuilder);
+
+		Mockito.when(runtimeService.createProcessInstanceQuery()).thenReturn(processInstanceQuery);
+		Mockito.when(processInstanceQuery.processDefinitionId(Mockito.anyString())).thenReturn(processInstanceQuery);
+		Mockito.when(processInstanceQuery.processInstanceBusinessKey(Mockito.anyString()))
+				.thenReturn(processInstanceQuery);
+		Mockito.when(processInstanceQuery.list()).thenReturn(List.of(processInstance));
+		Mockito.when(processInstance.getId()).thenReturn(UUID.randomUUID().toString());
+		Mockito.when(messageCorrelationBuilder.processInstanceId(Mockito.anyString()))
+				.thenReturn(messageCorrelationBuilder);
+
+		// Test execution
+		taskHandler.onResource(task("intermediate", UUID.randomUUID().toString()));
+		taskHandler.onResource(task("intermediate", UUID.randomUUID().toString()));
+
+		Mockito.verify(repositoryService, Mockito.times(1)).createProcessDefinitionQuery();
+		Mockito.verify(repositoryService, Mockito.times(1)).getBpmnModelInstance(Mockito.anyString());
+		Mockito.verify(runtimeService, Mockito.times(2)).createProcessInstanceQuery();
+		Mockito.verify(processInstanceQuery, Mockito.never()).variableValueEquals(Mockito.anyString(), Mockito.any());
+		Mockito.verify(messageCorrelationBuilder, Mockito.never()).processDefinitionId(Mockito.anyString());
+		Mockito.verify(messageCorrelationBuilder, Mockito.times(2)).processInstanceId(Mockito.anyString());
+		Mockito.verify(messageCorrelationBuilder, Mockito.times(2)).correlate();
+
+		taskHandler.onProcessStateChanges(List.of());
+		taskHandler.onResource(task("intermediate", UUID.randomUUID().toString()));
+
+		Mockito.verify(repositoryService, Mockito.times(2)).createProcessDefinitionQuery();
+	}
+
+	private BpmnModelInstance model()
+	{
+		return Bpmn.createExecutableProcess("dsfdev_foo").startEvent().message("message").intermediateCatchEvent()
+				.message("intermediate").endEvent().done();
+	}
+
+	private Task task(String messageName, String businessKey)
+	{
+		Task task = task();
+		task.getInputFirstRep().setValue(new StringType(messageName));
+		task.addInput().setValue(new StringType(businessKey)).getType().addCoding()
+				.setSystem("http://dsf.dev/fhir/CodeSystem/bpmn-message").setCode("business-key");
+
+		return task;
+	}
+
 	private Task task()
 	{
 		Task task = new Task();
@@ -0,0 +1,326 @@
+package dev.dsf.bpe.v1.activity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Identifier;
+import org.hl7.fhir.r4.model.Task;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import ca.uhn.fhir.context.FhirContext;
+import dev.dsf.bpe.v1.ProcessPluginApi;
+import dev.dsf.bpe.v1.service.FhirWebserviceClientProvider;
+import dev.dsf.bpe.v1.service.OrganizationProvider;
+import dev.dsf.bpe.v1.service.TaskOutbox;
+import dev.dsf.bpe.v1.variables.Target;
+import dev.dsf.bpe.v1.variables.Targets;
+import dev.dsf.bpe.v1.variables.Variables;
+import dev.dsf.bpe.variables.TargetImpl;
+import dev.dsf.bpe.variables.TargetsImpl;
+import dev.dsf.fhir.client.AsyncFhirWebserviceClient;
+import dev.dsf.fhir.client.FhirWebserviceClient;
+import dev.dsf.fhir.client.PreferReturnMinimalWithRetry;
+import jakarta.ws.rs.ProcessingException;
+
+public class AbstractTaskMessageSendToTargetsTest
+{
+	private static final String INSTANTIATES_CANONICAL = "http://dsf.dev/bpe/Process/test|1.0";
+
+	private static class TestTaskMessageSend extends AbstractTaskMessageSendToTargets
+	{
+		final List<TaskSendOutcome> outcomes = new ArrayList<>();
+		final boolean viaTaskOutbox;
+		int maxParallelSends = 10;
+		Duration sendTimeout;
+
+		TestTaskMessageSend(ProcessPluginApi api)
+		{
+			this(api, false);
+		}
+
+		TestTaskMessageSend(ProcessPluginApi api, boolean viaTaskOutbox)
+		{
+			super(api);
+			this.viaTaskOutbox = viaTaskOutbox;
+		}
+
+		@Override
+		protected boolean isSendViaTaskOutbox(DelegateExecution execution, Variables variables)
+		{
+			return viaTaskOutbox;
+		}
+
+		@Override
+		protected int getMaxParallelSends()
+		{
+			return maxParallelSends;
+		}
+
+		@Override
+		protected Duration getSendTimeout(Target target)
+		{
+			return sendTimeout;
+		}
+
+		@Override
+		protected String getInstantiatesCanonical(DelegateExecution execution, Variables variables)
+		{
+			return INSTANTIATES_CANONICAL;
+		}
+
+		@Override
+		protected String getMessageName(DelegateExecution execution, Variables variables)
+		{
+			return "message";
+		}
+
+		@Override
+		protected String getProfile(DelegateExecution execution, Variables variables)
+		{
+			return "http://dsf.dev/fhir/StructureDefinition/task-test|1.0";
+		}
+
+		@Override
+		protected void handleSendOutcomes(DelegateExecution execution, Variables variables, Targets targets,
+				List<TaskSendOutcome> outcomes)
+		{
+			this.outcomes.addAll(outcomes);
+			super.handleSendOutcomes(execution, variables, targets, outcomes);
+		}
+	}
+
+	private FhirWebserviceClient client(FhirWebserviceClientProvider clientProvider, String url)
+	{
+		FhirWebserviceClient client = Mockito.mock(FhirWebserviceClient.class);
+		PreferReturnMinimalWithRetry minimal = Mockito.mock(PreferReturnMinimalWithRetry.class);
+		Mockito.when(clientProvider.getWebserviceClient(url)).thenReturn(client);
+		Mockito.when(client.withMinimalReturn()).thenReturn(minimal);
+		return client;
+	}
+
+	@Test
+	public void testSendToTargetsConcurrently() throws Exception
+	{
+		ProcessPluginApi api = Mockito.mock(ProcessPluginApi.class);
+		FhirWebserviceClientProvider clientProvider = Mockito.mock(FhirWebserviceClientProvider.class);
+		OrganizationProvider organizationProvider = Mockito.mock(OrganizationProvider.class);
+		DelegateExecution execution = Mockito.mock(DelegateExecution.class);
+		Variables variables = Mockito.mock(Variables.class);
+
+		Mockito.when(api.getVariables(execution)).thenReturn(variables);
+		Mockito.when(api.getFhirWebserviceClientProvider()).thenReturn(clientProvider);
+		Mockito.when(api.getOrganizationProvider()).thenReturn(organizationProvider);
+		// initializing context before sending, initialization time would count against the elapsed time
+		FhirContext fhirContext = FhirContext.forR4();
+		fhirContext.newJsonParser().encodeResourceToString(new Task());
+		Mockito.when(api.getFhirContext()).thenReturn(fhirContext);
+		Mockito.when(organizationProvider.getLocalOrganizationIdentifier()).thenReturn(Optional
+				.of(new Identifier().setSystem("http://dsf.dev/sid/organization-identifier").setValue("local")));
+		Mockito.when(execution.getBusinessKey()).thenReturn("business-key");
+		Mockito.when(execution.getActivityInstanceId()).thenReturn("send:1");
+
+		TargetsImpl targets = new TargetsImpl(List.of(new TargetImpl("org1", "endpoint1", "https://one/fhir", null),
+				new TargetImpl("org2", "endpoint2", "https://two/fhir", null),
+				new TargetImpl("org3", "endpoint3", "https://three/fhir", "correlation-key")));
+		Mockito.when(variables.getTargets()).thenReturn(targets);
+		Mockito.when(variables.getTasks()).thenReturn(List.of());
+
+		FhirWebserviceClient one = client(clientProvider, "https://one/fhir");
+		FhirWebserviceClient two = client(clientProvider, "https://two/fhir");
+		FhirWebserviceClient three = client(clientProvider, "https://three/fhir");
+
+		Mockito.when(one.withMinimalReturn().create(Mockito.any(Task.class))).thenAnswer(i ->
+		{
+			// client read timeout
+			Thread.sleep(1_000);
+			throw new ProcessingException(new SocketTimeoutException("Read timed out"));
+		});
+		Mockito.when(two.withMinimalReturn().create(Mockito.any(Task.class))).thenAnswer(i ->
+		{
+			Thread.sleep(1_000);
+			throw new RuntimeException("test error");
+		});
+		Mockito.when(three.withMinimalReturn().create(Mockito.any(Task.class)))
+				.thenReturn(new IdType("https://three/fhir/Task/3/_history/1"));
+
+		TestTaskMessageSend send = new TestTaskMessageSend(api);
+
+		long start = System.currentTimeMillis();
+		send.execute(execution);
+		long elapsed = System.currentTimeMillis() - start;
+		assertTrue(elapsed >= 1_000);
+		assertTrue(elapsed < 2_000);
+
+		assertEquals(3, send.outcomes.size());
+		assertFalse(send.outcomes.get(0).isSuccess());
+		assertTrue(send.outcomes.get(0).getError() instanceof ProcessingException);
+		assertFalse(send.outcomes.get(1).isSuccess());
+		assertTrue(send.outcomes.get(2).isSuccess());
+		assertEquals("https://three/fhir/Task/3/_history/1", send.outcomes.get(2).getCreated().getValue());
+		assertEquals(INSTANTIATES_CANONICAL, send.outcomes.get(2).getTask().getInstantiatesCanonical());
+		assertEquals(3, send.outcomes.get(2).getTask().getInput().size());
+
+		ArgumentCaptor<Targets> remaining = ArgumentCaptor.forClass(Targets.class);
+		Mockito.verify(variables).setTargets(remaining.capture());
+		assertEquals(1, remaining.getValue().getEntries().size());
+		assertEquals("endpoint3", remaining.getValue().getEntries().get(0).getEndpointIdentifierValue());
+		Mockito.verify(organizationProvider, Mockito.times(1)).getLocalOrganizationIdentifier();
+	}
+
+	@Test
+	public void testSendToTargetsViaTaskOutbox() throws Exception
+	{
+		ProcessPluginApi api = Mockito.mock(ProcessPluginApi.class);
+		FhirWebserviceClientProvider clientProvider = Mockito.mock(FhirWebserviceClientProvider.class);
+		OrganizationProvider organizationProvider = Mockito.mock(OrganizationProvider.class);
+		TaskOutbox taskOutbox = Mockito.mock(TaskOutbox.class);
+		DelegateExecution execution = Mockito.mock(DelegateExecution.class);
+		Variables variables = Mockito.mock(Variables.class);
+
+		Mockito.when(api.getVariables(execution)).thenReturn(variables);
+		Mockito.when(api.getFhirWebserviceClientProvider()).thenReturn(clientProvider);
+		Mockito.when(api.getOrganizationProvider()).thenReturn(organizationProvider);
+		Mockito.when(api.getTaskOutbox()).thenReturn(taskOutbox);
+		Mockito.when(api.getFhirContext()).thenReturn(FhirContext.forR4());
+		Mockito.when(organizationProvider.getLocalOrganizationIdentifier()).thenReturn(Optional
+				.of(new Identifier().setSystem("http://dsf.dev/sid/organization-identifier").setValue("local")));
+		Mockito.when(execution.getBusinessKey()).thenReturn("business-key");
+
+		TargetsImpl targets = new TargetsImpl(List.of(new TargetImpl("org1", "endpoint1", "https://one/fhir", null),
+				new TargetImpl("org2", "endpoint2", "https://two/fhir", null)));
+		Mockito.when(variables.getTargets()).thenReturn(targets);
+		Mockito.when(taskOutbox.add(Mockito.eq(execution), Mockito.anyString(), Mockito.any(Task.class)))
+				.thenReturn("outbox-1", "outbox-2");
+
+		TestTaskMessageSend send = new TestTaskMessageSend(api, true);
+		send.execute(execution);
+
+		assertEquals(2, send.outcomes.size());
+		assertTrue(send.outcomes.get(0).isSuccess());
+		assertTrue(send.outcomes.get(0).isQueued());
+		assertEquals("outbox-1", send.outcomes.get(0).getOutboxId());
+		assertTrue(send.outcomes.get(1).isQueued());
+		assertEquals("outbox-2", send.outcomes.get(1).getOutboxId());
+
+		Mockito.verify(taskOutbox).add(Mockito.eq(execution), Mockito.eq("https://one/fhir"), Mockito.any(Task.class));
+		Mockito.verify(taskOutbox).add(Mockito.eq(execution), Mockito.eq("https://two/fhir"), Mockito.any(Task.class));
+		Mockito.verifyNoInteractions(clientProvider);
+		Mockito.verify(variables, Mockito.never()).setTargets(Mockito.any());
+	}
+
+	private TestTaskMessageSend twoTargets(ProcessPluginApi api, FhirWebserviceClientProvider clientProvider,
+			DelegateExecution execution, Variables variables)
+	{
+		OrganizationProvider organizationProvider = Mockito.mock(OrganizationProvider.class);
+
+		Mockito.when(api.getVariables(execution)).thenReturn(variables);
+		Mockito.when(api.getFhirWebserviceClientProvider()).thenReturn(clientProvider);
+		Mockito.when(api.getOrganizationProvider()).thenReturn(organizationProvider);
+		Mockito.when(api.getFhirContext()).thenReturn(FhirContext.forR4());
+		Mockito.when(organizationProvider.getLocalOrganizationIdentifier()).thenReturn(Optional
+				.of(new Identifier().setSystem("http://dsf.dev/sid/organization-identifier").setValue("local")));
+		Mockito.when(execution.getBusinessKey()).thenReturn("business-key");
+
+		TargetsImpl targets = new TargetsImpl(List.of(new TargetImpl("org1", "endpoint1", "https://one/fhir", null),
+				new TargetImpl("org2", "endpoint2", "https://two/fhir", null)));
+		Mockito.when(variables.getTargets()).thenReturn(targets);
+
+		return new TestTaskMessageSend(api);
+	}
+
+	@Test
+	public void testSendToTargetsWithTimeout() throws Exception
+	{
+		ProcessPluginApi api = Mockito.mock(ProcessPluginApi.class);
+		FhirWebserviceClientProvider clientProvider = Mockito.mock(FhirWebserviceClientProvider.class);
+		DelegateExecution execution = Mockito.mock(DelegateExecution.class);
+		Variables variables = Mockito.mock(Variables.class);
+		Mockito.when(variables.getTasks()).thenReturn(List.of());
+
+		TestTaskMessageSend send = twoTargets(api, clientProvider, execution, variables);
+		send.sendTimeout = Duration.ofMillis(500);
+
+		FhirWebserviceClient one = Mockito.mock(FhirWebserviceClient.class);
+		AsyncFhirWebserviceClient oneAsync = Mockito.mock(AsyncFhirWebserviceClient.class);
+		Mockito.when(clientProvider.getWebserviceClient("https://one/fhir")).thenReturn(one);
+		Mockito.when(one.async()).thenReturn(oneAsync);
+		Mockito.when(oneAsync.withTimeout(500)).thenReturn(oneAsync);
+		Mockito.when(oneAsync.create(Mockito.any(Task.class))).thenReturn(
+				CompletableFuture.failedFuture(new ProcessingException(new SocketTimeoutException("Read timed out"))));
+
+		FhirWebserviceClient two = Mockito.mock(FhirWebserviceClient.class);
+		AsyncFhirWebserviceClient twoAsync = Mockito.mock(AsyncFhirWebserviceClient.class);
+		Mockito.when(clientProvider.getWebserviceClient("https://two/fhir")).thenReturn(two);
+		Mockito.when(two.getBaseUrl()).thenReturn("https://two/fhir");
+		Mockito.when(two.async()).thenReturn(twoAsync);
+		Mockito.when(twoAsync.withTimeout(500)).thenReturn(twoAsync);
+		Mockito.when(twoAsync.create(Mockito.any(Task.class))).thenAnswer(i ->
+		{
+			Task created = i.getArgument(0, Task.class).copy();
+			created.setIdElement(new IdType("Task", "2", "1"));
+			return CompletableFuture.completedFuture(created);
+		});
+
+		send.execute(execution);
+
+		assertEquals(2, send.outcomes.size());
+		assertFalse(send.outcomes.get(0).isSuccess());
+		assertTrue(send.outcomes.get(0).getError() instanceof ProcessingException);
+		assertTrue(send.outcomes.get(1).isSuccess());
+		assertEquals("https://two/fhir/Task/2/_history/1", send.outcomes.get(1).getCreated().getValue());
+
+		Mockito.verify(one, Mockito.never()).withMinimalReturn();
+		Mockito.verify(two, Mockito.never()).withMinimalReturn();
+	}
+
+	@Test
+	public void testSendToTargetsNullIdIsFailure() throws Exception
+	{
+		ProcessPluginApi api = Mockito.mock(ProcessPluginApi.class);
+		FhirWebserviceClientProvider clientProvider = Mockito.mock(FhirWebserviceClientProvider.class);
+		DelegateExecution execution = Mockito.mock(DelegateExecution.class);
+		Variables variables = Mockito.mock(Variables.class);
+		Mockito.when(variables.getTasks()).thenReturn(List.of());
+
+		TestTaskMessageSend send = twoTargets(api, clientProvider, execution, variables);
+
+		FhirWebserviceClient one = client(clientProvider, "https://one/fhir");
+		FhirWebserviceClient two = client(clientProvider, "https://two/fhir");
+		Mockito.when(one.withMinimalReturn().create(Mockito.any(Task.class))).thenReturn(null);
+		Mockito.when(two.withMinimalReturn().create(Mockito.any(Task.class)))
+				.thenReturn(new IdType("https://two/fhir/Task/2/_history/1"));
+
+		send.execute(execution);
+
+		assertEquals(2, send.outcomes.size());
+		assertFalse(send.outcomes.get(0).isSuccess());
+		assertTrue(send.outcomes.get(0).getError() instanceof IllegalStateException);
+		assertTrue(send.outcomes.get(1).isSuccess());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testSendToTargetsMaxParallelSendsNotPositive() throws Exception
+	{
+		ProcessPluginApi api = Mockito.mock(ProcessPluginApi.class);
+		FhirWebserviceClientProvider clientProvider = Mockito.mock(FhirWebserviceClientProvider.class);
+		DelegateExecution execution = Mockito.mock(DelegateExecution.class);
+		Variables variables = Mockito.mock(Variables.class);
+
+		TestTaskMessageSend send = twoTargets(api, clientProvider, execution, variables);
+		send.maxParallelSends = 0;
+
+		send.execute(execution);
+	}
+}
@@ -45,6 +45,7 @@ import dev.dsf.bpe.v1.service.MailService;
 import dev.dsf.bpe.v1.service.OrganizationProvider;
 import dev.dsf.bpe.v1.service.QuestionnaireResponseHelper;
 import dev.dsf.bpe.v1.service.TaskHelper;
+import dev.dsf.bpe.v1.service.TaskOutbox;
 import dev.dsf.bpe.v1.variables.Variables;
 import dev.dsf.bpe.variables.ObjectMapperFactory;
 import dev.dsf.fhir.authorization.process.ProcessAuthorizationHelper;
@@ -147,10 +148,11 @@ public class ProcessPluginImplTest
 	private ProcessAuthorizationHelper processAuthorizationHelper = mock(ProcessAuthorizationHelper.class);
 	private ReadAccessHelper readAccessHelper = mock(ReadAccessHelper.class);
 	private TaskHelper taskHelper = mock(TaskHelper.class);
+	private TaskOutbox taskOutbox = mock(TaskOutbox.class);
 
 	private ProcessPluginApi processPluginApi = new ProcessPluginApiImpl(proxyConfig, endpointProvider, fhirContext,
 			fhirWebserviceClientProvider, mailService, objectMapper, organizationProvider, processAuthorizationHelper,
-			questionnaireResponseHelper, readAccessHelper, taskHelper);
+			questionnaireResponseHelper, readAccessHelper, taskHelper, taskOutbox);
 	private ConfigurableEnvironment environment = new StandardEnvironment();
 
 	@Test
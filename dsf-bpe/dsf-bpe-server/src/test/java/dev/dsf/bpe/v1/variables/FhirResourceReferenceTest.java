@@ -0,0 +1,85 @@
+package dev.dsf.bpe.v1.variables;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.camunda.bpm.engine.delegate.DelegateExecution;
+import org.hl7.fhir.r4.model.Binary;
+import org.hl7.fhir.r4.model.IdType;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import dev.dsf.bpe.v1.service.FhirWebserviceClientProvider;
+import dev.dsf.bpe.v1.variables.FhirResourceSerializerTest.TestValueFields;
+import dev.dsf.bpe.variables.FhirResourceReference;
+import dev.dsf.bpe.variables.FhirResourceReferenceSerializer;
+import dev.dsf.bpe.variables.FhirResourceReferenceValues;
+import dev.dsf.bpe.variables.FhirResourceReferenceValues.FhirResourceReferenceValue;
+import dev.dsf.bpe.variables.VariablesImpl;
+import dev.dsf.fhir.client.FhirWebserviceClient;
+
+public class FhirResourceReferenceTest
+{
+	private static final String BASE_URL = "https://fhir.test.org/fhir";
+	private static final String REFERENCE = BASE_URL + "/Binary/7f4b7e2e-59e1-4a8f-a5ba-3f6a8a0e3f6c/_history/2";
+
+	@Test
+	public void testSerializerWriteRead() throws Exception
+	{
+		FhirResourceReferenceSerializer serializer = new FhirResourceReferenceSerializer();
+
+		TestValueFields fields = new TestValueFields();
+		serializer.writeValue(FhirResourceReferenceValues.create(new FhirResourceReference(REFERENCE, Binary.class)),
+				fields);
+
+		assertEquals(REFERENCE, fields.getTextValue());
+		assertNull(fields.getByteArrayValue());
+
+		FhirResourceReference read = serializer.readValue(fields, false).getValue();
+		assertEquals(REFERENCE, read.getReference());
+		assertEquals(Binary.class, read.getResourceType());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testReferenceNotVersioned() throws Exception
+	{
+		new FhirResourceReference(BASE_URL + "/Binary/7f4b7e2e-59e1-4a8f-a5ba-3f6a8a0e3f6c", Binary.class);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testReferenceNotAbsolute() throws Exception
+	{
+		new FhirResourceReference("Binary/7f4b7e2e-59e1-4a8f-a5ba-3f6a8a0e3f6c/_history/2", Binary.class);
+	}
+
+	@Test
+	public void testGetResourceReadOnce() throws Exception
+	{
+		DelegateExecution execution = Mockito.mock(DelegateExecution.class);
+		FhirWebserviceClientProvider clientProvider = Mockito.mock(FhirWebserviceClientProvider.class);
+		FhirWebserviceClient client = Mockito.mock(FhirWebserviceClient.class);
+		Binary binary = new Binary();
+
+		VariablesImpl variables = new VariablesImpl(execution, clientProvider);
+		variables.setResourceReference("binary", new IdType(REFERENCE), Binary.class);
+
+		FhirResourceReferenceValue value = captureValue(execution);
+		Mockito.when(execution.getVariable("binary")).thenReturn(value.getValue());
+		Mockito.when(clientProvider.getWebserviceClient(BASE_URL)).thenReturn(client);
+		Mockito.when(client.read(Binary.class, "7f4b7e2e-59e1-4a8f-a5ba-3f6a8a0e3f6c", "2")).thenReturn(binary);
+
+		assertSame(binary, variables.getResource("binary"));
+		assertSame(binary, variables.getResource("binary"));
+
+		Mockito.verify(client, Mockito.times(1)).read(Binary.class, "7f4b7e2e-59e1-4a8f-a5ba-3f6a8a0e3f6c", "2");
+	}
+
+	private FhirResourceReferenceValue captureValue(DelegateExecution execution)
+	{
+		ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+		Mockito.verify(execution).setVariable(Mockito.eq("binary"), captor.capture());
+		return (FhirResourceReferenceValue) captor.getValue();
+	}
+}
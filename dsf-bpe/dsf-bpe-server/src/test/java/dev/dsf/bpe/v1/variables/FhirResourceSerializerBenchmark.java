@@ -0,0 +1,85 @@
+package dev.dsf.bpe.v1.variables;
+
+import java.util.concurrent.TimeUnit;
+
+import org.hl7.fhir.r4.model.Bundle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import ca.uhn.fhir.context.FhirContext;
+import dev.dsf.bpe.v1.variables.FhirResourceSerializerTest.TestValueFields;
+import dev.dsf.bpe.variables.FhirResourceSerializer;
+import dev.dsf.bpe.variables.FhirResourceValues;
+
+/**
+ * Measures write and read latency of {@link FhirResourceSerializer} for Bundle variables with and without compression
+ * and prints the stored value size per configuration.
+ * <p>
+ * Not executed as part of the build, run {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FhirResourceSerializerBenchmark
+{
+	public static void main(String[] args) throws Exception
+	{
+		Options options = new OptionsBuilder().include(FhirResourceSerializerBenchmark.class.getSimpleName())
+				.addProfiler("gc").build();
+		new Runner(options).run();
+	}
+
+	@Param({ "10", "500" })
+	private int bundleEntries;
+
+	@Param({ "false", "true" })
+	private boolean compress;
+
+	private FhirResourceSerializer serializer;
+	private Bundle bundle;
+	private TestValueFields written;
+
+	@Setup(Level.Trial)
+	public void setup()
+	{
+		serializer = new FhirResourceSerializer(FhirContext.forR4(), compress);
+		bundle = FhirResourceSerializerTest.createBundle(bundleEntries);
+
+		written = new TestValueFields();
+		serializer.writeValue(FhirResourceValues.create(bundle), written);
+
+		System.out.printf("%nStored value size with %d entries, compress %b: %d bytes%n", bundleEntries, compress,
+				written.getByteArrayValue().length);
+	}
+
+	@Benchmark
+	public void write(Blackhole blackhole)
+	{
+		TestValueFields fields = new TestValueFields();
+		serializer.writeValue(FhirResourceValues.create(bundle), fields);
+		blackhole.consume(fields);
+	}
+
+	@Benchmark
+	public Object read()
+	{
+		return serializer.readValue(written, false).getValue();
+	}
+}
@@ -0,0 +1,185 @@
+package dev.dsf.bpe.v1.variables;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.camunda.bpm.engine.impl.variable.serializer.ValueFields;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.BundleType;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Resource;
+import org.hl7.fhir.r4.model.Task;
+import org.hl7.fhir.r4.model.Task.TaskIntent;
+import org.hl7.fhir.r4.model.Task.TaskStatus;
+import org.junit.Test;
+
+import ca.uhn.fhir.context.FhirContext;
+import dev.dsf.bpe.variables.FhirResourceSerializer;
+import dev.dsf.bpe.variables.FhirResourceValues;
+import dev.dsf.bpe.variables.FhirResourcesList;
+import dev.dsf.bpe.variables.FhirResourcesListSerializer;
+import dev.dsf.bpe.variables.FhirResourcesListValues;
+import dev.dsf.bpe.variables.ObjectMapperFactory;
+
+public class FhirResourceSerializerTest
+{
+	private static final FhirContext fhirContext = FhirContext.forR4();
+
+	static final class TestValueFields implements ValueFields
+	{
+		String textValue;
+		String textValue2;
+		byte[] byteArrayValue;
+
+		@Override
+		public String getName()
+		{
+			return "test";
+		}
+
+		@Override
+		public String getTextValue()
+		{
+			return textValue;
+		}
+
+		@Override
+		public void setTextValue(String textValue)
+		{
+			this.textValue = textValue;
+		}
+
+		@Override
+		public String getTextValue2()
+		{
+			return textValue2;
+		}
+
+		@Override
+		public void setTextValue2(String textValue2)
+		{
+			this.textValue2 = textValue2;
+		}
+
+		@Override
+		public Long getLongValue()
+		{
+			return null;
+		}
+
+		@Override
+		public void setLongValue(Long longValue)
+		{
+		}
+
+		@Override
+		public Double getDoubleValue()
+		{
+			return null;
+		}
+
+		@Override
+		public void setDoubleValue(Double doubleValue)
+		{
+		}
+
+		@Override
+		public byte[] getByteArrayValue()
+		{
+			return byteArrayValue;
+		}
+
+		@Override
+		public void setByteArrayValue(byte[] bytes)
+		{
+			this.byteArrayValue = bytes;
+		}
+	}
+
+	static Bundle createBundle(int entries)
+	{
+		Bundle bundle = new Bundle().setType(BundleType.SEARCHSET).setTotal(entries);
+		for (int i = 0; i < entries; i++)
+		{
+			Patient patient = new Patient();
+			patient.setIdBase("Patient/" + i);
+			patient.addName().setFamily("Family " + i).addGiven("Given " + i);
+			patient.addIdentifier().setSystem("http://test.org/sid/patient-id").setValue("patient-" + i);
+			bundle.addEntry().setFullUrl("https://fhir.test.org/fhir/Patient/" + i).setResource(patient);
+		}
+		return bundle;
+	}
+
+	@Test
+	public void testWriteReadCompressed() throws Exception
+	{
+		Bundle bundle = createBundle(50);
+		String json = fhirContext.newJsonParser().encodeResourceToString(bundle);
+
+		TestValueFields fields = new TestValueFields();
+		FhirResourceSerializer serializer = new FhirResourceSerializer(fhirContext, true);
+		serializer.writeValue(FhirResourceValues.create(bundle), fields);
+
+		assertEquals(Bundle.class.getName(), fields.textValue);
+		assertTrue(fields.byteArrayValue.length < json.length() / 4);
+
+		Resource read = serializer.readValue(fields, false).getValue();
+		assertEquals(json, fhirContext.newJsonParser().encodeResourceToString(read));
+	}
+
+	@Test
+	public void testSmallValueNotCompressed() throws Exception
+	{
+		Task task = new Task().setStatus(TaskStatus.REQUESTED).setIntent(TaskIntent.ORDER);
+
+		TestValueFields fields = new TestValueFields();
+		new FhirResourceSerializer(fhirContext, true).writeValue(FhirResourceValues.create(task), fields);
+
+		assertArrayEquals(fhirContext.newJsonParser().encodeResourceToString(task).getBytes(StandardCharsets.UTF_8),
+				fields.byteArrayValue);
+	}
+
+	@Test
+	public void testReadUncompressedLegacyValue() throws Exception
+	{
+		Bundle bundle = createBundle(50);
+		String json = fhirContext.newJsonParser().encodeResourceToString(bundle);
+
+		TestValueFields fields = new TestValueFields();
+		fields.textValue = Bundle.class.getName();
+		fields.byteArrayValue = json.getBytes(StandardCharsets.UTF_8);
+
+		Resource read = new FhirResourceSerializer(fhirContext, true).readValue(fields, false).getValue();
+		assertEquals(json, fhirContext.newJsonParser().encodeResourceToString(read));
+	}
+
+	@Test
+	public void testWriteReadResourcesListCompressed() throws Exception
+	{
+		FhirResourcesListSerializer serializer = new FhirResourcesListSerializer(
+				ObjectMapperFactory.createObjectMapper(fhirContext), true);
+
+		TestValueFields fields = new TestValueFields();
+		serializer.writeValue(FhirResourcesListValues.create(new FhirResourcesList(createBundle(20), createBundle(20))),
+				fields);
+		assertNotEquals('{', fields.byteArrayValue[0]);
+
+		FhirResourcesList read = serializer.readValue(fields, false).getValue();
+		assertEquals(2, read.getResources().size());
+		assertEquals(20, ((Bundle) read.getResources().get(1)).getEntry().size());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testReadUnknownVersion() throws Exception
+	{
+		TestValueFields fields = new TestValueFields();
+		fields.textValue = Bundle.class.getName();
+		fields.byteArrayValue = new byte[] { 'D', 'S', 'F', 99, 0 };
+
+		new FhirResourceSerializer(fhirContext, true).readValue(fields, false);
+	}
+}
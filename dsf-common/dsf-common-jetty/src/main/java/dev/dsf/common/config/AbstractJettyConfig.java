@@ -175,6 +175,26 @@ public abstract class AbstractJettyConfig
 	@Value("${dev.dsf.server.auth.oidc.back.channel.logout.path:/back-channel-logout}")
 	private String oidcBackChannelPath;
 
+	@Documentation(description = "Set to `false` to disable gzip/deflate compression of responses and inflation of compressed request entities", recommendation = "Disable if compression is handled by the reverse proxy")
+	@Value("${dev.dsf.server.compression:true}")
+	private boolean compressionEnabled;
+
+	@Documentation(description = "Minimum size in bytes of responses to be compressed")
+	@Value("${dev.dsf.server.compression.min.size:1024}")
+	private int compressionMinSize;
+
+	@Documentation(description = "Content types of responses not to be compressed, in addition to compressed archives, images, audio and video", recommendation = "Specify Binary content types already compressed or encrypted by processes")
+	@Value("#{'${dev.dsf.server.compression.excluded.mime.types:application/octet-stream,application/pdf}'.trim().split('(,[ ]?)|(\\n)')}")
+	private List<String> compressionExcludedMimeTypes;
+
+	@Documentation(description = "Set to `true` to handle requests on virtual threads instead of a thread pool with max 200 threads, concurrent API requests are limited by *DEV_DSF_SERVER_VIRTUAL_THREADS_CONCURRENCY*; requires Java 21 or later, the thread pool is used if virtual threads are not supported")
+	@Value("${dev.dsf.server.virtual.threads:false}")
+	private boolean virtualThreadsEnabled;
+
+	@Documentation(description = "Maximum number of concurrently handled API requests if virtual threads are enabled, additional requests wait for up to 30 seconds before being answered with status code 503; a value `<= 0` means no limit", recommendation = "Requests wait for database connections while handled, do not disable the limit")
+	@Value("${dev.dsf.server.virtual.threads.concurrency:200}")
+	private int virtualThreadsConcurrency;
+
 	// documentation in dev.dsf.fhir.spring.config.PropertiesConfig
 	@Value("${dev.dsf.proxy.url:#{null}}")
 	private String proxyUrl;
@@ -234,7 +254,9 @@ public abstract class AbstractJettyConfig
 
 		return new JettyServer(apiConnector(), statusConnector(), mavenServerModuleName(), contextPath,
 				servletContainerInitializers(), initParameters, clientCertificateTrustStore(),
-				this::configureSecurityHandler);
+				this::configureSecurityHandler,
+				compressionEnabled ? JettyServer.gzipHandler(compressionMinSize, compressionExcludedMimeTypes) : null,
+				virtualThreadsEnabled, virtualThreadsConcurrency);
 	}
 
 	private KeyStore serverCertificateKeyStore(char[] keyStorePassword)
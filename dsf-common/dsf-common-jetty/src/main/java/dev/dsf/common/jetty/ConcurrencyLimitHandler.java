@@ -0,0 +1,100 @@
+package dev.dsf.common.jetty;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Limits the number of concurrently handled requests received by a connector. With virtual threads the number of
+ * request handling threads is not bounded by a thread pool, without a limit every request would wait for a database
+ * connection instead. Requests waiting for a permit block their (virtual) thread, requests not getting a permit within
+ * {@value #MAX_WAIT_SECONDS} seconds are answered with status code 503.
+ * <p>
+ * Requests received by other connectors, e.g. the status connector, are not limited.
+ */
+public class ConcurrencyLimitHandler extends HandlerWrapper
+{
+	private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitHandler.class);
+
+	public static final long MAX_WAIT_SECONDS = 30;
+
+	private final Connector connector;
+	private final Semaphore semaphore;
+
+	/**
+	 * @param connector
+	 *            not <code>null</code>, requests received by this connector are limited
+	 * @param maxConcurrentRequests
+	 *            <code>&gt; 0</code>
+	 */
+	public ConcurrencyLimitHandler(Connector connector, int maxConcurrentRequests)
+	{
+		if (maxConcurrentRequests <= 0)
+			throw new IllegalArgumentException("maxConcurrentRequests <= 0");
+
+		this.connector = Objects.requireNonNull(connector, "connector");
+		this.semaphore = new Semaphore(maxConcurrentRequests, true);
+	}
+
+	@Override
+	public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response)
+			throws IOException, ServletException
+	{
+		if (baseRequest.getHttpChannel().getConnector() != connector)
+		{
+			super.handle(target, baseRequest, request, response);
+			return;
+		}
+
+		boolean acquired;
+		try
+		{
+			acquired = semaphore.tryAcquire(MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			acquired = false;
+		}
+
+		if (!acquired)
+		{
+			logger.warn("No request permit available after {} seconds, returning status 503 for {} {}",
+					MAX_WAIT_SECONDS, request.getMethod(), target);
+
+			baseRequest.setHandled(true);
+			response.setHeader(HttpHeader.RETRY_AFTER.asString(), String.valueOf(MAX_WAIT_SECONDS));
+			response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+			return;
+		}
+
+		try
+		{
+			super.handle(target, baseRequest, request, response);
+		}
+		finally
+		{
+			semaphore.release();
+		}
+	}
+
+	/**
+	 * @return number of requests that can be handled without waiting
+	 */
+	public int getAvailablePermits()
+	{
+		return semaphore.availablePermits();
+	}
+}
@@ -16,6 +16,7 @@ import org.eclipse.jetty.annotations.AnnotationConfiguration;
 import org.eclipse.jetty.http.HttpVersion;
 import org.eclipse.jetty.server.Connector;
 import org.eclipse.jetty.server.ForwardedRequestCustomizer;
+import org.eclipse.jetty.server.Handler;
 import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.HttpConfiguration.Customizer;
 import org.eclipse.jetty.server.HttpConnectionFactory;
@@ -24,6 +25,8 @@ import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.server.SslConnectionFactory;
 import org.eclipse.jetty.server.handler.ErrorHandler;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import org.eclipse.jetty.util.VirtualThreads;
 import org.eclipse.jetty.util.resource.Resource;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
@@ -142,6 +145,36 @@ public final class JettyServer
 		}
 	}
 
+	/**
+	 * Compresses responses with gzip or deflate if accepted by the client and inflates compressed request entities.
+	 * Responses smaller than <b>minSize</b> bytes and responses with already compressed content types are not
+	 * compressed.
+	 *
+	 * @param minSize
+	 *            <code>&gt;= 0</code>, minimum response size in bytes
+	 * @param excludedMimeTypes
+	 *            may be <code>null</code>, content types excluded in addition to Jetty's default exclusions of
+	 *            compressed archives, images, audio and video
+	 * @return handler to be used with
+	 *         {@link #JettyServer(Function, Function, String, String, List, Map, KeyStore, Consumer, GzipHandler)}
+	 */
+	public static GzipHandler gzipHandler(int minSize, List<String> excludedMimeTypes)
+	{
+		if (minSize < 0)
+			throw new IllegalArgumentException("minSize < 0");
+
+		GzipHandler gzipHandler = new GzipHandler();
+		gzipHandler.setMinGzipSize(minSize);
+		gzipHandler.setInflateBufferSize(8192);
+		gzipHandler.addIncludedMethods("POST", "PUT");
+
+		if (excludedMimeTypes != null)
+			gzipHandler.addExcludedMimeTypes(excludedMimeTypes.stream().filter(t -> t != null && !t.isBlank())
+					.map(String::trim).toArray(String[]::new));
+
+		return gzipHandler;
+	}
+
 	private final Server server;
 	private final WebAppContext webAppContext;
 
@@ -151,22 +184,96 @@ public final class JettyServer
 			Map<String, String> initParameters, KeyStore clientTrustStore,
 			Consumer<WebAppContext> securityHandlerConfigurer)
 	{
-		server = new Server(threadPool());
-		server.addConnector(apiConnector.apply(server));
+		this(apiConnector, statusConnector, mavenServerModuleName, contextPath, servletContainerInitializers,
+				initParameters, clientTrustStore, securityHandlerConfigurer, null);
+	}
+
+	/**
+	 * @param gzipHandler
+	 *            may be <code>null</code>, see {@link #gzipHandler(int, List)}
+	 */
+	public JettyServer(Function<Server, Connector> apiConnector, Function<Server, Connector> statusConnector,
+			String mavenServerModuleName, String contextPath,
+			List<Class<? extends ServletContainerInitializer>> servletContainerInitializers,
+			Map<String, String> initParameters, KeyStore clientTrustStore,
+			Consumer<WebAppContext> securityHandlerConfigurer, GzipHandler gzipHandler)
+	{
+		this(apiConnector, statusConnector, mavenServerModuleName, contextPath, servletContainerInitializers,
+				initParameters, clientTrustStore, securityHandlerConfigurer, gzipHandler, false, 0);
+	}
+
+	/**
+	 * @param gzipHandler
+	 *            may be <code>null</code>, see {@link #gzipHandler(int, List)}
+	 * @param virtualThreads
+	 *            <code>true</code> to handle requests on virtual threads, requires Java 21 or later; the thread pool is
+	 *            used if virtual threads are not supported by the JVM
+	 * @param maxConcurrentRequests
+	 *            maximum number of concurrently handled requests received by the API connector if virtual threads are
+	 *            used, a value <code>&lt;= 0</code> means no limit; see {@link ConcurrencyLimitHandler}
+	 */
+	public JettyServer(Function<Server, Connector> apiConnector, Function<Server, Connector> statusConnector,
+			String mavenServerModuleName, String contextPath,
+			List<Class<? extends ServletContainerInitializer>> servletContainerInitializers,
+			Map<String, String> initParameters, KeyStore clientTrustStore,
+			Consumer<WebAppContext> securityHandlerConfigurer, GzipHandler gzipHandler, boolean virtualThreads,
+			int maxConcurrentRequests)
+	{
+		boolean useVirtualThreads = virtualThreads && virtualThreadsSupported();
+
+		server = new Server(threadPool(useVirtualThreads));
+
+		Connector api = apiConnector.apply(server);
+		server.addConnector(api);
 		server.addConnector(statusConnector.apply(server));
 
 		webAppContext = webAppContext(mavenServerModuleName, contextPath, servletContainerInitializers, initParameters);
 
 		securityHandlerConfigurer.accept(webAppContext);
 
-		server.setHandler(webAppContext);
+		Handler handler = webAppContext;
+
+		if (gzipHandler != null)
+		{
+			gzipHandler.setHandler(handler);
+			handler = gzipHandler;
+		}
+
+		if (useVirtualThreads && maxConcurrentRequests > 0)
+		{
+			ConcurrencyLimitHandler concurrencyLimitHandler = new ConcurrencyLimitHandler(api, maxConcurrentRequests);
+			concurrencyLimitHandler.setHandler(handler);
+			handler = concurrencyLimitHandler;
+
+			logger.info("Handling requests on virtual threads, max {} concurrent API requests", maxConcurrentRequests);
+		}
+		else if (useVirtualThreads)
+			logger.info("Handling requests on virtual threads");
+
+		server.setHandler(handler);
 		server.setErrorHandler(statusCodeOnlyErrorHandler());
 	}
 
-	private QueuedThreadPool threadPool()
+	private static boolean virtualThreadsSupported()
+	{
+		if (VirtualThreads.areSupported())
+			return true;
+		else
+		{
+			logger.warn("Virtual threads not supported by JVM, Java 21 or later required, using thread pool");
+			return false;
+		}
+	}
+
+	private QueuedThreadPool threadPool(boolean virtualThreads)
 	{
 		QueuedThreadPool threadPool = new QueuedThreadPool();
 		threadPool.setName("jetty-server");
+
+		// selector and acceptor threads stay on the pool, blocking request handling is executed on virtual threads
+		if (virtualThreads)
+			threadPool.setVirtualThreadsExecutor(VirtualThreads.getDefaultVirtualThreadsExecutor());
+
 		return threadPool;
 	}
 
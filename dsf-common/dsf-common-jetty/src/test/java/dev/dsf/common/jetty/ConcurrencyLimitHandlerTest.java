@@ -0,0 +1,138 @@
+package dev.dsf.common.jetty;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.api.ContentResponse;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+public class ConcurrencyLimitHandlerTest
+{
+	private static final int MAX_CONCURRENT_REQUESTS = 2;
+	private static final int REQUESTS = 10;
+
+	private final AtomicInteger concurrentRequests = new AtomicInteger();
+	private final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+
+	private Server server;
+	private ServerConnector apiConnector;
+	private ServerConnector statusConnector;
+	private ConcurrencyLimitHandler concurrencyLimitHandler;
+	private HttpClient client;
+	private ExecutorService executor;
+
+	@Before
+	public void before() throws Exception
+	{
+		server = new Server();
+		apiConnector = new ServerConnector(server);
+		apiConnector.setHost("127.0.0.1");
+		statusConnector = new ServerConnector(server);
+		statusConnector.setHost("127.0.0.1");
+		server.addConnector(apiConnector);
+		server.addConnector(statusConnector);
+
+		concurrencyLimitHandler = new ConcurrencyLimitHandler(apiConnector, MAX_CONCURRENT_REQUESTS);
+		concurrencyLimitHandler.setHandler(new AbstractHandler()
+		{
+			@Override
+			public void handle(String target, Request baseRequest, HttpServletRequest request,
+					HttpServletResponse response) throws IOException
+			{
+				maxConcurrentRequests.accumulateAndGet(concurrentRequests.incrementAndGet(), Math::max);
+				try
+				{
+					Thread.sleep(50);
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+				finally
+				{
+					concurrentRequests.decrementAndGet();
+				}
+
+				baseRequest.setHandled(true);
+				response.setStatus(HttpServletResponse.SC_OK);
+			}
+		});
+		server.setHandler(concurrencyLimitHandler);
+		server.start();
+
+		client = new HttpClient();
+		client.start();
+
+		executor = Executors.newFixedThreadPool(REQUESTS);
+	}
+
+	@After
+	public void after() throws Exception
+	{
+		executor.shutdownNow();
+		client.stop();
+		server.stop();
+	}
+
+	private List<Integer> sendConcurrentRequests(ServerConnector connector) throws Exception
+	{
+		List<CompletableFuture<Integer>> futures = new ArrayList<>();
+		for (int i = 0; i < REQUESTS; i++)
+			futures.add(CompletableFuture.supplyAsync(() ->
+			{
+				try
+				{
+					ContentResponse response = client.newRequest("127.0.0.1", connector.getLocalPort())
+							.timeout(10, TimeUnit.SECONDS).send();
+					return response.getStatus();
+				}
+				catch (Exception e)
+				{
+					throw new RuntimeException(e);
+				}
+			}, executor));
+
+		return futures.stream().map(CompletableFuture::join).toList();
+	}
+
+	@Test
+	public void testApiRequestsLimited() throws Exception
+	{
+		List<Integer> statusCodes = sendConcurrentRequests(apiConnector);
+
+		statusCodes.forEach(s -> assertEquals(HttpServletResponse.SC_OK, s.intValue()));
+		assertTrue("max concurrent requests " + maxConcurrentRequests.get() + " > " + MAX_CONCURRENT_REQUESTS,
+				maxConcurrentRequests.get() <= MAX_CONCURRENT_REQUESTS);
+		assertEquals(MAX_CONCURRENT_REQUESTS, concurrencyLimitHandler.getAvailablePermits());
+	}
+
+	@Test
+	public void testStatusRequestsNotLimited() throws Exception
+	{
+		List<Integer> statusCodes = sendConcurrentRequests(statusConnector);
+
+		statusCodes.forEach(s -> assertEquals(HttpServletResponse.SC_OK, s.intValue()));
+		assertTrue("max concurrent requests " + maxConcurrentRequests.get() + " <= " + MAX_CONCURRENT_REQUESTS,
+				maxConcurrentRequests.get() > MAX_CONCURRENT_REQUESTS);
+		assertEquals(MAX_CONCURRENT_REQUESTS, concurrencyLimitHandler.getAvailablePermits());
+	}
+}
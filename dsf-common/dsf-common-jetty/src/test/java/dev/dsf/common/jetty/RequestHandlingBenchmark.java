@@ -0,0 +1,146 @@
+package dev.dsf.common.jetty;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.util.VirtualThreads;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Compares the throughput of a batch of {@value #REQUESTS} concurrent requests, each blocking for
+ * {@value #BLOCKING_MILLIS} ms to simulate waiting for the database, handled by the default Jetty thread pool (max 200
+ * threads) and by virtual threads with a {@link ConcurrencyLimitHandler} allowing {@value #REQUESTS} concurrent
+ * requests. The virtual threads variant requires Java 21 or later and fails on older JVMs.
+ * <p>
+ * Not executed as part of the build, run {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestHandlingBenchmark
+{
+	private static final int REQUESTS = 400;
+	private static final long BLOCKING_MILLIS = 10;
+
+	public static void main(String[] args) throws Exception
+	{
+		Options options = new OptionsBuilder().include(RequestHandlingBenchmark.class.getSimpleName()).build();
+		new Runner(options).run();
+	}
+
+	@Param({ "thread-pool", "virtual-threads" })
+	private String requestHandling;
+
+	private Server server;
+	private ServerConnector connector;
+	private HttpClient client;
+
+	@Setup
+	public void setup() throws Exception
+	{
+		QueuedThreadPool threadPool = new QueuedThreadPool();
+		if ("virtual-threads".equals(requestHandling))
+		{
+			if (!VirtualThreads.areSupported())
+				throw new IllegalStateException("Virtual threads not supported, Java 21 or later required");
+
+			threadPool.setVirtualThreadsExecutor(VirtualThreads.getDefaultVirtualThreadsExecutor());
+		}
+
+		server = new Server(threadPool);
+		connector = new ServerConnector(server);
+		connector.setHost("127.0.0.1");
+		connector.setAcceptQueueSize(REQUESTS);
+		server.addConnector(connector);
+
+		Handler blocking = new AbstractHandler()
+		{
+			@Override
+			public void handle(String target, Request baseRequest, HttpServletRequest request,
+					HttpServletResponse response) throws IOException
+			{
+				try
+				{
+					Thread.sleep(BLOCKING_MILLIS);
+				}
+				catch (InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+				}
+
+				baseRequest.setHandled(true);
+				response.setStatus(HttpServletResponse.SC_OK);
+			}
+		};
+
+		if ("virtual-threads".equals(requestHandling))
+		{
+			ConcurrencyLimitHandler concurrencyLimitHandler = new ConcurrencyLimitHandler(connector, REQUESTS);
+			concurrencyLimitHandler.setHandler(blocking);
+			server.setHandler(concurrencyLimitHandler);
+		}
+		else
+			server.setHandler(blocking);
+
+		server.start();
+
+		client = new HttpClient();
+		client.setMaxConnectionsPerDestination(REQUESTS);
+		client.setMaxRequestsQueuedPerDestination(REQUESTS);
+		client.start();
+	}
+
+	@TearDown
+	public void tearDown() throws Exception
+	{
+		client.stop();
+		server.stop();
+	}
+
+	@Benchmark
+	public int sendConcurrentRequests() throws InterruptedException
+	{
+		CountDownLatch done = new CountDownLatch(REQUESTS);
+		AtomicInteger ok = new AtomicInteger();
+
+		for (int i = 0; i < REQUESTS; i++)
+			client.newRequest("127.0.0.1", connector.getLocalPort()).send(result ->
+			{
+				if (result.isSucceeded() && result.getResponse().getStatus() == HttpServletResponse.SC_OK)
+					ok.incrementAndGet();
+				done.countDown();
+			});
+
+		done.await();
+		return ok.get();
+	}
+}
@@ -1,7 +1,14 @@
 package dev.dsf.fhir.adapter;
 
+import java.util.Arrays;
 import java.util.Set;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.BundleType;
 
 import ca.uhn.fhir.parser.IParser;
 import jakarta.ws.rs.core.MediaType;
@@ -10,6 +17,7 @@ public abstract class AbstractAdapter
 {
 	public static final String PRETTY = "pretty";
 	public static final String SUMMARY = "summary";
+	public static final String ELEMENTS = "elements";
 
 	protected IParser getParser(MediaType mediaType, Supplier<IParser> parserFactor)
 	{
@@ -29,8 +37,38 @@ public abstract class AbstractAdapter
 				case "text" -> p.setEncodeElements(Set.of("*.text", "*.id", "*.meta", "*.(mandatory)"));
 				case "data" -> p.setSuppressNarratives(true);
 			}
+
+			String elements = mediaType.getParameters().get(ELEMENTS);
+			if (elements != null && !elements.isBlank())
+				p.setEncodeElements(Stream
+						.concat(Arrays.stream(elements.split(",")).map(String::trim).filter(e -> !e.isEmpty())
+								.map(e -> "*." + e), Stream.of("*.id", "*.meta", "*.(mandatory)"))
+						.collect(Collectors.toSet()));
 		}
 
 		return p;
 	}
+
+	/**
+	 * Summary modes and elements given as media type parameters are applied to the entry resources of search and
+	 * history bundles, not to the bundle itself.
+	 *
+	 * @param mediaType
+	 *            may be <code>null</code>
+	 * @param parserFactor
+	 *            not <code>null</code>
+	 * @param resource
+	 *            may be <code>null</code>, the resource to encode
+	 * @return new parser
+	 */
+	protected IParser getParser(MediaType mediaType, Supplier<IParser> parserFactor, IBaseResource resource)
+	{
+		IParser p = getParser(mediaType, parserFactor);
+
+		if (resource instanceof Bundle b
+				&& (BundleType.SEARCHSET.equals(b.getType()) || BundleType.HISTORY.equals(b.getType())))
+			p.setEncodeElementsAppliesToChildResourcesOnly(true);
+
+		return p;
+	}
 }
@@ -1,12 +1,16 @@
 package dev.dsf.fhir.adapter;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 
 import org.hl7.fhir.r4.model.BaseResource;
 import org.hl7.fhir.r4.model.Binary;
@@ -33,6 +37,12 @@ import jakarta.ws.rs.ext.Provider;
 public class FhirAdapter extends AbstractAdapter
 		implements MessageBodyReader<BaseResource>, MessageBodyWriter<BaseResource>
 {
+	/**
+	 * Size of the character buffer used while encoding resources, same as the default Jetty HTTP output buffer size.
+	 * HAPI writes many small fragments, buffering them avoids encoding and writing each fragment separately.
+	 */
+	public static final int BUFFER_SIZE = 32 * 1024;
+
 	private final FhirContext fhirContext;
 
 	public FhirAdapter(FhirContext fhirContext)
@@ -41,13 +51,18 @@ public class FhirAdapter extends AbstractAdapter
 	}
 
 	private IParser getParser(MediaType mediaType)
+	{
+		return getParser(mediaType, (BaseResource) null);
+	}
+
+	private IParser getParser(MediaType mediaType, BaseResource resource)
 	{
 		return switch (mediaType.getType() + "/" + mediaType.getSubtype())
 		{
 			case Constants.CT_FHIR_XML_NEW, Constants.CT_FHIR_XML, MediaType.APPLICATION_XML, MediaType.TEXT_XML ->
-				getParser(mediaType, fhirContext::newXmlParser);
+				getParser(mediaType, fhirContext::newXmlParser, resource);
 			case Constants.CT_FHIR_JSON_NEW, Constants.CT_FHIR_JSON, MediaType.APPLICATION_JSON ->
-				getParser(mediaType, fhirContext::newJsonParser);
+				getParser(mediaType, fhirContext::newJsonParser, resource);
 			default -> throw new IllegalStateException("MediaType " + mediaType.toString() + " not supported");
 		};
 	}
@@ -63,7 +78,9 @@ public class FhirAdapter extends AbstractAdapter
 			MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
 			throws IOException, WebApplicationException
 	{
-		getParser(mediaType).encodeResourceToWriter(t, new OutputStreamWriter(entityStream));
+		Writer writer = new BufferedWriter(new OutputStreamWriter(entityStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+		getParser(mediaType, t).encodeResourceToWriter(t, writer);
+		writer.flush();
 	}
 
 	@Override
@@ -77,7 +94,8 @@ public class FhirAdapter extends AbstractAdapter
 			MediaType mediaType, MultivaluedMap<String, String> httpHeaders, InputStream entityStream)
 			throws IOException, WebApplicationException
 	{
-		return fixResource(getParser(mediaType).parseResource(type, new InputStreamReader(entityStream)));
+		return fixResource(getParser(mediaType).parseResource(type,
+				new BufferedReader(new InputStreamReader(entityStream, StandardCharsets.UTF_8), BUFFER_SIZE)));
 	}
 
 	private BaseResource fixResource(BaseResource resource)
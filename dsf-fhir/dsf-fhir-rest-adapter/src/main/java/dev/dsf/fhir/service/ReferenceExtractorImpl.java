@@ -1,6 +1,6 @@
 package dev.dsf.fhir.service;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -68,260 +68,550 @@ import org.hl7.fhir.r4.model.StructureDefinition;
 import org.hl7.fhir.r4.model.Subscription;
 import org.hl7.fhir.r4.model.Substance;
 import org.hl7.fhir.r4.model.Task;
+import org.hl7.fhir.r4.model.Type;
 import org.hl7.fhir.r4.model.ValueSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Uses one extraction plan per resource type. Plans are built once from lambdas over the HAPI model getters and walk
+ * the resource without intermediate streams, references are collected into a single list per call.
+ */
 public class ReferenceExtractorImpl implements ReferenceExtractor
 {
 	private static final Logger logger = LoggerFactory.getLogger(ReferenceExtractorImpl.class);
 
-	@SafeVarargs
-	private Function<Reference, ResourceReference> toResourceReferenceFromReference(String referenceLocation,
-			Class<? extends Resource>... referenceTypes)
+	@FunctionalInterface
+	private interface ReferenceCollector<E>
 	{
-		return ref -> new ResourceReference(referenceLocation, ref, referenceTypes);
+		void collect(E element, List<ResourceReference> references);
 	}
 
-	private Function<RelatedArtifact, ResourceReference> toResourceReferenceFromRelatedArtifact(
-			String relatedArtifactLocation)
+	@SafeVarargs
+	private static <R> ReferenceCollector<R> plan(ReferenceCollector<R>... steps)
 	{
-		return rel -> new ResourceReference(relatedArtifactLocation, rel);
+		return (resource, references) ->
+		{
+			for (ReferenceCollector<R> step : steps)
+				step.collect(resource, references);
+		};
 	}
 
-	private Function<Attachment, ResourceReference> toResourceReferenceFromAttachment(String attachmentLocation)
+	private static <R, E> ReferenceCollector<R> element(Predicate<R> hasElement, Function<R, E> getElement,
+			ReferenceCollector<E> collector)
 	{
-		return rel -> new ResourceReference(attachmentLocation, rel);
+		return (resource, references) ->
+		{
+			if (hasElement.test(resource))
+				collector.collect(getElement.apply(resource), references);
+		};
 	}
 
-	@SafeVarargs
-	private <R extends Resource> Stream<ResourceReference> getReference(R resource, Predicate<R> hasReference,
-			Function<R, Reference> getReference, String referenceLocation,
-			Class<? extends DomainResource>... referenceTypes)
+	private static <R, E> ReferenceCollector<R> elements(Predicate<R> hasElements, Function<R, List<E>> getElements,
+			ReferenceCollector<E> collector)
 	{
-		return hasReference.test(resource) ? Stream.of(getReference.apply(resource))
-				.map(toResourceReferenceFromReference(referenceLocation, referenceTypes)) : Stream.empty();
+		return (resource, references) ->
+		{
+			if (hasElements.test(resource))
+			{
+				for (E element : getElements.apply(resource))
+					collector.collect(element, references);
+			}
+		};
 	}
 
 	@SafeVarargs
-	private <R extends Resource> Stream<ResourceReference> getReferences(R resource, Predicate<R> hasReference,
-			Function<R, List<Reference>> getReference, String referenceLocation,
-			Class<? extends Resource>... referenceTypes)
+	private static <E> ReferenceCollector<E> reference(Predicate<E> hasReference, Function<E, Reference> getReference,
+			String referenceLocation, Class<? extends Resource>... referenceTypes)
 	{
-		return hasReference.test(resource) ? Stream.of(getReference.apply(resource)).flatMap(List::stream)
-				.map(toResourceReferenceFromReference(referenceLocation, referenceTypes)) : Stream.empty();
+		return (element, references) ->
+		{
+			if (hasReference.test(element))
+				references.add(new ResourceReference(referenceLocation, getReference.apply(element), referenceTypes));
+		};
 	}
 
 	@SafeVarargs
-	private <R extends Resource, E extends BackboneElement> Stream<ResourceReference> getBackboneElementsReference(
-			R resource, Predicate<R> hasBackboneElements, Function<R, List<E>> getBackboneElements,
-			Predicate<E> hasReference, Function<E, Reference> getReference, String referenceLocation,
+	private static <E> ReferenceCollector<E> references(Predicate<E> hasReferences,
+			Function<E, List<Reference>> getReferences, String referenceLocation,
 			Class<? extends Resource>... referenceTypes)
 	{
-		if (hasBackboneElements.test(resource))
+		return (element, references) ->
 		{
-			List<E> backboneElements = getBackboneElements.apply(resource);
-			return backboneElements.stream()
-					.map(e -> getReference(e, hasReference, getReference, referenceLocation, referenceTypes))
-					.flatMap(Function.identity());
-		}
-		else
-			return Stream.empty();
+			if (hasReferences.test(element))
+			{
+				for (Reference reference : getReferences.apply(element))
+					references.add(new ResourceReference(referenceLocation, reference, referenceTypes));
+			}
+		};
 	}
 
-	private <R extends Resource, E extends BackboneElement> Stream<ResourceReference> getBackboneElementsAttachment(
-			R resource, Predicate<R> hasBackboneElements, Function<R, List<E>> getBackboneElements,
-			Predicate<E> hasAttachment, Function<E, Attachment> getAttachment, String attachmentLocation)
+	private static <E> ReferenceCollector<E> relatedArtifacts(Predicate<E> hasRelatedArtifacts,
+			Function<E, List<RelatedArtifact>> getRelatedArtifacts, String relatedArtifactLocation)
 	{
-		if (hasBackboneElements.test(resource))
+		return (element, references) ->
 		{
-			List<E> backboneElements = getBackboneElements.apply(resource);
-			return backboneElements.stream()
-					.map(e -> getAttachment(e, hasAttachment, getAttachment, attachmentLocation))
-					.flatMap(Function.identity());
-		}
-		else
-			return Stream.empty();
+			if (hasRelatedArtifacts.test(element))
+			{
+				for (RelatedArtifact relatedArtifact : getRelatedArtifacts.apply(element))
+					references.add(new ResourceReference(relatedArtifactLocation, relatedArtifact));
+			}
+		};
 	}
 
-	@SafeVarargs
-	private <E extends BackboneElement> Stream<ResourceReference> getReference(E backboneElement,
-			Predicate<E> hasReference, Function<E, Reference> getReference, String referenceLocation,
-			Class<? extends Resource>... referenceTypes)
+	private static <E> ReferenceCollector<E> attachment(Predicate<E> hasAttachment,
+			Function<E, Attachment> getAttachment, String attachmentLocation)
 	{
-		return hasReference.test(backboneElement) ? Stream.of(getReference.apply(backboneElement))
-				.map(toResourceReferenceFromReference(referenceLocation, referenceTypes)) : Stream.empty();
+		return (element, references) ->
+		{
+			if (hasAttachment.test(element))
+				references.add(new ResourceReference(attachmentLocation, getAttachment.apply(element)));
+		};
 	}
 
-	private <E extends BackboneElement> Stream<ResourceReference> getAttachment(E backboneElement,
-			Predicate<E> hasAttachment, Function<E, Attachment> getAttachment, String attachmentLocation)
+	private static <E> ReferenceCollector<E> attachments(Predicate<E> hasAttachments,
+			Function<E, List<Attachment>> getAttachments, String attachmentLocation)
 	{
-		return hasAttachment.test(backboneElement) ? Stream.of(getAttachment.apply(backboneElement))
-				.map(toResourceReferenceFromAttachment(attachmentLocation)) : Stream.empty();
+		return (element, references) ->
+		{
+			if (hasAttachments.test(element))
+			{
+				for (Attachment attachment : getAttachments.apply(element))
+					references.add(new ResourceReference(attachmentLocation, attachment));
+			}
+		};
 	}
 
-	@SafeVarargs
-	private <R extends DomainResource, E extends BackboneElement> Stream<ResourceReference> getBackboneElementReferences(
-			R resource, Predicate<R> hasBackboneElement, Function<R, E> getBackboneElement, Predicate<E> hasReference,
-			Function<E, List<Reference>> getReference, String referenceLocation,
-			Class<? extends DomainResource>... referenceTypes)
+	/**
+	 * Value references of all elements first, extension references of all elements second.
+	 */
+	private static <R, E extends BackboneElement> ReferenceCollector<R> valueReferences(Predicate<R> hasElements,
+			Function<R, List<E>> getElements, Function<E, Type> getValue, String elementLocation)
 	{
-		if (hasBackboneElement.test(resource))
+		String extensionLocation = elementLocation + ".extension";
+
+		return (resource, references) ->
 		{
-			E backboneElement = getBackboneElement.apply(resource);
-			return getReferences(backboneElement, hasReference, getReference, referenceLocation, referenceTypes);
-		}
-		else
-			return Stream.empty();
+			if (hasElements.test(resource))
+			{
+				List<E> elements = getElements.apply(resource);
+
+				for (E element : elements)
+				{
+					if (getValue.apply(element) instanceof Reference reference)
+						references.add(new ResourceReference(elementLocation, reference));
+				}
+
+				for (E element : elements)
+				{
+					if (element.hasExtension())
+						addExtensionReferences(extensionLocation, element.getExtension(), references);
+				}
+			}
+		};
 	}
 
-	@SafeVarargs
-	private <R extends DomainResource, E extends BackboneElement> Stream<ResourceReference> getBackboneElementReference(
-			R resource, Predicate<R> hasBackboneElement, Function<R, E> getBackboneElement, Predicate<E> hasReference,
-			Function<E, Reference> getReference, String referenceLocation,
-			Class<? extends DomainResource>... referenceTypes)
+	private static <R extends DomainResource> ReferenceCollector<R> extensions(String resourceLocation)
 	{
-		if (hasBackboneElement.test(resource))
+		String extensionLocation = resourceLocation + ".extension";
+
+		return (resource, references) ->
 		{
-			E backboneElement = getBackboneElement.apply(resource);
-			return getReference(backboneElement, hasReference, getReference, referenceLocation, referenceTypes);
-		}
-		else
-			return Stream.empty();
+			if (resource.hasExtension())
+				addExtensionReferences(extensionLocation, resource.getExtension(), references);
+		};
 	}
 
-	// not needed yet
-	// @SafeVarargs
-	// private <R extends DomainResource, E extends BackboneElement> Stream<ResourceReference>
-	// getBackboneElementsReferences(
-	// R resource, Predicate<R> hasBackboneElements, Function<R, List<E>> getBackboneElements,
-	// Predicate<E> hasReference, Function<E, List<Reference>> getReference, String referenceLocation,
-	// Class<? extends DomainResource>... referenceTypes)
-	// {
-	// if (hasBackboneElements.test(resource))
-	// {
-	// List<E> backboneElements = getBackboneElements.apply(resource);
-	// return backboneElements.stream()
-	// .map(e -> getReferences(e, hasReference, getReference, referenceLocation, referenceTypes))
-	// .flatMap(Function.identity());
-	// }
-	// else
-	// return Stream.empty();
-	// }
-
-	@SafeVarargs
-	private <R extends DomainResource, E1 extends BackboneElement, E2 extends BackboneElement> Stream<ResourceReference> getBackboneElements2Reference(
-			R resource, Predicate<R> hasBackboneElements1, Function<R, List<E1>> getBackboneElements1,
-			Predicate<E1> hasBackboneElements2, Function<E1, List<E2>> getBackboneElements2, Predicate<E2> hasReference,
-			Function<E2, Reference> getReference, String referenceLocation,
-			Class<? extends DomainResource>... referenceTypes)
+	/**
+	 * Direct extension references first, references of nested extensions second.
+	 */
+	private static void addExtensionReferences(String extensionLocation, List<Extension> extensions,
+			List<ResourceReference> references)
 	{
-		if (hasBackboneElements1.test(resource))
+		for (Extension extension : extensions)
 		{
-			List<E1> backboneElements1 = getBackboneElements1.apply(resource);
-			return backboneElements1.stream().filter(e1 -> hasBackboneElements2.test(e1))
-					.flatMap(e1 -> getBackboneElements2.apply(e1).stream())
-					.map(e2 -> getReference(e2, hasReference, getReference, referenceLocation, referenceTypes))
-					.flatMap(Function.identity());
+			if (extension.getValue() instanceof Reference reference)
+				references.add(new ResourceReference(extensionLocation, reference));
 		}
-		else
-			return Stream.empty();
-	}
 
-	@SafeVarargs
-	private <R extends DomainResource, E1 extends BackboneElement, E2 extends BackboneElement, E3 extends BackboneElement, E4 extends BackboneElement> Stream<ResourceReference> getBackboneElements4Reference(
-			R resource, Predicate<R> hasBackboneElements1, Function<R, List<E1>> getBackboneElements1,
-			Predicate<E1> hasBackboneElements2, Function<E1, List<E2>> getBackboneElements2,
-			Predicate<E2> hasBackboneElements3, Function<E2, List<E3>> getBackboneElements3,
-			Predicate<E3> hasBackboneElements4, Function<E3, List<E4>> getBackboneElements4, Predicate<E4> hasReference,
-			Function<E4, Reference> getReference, String referenceLocation,
-			Class<? extends DomainResource>... referenceTypes)
-	{
-		if (hasBackboneElements1.test(resource))
+		for (Extension extension : extensions)
 		{
-			List<E1> backboneElements1 = getBackboneElements1.apply(resource);
-			return backboneElements1.stream().filter(e1 -> hasBackboneElements2.test(e1))
-					.flatMap(e1 -> getBackboneElements2.apply(e1).stream()).filter(e2 -> hasBackboneElements3.test(e2))
-					.flatMap(e2 -> getBackboneElements3.apply(e2).stream()).filter(e3 -> hasBackboneElements4.test(e3))
-					.flatMap(e3 -> getBackboneElements4.apply(e3).stream())
-					.map(e4 -> getReference(e4, hasReference, getReference, referenceLocation, referenceTypes))
-					.flatMap(Function.identity());
+			if (extension.hasExtension())
+				addExtensionReferences(extensionLocation + ".extension", extension.getExtension(), references);
 		}
-		else
-			return Stream.empty();
 	}
 
-	@SafeVarargs
-	private <E extends BackboneElement> Stream<ResourceReference> getReferences(E backboneElement,
-			Predicate<E> hasReference, Function<E, List<Reference>> getReference, String referenceLocation,
-			Class<? extends DomainResource>... referenceTypes)
-	{
-		return hasReference.test(backboneElement) ? Stream.of(getReference.apply(backboneElement)).flatMap(List::stream)
-				.map(toResourceReferenceFromReference(referenceLocation, referenceTypes)) : Stream.empty();
-	}
-
-	private Stream<ResourceReference> getExtensionReferences(DomainResource resource)
-	{
-		var extensions = resource.getExtension().stream().filter(e -> e.getValue() instanceof Reference)
-				.map(e -> (Reference) e.getValue())
-				.map(toResourceReferenceFromReference(resource.getResourceType().name() + ".extension"));
-
-		var extensionExtensions = resource.getExtension().stream()
-				.flatMap(e -> getExtensionReferences(resource.getResourceType().name() + ".extension", e));
-
-		return Stream.concat(extensions, extensionExtensions);
-	}
-
-	private Stream<ResourceReference> getExtensionReferences(String baseElementName, BackboneElement resource)
-	{
-		var extensions = resource.getExtension().stream().filter(e -> e.getValue() instanceof Reference)
-				.map(e -> (Reference) e.getValue())
-				.map(toResourceReferenceFromReference(baseElementName + ".extension"));
-
-		var extensionExtensions = resource.getExtension().stream()
-				.flatMap(e -> getExtensionReferences(baseElementName + ".extension", e));
-
-		return Stream.concat(extensions, extensionExtensions);
-	}
+	private static final ReferenceCollector<ActivityDefinition> ACTIVITY_DEFINITION = plan(
+			reference(ActivityDefinition::hasSubjectReference, ActivityDefinition::getSubjectReference,
+					"ActivityDefinition.subjectReference", Group.class),
+			reference(ActivityDefinition::hasLocation, ActivityDefinition::getLocation, "ActivityDefinition.location",
+					Location.class),
+			reference(ActivityDefinition::hasProductReference, ActivityDefinition::getProductReference,
+					"ActivityDefinition.productReference", Medication.class, Substance.class),
+			references(ActivityDefinition::hasSpecimenRequirement, ActivityDefinition::getSpecimenRequirement,
+					"ActivityDefinition.specimenRequirement", SpecimenDefinition.class),
+			references(ActivityDefinition::hasObservationRequirement, ActivityDefinition::getObservationRequirement,
+					"ActivityDefinition.observationRequirement", ObservationDefinition.class),
+			references(ActivityDefinition::hasObservationResultRequirement,
+					ActivityDefinition::getObservationResultRequirement,
+					"ActivityDefinition.observationResultRequirement", ObservationDefinition.class),
+			relatedArtifacts(ActivityDefinition::hasRelatedArtifact, ActivityDefinition::getRelatedArtifact,
+					"ActivityDefinition.relatedArtifact"),
+			extensions("ActivityDefinition"));
+
+	private static final ReferenceCollector<Binary> BINARY = reference(Binary::hasSecurityContext,
+			Binary::getSecurityContext, "Binary.securityContext");
+
+	private static final ReferenceCollector<CodeSystem> CODE_SYSTEM = extensions("CodeSystem");
+
+	private static final ReferenceCollector<DocumentReference> DOCUMENT_REFERENCE = plan(
+			reference(DocumentReference::hasSubject, DocumentReference::getSubject, "DocumentReference.subject",
+					Patient.class, Practitioner.class, Group.class, Device.class),
+			references(DocumentReference::hasAuthor, DocumentReference::getAuthor, "DocumentReference.author",
+					Practitioner.class, PractitionerRole.class, Organization.class, Device.class, Patient.class,
+					RelatedPerson.class),
+			reference(DocumentReference::hasAuthenticator, DocumentReference::getAuthenticator,
+					"DocumentReference.authenticator", Practitioner.class, PractitionerRole.class, Organization.class),
+			reference(DocumentReference::hasCustodian, DocumentReference::getCustodian, "DocumentReference.custodian",
+					Organization.class),
+			elements(DocumentReference::hasRelatesTo, DocumentReference::getRelatesTo,
+					reference(DocumentReferenceRelatesToComponent::hasTarget,
+							DocumentReferenceRelatesToComponent::getTarget, "DocumentReference.relatesTo.target",
+							DocumentReference.class)),
+			element(DocumentReference::hasContext, DocumentReference::getContext,
+					references(DocumentReferenceContextComponent::hasEncounter,
+							DocumentReferenceContextComponent::getEncounter, "DocumentReference.context.encounter",
+							Encounter.class, EpisodeOfCare.class)),
+			element(DocumentReference::hasContext, DocumentReference::getContext,
+					reference(DocumentReferenceContextComponent::hasSourcePatientInfo,
+							DocumentReferenceContextComponent::getSourcePatientInfo,
+							"DocumentReference.context.sourcePatientInfo", Patient.class)),
+			element(DocumentReference::hasContext, DocumentReference::getContext,
+					references(DocumentReferenceContextComponent::hasRelated,
+							DocumentReferenceContextComponent::getRelated, "DocumentReference.context.related")),
+			elements(DocumentReference::hasContent, DocumentReference::getContent,
+					attachment(DocumentReferenceContentComponent::hasAttachment,
+							DocumentReferenceContentComponent::getAttachment, "DocumentReference.content.attachment")),
+			extensions("DocumentReference"));
+
+	private static final ReferenceCollector<Endpoint> ENDPOINT = plan(reference(Endpoint::hasManagingOrganization,
+			Endpoint::getManagingOrganization, "Endpoint.managingOrganization", Organization.class),
+			extensions("Endpoint"));
+
+	private static final ReferenceCollector<Group> GROUP = plan(
+			reference(Group::hasManagingEntity, Group::getManagingEntity, "Group.managingEntity", Organization.class,
+					RelatedPerson.class, Practitioner.class, PractitionerRole.class),
+			elements(Group::hasMember, Group::getMember,
+					reference(Group.GroupMemberComponent::hasEntity, Group.GroupMemberComponent::getEntity,
+							"Group.member.entity", Patient.class, Practitioner.class, PractitionerRole.class,
+							Device.class, Medication.class, Substance.class, Group.class)),
+			extensions("Group"));
+
+	private static final ReferenceCollector<HealthcareService> HEALTHCARE_SERVICE = plan(
+			reference(HealthcareService::hasProvidedBy, HealthcareService::getProvidedBy,
+					"HealthcareService.providedBy", Organization.class),
+			references(HealthcareService::hasLocation, HealthcareService::getLocation, "HealthcareService.location",
+					Location.class),
+			references(HealthcareService::hasCoverageArea, HealthcareService::getCoverageArea,
+					"HealthcareService.coverageArea", Location.class),
+			references(HealthcareService::hasEndpoint, HealthcareService::getEndpoint, "HealthcareService.endpoint",
+					Endpoint.class),
+			extensions("HealthcareService"));
+
+	private static final ReferenceCollector<Library> LIBRARY = plan(
+			reference(Library::hasSubjectReference, Library::getSubjectReference, "Library.subject", Group.class),
+			relatedArtifacts(Library::hasRelatedArtifact, Library::getRelatedArtifact, "Library.relatedArtifact"),
+			attachments(Library::hasContent, Library::getContent, "Library.content"), extensions("Library"));
+
+	private static final ReferenceCollector<Location> LOCATION = plan(
+			reference(Location::hasManagingOrganization, Location::getManagingOrganization,
+					"Location.managingOrganization", Organization.class),
+			reference(Location::hasPartOf, Location::getPartOf, "Location.partOf", Location.class),
+			references(Location::hasEndpoint, Location::getEndpoint, "Location.endpoint", Endpoint.class),
+			extensions("Location"));
+
+	private static final ReferenceCollector<Measure> MEASURE = plan(
+			reference(Measure::hasSubjectReference, Measure::getSubjectReference, "Measure.subject", Group.class),
+			relatedArtifacts(Measure::hasRelatedArtifact, Measure::getRelatedArtifact, "Measure.relatedArtifact"),
+			extensions("Measure"));
+
+	private static final ReferenceCollector<MeasureReport> MEASURE_REPORT = plan(
+			reference(MeasureReport::hasSubject, MeasureReport::getSubject, "MeasureReport.subject", Patient.class,
+					Practitioner.class, PractitionerRole.class, Location.class, Device.class, RelatedPerson.class,
+					Group.class),
+			reference(MeasureReport::hasReporter, MeasureReport::getReporter, "MeasureReport.reporter",
+					Practitioner.class, PractitionerRole.class, Location.class, Organization.class),
+			elements(MeasureReport::hasGroup, MeasureReport::getGroup,
+					elements(MeasureReportGroupComponent::hasPopulation, MeasureReportGroupComponent::getPopulation,
+							reference(MeasureReportGroupPopulationComponent::hasSubjectResults,
+									MeasureReportGroupPopulationComponent::getSubjectResults,
+									"MeasureReport.group.population.subjectResults", ListResource.class))),
+			elements(MeasureReport::hasGroup, MeasureReport::getGroup, elements(
+					MeasureReportGroupComponent::hasStratifier, MeasureReportGroupComponent::getStratifier,
+					elements(MeasureReportGroupStratifierComponent::hasStratum,
+							MeasureReportGroupStratifierComponent::getStratum,
+							elements(StratifierGroupComponent::hasPopulation, StratifierGroupComponent::getPopulation,
+									reference(StratifierGroupPopulationComponent::hasSubjectResults,
+											StratifierGroupPopulationComponent::getSubjectResults,
+											"Measure.group.stratifier.stratum.population.subjectResults",
+											ListResource.class))))),
+			references(MeasureReport::hasEvaluatedResource, MeasureReport::getEvaluatedResource,
+					"Measure.evaluatedResource"),
+			extensions("MeasureReport"));
+
+	private static final ReferenceCollector<NamingSystem> NAMING_SYSTEM = extensions("NamingSystem");
+
+	private static final ReferenceCollector<OperationOutcome> OPERATION_OUTCOME = extensions("OperationOutcome");
+
+	private static final ReferenceCollector<Organization> ORGANIZATION = plan(
+			reference(Organization::hasPartOf, Organization::getPartOf, "Organization.partOf", Organization.class),
+			references(Organization::hasEndpoint, Organization::getEndpoint, "Organization.endpoint", Endpoint.class),
+			extensions("Organization"));
+
+	private static final ReferenceCollector<OrganizationAffiliation> ORGANIZATION_AFFILIATION = plan(
+			reference(OrganizationAffiliation::hasOrganization, OrganizationAffiliation::getOrganization,
+					"OrganizationAffiliation.organization", Organization.class),
+			reference(OrganizationAffiliation::hasParticipatingOrganization,
+					OrganizationAffiliation::getParticipatingOrganization,
+					"OrganizationAffiliation.participatingOrganization", Organization.class),
+			references(OrganizationAffiliation::hasNetwork, OrganizationAffiliation::getNetwork,
+					"OrganizationAffiliation.network", Organization.class),
+			references(OrganizationAffiliation::hasLocation, OrganizationAffiliation::getLocation,
+					"OrganizationAffiliation.location", Location.class),
+			references(OrganizationAffiliation::hasHealthcareService, OrganizationAffiliation::getHealthcareService,
+					"OrganizationAffiliation.healthcareService", HealthcareService.class),
+			references(OrganizationAffiliation::hasEndpoint, OrganizationAffiliation::getEndpoint,
+					"OrganizationAffiliation.endpoint", Endpoint.class),
+			extensions("OrganizationAffiliation"));
+
+	private static final ReferenceCollector<Patient> PATIENT = plan(
+			elements(Patient::hasContact, Patient::getContact,
+					reference(ContactComponent::hasOrganization, ContactComponent::getOrganization,
+							"Patient.contact.organization", Organization.class)),
+			references(Patient::hasGeneralPractitioner, Patient::getGeneralPractitioner, "Patient.generalPractitioner",
+					Organization.class, Practitioner.class, PractitionerRole.class),
+			reference(Patient::hasManagingOrganization, Patient::getManagingOrganization,
+					"Patient.managingOrganization", Organization.class),
+			elements(Patient::hasLink, Patient::getLink, reference(PatientLinkComponent::hasOther,
+					PatientLinkComponent::getOther, "Patient.link.other", Patient.class, RelatedPerson.class)),
+			extensions("Patient"));
+
+	private static final ReferenceCollector<Practitioner> PRACTITIONER = plan(
+			elements(Practitioner::hasQualification, Practitioner::getQualification,
+					reference(PractitionerQualificationComponent::hasIssuer,
+							PractitionerQualificationComponent::getIssuer, "Practitioner.qualification.issuer",
+							Organization.class)),
+			extensions("Practitioner"));
+
+	private static final ReferenceCollector<PractitionerRole> PRACTITIONER_ROLE = plan(
+			reference(PractitionerRole::hasPractitioner, PractitionerRole::getPractitioner,
+					"PractitionerRole.practitioner", Practitioner.class),
+			reference(PractitionerRole::hasOrganization, PractitionerRole::getOrganization,
+					"PractitionerRole.organization", Organization.class),
+			references(PractitionerRole::hasLocation, PractitionerRole::getLocation, "PractitionerRole.location",
+					Location.class),
+			references(PractitionerRole::hasHealthcareService, PractitionerRole::getHealthcareService,
+					"PractitionerRole.healthcareService", HealthcareService.class),
+			references(PractitionerRole::hasEndpoint, PractitionerRole::getEndpoint, "PractitionerRole.endpoint",
+					Endpoint.class),
+			extensions("PractitionerRole"));
+
+	private static final ReferenceCollector<Provenance> PROVENANCE = plan(
+			references(Provenance::hasTarget, Provenance::getTarget, "Provenance.target"),
+			reference(Provenance::hasLocation, Provenance::getLocation, "Provenance.location", Location.class),
+			elements(Provenance::hasAgent, Provenance::getAgent,
+					reference(ProvenanceAgentComponent::hasWho, ProvenanceAgentComponent::getWho,
+							"Provenance.agent.who", Practitioner.class, PractitionerRole.class, RelatedPerson.class,
+							Patient.class, Device.class, Organization.class)),
+			elements(Provenance::hasAgent, Provenance::getAgent,
+					reference(ProvenanceAgentComponent::hasOnBehalfOf, ProvenanceAgentComponent::getOnBehalfOf,
+							"Provenance.agent.onBehalfOf", Practitioner.class, PractitionerRole.class,
+							RelatedPerson.class, Patient.class, Device.class, Organization.class)),
+			elements(Provenance::hasEntity, Provenance::getEntity, reference(ProvenanceEntityComponent::hasWhat,
+					ProvenanceEntityComponent::getWhat, "Provenance.entity.what")),
+			extensions("Provenance"));
+
+	private static final ReferenceCollector<Questionnaire> QUESTIONNAIRE = plan(
+			elements(Questionnaire::hasItem, Questionnaire::getItem,
+					elements(Questionnaire.QuestionnaireItemComponent::hasEnableWhen,
+							Questionnaire.QuestionnaireItemComponent::getEnableWhen,
+							reference(Questionnaire.QuestionnaireItemEnableWhenComponent::hasAnswerReference,
+									Questionnaire.QuestionnaireItemEnableWhenComponent::getAnswerReference,
+									"Questionnaire.item.enableWhen.answerReference"))),
+			elements(Questionnaire::hasItem, Questionnaire::getItem,
+					elements(Questionnaire.QuestionnaireItemComponent::hasAnswerOption,
+							Questionnaire.QuestionnaireItemComponent::getAnswerOption,
+							reference(Questionnaire.QuestionnaireItemAnswerOptionComponent::hasValueReference,
+									Questionnaire.QuestionnaireItemAnswerOptionComponent::getValueReference,
+									"Questionnaire.item.answerOption.valueReference"))),
+			elements(Questionnaire::hasItem, Questionnaire::getItem,
+					elements(Questionnaire.QuestionnaireItemComponent::hasInitial,
+							Questionnaire.QuestionnaireItemComponent::getInitial,
+							reference(Questionnaire.QuestionnaireItemInitialComponent::hasValueReference,
+									Questionnaire.QuestionnaireItemInitialComponent::getValueReference,
+									"Questionnaire.item.initial.valueReference"))),
+			extensions("Questionnaire"));
+
+	private static final ReferenceCollector<QuestionnaireResponse> QUESTIONNAIRE_RESPONSE = plan(
+			reference(QuestionnaireResponse::hasAuthor, QuestionnaireResponse::getAuthor,
+					"QuestionnaireResponse.author", Device.class, Organization.class, Patient.class, Practitioner.class,
+					PractitionerRole.class, RelatedPerson.class),
+			references(QuestionnaireResponse::hasBasedOn, QuestionnaireResponse::getBasedOn,
+					"QuestionnaireResponse.basedOn", CarePlan.class, ServiceRequest.class),
+			reference(QuestionnaireResponse::hasEncounter, QuestionnaireResponse::getEncounter,
+					"QuestionnaireResponse.encounter", Encounter.class),
+			references(QuestionnaireResponse::hasPartOf, QuestionnaireResponse::getPartOf,
+					"QuestionnaireResponse.partOf", Observation.class, Procedure.class),
+			reference(QuestionnaireResponse::hasSource, QuestionnaireResponse::getSource,
+					"QuestionnaireResponse.source", Patient.class, Practitioner.class, PractitionerRole.class,
+					RelatedPerson.class),
+			reference(QuestionnaireResponse::hasSubject, QuestionnaireResponse::getSubject,
+					"QuestionnaireResponse.subject"),
+			extensions("QuestionnaireResponse"));
+
+	private static final ReferenceCollector<ResearchStudy> RESEARCH_STUDY = plan(
+			references(ResearchStudy::hasProtocol, ResearchStudy::getProtocol, "ResearchStudy.protocol",
+					PlanDefinition.class),
+			references(ResearchStudy::hasPartOf, ResearchStudy::getPartOf, "ResearchStudy.partOf", ResearchStudy.class),
+			references(ResearchStudy::hasEnrollment, ResearchStudy::getEnrollment, "ResearchStudy.enrollment",
+					Group.class),
+			reference(ResearchStudy::hasSponsor, ResearchStudy::getSponsor, "ResearchStudy.sponsor",
+					Organization.class),
+			reference(ResearchStudy::hasPrincipalInvestigator, ResearchStudy::getPrincipalInvestigator,
+					"ResearchStudy.principalInvestigator", Practitioner.class, PractitionerRole.class),
+			references(ResearchStudy::hasSite, ResearchStudy::getSite, "ResearchStudy.site", Location.class),
+			relatedArtifacts(ResearchStudy::hasRelatedArtifact, ResearchStudy::getRelatedArtifact,
+					"ResearchStudy.relatedArtifact"),
+			extensions("ResearchStudy"));
+
+	private static final ReferenceCollector<StructureDefinition> STRUCTURE_DEFINITION = extensions(
+			"StructureDefinition");
+
+	private static final ReferenceCollector<Subscription> SUBSCRIPTION = extensions("Subscription");
+
+	private static final ReferenceCollector<Task> TASK = plan(
+			references(Task::hasBasedOn, Task::getBasedOn, "Task.basedOn"),
+			references(Task::hasPartOf, Task::getPartOf, "Task.partOf", Task.class),
+			reference(Task::hasFocus, Task::getFocus, "Task.focus"), reference(Task::hasFor, Task::getFor, "Task.for"),
+			reference(Task::hasEncounter, Task::getEncounter, "Task.encounter", Encounter.class),
+			reference(Task::hasRequester, Task::getRequester, "Task.requester", Device.class, Organization.class,
+					Patient.class, Practitioner.class, PractitionerRole.class, RelatedPerson.class),
+			reference(Task::hasOwner, Task::getOwner, "Task.owner", Practitioner.class, PractitionerRole.class,
+					Organization.class, CareTeam.class, HealthcareService.class, Patient.class, Device.class,
+					RelatedPerson.class),
+			reference(Task::hasLocation, Task::getLocation, "Task.location", Location.class),
+			reference(Task::hasReasonReference, Task::getReasonReference, "Task.reasonReference"),
+			references(Task::hasInsurance, Task::getInsurance, "Task.insurance", Coverage.class, ClaimResponse.class),
+			references(Task::hasRelevantHistory, Task::getRelevantHistory, "Task.relevantHistory", Provenance.class),
+			element(Task::hasRestriction, Task::getRestriction,
+					references(Task.TaskRestrictionComponent::hasRecipient, Task.TaskRestrictionComponent::getRecipient,
+							"Task.restriction.recipient", Patient.class, Practitioner.class, PractitionerRole.class,
+							RelatedPerson.class, Group.class, Organization.class)),
+			valueReferences(Task::hasInput, Task::getInput, Task.ParameterComponent::getValue, "Task.input"),
+			valueReferences(Task::hasOutput, Task::getOutput, Task.TaskOutputComponent::getValue, "Task.output"),
+			extensions("Task"));
+
+	private static final ReferenceCollector<ValueSet> VALUE_SET = extensions("ValueSet");
+
+	private static final ReferenceCollector<DomainResource> OTHER_DOMAIN_RESOURCE = (resource, references) ->
+	{
+		logger.debug("DomainResource of type {} not supported, returning extension references only",
+				resource.getClass().getName());
+
+		if (resource.hasExtension())
+			addExtensionReferences(resource.getResourceType().name() + ".extension", resource.getExtension(),
+					references);
+	};
+
+	private static final ReferenceCollector<Resource> OTHER_RESOURCE = (resource, references) -> logger
+			.debug("Resource of type {} not supported, returning no references", resource.getClass().getName());
+
+	private static final ClassValue<ReferenceCollector<Resource>> COLLECTORS_BY_TYPE = new ClassValue<>()
+	{
+		@Override
+		protected ReferenceCollector<Resource> computeValue(Class<?> type)
+		{
+			return getCollector(type);
+		}
+	};
 
-	private Stream<ResourceReference> getExtensionReferences(String baseElementName, Extension resource)
+	@SuppressWarnings("unchecked")
+	private static ReferenceCollector<Resource> getCollector(Class<?> type)
 	{
-		var extensions = resource.getExtension().stream().filter(e -> e.getValue() instanceof Reference)
-				.map(e -> (Reference) e.getValue())
-				.map(toResourceReferenceFromReference(baseElementName + ".extension"));
+		ReferenceCollector<? extends Resource> collector;
 
-		var extensionExtensions = resource.getExtension().stream()
-				.flatMap(e -> getExtensionReferences(baseElementName + ".extension", e));
+		if (ActivityDefinition.class.isAssignableFrom(type))
+			collector = ACTIVITY_DEFINITION;
+		// not implemented yet, special rules apply for tmp ids
+		// else if (Bundle.class.isAssignableFrom(type))
+		// collector = BUNDLE;
+		else if (Binary.class.isAssignableFrom(type))
+			collector = BINARY;
+		else if (CodeSystem.class.isAssignableFrom(type))
+			collector = CODE_SYSTEM;
+		else if (DocumentReference.class.isAssignableFrom(type))
+			collector = DOCUMENT_REFERENCE;
+		else if (Endpoint.class.isAssignableFrom(type))
+			collector = ENDPOINT;
+		else if (Group.class.isAssignableFrom(type))
+			collector = GROUP;
+		else if (HealthcareService.class.isAssignableFrom(type))
+			collector = HEALTHCARE_SERVICE;
+		else if (Library.class.isAssignableFrom(type))
+			collector = LIBRARY;
+		else if (Location.class.isAssignableFrom(type))
+			collector = LOCATION;
+		else if (Measure.class.isAssignableFrom(type))
+			collector = MEASURE;
+		else if (MeasureReport.class.isAssignableFrom(type))
+			collector = MEASURE_REPORT;
+		else if (NamingSystem.class.isAssignableFrom(type))
+			collector = NAMING_SYSTEM;
+		else if (OperationOutcome.class.isAssignableFrom(type))
+			collector = OPERATION_OUTCOME;
+		else if (Organization.class.isAssignableFrom(type))
+			collector = ORGANIZATION;
+		else if (OrganizationAffiliation.class.isAssignableFrom(type))
+			collector = ORGANIZATION_AFFILIATION;
+		else if (Patient.class.isAssignableFrom(type))
+			collector = PATIENT;
+		else if (Practitioner.class.isAssignableFrom(type))
+			collector = PRACTITIONER;
+		else if (PractitionerRole.class.isAssignableFrom(type))
+			collector = PRACTITIONER_ROLE;
+		else if (Provenance.class.isAssignableFrom(type))
+			collector = PROVENANCE;
+		else if (Questionnaire.class.isAssignableFrom(type))
+			collector = QUESTIONNAIRE;
+		else if (QuestionnaireResponse.class.isAssignableFrom(type))
+			collector = QUESTIONNAIRE_RESPONSE;
+		else if (ResearchStudy.class.isAssignableFrom(type))
+			collector = RESEARCH_STUDY;
+		else if (StructureDefinition.class.isAssignableFrom(type))
+			collector = STRUCTURE_DEFINITION;
+		else if (Subscription.class.isAssignableFrom(type))
+			collector = SUBSCRIPTION;
+		else if (Task.class.isAssignableFrom(type))
+			collector = TASK;
+		else if (ValueSet.class.isAssignableFrom(type))
+			collector = VALUE_SET;
+		else if (DomainResource.class.isAssignableFrom(type))
+			collector = OTHER_DOMAIN_RESOURCE;
+		else
+			collector = OTHER_RESOURCE;
 
-		return Stream.concat(extensions, extensionExtensions);
+		return (ReferenceCollector<Resource>) collector;
 	}
 
-	private <R extends Resource> Stream<ResourceReference> getRelatedArtifacts(R resource,
-			Predicate<R> hasRelatedArtifact, Function<R, List<RelatedArtifact>> getRelatedArtifact,
-			String relatedArtifactLocation)
+	private static <R extends Resource> Stream<ResourceReference> collect(ReferenceCollector<R> collector, R resource)
 	{
-		return hasRelatedArtifact.test(resource) ? Stream.of(getRelatedArtifact.apply(resource)).flatMap(List::stream)
-				.map(toResourceReferenceFromRelatedArtifact(relatedArtifactLocation)) : Stream.empty();
-	}
+		if (resource == null)
+			return Stream.empty();
 
-	private <R extends Resource> Stream<ResourceReference> getAttachments(R resource, Predicate<R> hasAttachment,
-			Function<R, List<Attachment>> getAttachment, String attachmentLocation)
-	{
-		return hasAttachment.test(resource) ? Stream.of(getAttachment.apply(resource)).flatMap(List::stream)
-				.map(toResourceReferenceFromAttachment(attachmentLocation)) : Stream.empty();
-	}
+		List<ResourceReference> references = new ArrayList<>();
+		collector.collect(resource, references);
 
-	@SafeVarargs
-	private Stream<ResourceReference> concat(Stream<ResourceReference>... streams)
-	{
-		if (streams.length == 0)
-			return Stream.empty();
-		else if (streams.length == 1)
-			return streams[0];
-		else if (streams.length == 2)
-			return Stream.concat(streams[0], streams[1]);
-		else
-			return Arrays.stream(streams).flatMap(Function.identity());
+		return references.stream();
 	}
 
 	@Override
@@ -330,644 +620,162 @@ public class ReferenceExtractorImpl implements ReferenceExtractor
 		if (resource == null)
 			return Stream.empty();
 
-		if (resource instanceof ActivityDefinition)
-			return getReferences((ActivityDefinition) resource);
-		// not implemented yet, special rules apply for tmp ids
-		// else if (resource instanceof Bundle)
-		// return getReferences((Bundle) resource);
-		else if (resource instanceof Binary)
-			return getReferences((Binary) resource);
-		else if (resource instanceof CodeSystem)
-			return getReferences((CodeSystem) resource);
-		else if (resource instanceof DocumentReference)
-			return getReferences((DocumentReference) resource);
-		else if (resource instanceof Endpoint)
-			return getReferences((Endpoint) resource);
-		else if (resource instanceof Group)
-			return getReferences((Group) resource);
-		else if (resource instanceof HealthcareService)
-			return getReferences((HealthcareService) resource);
-		else if (resource instanceof Library)
-			return getReferences((Library) resource);
-		else if (resource instanceof Location)
-			return getReferences((Location) resource);
-		else if (resource instanceof Measure)
-			return getReferences((Measure) resource);
-		else if (resource instanceof MeasureReport)
-			return getReferences((MeasureReport) resource);
-		else if (resource instanceof NamingSystem)
-			return getReferences((NamingSystem) resource);
-		else if (resource instanceof OperationOutcome)
-			return getReferences((OperationOutcome) resource);
-		else if (resource instanceof Organization)
-			return getReferences((Organization) resource);
-		else if (resource instanceof OrganizationAffiliation)
-			return getReferences((OrganizationAffiliation) resource);
-		else if (resource instanceof Patient)
-			return getReferences((Patient) resource);
-		else if (resource instanceof Practitioner)
-			return getReferences((Practitioner) resource);
-		else if (resource instanceof PractitionerRole)
-			return getReferences((PractitionerRole) resource);
-		else if (resource instanceof Provenance)
-			return getReferences((Provenance) resource);
-		else if (resource instanceof Questionnaire)
-			return getReferences((Questionnaire) resource);
-		else if (resource instanceof QuestionnaireResponse)
-			return getReferences((QuestionnaireResponse) resource);
-		else if (resource instanceof ResearchStudy)
-			return getReferences((ResearchStudy) resource);
-		else if (resource instanceof StructureDefinition)
-			return getReferences((StructureDefinition) resource);
-		else if (resource instanceof Subscription)
-			return getReferences((Subscription) resource);
-		else if (resource instanceof Task)
-			return getReferences((Task) resource);
-		else if (resource instanceof ValueSet)
-			return getReferences((ValueSet) resource);
-		else if (resource instanceof DomainResource)
-		{
-			logger.debug("DomainResource of type {} not supported, returning extension references only",
-					resource.getClass().getName());
-			return getExtensionReferences((DomainResource) resource);
-		}
-		else
-		{
-			logger.debug("Resource of type {} not supported, returning no references", resource.getClass().getName());
-			return Stream.empty();
-		}
+		return collect(COLLECTORS_BY_TYPE.get(resource.getClass()), resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(ActivityDefinition resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var subjectReference = getReference(resource, ActivityDefinition::hasSubjectReference,
-				ActivityDefinition::getSubjectReference, "ActivityDefinition.subjectReference", Group.class);
-		var location = getReference(resource, ActivityDefinition::hasLocation, ActivityDefinition::getLocation,
-				"ActivityDefinition.location", Location.class);
-		var productReference = getReference(resource, ActivityDefinition::hasProductReference,
-				ActivityDefinition::getProductReference, "ActivityDefinition.productReference", Medication.class,
-				Substance.class);
-		var specimenRequirement = getReferences(resource, ActivityDefinition::hasSpecimenRequirement,
-				ActivityDefinition::getSpecimenRequirement, "ActivityDefinition.specimenRequirement",
-				SpecimenDefinition.class);
-		var observationRequirement = getReferences(resource, ActivityDefinition::hasObservationRequirement,
-				ActivityDefinition::getObservationRequirement, "ActivityDefinition.observationRequirement",
-				ObservationDefinition.class);
-		var observationResultRequirement = getReferences(resource, ActivityDefinition::hasObservationResultRequirement,
-				ActivityDefinition::getObservationResultRequirement, "ActivityDefinition.observationResultRequirement",
-				ObservationDefinition.class);
-		var relatedArtifacts = getRelatedArtifacts(resource, ActivityDefinition::hasRelatedArtifact,
-				ActivityDefinition::getRelatedArtifact, "ActivityDefinition.relatedArtifact");
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return concat(subjectReference, location, productReference, specimenRequirement, observationRequirement,
-				observationResultRequirement, relatedArtifacts, extensionReferences);
+		return collect(ACTIVITY_DEFINITION, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(Binary resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var securityContext = getReference(resource, Binary::hasSecurityContext, Binary::getSecurityContext,
-				"Binary.securityContext");
-
-		return securityContext;
+		return collect(BINARY, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(CodeSystem resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return extensionReferences;
+		return collect(CODE_SYSTEM, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(DocumentReference resource)
 	{
-		if (resource == null)
-			return null;
-
-		var subject = getReference(resource, DocumentReference::hasSubject, DocumentReference::getSubject,
-				"DocumentReference.subject", Patient.class, Practitioner.class, Group.class, Device.class);
-		var author = getReferences(resource, DocumentReference::hasAuthor, DocumentReference::getAuthor,
-				"DocumentReference.author", Practitioner.class, PractitionerRole.class, Organization.class,
-				Device.class, Patient.class, RelatedPerson.class);
-		var authenticator = getReference(resource, DocumentReference::hasAuthenticator,
-				DocumentReference::getAuthenticator, "DocumentReference.authenticator", Practitioner.class,
-				PractitionerRole.class, Organization.class);
-		var custodian = getReference(resource, DocumentReference::hasCustodian, DocumentReference::getCustodian,
-				"DocumentReference.custodian", Organization.class);
-		var relatesToTarget = getBackboneElementsReference(resource, DocumentReference::hasRelatesTo,
-				DocumentReference::getRelatesTo, DocumentReferenceRelatesToComponent::hasTarget,
-				DocumentReferenceRelatesToComponent::getTarget, "DocumentReference.relatesTo.target",
-				DocumentReference.class);
-		var contextEncounters = getBackboneElementReferences(resource, DocumentReference::hasContent,
-				DocumentReference::getContext, DocumentReferenceContextComponent::hasEncounter,
-				DocumentReferenceContextComponent::getEncounter, "DocumentReference.context.encounter", Encounter.class,
-				EpisodeOfCare.class);
-		var contextSourcePatientInfo = getBackboneElementReference(resource, DocumentReference::hasContent,
-				DocumentReference::getContext, DocumentReferenceContextComponent::hasSourcePatientInfo,
-				DocumentReferenceContextComponent::getSourcePatientInfo, "DocumentReference.context.sourcePatientInfo",
-				Patient.class);
-		var contextRelated = getBackboneElementReferences(resource, DocumentReference::hasContent,
-				DocumentReference::getContext, DocumentReferenceContextComponent::hasRelated,
-				DocumentReferenceContextComponent::getRelated, "DocumentReference.context.related");
-		var contentAttachment = getBackboneElementsAttachment(resource, DocumentReference::hasContent,
-				DocumentReference::getContent, DocumentReferenceContentComponent::hasAttachment,
-				DocumentReferenceContentComponent::getAttachment, "DocumentReference.content.attachment");
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return concat(subject, author, authenticator, custodian, relatesToTarget, contextEncounters,
-				contextSourcePatientInfo, contextRelated, contentAttachment, extensionReferences);
+		return collect(DOCUMENT_REFERENCE, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(Endpoint resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var managingOrganization = getReference(resource, Endpoint::hasManagingOrganization,
-				Endpoint::getManagingOrganization, "Endpoint.managingOrganization", Organization.class);
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return concat(managingOrganization, extensionReferences);
+		return collect(ENDPOINT, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(Group resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var managingEntity = getReference(resource, Group::hasManagingEntity, Group::getManagingEntity,
-				"Group.managingEntity", Organization.class, RelatedPerson.class, Practitioner.class,
-				PractitionerRole.class);
-
-		var memberEntities = getBackboneElementsReference(resource, Group::hasMember, Group::getMember,
-				Group.GroupMemberComponent::hasEntity, Group.GroupMemberComponent::getEntity, "Group.member.entity",
-				Patient.class, Practitioner.class, PractitionerRole.class, Device.class, Medication.class,
-				Substance.class, Group.class);
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return concat(managingEntity, memberEntities, extensionReferences);
+		return collect(GROUP, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(HealthcareService resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var providedBy = getReference(resource, HealthcareService::hasProvidedBy, HealthcareService::getProvidedBy,
-				"HealthcareService.providedBy", Organization.class);
-		var locations = getReferences(resource, HealthcareService::hasLocation, HealthcareService::getLocation,
-				"HealthcareService.location", Location.class);
-		var coverageAreas = getReferences(resource, HealthcareService::hasCoverageArea,
-				HealthcareService::getCoverageArea, "HealthcareService.coverageArea", Location.class);
-		var endpoints = getReferences(resource, HealthcareService::hasEndpoint, HealthcareService::getEndpoint,
-				"HealthcareService.endpoint", Endpoint.class);
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return concat(providedBy, locations, coverageAreas, endpoints, extensionReferences);
+		return collect(HEALTHCARE_SERVICE, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(Library resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var subject = getReference(resource, Library::hasSubjectReference, Library::getSubjectReference,
-				"Library.subject", Group.class);
-		var relatedArtifact = getRelatedArtifacts(resource, Library::hasRelatedArtifact, Library::getRelatedArtifact,
-				"Library.relatedArtifact");
-		var content = getAttachments(resource, Library::hasContent, Library::getContent, "Library.content");
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return concat(subject, relatedArtifact, content, extensionReferences);
+		return collect(LIBRARY, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(Location resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var managingOrganization = getReference(resource, Location::hasManagingOrganization,
-				Location::getManagingOrganization, "Location.managingOrganization", Organization.class);
-		var partOf = getReference(resource, Location::hasPartOf, Location::getPartOf, "Location.partOf",
-				Location.class);
-		var endpoints = getReferences(resource, Location::hasEndpoint, Location::getEndpoint, "Location.endpoint",
-				Endpoint.class);
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return concat(managingOrganization, partOf, endpoints, extensionReferences);
+		return collect(LOCATION, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(Measure resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var subject = getReference(resource, Measure::hasSubjectReference, Measure::getSubjectReference,
-				"Measure.subject", Group.class);
-		var relatedArtifacts = getRelatedArtifacts(resource, Measure::hasRelatedArtifact, Measure::getRelatedArtifact,
-				"Measure.relatedArtifact");
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return concat(subject, relatedArtifacts, extensionReferences);
+		return collect(MEASURE, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(MeasureReport resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var subject = getReference(resource, MeasureReport::hasSubject, MeasureReport::getSubject,
-				"MeasureReport.subject", Patient.class, Practitioner.class, PractitionerRole.class, Location.class,
-				Device.class, RelatedPerson.class, Group.class);
-		var reporter = getReference(resource, MeasureReport::hasReporter, MeasureReport::getReporter,
-				"MeasureReport.reporter", Practitioner.class, PractitionerRole.class, Location.class,
-				Organization.class);
-		var subjectResults1 = getBackboneElements2Reference(resource, MeasureReport::hasGroup, MeasureReport::getGroup,
-				MeasureReportGroupComponent::hasPopulation, MeasureReportGroupComponent::getPopulation,
-				MeasureReportGroupPopulationComponent::hasSubjectResults,
-				MeasureReportGroupPopulationComponent::getSubjectResults,
-				"MeasureReport.group.population.subjectResults", ListResource.class);
-		var subjectResults2 = getBackboneElements4Reference(resource, MeasureReport::hasGroup, MeasureReport::getGroup,
-				MeasureReportGroupComponent::hasStratifier, MeasureReportGroupComponent::getStratifier,
-				MeasureReportGroupStratifierComponent::hasStratum, MeasureReportGroupStratifierComponent::getStratum,
-				StratifierGroupComponent::hasPopulation, StratifierGroupComponent::getPopulation,
-				StratifierGroupPopulationComponent::hasSubjectResults,
-				StratifierGroupPopulationComponent::getSubjectResults,
-				"Measure.group.stratifier.stratum.population.subjectResults", ListResource.class);
-		var evaluatedResource = getReferences(resource, MeasureReport::hasEvaluatedResource,
-				MeasureReport::getEvaluatedResource, "Measure.evaluatedResource");
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return concat(subject, reporter, subjectResults1, subjectResults2, evaluatedResource, extensionReferences);
+		return collect(MEASURE_REPORT, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(NamingSystem resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return extensionReferences;
+		return collect(NAMING_SYSTEM, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(OperationOutcome resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		return getExtensionReferences(resource);
+		return collect(OPERATION_OUTCOME, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(Organization resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var partOf = getReference(resource, Organization::hasPartOf, Organization::getPartOf, "Organization.partOf",
-				Organization.class);
-		var endpoints = getReferences(resource, Organization::hasEndpoint, Organization::getEndpoint,
-				"Organization.endpoint", Endpoint.class);
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return concat(partOf, endpoints, extensionReferences);
+		return collect(ORGANIZATION, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(OrganizationAffiliation resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var organization = getReference(resource, OrganizationAffiliation::hasOrganization,
-				OrganizationAffiliation::getOrganization, "OrganizationAffiliation.organization", Organization.class);
-		var participatingOrganization = getReference(resource, OrganizationAffiliation::hasParticipatingOrganization,
-				OrganizationAffiliation::getParticipatingOrganization,
-				"OrganizationAffiliation.participatingOrganization", Organization.class);
-		var network = getReferences(resource, OrganizationAffiliation::hasNetwork, OrganizationAffiliation::getNetwork,
-				"OrganizationAffiliation.network", Organization.class);
-		var location = getReferences(resource, OrganizationAffiliation::hasLocation,
-				OrganizationAffiliation::getLocation, "OrganizationAffiliation.location", Location.class);
-		var healthcareService = getReferences(resource, OrganizationAffiliation::hasHealthcareService,
-				OrganizationAffiliation::getHealthcareService, "OrganizationAffiliation.healthcareService",
-				HealthcareService.class);
-		var endpoint = getReferences(resource, OrganizationAffiliation::hasEndpoint,
-				OrganizationAffiliation::getEndpoint, "OrganizationAffiliation.endpoint", Endpoint.class);
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return concat(organization, participatingOrganization, network, location, healthcareService, endpoint,
-				extensionReferences);
+		return collect(ORGANIZATION_AFFILIATION, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(Patient resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var contactsOrganization = getBackboneElementsReference(resource, Patient::hasContact, Patient::getContact,
-				ContactComponent::hasOrganization, ContactComponent::getOrganization, "Patient.contact.organization",
-				Organization.class);
-		var generalPractitioners = getReferences(resource, Patient::hasGeneralPractitioner,
-				Patient::getGeneralPractitioner, "Patient.generalPractitioner", Organization.class, Practitioner.class,
-				PractitionerRole.class);
-		var managingOrganization = getReference(resource, Patient::hasManagingOrganization,
-				Patient::getManagingOrganization, "Patient.managingOrganization", Organization.class);
-		var linksOther = getBackboneElementsReference(resource, Patient::hasLink, Patient::getLink,
-				PatientLinkComponent::hasOther, PatientLinkComponent::getOther, "Patient.link.other", Patient.class,
-				RelatedPerson.class);
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return concat(contactsOrganization, generalPractitioners, managingOrganization, linksOther,
-				extensionReferences);
+		return collect(PATIENT, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(Practitioner resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var qualificationsIssuer = getBackboneElementsReference(resource, Practitioner::hasQualification,
-				Practitioner::getQualification, PractitionerQualificationComponent::hasIssuer,
-				PractitionerQualificationComponent::getIssuer, "Practitioner.qualification.issuer", Organization.class);
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return concat(qualificationsIssuer, extensionReferences);
+		return collect(PRACTITIONER, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(PractitionerRole resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var practitioner = getReference(resource, PractitionerRole::hasPractitioner, PractitionerRole::getPractitioner,
-				"PractitionerRole.practitioner", Practitioner.class);
-		var organization = getReference(resource, PractitionerRole::hasOrganization, PractitionerRole::getOrganization,
-				"PractitionerRole.organization", Organization.class);
-		var locations = getReferences(resource, PractitionerRole::hasLocation, PractitionerRole::getLocation,
-				"PractitionerRole.location", Location.class);
-		var healthcareServices = getReferences(resource, PractitionerRole::hasHealthcareService,
-				PractitionerRole::getHealthcareService, "PractitionerRole.healthcareService", HealthcareService.class);
-		var endpoints = getReferences(resource, PractitionerRole::hasEndpoint, PractitionerRole::getEndpoint,
-				"PractitionerRole.endpoint", Endpoint.class);
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return concat(practitioner, organization, locations, healthcareServices, endpoints, extensionReferences);
+		return collect(PRACTITIONER_ROLE, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(Provenance resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var targets = getReferences(resource, Provenance::hasTarget, Provenance::getTarget, "Provenance.target");
-		var location = getReference(resource, Provenance::hasLocation, Provenance::getLocation, "Provenance.location",
-				Location.class);
-		var agentsWho = getBackboneElementsReference(resource, Provenance::hasAgent, Provenance::getAgent,
-				ProvenanceAgentComponent::hasWho, ProvenanceAgentComponent::getWho, "Provenance.agent.who",
-				Practitioner.class, PractitionerRole.class, RelatedPerson.class, Patient.class, Device.class,
-				Organization.class);
-		var agentsOnBehalfOf = getBackboneElementsReference(resource, Provenance::hasAgent, Provenance::getAgent,
-				ProvenanceAgentComponent::hasOnBehalfOf, ProvenanceAgentComponent::getOnBehalfOf,
-				"Provenance.agent.onBehalfOf", Practitioner.class, PractitionerRole.class, RelatedPerson.class,
-				Patient.class, Device.class, Organization.class);
-		var entitiesWhat = getBackboneElementsReference(resource, Provenance::hasEntity, Provenance::getEntity,
-				ProvenanceEntityComponent::hasWhat, ProvenanceEntityComponent::getWhat, "Provenance.entity.what");
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return concat(targets, location, agentsWho, agentsOnBehalfOf, entitiesWhat, extensionReferences);
+		return collect(PROVENANCE, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(Questionnaire resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var enableWhen = getBackboneElements2Reference(resource, Questionnaire::hasItem, Questionnaire::getItem,
-				Questionnaire.QuestionnaireItemComponent::hasEnableWhen,
-				Questionnaire.QuestionnaireItemComponent::getEnableWhen,
-				Questionnaire.QuestionnaireItemEnableWhenComponent::hasAnswerReference,
-				Questionnaire.QuestionnaireItemEnableWhenComponent::getAnswerReference,
-				"Questionnaire.item.enableWhen.answerReference");
-
-		var answerOption = getBackboneElements2Reference(resource, Questionnaire::hasItem, Questionnaire::getItem,
-				Questionnaire.QuestionnaireItemComponent::hasAnswerOption,
-				Questionnaire.QuestionnaireItemComponent::getAnswerOption,
-				Questionnaire.QuestionnaireItemAnswerOptionComponent::hasValueReference,
-				Questionnaire.QuestionnaireItemAnswerOptionComponent::getValueReference,
-				"Questionnaire.item.answerOption.valueReference");
-
-		var initial = getBackboneElements2Reference(resource, Questionnaire::hasItem, Questionnaire::getItem,
-				Questionnaire.QuestionnaireItemComponent::hasInitial,
-				Questionnaire.QuestionnaireItemComponent::getInitial,
-				Questionnaire.QuestionnaireItemInitialComponent::hasValueReference,
-				Questionnaire.QuestionnaireItemInitialComponent::getValueReference,
-				"Questionnaire.item.initial.valueReference");
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return concat(enableWhen, answerOption, initial, extensionReferences);
+		return collect(QUESTIONNAIRE, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(QuestionnaireResponse resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var author = getReference(resource, QuestionnaireResponse::hasAuthor, QuestionnaireResponse::getAuthor,
-				"QuestionnaireResponse.author", Device.class, Organization.class, Patient.class, Practitioner.class,
-				PractitionerRole.class, RelatedPerson.class);
-
-		var basedOn = getReferences(resource, QuestionnaireResponse::hasBasedOn, QuestionnaireResponse::getBasedOn,
-				"QuestionnaireResponse.basedOn", CarePlan.class, ServiceRequest.class);
-
-		var encounter = getReference(resource, QuestionnaireResponse::hasEncounter, QuestionnaireResponse::getEncounter,
-				"QuestionnaireResponse.encounter", Encounter.class);
-
-		var partOf = getReferences(resource, QuestionnaireResponse::hasPartOf, QuestionnaireResponse::getPartOf,
-				"QuestionnaireResponse.partOf", Observation.class, Procedure.class);
-
-		var source = getReference(resource, QuestionnaireResponse::hasSource, QuestionnaireResponse::getSource,
-				"QuestionnaireResponse.source", Patient.class, Practitioner.class, PractitionerRole.class,
-				RelatedPerson.class);
-
-		var subject = getReference(resource, QuestionnaireResponse::hasSubject, QuestionnaireResponse::getSubject,
-				"QuestionnaireResponse.subject");
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return concat(author, basedOn, encounter, partOf, source, subject, extensionReferences);
+		return collect(QUESTIONNAIRE_RESPONSE, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(ResearchStudy resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var protocols = getReferences(resource, ResearchStudy::hasProtocol, ResearchStudy::getProtocol,
-				"ResearchStudy.protocol", PlanDefinition.class);
-		var partOfs = getReferences(resource, ResearchStudy::hasPartOf, ResearchStudy::getPartOf,
-				"ResearchStudy.partOf", ResearchStudy.class);
-		var enrollments = getReferences(resource, ResearchStudy::hasEnrollment, ResearchStudy::getEnrollment,
-				"ResearchStudy.enrollment", Group.class);
-		var sponsor = getReference(resource, ResearchStudy::hasSponsor, ResearchStudy::getSponsor,
-				"ResearchStudy.sponsor", Organization.class);
-		var principalInvestigator = getReference(resource, ResearchStudy::hasPrincipalInvestigator,
-				ResearchStudy::getPrincipalInvestigator, "ResearchStudy.principalInvestigator", Practitioner.class,
-				PractitionerRole.class);
-		var sites = getReferences(resource, ResearchStudy::hasSite, ResearchStudy::getSite, "ResearchStudy.site",
-				Location.class);
-		var relatedArtifacts = getRelatedArtifacts(resource, ResearchStudy::hasRelatedArtifact,
-				ResearchStudy::getRelatedArtifact, "ResearchStudy.relatedArtifact");
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return concat(protocols, partOfs, enrollments, sponsor, principalInvestigator, sites, relatedArtifacts,
-				extensionReferences);
+		return collect(RESEARCH_STUDY, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(StructureDefinition resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return extensionReferences;
+		return collect(STRUCTURE_DEFINITION, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(Subscription resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return extensionReferences;
+		return collect(SUBSCRIPTION, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(Task resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var basedOns = getReferences(resource, Task::hasBasedOn, Task::getBasedOn, "Task.basedOn");
-		var partOfs = getReferences(resource, Task::hasPartOf, Task::getPartOf, "Task.partOf", Task.class);
-		var focus = getReference(resource, Task::hasFocus, Task::getFocus, "Task.focus");
-		var forRef = getReference(resource, Task::hasFor, Task::getFor, "Task.for");
-		var encounter = getReference(resource, Task::hasEncounter, Task::getEncounter, "Task.encounter",
-				Encounter.class);
-		var requester = getReference(resource, Task::hasRequester, Task::getRequester, "Task.requester", Device.class,
-				Organization.class, Patient.class, Practitioner.class, PractitionerRole.class, RelatedPerson.class);
-		var owner = getReference(resource, Task::hasOwner, Task::getOwner, "Task.owner", Practitioner.class,
-				PractitionerRole.class, Organization.class, CareTeam.class, HealthcareService.class, Patient.class,
-				Device.class, RelatedPerson.class);
-		var location = getReference(resource, Task::hasLocation, Task::getLocation, "Task.location", Location.class);
-		var reasonReference = getReference(resource, Task::hasReasonReference, Task::getReasonReference,
-				"Task.reasonReference");
-		var insurance = getReferences(resource, Task::hasInsurance, Task::getInsurance, "Task.insurance",
-				Coverage.class, ClaimResponse.class);
-		var relevanteHistories = getReferences(resource, Task::hasRelevantHistory, Task::getRelevantHistory,
-				"Task.relevantHistory", Provenance.class);
-		var restrictionRecipiets = getBackboneElementReferences(resource, Task::hasRestriction, Task::getRestriction,
-				Task.TaskRestrictionComponent::hasRecipient, Task.TaskRestrictionComponent::getRecipient,
-				"Task.restriction.recipient", Patient.class, Practitioner.class, PractitionerRole.class,
-				RelatedPerson.class, Group.class, Organization.class);
-
-		var inputReferences = getInputReferences(resource);
-		var outputReferences = getOutputReferences(resource);
-		var extensionReferences = getExtensionReferences(resource);
-
-		return concat(basedOns, partOfs, focus, forRef, encounter, requester, owner, location, reasonReference,
-				insurance, relevanteHistories, restrictionRecipiets, inputReferences, outputReferences,
-				extensionReferences);
-	}
-
-	private Stream<ResourceReference> getInputReferences(Task resource)
-	{
-		if (resource == null)
-			return Stream.empty();
-
-		var inputReferences = resource.getInput().stream().filter(in -> in.getValue() instanceof Reference)
-				.map(in -> (Reference) in.getValue())
-				.map(toResourceReferenceFromReference(resource.getResourceType().name() + ".input"));
-
-		var inputExtensionReferences = resource.getInput().stream()
-				.flatMap(in -> getExtensionReferences(resource.getResourceType().name() + ".input", in));
-
-		return Stream.concat(inputReferences, inputExtensionReferences);
-	}
-
-	private Stream<ResourceReference> getOutputReferences(Task resource)
-	{
-		if (resource == null)
-			return Stream.empty();
-
-		var outputReferences = resource.getOutput().stream().filter(out -> out.getValue() instanceof Reference)
-				.map(in -> (Reference) in.getValue())
-				.map(toResourceReferenceFromReference(resource.getResourceType().name() + ".output"));
-
-		var outputExtensionReferences = resource.getOutput().stream()
-				.flatMap(out -> getExtensionReferences(resource.getResourceType().name() + ".output", out));
-
-		return Stream.concat(outputReferences, outputExtensionReferences);
+		return collect(TASK, resource);
 	}
 
 	@Override
 	public Stream<ResourceReference> getReferences(ValueSet resource)
 	{
-		if (resource == null)
-			return Stream.empty();
-
-		var extensionReferences = getExtensionReferences(resource);
-
-		return extensionReferences;
+		return collect(VALUE_SET, resource);
 	}
 }
@@ -0,0 +1,105 @@
+package dev.dsf.fhir.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.hl7.fhir.r4.model.Endpoint;
+import org.hl7.fhir.r4.model.Extension;
+import org.hl7.fhir.r4.model.Identifier;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Reference;
+import org.hl7.fhir.r4.model.Resource;
+import org.hl7.fhir.r4.model.StringType;
+import org.hl7.fhir.r4.model.Task;
+import org.hl7.fhir.r4.model.Task.TaskIntent;
+import org.hl7.fhir.r4.model.Task.TaskStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures throughput and allocation rate of {@link ReferenceExtractorImpl} for a typical searchset mix of Task,
+ * Organization, Endpoint and Patient resources.
+ * <p>
+ * Not executed as part of the build, run {@link #main(String[])} from the test classpath. The gc profiler reports
+ * allocated bytes per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReferenceExtractorBenchmark
+{
+	public static void main(String[] args) throws Exception
+	{
+		Options options = new OptionsBuilder().include(ReferenceExtractorBenchmark.class.getSimpleName())
+				.addProfiler("gc").build();
+		new Runner(options).run();
+	}
+
+	private ReferenceExtractor referenceExtractor;
+	private List<Resource> resources;
+
+	@Setup
+	public void setup()
+	{
+		referenceExtractor = new ReferenceExtractorImpl();
+
+		Task task = new Task().setStatus(TaskStatus.REQUESTED).setIntent(TaskIntent.ORDER);
+		task.setRequester(new Reference().setType("Organization").setIdentifier(new Identifier()
+				.setSystem("http://dsf.dev/sid/organization-identifier").setValue("Test_Organization")));
+		task.getRestriction().addRecipient(new Reference("Organization/" + "a7b0e3f2-8c5e-4a5b-9d61-0c3f0b1a2c3d"));
+		task.addInput().setValue(new StringType("business-key"));
+		task.addInput().setValue(new Reference("Binary/7f4b7e2e-59e1-4a8f-a5ba-3f6a8a0e3f6c"))
+				.addExtension(new Extension("http://dsf.dev/fhir/StructureDefinition/extension-test",
+						new Reference("Organization/a7b0e3f2-8c5e-4a5b-9d61-0c3f0b1a2c3d")));
+		task.addOutput().setValue(new Reference("Binary/0a3d1b3c-6e1f-4d8e-9b2c-5f7a6c8d9e0f"));
+
+		Organization organization = new Organization().setName("Test Organization");
+		organization.addEndpoint(new Reference("Endpoint/1d3c2b4a-5e6f-4a7b-8c9d-0e1f2a3b4c5d"));
+		organization
+				.addExtension(new Extension("http://dsf.dev/fhir/StructureDefinition/extension-certificate-thumbprint",
+						new StringType("thumbprint")));
+
+		Endpoint endpoint = new Endpoint().setAddress("https://fhir.test.org/fhir");
+		endpoint.setManagingOrganization(new Reference("Organization/a7b0e3f2-8c5e-4a5b-9d61-0c3f0b1a2c3d"));
+
+		Patient patient = new Patient();
+		patient.setManagingOrganization(new Reference("Organization/a7b0e3f2-8c5e-4a5b-9d61-0c3f0b1a2c3d"));
+		patient.addGeneralPractitioner(new Reference("Practitioner/6e5d4c3b-2a1f-4e0d-9c8b-7a6f5e4d3c2b"));
+		patient.addContact().setOrganization(new Reference("Organization/a7b0e3f2-8c5e-4a5b-9d61-0c3f0b1a2c3d"));
+
+		resources = List.of(task, organization, endpoint, patient);
+	}
+
+	@Benchmark
+	public void getReferences(Blackhole blackhole)
+	{
+		for (Resource resource : resources)
+			referenceExtractor.getReferences(resource).forEach(blackhole::consume);
+	}
+
+	@Benchmark
+	public boolean hasReferences()
+	{
+		boolean hasReferences = true;
+		for (Resource resource : resources)
+			hasReferences &= referenceExtractor.getReferences(resource).anyMatch(r -> true);
+
+		return hasReferences;
+	}
+}
@@ -0,0 +1,256 @@
+package dev.dsf.fhir.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hl7.fhir.r4.model.ActivityDefinition;
+import org.hl7.fhir.r4.model.Attachment;
+import org.hl7.fhir.r4.model.Base;
+import org.hl7.fhir.r4.model.Binary;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.CodeSystem;
+import org.hl7.fhir.r4.model.DocumentReference;
+import org.hl7.fhir.r4.model.DomainResource;
+import org.hl7.fhir.r4.model.Element;
+import org.hl7.fhir.r4.model.Endpoint;
+import org.hl7.fhir.r4.model.Extension;
+import org.hl7.fhir.r4.model.Group;
+import org.hl7.fhir.r4.model.HealthcareService;
+import org.hl7.fhir.r4.model.Library;
+import org.hl7.fhir.r4.model.Location;
+import org.hl7.fhir.r4.model.Measure;
+import org.hl7.fhir.r4.model.MeasureReport;
+import org.hl7.fhir.r4.model.NamingSystem;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.OperationOutcome;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.OrganizationAffiliation;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Practitioner;
+import org.hl7.fhir.r4.model.PractitionerRole;
+import org.hl7.fhir.r4.model.Provenance;
+import org.hl7.fhir.r4.model.Questionnaire;
+import org.hl7.fhir.r4.model.QuestionnaireResponse;
+import org.hl7.fhir.r4.model.Reference;
+import org.hl7.fhir.r4.model.RelatedArtifact;
+import org.hl7.fhir.r4.model.RelatedArtifact.RelatedArtifactType;
+import org.hl7.fhir.r4.model.ResearchStudy;
+import org.hl7.fhir.r4.model.Resource;
+import org.hl7.fhir.r4.model.StringType;
+import org.hl7.fhir.r4.model.StructureDefinition;
+import org.hl7.fhir.r4.model.Subscription;
+import org.hl7.fhir.r4.model.Task;
+import org.hl7.fhir.r4.model.ValueSet;
+import org.junit.Test;
+
+import ca.uhn.fhir.context.BaseRuntimeChildDefinition;
+import ca.uhn.fhir.context.BaseRuntimeElementCompositeDefinition;
+import ca.uhn.fhir.context.BaseRuntimeElementDefinition;
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.context.RuntimeChildExtension;
+import ca.uhn.fhir.context.RuntimeResourceBlockDefinition;
+
+/**
+ * Compares the references extracted by {@link ReferenceExtractorImpl} with expected reference lists in
+ * <code>src/test/resources/reference-extractor</code>, one file per resource type. Resources are populated via the HAPI
+ * element definitions with references, related artifacts, attachments and reference extensions at every backbone
+ * element level, each value is the path of the populated element. Expected lines are tab separated location, value and
+ * reference types, recorded with the stream based implementation replaced by the precompiled extraction plans.
+ * <p>
+ * Resources with only some elements populated are expected to return the lines of the fully populated resource with
+ * values contained in the resource, in the same order.
+ */
+public class ReferenceExtractorEquivalenceTest
+{
+	private static final FhirContext fhirContext = FhirContext.forR4();
+
+	private static final List<Class<? extends Resource>> SUPPORTED_TYPES = List.of(ActivityDefinition.class,
+			Binary.class, CodeSystem.class, DocumentReference.class, Endpoint.class, Group.class,
+			HealthcareService.class, Library.class, Location.class, Measure.class, MeasureReport.class,
+			NamingSystem.class, OperationOutcome.class, Organization.class, OrganizationAffiliation.class,
+			Patient.class, Practitioner.class, PractitionerRole.class, Provenance.class, Questionnaire.class,
+			QuestionnaireResponse.class, ResearchStudy.class, StructureDefinition.class, Subscription.class, Task.class,
+			ValueSet.class);
+
+	// Observation: unsupported DomainResource, only extensions extracted, Bundle: unsupported Resource
+	private static final List<Class<? extends Resource>> UNSUPPORTED_TYPES = List.of(Observation.class, Bundle.class);
+
+	private static final List<Class<? extends Resource>> ALL_TYPES = Stream
+			.concat(SUPPORTED_TYPES.stream(), UNSUPPORTED_TYPES.stream()).collect(Collectors.toList());
+
+	// MeasureReport.group.stratifier.stratum.population is the deepest extracted backbone element
+	private static final int MAX_DEPTH = 4;
+
+	private final ReferenceExtractor referenceExtractor = new ReferenceExtractorImpl();
+
+	@Test
+	public void testAllElementsPopulated() throws Exception
+	{
+		for (Class<? extends Resource> type : SUPPORTED_TYPES)
+		{
+			List<String> expected = readExpected(type);
+			assertFalse(type.getSimpleName() + " without references", expected.isEmpty());
+
+			assertEquals(type.getSimpleName(), expected,
+					getReferences(createResource(type, e -> true, new HashSet<>())));
+		}
+
+		for (Class<? extends Resource> type : UNSUPPORTED_TYPES)
+			assertEquals(type.getSimpleName(), readExpected(type),
+					getReferences(createResource(type, e -> true, new HashSet<>())));
+	}
+
+	@Test
+	public void testSomeElementsPopulated() throws Exception
+	{
+		Random random = new Random(42);
+
+		for (int i = 0; i < 20; i++)
+		{
+			for (Class<? extends Resource> type : ALL_TYPES)
+			{
+				Set<String> values = new HashSet<>();
+				Resource resource = createResource(type, e -> random.nextBoolean(), values);
+
+				List<String> expected = readExpected(type).stream().filter(l -> values.contains(l.split("\t")[1]))
+						.collect(Collectors.toList());
+
+				assertEquals(type.getSimpleName(), expected, getReferences(resource));
+			}
+		}
+	}
+
+	private List<String> readExpected(Class<? extends Resource> type) throws IOException
+	{
+		try (InputStream in = ReferenceExtractorEquivalenceTest.class
+				.getResourceAsStream("/reference-extractor/" + type.getSimpleName() + ".txt"))
+		{
+			assertNotNull(type.getSimpleName() + " expected references not found", in);
+
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)))
+			{
+				return reader.lines().filter(l -> !l.isBlank()).collect(Collectors.toList());
+			}
+		}
+	}
+
+	private List<String> getReferences(Resource resource)
+	{
+		return referenceExtractor.getReferences(resource)
+				.map(r -> r.getLocation() + "\t" + r.getValue() + "\t"
+						+ r.getReferenceTypes().stream().map(Class::getSimpleName).collect(Collectors.joining(",")))
+				.collect(Collectors.toList());
+	}
+
+	private Resource createResource(Class<? extends Resource> type, Predicate<String> populate, Set<String> values)
+	{
+		BaseRuntimeElementCompositeDefinition<?> definition = fhirContext.getResourceDefinition(type);
+		Resource resource = (Resource) definition.newInstance();
+		populate(resource, definition, type.getSimpleName(), 0, populate, values);
+
+		// DocumentReference.context references only extracted if content is present
+		if (resource instanceof DocumentReference d && d.hasContext() && !d.hasContent())
+			d.addContent().setAttachment(
+					new Attachment().setUrl(value("DocumentReference.content[0].attachment[0]", values)));
+
+		return resource;
+	}
+
+	private void populate(Base element, BaseRuntimeElementCompositeDefinition<?> definition, String path, int depth,
+			Predicate<String> populate, Set<String> values)
+	{
+		for (BaseRuntimeChildDefinition child : definition.getChildren())
+		{
+			// extensions added below
+			if (child instanceof RuntimeChildExtension)
+				continue;
+
+			String childPath = path + "." + child.getElementName();
+			if (!populate.test(childPath))
+				continue;
+
+			for (String name : child.getValidChildNames())
+			{
+				BaseRuntimeElementDefinition<?> childDefinition = child.getChildByName(name);
+				if (childDefinition == null || !isPopulated(childDefinition, depth))
+					continue;
+
+				for (int i = 0; i < Math.min(child.getMax() < 0 ? 2 : child.getMax(), 2); i++)
+					child.getMutator().addValue(element,
+							createValue(childDefinition, childPath + "[" + i + "]", depth, populate, values));
+
+				// only one type of choice elements
+				break;
+			}
+		}
+
+		if (populate.test(path + ".extension"))
+		{
+			if (element instanceof DomainResource r)
+				r.addExtension(createExtension(path, values));
+			else if (element instanceof Element e)
+				e.addExtension(createExtension(path, values));
+		}
+	}
+
+	private boolean isPopulated(BaseRuntimeElementDefinition<?> definition, int depth)
+	{
+		Class<?> type = definition.getImplementingClass();
+
+		return Reference.class.equals(type) || RelatedArtifact.class.equals(type) || Attachment.class.equals(type)
+				|| (definition instanceof RuntimeResourceBlockDefinition && depth < MAX_DEPTH);
+	}
+
+	private Base createValue(BaseRuntimeElementDefinition<?> definition, String path, int depth,
+			Predicate<String> populate, Set<String> values)
+	{
+		Class<?> type = definition.getImplementingClass();
+
+		if (Reference.class.equals(type))
+			return new Reference(value(path, values));
+		else if (RelatedArtifact.class.equals(type))
+			return new RelatedArtifact().setType(RelatedArtifactType.DEPENDSON).setUrl(value(path, values))
+					.setResource(path);
+		else if (Attachment.class.equals(type))
+			return new Attachment().setUrl(value(path, values));
+		else
+		{
+			Base element = (Base) definition.newInstance();
+			populate(element, (BaseRuntimeElementCompositeDefinition<?>) definition, path, depth + 1, populate, values);
+			return element;
+		}
+	}
+
+	private Extension createExtension(String path, Set<String> values)
+	{
+		Extension nested = new Extension("http://test.com/fhir/StructureDefinition/nested", new StringType("nested"));
+		nested.addExtension(new Extension("http://test.com/fhir/StructureDefinition/nested-reference",
+				new Reference(value(path + ".extension.extension.extension", values))));
+
+		Extension extension = new Extension("http://test.com/fhir/StructureDefinition/reference",
+				new Reference(value(path + ".extension", values)));
+		extension.addExtension(nested);
+
+		return extension;
+	}
+
+	private String value(String path, Set<String> values)
+	{
+		values.add(path);
+		return path;
+	}
+}
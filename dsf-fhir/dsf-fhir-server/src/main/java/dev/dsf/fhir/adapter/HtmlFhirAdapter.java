@@ -41,6 +41,7 @@ import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.model.api.annotation.ResourceDef;
 import ca.uhn.fhir.parser.IParser;
 import dev.dsf.common.auth.conf.Identity;
+import dev.dsf.fhir.help.StaticResourceCache;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Context;
@@ -86,11 +87,35 @@ public class HtmlFhirAdapter extends AbstractAdapter implements MessageBodyWrite
 	private static final Pattern JSON_ID_UUID_AND_VERSION_PATTERN = Pattern
 			.compile("\"id\": \"(" + UUID + ")\",\\n([ ]*)\"meta\": \\{\\n([ ]*)\"versionId\": \"([0-9]+)\",");
 
+	private static final Pattern STATIC_RESOURCE_PATTERN = Pattern.compile("static/([-a-zA-Z0-9_.]+)");
+
+	private static final String HEAD = """
+			<!DOCTYPE html>
+			<html>
+			<head>
+			<base href="${serverBaseUrl}/">
+			<link rel="icon" type="image/svg+xml" href="static/favicon.svg">
+			<link rel="icon" type="image/png" href="static/favicon_32x32.png" sizes="32x32">
+			<link rel="icon" type="image/png" href="static/favicon_96x96.png" sizes="96x96">
+			<meta name="theme-color" content="#326F95">
+			<script src="static/util.js"></script>
+			<script src="static/prettify.js"></script>
+			<script src="static/tabs.js"></script>
+			<script src="static/bookmarks.js"></script>
+			<script src="static/help.js"></script>
+			<script src="static/form.js"></script>
+			<link rel="stylesheet" type="text/css" href="static/prettify.css">
+			<link rel="stylesheet" type="text/css" href="static/dsf.css">
+			<link rel="stylesheet" type="text/css" href="static/form.css">
+			""";
+
 	private final TransformerFactory transformerFactory = TransformerFactory.newInstance();
 
 	private final String serverBaseUrl;
 	private final FhirContext fhirContext;
 	private final Map<Class<? extends Resource>, List<HtmlGenerator<? extends Resource>>> htmlGeneratorsByType;
+	private final String head;
+	private final String logoUrl;
 
 	@Context
 	private volatile UriInfo uriInfo;
@@ -100,6 +125,17 @@ public class HtmlFhirAdapter extends AbstractAdapter implements MessageBodyWrite
 
 	public HtmlFhirAdapter(String serverBaseUrl, FhirContext fhirContext,
 			Collection<? extends HtmlGenerator<?>> htmlGenerators)
+	{
+		this(serverBaseUrl, fhirContext, null, htmlGenerators);
+	}
+
+	/**
+	 * @param staticResourceCache
+	 *            may be <code>null</code>, static resources are referenced by content-hashed file names if not
+	 *            <code>null</code>
+	 */
+	public HtmlFhirAdapter(String serverBaseUrl, FhirContext fhirContext, StaticResourceCache staticResourceCache,
+			Collection<? extends HtmlGenerator<?>> htmlGenerators)
 	{
 		this.serverBaseUrl = serverBaseUrl;
 		this.fhirContext = fhirContext;
@@ -109,6 +145,19 @@ public class HtmlFhirAdapter extends AbstractAdapter implements MessageBodyWrite
 					.collect(Collectors.groupingBy(HtmlGenerator::getResourceType));
 		else
 			htmlGeneratorsByType = Collections.emptyMap();
+
+		head = toStaticResourceUrls(HEAD.replace("${serverBaseUrl}", getServerBaseUrlPathWithLeadingSlash()),
+				staticResourceCache);
+		logoUrl = toStaticResourceUrls("static/logo.svg", staticResourceCache);
+	}
+
+	private static String toStaticResourceUrls(String html, StaticResourceCache staticResourceCache)
+	{
+		if (staticResourceCache == null)
+			return html;
+
+		return STATIC_RESOURCE_PATTERN.matcher(html)
+				.replaceAll(m -> Matcher.quoteReplacement("static/" + staticResourceCache.getUrlFileName(m.group(1))));
 	}
 
 	private String getServerBaseUrlPathWithLeadingSlash()
@@ -150,25 +199,7 @@ public class HtmlFhirAdapter extends AbstractAdapter implements MessageBodyWrite
 		final boolean htmlEnabled = isHtmlEnabled(type, resource);
 		final OutputStreamWriter out = new OutputStreamWriter(entityStream);
 
-		out.write("""
-				<!DOCTYPE html>
-				<html>
-				<head>
-				<base href="${serverBaseUrl}/">
-				<link rel="icon" type="image/svg+xml" href="static/favicon.svg">
-				<link rel="icon" type="image/png" href="static/favicon_32x32.png" sizes="32x32">
-				<link rel="icon" type="image/png" href="static/favicon_96x96.png" sizes="96x96">
-				<meta name="theme-color" content="#326F95">
-				<script src="static/util.js"></script>
-				<script src="static/prettify.js"></script>
-				<script src="static/tabs.js"></script>
-				<script src="static/bookmarks.js"></script>
-				<script src="static/help.js"></script>
-				<script src="static/form.js"></script>
-				<link rel="stylesheet" type="text/css" href="static/prettify.css">
-				<link rel="stylesheet" type="text/css" href="static/dsf.css">
-				<link rel="stylesheet" type="text/css" href="static/form.css">
-				""".replace("${serverBaseUrl}", getServerBaseUrlPathWithLeadingSlash()));
+		out.write(head);
 		out.write("<title>" + getTitle() + "</title>\n");
 		out.write("</head>\n");
 		out.write("<body onload=\"prettyPrint();openInitialTab(" + String.valueOf(htmlEnabled) + ");checkBookmarked();"
@@ -248,11 +279,12 @@ public class HtmlFhirAdapter extends AbstractAdapter implements MessageBodyWrite
 						<table id="header">
 						<tr>
 						<td>
-						<image src="static/logo.svg">
+						<image src="${logoUrl}">
 						</td>
 						<td id="url">
 						<h1>
-						""");
+						"""
+						.replace("${logoUrl}", logoUrl));
 		out.write(getUrlHeading(resource));
 		out.write("""
 				</h1>
@@ -364,7 +396,7 @@ public class HtmlFhirAdapter extends AbstractAdapter implements MessageBodyWrite
 
 	private void writeXml(MediaType mediaType, Resource resource, OutputStreamWriter out) throws IOException
 	{
-		IParser parser = getParser(mediaType, fhirContext::newXmlParser);
+		IParser parser = getParser(mediaType, fhirContext::newXmlParser, resource);
 
 		out.write("<pre id=\"xml\" class=\"prettyprint linenums lang-xml\" style=\"display:none;\">");
 		String content = parser.encodeResourceToString(resource);
@@ -425,7 +457,7 @@ public class HtmlFhirAdapter extends AbstractAdapter implements MessageBodyWrite
 
 	private void writeJson(MediaType mediaType, Resource resource, OutputStreamWriter out) throws IOException
 	{
-		IParser parser = getParser(mediaType, fhirContext::newJsonParser);
+		IParser parser = getParser(mediaType, fhirContext::newJsonParser, resource);
 
 		out.write("<pre id=\"json\" class=\"prettyprint linenums lang-json\" style=\"display:none;\">");
 		String content = parser.encodeResourceToString(resource).replace("<", "&lt;").replace(">", "&gt;");
@@ -0,0 +1,44 @@
+package dev.dsf.fhir.adapter;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
+
+/**
+ * {@link Bundle} response entity with entries created while the response is written. Entries are encoded one by one
+ * after all other elements of the bundle, see {@link StreamingBundleAdapter}. Can only be written once.
+ */
+public class StreamingBundle
+{
+	private final Bundle bundle;
+	private final Stream<BundleEntryComponent> entries;
+
+	/**
+	 * @param bundle
+	 *            not <code>null</code>, without entries, only <code>id</code>, <code>type</code>,
+	 *            <code>timestamp</code>, <code>total</code> and <code>link</code> are written
+	 * @param entries
+	 *            not <code>null</code>, evaluated lazily while writing the response
+	 */
+	public StreamingBundle(Bundle bundle, Stream<BundleEntryComponent> entries)
+	{
+		this.bundle = Objects.requireNonNull(bundle, "bundle");
+		this.entries = Objects.requireNonNull(entries, "entries");
+	}
+
+	/**
+	 * @return bundle without entries
+	 */
+	public Bundle getBundle()
+	{
+		return bundle;
+	}
+
+	public Iterator<BundleEntryComponent> getEntries()
+	{
+		return entries.iterator();
+	}
+}
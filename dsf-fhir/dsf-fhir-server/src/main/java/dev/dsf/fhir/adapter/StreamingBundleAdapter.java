@@ -0,0 +1,444 @@
+package dev.dsf.fhir.adapter;
+
+import java.io.BufferedWriter;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+import org.hl7.fhir.instance.model.api.IBaseResource;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
+import org.hl7.fhir.r4.model.Bundle.BundleLinkComponent;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
+import ca.uhn.fhir.rest.api.Constants;
+import dev.dsf.fhir.dao.ResourceDao;
+import dev.dsf.fhir.search.DbSearchQuery;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Writes {@link StreamingBundle} entities. The bundle elements <code>id</code>, <code>type</code>,
+ * <code>timestamp</code>, <code>total</code> and <code>link</code> as well as the <code>entry</code> elements with
+ * <code>fullUrl</code> and <code>search</code> are written by this adapter, entry resources are encoded one at a time
+ * directly to the response via {@link IParser#encodeResourceToWriter(IBaseResource, Writer)}. Other bundle and entry
+ * elements are not written.
+ * <p>
+ * Entry resources are parsed while the response is written, not before the first byte is written. The database access
+ * itself is not streamed: {@link ResourceDao#searchLazy(DbSearchQuery)}, implemented by AbstractResourceDaoJdbc, reads
+ * the json of all resources of the requested page before the response is created, only parsing is done lazily, keeping
+ * at most one parsed entry resource in memory.
+ * <p>
+ * Media types with a {@value AbstractAdapter#SUMMARY} or {@value AbstractAdapter#ELEMENTS} parameter are not supported,
+ * see {@link #isStreamingSupported(MediaType)}.
+ */
+@Provider
+@Produces({ Constants.CT_FHIR_XML_NEW, Constants.CT_FHIR_XML, MediaType.APPLICATION_XML, MediaType.TEXT_XML,
+		Constants.CT_FHIR_JSON_NEW, Constants.CT_FHIR_JSON, MediaType.APPLICATION_JSON })
+public class StreamingBundleAdapter extends AbstractAdapter implements MessageBodyWriter<StreamingBundle>
+{
+	private static final String JSON_INDENT = "  ";
+	private static final String XML_INDENT = "   ";
+
+	private final FhirContext fhirContext;
+
+	public StreamingBundleAdapter(FhirContext fhirContext)
+	{
+		this.fhirContext = fhirContext;
+	}
+
+	/**
+	 * @param mediaType
+	 *            may be <code>null</code>
+	 * @return <code>true</code> if {@link StreamingBundle} entities can be written with the given media type
+	 */
+	public static boolean isStreamingSupported(MediaType mediaType)
+	{
+		return mediaType != null && !mediaType.getParameters().containsKey(SUMMARY)
+				&& !mediaType.getParameters().containsKey(ELEMENTS) && (isXml(mediaType) || isJson(mediaType));
+	}
+
+	private static boolean isXml(MediaType mediaType)
+	{
+		return switch (mediaType.getType() + "/" + mediaType.getSubtype())
+		{
+			case Constants.CT_FHIR_XML_NEW, Constants.CT_FHIR_XML, MediaType.APPLICATION_XML, MediaType.TEXT_XML ->
+				true;
+			default -> false;
+		};
+	}
+
+	private static boolean isJson(MediaType mediaType)
+	{
+		return switch (mediaType.getType() + "/" + mediaType.getSubtype())
+		{
+			case Constants.CT_FHIR_JSON_NEW, Constants.CT_FHIR_JSON, MediaType.APPLICATION_JSON -> true;
+			default -> false;
+		};
+	}
+
+	@Override
+	public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType)
+	{
+		return type != null && StreamingBundle.class.isAssignableFrom(type) && isStreamingSupported(mediaType);
+	}
+
+	@Override
+	public void writeTo(StreamingBundle t, Class<?> type, Type genericType, Annotation[] annotations,
+			MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+			throws IOException, WebApplicationException
+	{
+		Writer writer = new BufferedWriter(new OutputStreamWriter(entityStream, StandardCharsets.UTF_8),
+				FhirAdapter.BUFFER_SIZE);
+
+		boolean pretty = "true".equals(mediaType.getParameters().getOrDefault(PRETTY, "false"));
+
+		if (isXml(mediaType))
+			writeXml(t, getParser(mediaType, fhirContext::newXmlParser), pretty, writer);
+		else
+			writeJson(t, getParser(mediaType, fhirContext::newJsonParser), pretty, writer);
+
+		writer.flush();
+	}
+
+	private void writeXml(StreamingBundle t, IParser parser, boolean pretty, Writer writer) throws IOException
+	{
+		Bundle bundle = t.getBundle();
+		StructuredWriter out = new StructuredWriter(writer, pretty, XML_INDENT);
+
+		out.write("<Bundle xmlns=\"http://hl7.org/fhir\">");
+		out.indent();
+
+		if (bundle.hasIdElement() && bundle.getIdElement().hasIdPart())
+			writeXmlValue(out, "id", bundle.getIdElement().getIdPart());
+		if (bundle.hasType())
+			writeXmlValue(out, "type", bundle.getType().toCode());
+		if (bundle.hasTimestamp())
+			writeXmlValue(out, "timestamp", bundle.getTimestampElement().getValueAsString());
+		if (bundle.hasTotalElement())
+			writeXmlValue(out, "total", bundle.getTotalElement().getValueAsString());
+
+		for (BundleLinkComponent link : bundle.getLink())
+		{
+			out.newLine();
+			out.write("<link>");
+			out.indent();
+			writeXmlValue(out, "relation", link.getRelation());
+			writeXmlValue(out, "url", link.getUrl());
+			out.outdent();
+			out.newLine();
+			out.write("</link>");
+		}
+
+		Iterator<BundleEntryComponent> entries = t.getEntries();
+		while (entries.hasNext())
+		{
+			BundleEntryComponent entry = entries.next();
+
+			out.newLine();
+			out.write("<entry>");
+			out.indent();
+
+			if (entry.hasFullUrl())
+				writeXmlValue(out, "fullUrl", entry.getFullUrl());
+
+			if (entry.hasResource())
+			{
+				out.newLine();
+				out.write("<resource>");
+				out.indent();
+				out.newLine();
+				parser.encodeResourceToWriter(entry.getResource(), out);
+				out.outdent();
+				out.newLine();
+				out.write("</resource>");
+			}
+
+			if (entry.hasSearch())
+			{
+				out.newLine();
+				out.write("<search>");
+				out.indent();
+				if (entry.getSearch().hasMode())
+					writeXmlValue(out, "mode", entry.getSearch().getMode().toCode());
+				if (entry.getSearch().hasScore())
+					writeXmlValue(out, "score", entry.getSearch().getScoreElement().getValueAsString());
+				out.outdent();
+				out.newLine();
+				out.write("</search>");
+			}
+
+			out.outdent();
+			out.newLine();
+			out.write("</entry>");
+		}
+
+		out.outdent();
+		out.newLine();
+		out.write("</Bundle>");
+	}
+
+	private void writeXmlValue(StructuredWriter out, String element, String value) throws IOException
+	{
+		if (value == null)
+			return;
+
+		out.newLine();
+		// escaped like attribute values of entry resources encoded by the parser
+		out.write("<" + element + " value=\"");
+		for (int i = 0; i < value.length(); i++)
+		{
+			char c = value.charAt(i);
+			switch (c)
+			{
+				case '&' -> out.write("&amp;");
+				case '<' -> out.write("&lt;");
+				case '>' -> out.write("&gt;");
+				case '"' -> out.write("&quot;");
+				default -> out.write(c);
+			}
+		}
+		out.write("\"></" + element + ">");
+	}
+
+	private void writeJson(StreamingBundle t, IParser parser, boolean pretty, Writer writer) throws IOException
+	{
+		Bundle bundle = t.getBundle();
+		StructuredWriter out = new StructuredWriter(writer, pretty, JSON_INDENT);
+
+		out.write('{');
+		out.indent();
+		writeJsonName(out, "resourceType", true);
+		writeJsonString(out, "Bundle");
+
+		if (bundle.hasIdElement() && bundle.getIdElement().hasIdPart())
+			writeJsonStringValue(out, "id", bundle.getIdElement().getIdPart());
+		if (bundle.hasType())
+			writeJsonStringValue(out, "type", bundle.getType().toCode());
+		if (bundle.hasTimestamp())
+			writeJsonStringValue(out, "timestamp", bundle.getTimestampElement().getValueAsString());
+		if (bundle.hasTotalElement())
+		{
+			writeJsonName(out, "total", false);
+			out.write(bundle.getTotalElement().getValueAsString());
+		}
+
+		if (bundle.hasLink())
+		{
+			writeJsonName(out, "link", false);
+			out.write(pretty ? "[ " : "[");
+
+			for (int i = 0; i < bundle.getLink().size(); i++)
+			{
+				BundleLinkComponent link = bundle.getLink().get(i);
+				if (i > 0)
+					out.write(pretty ? ", " : ",");
+
+				out.write('{');
+				out.indent();
+				boolean first = true;
+				if (link.hasRelation())
+				{
+					writeJsonStringValue(out, "relation", link.getRelation(), first);
+					first = false;
+				}
+				if (link.hasUrl())
+					writeJsonStringValue(out, "url", link.getUrl(), first);
+				out.outdent();
+				out.newLine();
+				out.write('}');
+			}
+
+			out.write(pretty ? " ]" : "]");
+		}
+
+		Iterator<BundleEntryComponent> entries = t.getEntries();
+		if (entries.hasNext())
+		{
+			writeJsonName(out, "entry", false);
+			out.write(pretty ? "[ " : "[");
+
+			boolean firstEntry = true;
+			while (entries.hasNext())
+			{
+				BundleEntryComponent entry = entries.next();
+				if (!firstEntry)
+					out.write(pretty ? ", " : ",");
+				firstEntry = false;
+
+				out.write('{');
+				out.indent();
+
+				boolean first = true;
+				if (entry.hasFullUrl())
+				{
+					writeJsonStringValue(out, "fullUrl", entry.getFullUrl(), first);
+					first = false;
+				}
+
+				if (entry.hasResource())
+				{
+					writeJsonName(out, "resource", first);
+					first = false;
+					parser.encodeResourceToWriter(entry.getResource(), out);
+				}
+
+				if (entry.hasSearch())
+				{
+					writeJsonName(out, "search", first);
+					out.write('{');
+					out.indent();
+					boolean firstSearch = true;
+					if (entry.getSearch().hasMode())
+					{
+						writeJsonStringValue(out, "mode", entry.getSearch().getMode().toCode(), firstSearch);
+						firstSearch = false;
+					}
+					if (entry.getSearch().hasScore())
+					{
+						writeJsonName(out, "score", firstSearch);
+						out.write(entry.getSearch().getScoreElement().getValueAsString());
+					}
+					out.outdent();
+					out.newLine();
+					out.write('}');
+				}
+
+				out.outdent();
+				out.newLine();
+				out.write('}');
+			}
+
+			out.write(pretty ? " ]" : "]");
+		}
+
+		out.outdent();
+		out.newLine();
+		out.write('}');
+	}
+
+	private void writeJsonStringValue(StructuredWriter out, String name, String value) throws IOException
+	{
+		writeJsonStringValue(out, name, value, false);
+	}
+
+	private void writeJsonStringValue(StructuredWriter out, String name, String value, boolean first) throws IOException
+	{
+		writeJsonName(out, name, first);
+		writeJsonString(out, value);
+	}
+
+	private void writeJsonName(StructuredWriter out, String name, boolean first) throws IOException
+	{
+		if (!first)
+			out.write(',');
+
+		out.newLine();
+		writeJsonString(out, name);
+		out.write(out.pretty ? ": " : ":");
+	}
+
+	private void writeJsonString(StructuredWriter out, String value) throws IOException
+	{
+		out.write('"');
+		for (int i = 0; i < value.length(); i++)
+		{
+			char c = value.charAt(i);
+			switch (c)
+			{
+				case '"' -> out.write("\\\"");
+				case '\\' -> out.write("\\\\");
+				case '\n' -> out.write("\\n");
+				case '\r' -> out.write("\\r");
+				case '\t' -> out.write("\\t");
+				case '\b' -> out.write("\\b");
+				case '\f' -> out.write("\\f");
+				default ->
+				{
+					if (c < 0x20)
+						out.write(String.format("\\u%04x", (int) c));
+					else
+						out.write(c);
+				}
+			}
+		}
+		out.write('"');
+	}
+
+	/**
+	 * Indents lines if pretty printing, also lines of entry resources encoded by the {@link IParser}. Does not close
+	 * the underlying writer.
+	 */
+	private static final class StructuredWriter extends FilterWriter
+	{
+		final boolean pretty;
+		final String indent;
+
+		int level;
+
+		StructuredWriter(Writer out, boolean pretty, String indent)
+		{
+			super(out);
+
+			this.pretty = pretty;
+			this.indent = indent;
+		}
+
+		void indent()
+		{
+			level++;
+		}
+
+		void outdent()
+		{
+			level--;
+		}
+
+		void newLine() throws IOException
+		{
+			if (pretty)
+				write('\n');
+		}
+
+		@Override
+		public void write(int c) throws IOException
+		{
+			out.write(c);
+
+			if (pretty && c == '\n')
+				for (int i = 0; i < level; i++)
+					out.write(indent);
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException
+		{
+			for (int i = off; i < off + len; i++)
+				write(cbuf[i]);
+		}
+
+		@Override
+		public void write(String str, int off, int len) throws IOException
+		{
+			for (int i = off; i < off + len; i++)
+				write(str.charAt(i));
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			flush();
+		}
+	}
+}
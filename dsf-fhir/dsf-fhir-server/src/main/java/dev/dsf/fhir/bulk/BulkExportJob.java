@@ -0,0 +1,211 @@
+package dev.dsf.fhir.bulk;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * State of an asynchronous bulk export, one NDJSON file per exported resource type. Jobs are only visible to the
+ * identity that started them.
+ */
+public class BulkExportJob
+{
+	public enum Status
+	{
+		ACCEPTED, IN_PROGRESS, COMPLETED, FAILED
+	}
+
+	public static final class Output
+	{
+		private final String resourceType;
+		private final String fileName;
+		private final long count;
+
+		public Output(String resourceType, String fileName, long count)
+		{
+			this.resourceType = resourceType;
+			this.fileName = fileName;
+			this.count = count;
+		}
+
+		public String getResourceType()
+		{
+			return resourceType;
+		}
+
+		public String getFileName()
+		{
+			return fileName;
+		}
+
+		public long getCount()
+		{
+			return count;
+		}
+	}
+
+	private final String id;
+	private final String identityName;
+	private final Instant transactionTime;
+	private final String request;
+	private final List<String> resourceTypes;
+
+	private final AtomicLong exportedResources = new AtomicLong();
+	private final List<Output> outputs = new CopyOnWriteArrayList<>();
+
+	private volatile Status status = Status.ACCEPTED;
+	private volatile String currentResourceType;
+	private volatile String error;
+	private volatile Instant finished;
+	private volatile Future<?> future;
+
+	/**
+	 * @param id
+	 *            not <code>null</code>
+	 * @param identityName
+	 *            not <code>null</code>
+	 * @param transactionTime
+	 *            not <code>null</code>
+	 * @param request
+	 *            not <code>null</code>
+	 * @param resourceTypes
+	 *            not <code>null</code>
+	 */
+	public BulkExportJob(String id, String identityName, Instant transactionTime, String request,
+			List<String> resourceTypes)
+	{
+		this.id = Objects.requireNonNull(id, "id");
+		this.identityName = Objects.requireNonNull(identityName, "identityName");
+		this.transactionTime = Objects.requireNonNull(transactionTime, "transactionTime");
+		this.request = Objects.requireNonNull(request, "request");
+		this.resourceTypes = List.copyOf(Objects.requireNonNull(resourceTypes, "resourceTypes"));
+	}
+
+	public String getId()
+	{
+		return id;
+	}
+
+	public String getIdentityName()
+	{
+		return identityName;
+	}
+
+	/**
+	 * @return time the export was requested
+	 */
+	public Instant getTransactionTime()
+	{
+		return transactionTime;
+	}
+
+	/**
+	 * @return url of the kick-off request
+	 */
+	public String getRequest()
+	{
+		return request;
+	}
+
+	public List<String> getResourceTypes()
+	{
+		return resourceTypes;
+	}
+
+	public Status getStatus()
+	{
+		return status;
+	}
+
+	/**
+	 * @return resources written to the output files so far
+	 */
+	public long getExportedResources()
+	{
+		return exportedResources.get();
+	}
+
+	/**
+	 * @return one entry per completely exported resource type
+	 */
+	public List<Output> getOutputs()
+	{
+		return List.copyOf(outputs);
+	}
+
+	/**
+	 * @return {@link Optional#empty()} if the job is not {@link Status#IN_PROGRESS}
+	 */
+	public Optional<String> getCurrentResourceType()
+	{
+		return Optional.ofNullable(currentResourceType);
+	}
+
+	/**
+	 * @return {@link Optional#empty()} if the job is not {@link Status#FAILED}
+	 */
+	public Optional<String> getError()
+	{
+		return Optional.ofNullable(error);
+	}
+
+	/**
+	 * @return {@link Optional#empty()} if the job is not {@link Status#COMPLETED} or {@link Status#FAILED}
+	 */
+	public Optional<Instant> getFinished()
+	{
+		return Optional.ofNullable(finished);
+	}
+
+	public boolean isFinished()
+	{
+		return Status.COMPLETED.equals(status) || Status.FAILED.equals(status);
+	}
+
+	void setFuture(Future<?> future)
+	{
+		this.future = future;
+	}
+
+	void cancel()
+	{
+		Future<?> f = future;
+		if (f != null)
+			f.cancel(true);
+	}
+
+	void started(String resourceType)
+	{
+		status = Status.IN_PROGRESS;
+		currentResourceType = resourceType;
+	}
+
+	void resourceExported()
+	{
+		exportedResources.incrementAndGet();
+	}
+
+	void exported(Output output)
+	{
+		outputs.add(output);
+	}
+
+	void completed()
+	{
+		currentResourceType = null;
+		finished = Instant.now();
+		status = Status.COMPLETED;
+	}
+
+	void failed(String error)
+	{
+		currentResourceType = null;
+		this.error = error;
+		finished = Instant.now();
+		status = Status.FAILED;
+	}
+}
@@ -0,0 +1,40 @@
+package dev.dsf.fhir.bulk;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import ca.uhn.fhir.rest.api.Constants;
+
+/**
+ * Query parameters of the <code>$export</code> kick-off request.
+ */
+public final class BulkExportParameters
+{
+	public static final String PARAMETER_TYPE = Constants.PARAM_TYPE;
+	public static final String PARAMETER_SINCE = Constants.PARAM_SINCE;
+	public static final String PARAMETER_OUTPUT_FORMAT = "_outputFormat";
+
+	private BulkExportParameters()
+	{
+	}
+
+	/**
+	 * @param queryParameters
+	 *            not <code>null</code>
+	 * @return distinct resource type names from all comma separated <code>_type</code> parameter values, empty if no
+	 *         <code>_type</code> parameter is given
+	 */
+	public static List<String> getResourceTypes(Map<String, List<String>> queryParameters)
+	{
+		Objects.requireNonNull(queryParameters, "queryParameters");
+
+		List<String> values = queryParameters.get(PARAMETER_TYPE);
+		if (values == null)
+			return List.of();
+
+		return values.stream().filter(Objects::nonNull).flatMap(v -> Arrays.stream(v.split(","))).map(String::trim)
+				.filter(t -> !t.isEmpty()).distinct().toList();
+	}
+}
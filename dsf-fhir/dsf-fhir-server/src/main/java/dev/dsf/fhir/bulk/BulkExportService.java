@@ -0,0 +1,58 @@
+package dev.dsf.fhir.bulk;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+import dev.dsf.common.auth.conf.Identity;
+import dev.dsf.fhir.search.DbSearchQuery;
+
+public interface BulkExportService
+{
+	/**
+	 * Starts an asynchronous export writing one NDJSON file per resource type. Read access rules need to be part of the
+	 * given queries, see {@link dev.dsf.fhir.dao.ResourceDao#createSearchQuery(Identity, int, int)}.
+	 *
+	 * @param identity
+	 *            not <code>null</code>, owner of the job
+	 * @param request
+	 *            not <code>null</code>, url of the kick-off request
+	 * @param queriesByResourceType
+	 *            not <code>null</code>, not empty, exported in iteration order
+	 * @return accepted job
+	 */
+	BulkExportJob start(Identity identity, String request, Map<String, DbSearchQuery> queriesByResourceType);
+
+	/**
+	 * @param identity
+	 *            not <code>null</code>
+	 * @param jobId
+	 *            may be <code>null</code>
+	 * @return {@link Optional#empty()} if no job with the given id exists or the job was started by a different
+	 *         identity
+	 */
+	Optional<BulkExportJob> getJob(Identity identity, String jobId);
+
+	/**
+	 * Cancels the job if not finished and deletes all output files.
+	 *
+	 * @param identity
+	 *            not <code>null</code>
+	 * @param jobId
+	 *            may be <code>null</code>
+	 * @return <code>false</code> if no job with the given id exists or the job was started by a different identity
+	 */
+	boolean deleteJob(Identity identity, String jobId);
+
+	/**
+	 * @param identity
+	 *            not <code>null</code>
+	 * @param jobId
+	 *            may be <code>null</code>
+	 * @param fileName
+	 *            may be <code>null</code>
+	 * @return {@link Optional#empty()} if the job does not exist, was started by a different identity, is not
+	 *         {@link BulkExportJob.Status#COMPLETED} or has no output file with the given name
+	 */
+	Optional<Path> getOutputFile(Identity identity, String jobId, String fileName);
+}
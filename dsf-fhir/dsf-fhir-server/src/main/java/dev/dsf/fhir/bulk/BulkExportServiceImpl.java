@@ -0,0 +1,311 @@
+package dev.dsf.fhir.bulk;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import dev.dsf.common.auth.conf.Identity;
+import dev.dsf.fhir.bulk.BulkExportJob.Output;
+import dev.dsf.fhir.dao.ResourceDao;
+import dev.dsf.fhir.dao.provider.DaoProvider;
+import dev.dsf.fhir.search.DbSearchQuery;
+
+public class BulkExportServiceImpl implements BulkExportService, InitializingBean, DisposableBean
+{
+	private static final Logger logger = LoggerFactory.getLogger(BulkExportServiceImpl.class);
+
+	public static final String FILE_SUFFIX = ".ndjson";
+
+	private final DaoProvider daoProvider;
+	private final Path exportDirectory;
+	private final int threads;
+	private final Duration retention;
+
+	private final Map<String, BulkExportJob> jobs = new ConcurrentHashMap<>();
+
+	private ExecutorService executor;
+	private ScheduledExecutorService cleanupExecutor;
+
+	/**
+	 * @param daoProvider
+	 *            not <code>null</code>
+	 * @param exportDirectory
+	 *            not <code>null</code>, one sub directory per job, created if not existing
+	 * @param threads
+	 *            <code>&gt; 0</code>, maximum number of concurrently running jobs
+	 * @param retention
+	 *            not <code>null</code>, time after which finished jobs and their output files are deleted
+	 */
+	public BulkExportServiceImpl(DaoProvider daoProvider, Path exportDirectory, int threads, Duration retention)
+	{
+		this.daoProvider = daoProvider;
+		this.exportDirectory = exportDirectory;
+		this.threads = threads;
+		this.retention = retention;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception
+	{
+		Objects.requireNonNull(daoProvider, "daoProvider");
+		Objects.requireNonNull(exportDirectory, "exportDirectory");
+		if (threads <= 0)
+			throw new IllegalArgumentException("threads <= 0");
+		Objects.requireNonNull(retention, "retention");
+
+		Files.createDirectories(exportDirectory);
+		deleteJobDirectoriesFromPreviousRuns();
+
+		executor = Executors.newFixedThreadPool(threads);
+		cleanupExecutor = Executors.newSingleThreadScheduledExecutor();
+		cleanupExecutor.scheduleWithFixedDelay(this::deleteExpiredJobs, 1, 1, TimeUnit.MINUTES);
+	}
+
+	private void deleteJobDirectoriesFromPreviousRuns() throws IOException
+	{
+		// job state not persisted, only directories named like job ids are deleted
+		try (Stream<Path> directories = Files.list(exportDirectory))
+		{
+			for (Path directory : directories.filter(Files::isDirectory).filter(d -> isUuid(d.getFileName().toString()))
+					.toList())
+			{
+				logger.info("Deleting bulk export directory {} from previous run", directory);
+				deleteDirectory(directory);
+			}
+		}
+	}
+
+	private static boolean isUuid(String value)
+	{
+		try
+		{
+			return UUID.fromString(value).toString().equals(value);
+		}
+		catch (IllegalArgumentException e)
+		{
+			return false;
+		}
+	}
+
+	@Override
+	public void destroy() throws Exception
+	{
+		cleanupExecutor.shutdownNow();
+
+		// running exports are aborted, partial output files deleted on next start
+		executor.shutdownNow();
+		try
+		{
+			if (!executor.awaitTermination(60, TimeUnit.SECONDS))
+				logger.warn("Bulk export executor did not terminate");
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public BulkExportJob start(Identity identity, String request, Map<String, DbSearchQuery> queriesByResourceType)
+	{
+		Objects.requireNonNull(identity, "identity");
+		Objects.requireNonNull(request, "request");
+		Objects.requireNonNull(queriesByResourceType, "queriesByResourceType");
+		if (queriesByResourceType.isEmpty())
+			throw new IllegalArgumentException("queriesByResourceType empty");
+
+		BulkExportJob job = new BulkExportJob(UUID.randomUUID().toString(), identity.getName(), Instant.now(), request,
+				new ArrayList<>(queriesByResourceType.keySet()));
+		jobs.put(job.getId(), job);
+
+		job.setFuture(executor.submit(() -> export(job, queriesByResourceType)));
+
+		logger.info("Bulk export {} of {} accepted for identity '{}'", job.getId(), job.getResourceTypes(),
+				identity.getName());
+
+		return job;
+	}
+
+	private void export(BulkExportJob job, Map<String, DbSearchQuery> queriesByResourceType)
+	{
+		Path jobDirectory = exportDirectory.resolve(job.getId());
+
+		try
+		{
+			Files.createDirectories(jobDirectory);
+
+			for (Entry<String, DbSearchQuery> entry : queriesByResourceType.entrySet())
+			{
+				String resourceType = entry.getKey();
+				ResourceDao<?> dao = daoProvider.getDao(resourceType).orElseThrow(
+						() -> new IllegalArgumentException("Resource type " + resourceType + " not supported"));
+
+				job.started(resourceType);
+
+				String fileName = resourceType + FILE_SUFFIX;
+				long start = System.nanoTime();
+				long count;
+
+				try (Writer writer = Files.newBufferedWriter(jobDirectory.resolve(fileName), StandardCharsets.UTF_8))
+				{
+					count = dao.export(entry.getValue(), json -> write(job, writer, json));
+				}
+
+				job.exported(new Output(resourceType, fileName, count));
+
+				long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+				logger.info("Bulk export {}: {} {} resources exported in {} ms, {} resources/s", job.getId(), count,
+						resourceType, millis, count * 1000 / millis);
+			}
+
+			job.completed();
+
+			logger.info("Bulk export {} completed, {} resources exported", job.getId(), job.getExportedResources());
+		}
+		catch (CancellationException e)
+		{
+			deleteDirectoryQuietly(jobDirectory);
+
+			logger.info("Bulk export {} cancelled", job.getId());
+		}
+		catch (SQLException | IOException | RuntimeException e)
+		{
+			// failed and cancelled jobs do not provide partial results
+			deleteDirectoryQuietly(jobDirectory);
+
+			if (!jobs.containsKey(job.getId()))
+				logger.info("Bulk export {} cancelled", job.getId());
+			else
+			{
+				logger.warn("Bulk export {} failed: {} - {}", job.getId(), e.getClass().getName(), e.getMessage());
+				job.failed("Export of " + job.getCurrentResourceType().orElse("resources") + " failed");
+			}
+		}
+	}
+
+	private void write(BulkExportJob job, Writer writer, String json)
+	{
+		if (Thread.currentThread().isInterrupted())
+			throw new CancellationException();
+
+		try
+		{
+			writer.write(json);
+			writer.write('\n');
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+
+		job.resourceExported();
+	}
+
+	private void deleteExpiredJobs()
+	{
+		Instant expired = Instant.now().minus(retention);
+
+		List<BulkExportJob> expiredJobs = jobs.values().stream()
+				.filter(j -> j.getFinished().map(f -> f.isBefore(expired)).orElse(false)).toList();
+
+		for (BulkExportJob job : expiredJobs)
+		{
+			logger.debug("Deleting expired bulk export {}", job.getId());
+
+			jobs.remove(job.getId());
+			deleteDirectoryQuietly(exportDirectory.resolve(job.getId()));
+		}
+	}
+
+	@Override
+	public Optional<BulkExportJob> getJob(Identity identity, String jobId)
+	{
+		Objects.requireNonNull(identity, "identity");
+
+		if (jobId == null)
+			return Optional.empty();
+
+		return Optional.ofNullable(jobs.get(jobId)).filter(j -> j.getIdentityName().equals(identity.getName()));
+	}
+
+	@Override
+	public boolean deleteJob(Identity identity, String jobId)
+	{
+		Optional<BulkExportJob> job = getJob(identity, jobId);
+		if (job.isEmpty() || !jobs.remove(jobId, job.get()))
+			return false;
+
+		logger.info("Bulk export {} deleted by identity '{}'", jobId, identity.getName());
+
+		// output files of running jobs deleted by the export thread
+		if (job.get().isFinished())
+			deleteDirectoryQuietly(exportDirectory.resolve(jobId));
+		else
+			job.get().cancel();
+
+		return true;
+	}
+
+	@Override
+	public Optional<Path> getOutputFile(Identity identity, String jobId, String fileName)
+	{
+		if (fileName == null)
+			return Optional.empty();
+
+		return getJob(identity, jobId).filter(j -> BulkExportJob.Status.COMPLETED.equals(j.getStatus()))
+				.flatMap(j -> j.getOutputs().stream().filter(o -> o.getFileName().equals(fileName)).findFirst()
+						.map(o -> exportDirectory.resolve(j.getId()).resolve(o.getFileName())))
+				.filter(Files::isReadable);
+	}
+
+	private void deleteDirectoryQuietly(Path directory)
+	{
+		try
+		{
+			deleteDirectory(directory);
+		}
+		catch (IOException e)
+		{
+			logger.warn("Unable to delete bulk export directory {}: {} - {}", directory, e.getClass().getName(),
+					e.getMessage());
+		}
+	}
+
+	private static void deleteDirectory(Path directory) throws IOException
+	{
+		if (!Files.exists(directory))
+			return;
+
+		try (Stream<Path> paths = Files.walk(directory))
+		{
+			for (Path path : paths.sorted(Comparator.reverseOrder()).toList())
+				Files.delete(path);
+		}
+	}
+}
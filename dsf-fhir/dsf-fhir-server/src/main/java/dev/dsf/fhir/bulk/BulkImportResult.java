@@ -0,0 +1,74 @@
+package dev.dsf.fhir.bulk;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Result of a bulk import. Batches are committed individually, resources of batches before a failed batch stay
+ * imported.
+ */
+public class BulkImportResult
+{
+	private final Map<String, Long> importedByResourceType;
+	private final Integer failedLine;
+	private final Response error;
+
+	/**
+	 * @param importedByResourceType
+	 *            not <code>null</code>
+	 * @param failedLine
+	 *            may be <code>null</code>, one based line number
+	 * @param error
+	 *            may be <code>null</code>, not <code>null</code> if <b>failedLine</b> is not <code>null</code>
+	 */
+	public BulkImportResult(Map<String, Long> importedByResourceType, Integer failedLine, Response error)
+	{
+		Objects.requireNonNull(importedByResourceType, "importedByResourceType");
+		if (failedLine != null)
+			Objects.requireNonNull(error, "error");
+
+		this.importedByResourceType = Collections.unmodifiableMap(new LinkedHashMap<>(importedByResourceType));
+		this.failedLine = failedLine;
+		this.error = error;
+	}
+
+	/**
+	 * @return resource type names and number of imported resources in order of first occurrence
+	 */
+	public Map<String, Long> getImportedByResourceType()
+	{
+		return importedByResourceType;
+	}
+
+	public long getImported()
+	{
+		return importedByResourceType.values().stream().mapToLong(Long::longValue).sum();
+	}
+
+	/**
+	 * @return one based line number of the resource that caused the import to stop, {@link Optional#empty()} if all
+	 *         resources were imported
+	 */
+	public Optional<Integer> getFailedLine()
+	{
+		return Optional.ofNullable(failedLine);
+	}
+
+	/**
+	 * @return error response of the failed line, entity typically an {@link org.hl7.fhir.r4.model.OperationOutcome}
+	 */
+	public Optional<Response> getError()
+	{
+		return Optional.ofNullable(error);
+	}
+
+	public boolean isFailed()
+	{
+		return failedLine != null;
+	}
+}
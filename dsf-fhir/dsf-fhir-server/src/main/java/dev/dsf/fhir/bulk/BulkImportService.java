@@ -0,0 +1,24 @@
+package dev.dsf.fhir.bulk;
+
+import java.io.Reader;
+
+import dev.dsf.common.auth.conf.Identity;
+
+public interface BulkImportService
+{
+	/**
+	 * Creates one resource per non blank NDJSON line with server assigned ids. Lines are processed in batches, each
+	 * batch is parsed and validated in parallel, references are checked with one query per target resource type and the
+	 * resources are committed together. Create authorization rules are evaluated for every resource in line order and
+	 * see all previous resources of the batch, created events are published once per batch.
+	 * <p>
+	 * Processing stops at the first line that can not be imported, the batch containing the line is rolled back.
+	 *
+	 * @param identity
+	 *            not <code>null</code>
+	 * @param ndjson
+	 *            not <code>null</code>, not closed by this method
+	 * @return import result
+	 */
+	BulkImportResult importResources(Identity identity, Reader ndjson);
+}
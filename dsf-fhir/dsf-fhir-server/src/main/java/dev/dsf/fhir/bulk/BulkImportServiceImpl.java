@@ -0,0 +1,549 @@
+package dev.dsf.fhir.bulk;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.hl7.fhir.r4.model.ActivityDefinition;
+import org.hl7.fhir.r4.model.CodeSystem;
+import org.hl7.fhir.r4.model.Endpoint;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.NamingSystem;
+import org.hl7.fhir.r4.model.OperationOutcome;
+import org.hl7.fhir.r4.model.OperationOutcome.IssueSeverity;
+import org.hl7.fhir.r4.model.OperationOutcome.IssueType;
+import org.hl7.fhir.r4.model.Organization;
+import org.hl7.fhir.r4.model.OrganizationAffiliation;
+import org.hl7.fhir.r4.model.Resource;
+import org.hl7.fhir.r4.model.StructureDefinition;
+import org.hl7.fhir.r4.model.Subscription;
+import org.hl7.fhir.r4.model.ValueSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.DataFormatException;
+import ca.uhn.fhir.parser.IParser;
+import dev.dsf.common.auth.conf.Identity;
+import dev.dsf.fhir.dao.ResourceDao;
+import dev.dsf.fhir.dao.command.AuthorizationHelper;
+import dev.dsf.fhir.dao.command.ReferencesHelper;
+import dev.dsf.fhir.dao.command.ReferencesHelperImpl;
+import dev.dsf.fhir.dao.command.ValidationHelper;
+import dev.dsf.fhir.dao.provider.DaoProvider;
+import dev.dsf.fhir.event.Event;
+import dev.dsf.fhir.event.EventGenerator;
+import dev.dsf.fhir.event.EventHandler;
+import dev.dsf.fhir.help.ResponseGenerator;
+import dev.dsf.fhir.service.ReferenceCheckCache;
+import dev.dsf.fhir.service.ReferenceCleaner;
+import dev.dsf.fhir.service.ReferenceExtractor;
+import dev.dsf.fhir.service.ReferenceResolver;
+import dev.dsf.fhir.service.ResourceReference;
+import dev.dsf.fhir.service.ResourceReference.ReferenceType;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Response.Status;
+
+public class BulkImportServiceImpl implements BulkImportService, InitializingBean, DisposableBean
+{
+	private static final Logger logger = LoggerFactory.getLogger(BulkImportServiceImpl.class);
+
+	private static final Map<String, IdType> NO_TEMPORARY_IDS = Map.of();
+
+	/**
+	 * Resource types searched by create authorization rules for unique criteria, organizations, roles and process
+	 * definitions
+	 */
+	private static final Set<Class<? extends Resource>> READ_BY_CREATE_RULES = Set.of(ActivityDefinition.class,
+			CodeSystem.class, Endpoint.class, NamingSystem.class, Organization.class, OrganizationAffiliation.class,
+			Subscription.class, ValueSet.class);
+
+	/**
+	 * Reference types rewritten by
+	 * {@link ReferencesHelper#resolveTemporaryAndConditionalReferencesOrLiteralInternalRelatedArtifactOrAttachmentUrls(Map, Connection)}
+	 */
+	private static final EnumSet<ReferenceType> RESOLVED_TYPES = EnumSet.of(ReferenceType.TEMPORARY,
+			ReferenceType.CONDITIONAL, ReferenceType.RELATED_ARTEFACT_TEMPORARY_URL,
+			ReferenceType.RELATED_ARTEFACT_CONDITIONAL_URL, ReferenceType.RELATED_ARTEFACT_LITERAL_INTERNAL_URL,
+			ReferenceType.ATTACHMENT_TEMPORARY_URL, ReferenceType.ATTACHMENT_CONDITIONAL_URL,
+			ReferenceType.ATTACHMENT_LITERAL_INTERNAL_URL);
+
+	private static final EnumSet<ReferenceType> EXTERNAL_TYPES = EnumSet.of(ReferenceType.LITERAL_EXTERNAL,
+			ReferenceType.RELATED_ARTEFACT_LITERAL_EXTERNAL_URL, ReferenceType.ATTACHMENT_LITERAL_EXTERNAL_URL);
+
+	private static final class Entry
+	{
+		final int line;
+		final String json;
+
+		Resource resource;
+		List<ResourceReference> references;
+		boolean validated;
+
+		Entry(int line, String json)
+		{
+			this.line = line;
+			this.json = json;
+		}
+
+		int getIndex()
+		{
+			return line - 1;
+		}
+	}
+
+	private static final class ImportFailedException extends RuntimeException
+	{
+		private static final long serialVersionUID = 1L;
+
+		final int line;
+		final transient Response response;
+
+		ImportFailedException(int line, Response response)
+		{
+			this.line = line;
+			this.response = response;
+		}
+	}
+
+	private final String serverBase;
+	private final FhirContext fhirContext;
+	private final DataSource dataSource;
+	private final DaoProvider daoProvider;
+	private final ReferenceExtractor referenceExtractor;
+	private final ReferenceResolver referenceResolver;
+	private final ReferenceCleaner referenceCleaner;
+	private final ResponseGenerator responseGenerator;
+	private final AuthorizationHelper authorizationHelper;
+	private final ValidationHelper validationHelper;
+	private final EventGenerator eventGenerator;
+	private final EventHandler eventHandler;
+	private final int batchSize;
+	private final int threads;
+
+	private ExecutorService executor;
+
+	/**
+	 * @param serverBase
+	 *            not <code>null</code>
+	 * @param fhirContext
+	 *            not <code>null</code>
+	 * @param dataSource
+	 *            not <code>null</code>
+	 * @param daoProvider
+	 *            not <code>null</code>
+	 * @param referenceExtractor
+	 *            not <code>null</code>
+	 * @param referenceResolver
+	 *            not <code>null</code>
+	 * @param referenceCleaner
+	 *            not <code>null</code>
+	 * @param responseGenerator
+	 *            not <code>null</code>
+	 * @param authorizationHelper
+	 *            not <code>null</code>
+	 * @param validationHelper
+	 *            not <code>null</code>, needs to be thread safe
+	 * @param eventGenerator
+	 *            not <code>null</code>
+	 * @param eventHandler
+	 *            not <code>null</code>
+	 * @param batchSize
+	 *            <code>&gt; 0</code>, number of resources inserted and committed together
+	 * @param threads
+	 *            <code>&gt; 0</code>, number of threads used to parse and validate resources of a batch, shared by all
+	 *            imports
+	 */
+	public BulkImportServiceImpl(String serverBase, FhirContext fhirContext, DataSource dataSource,
+			DaoProvider daoProvider, ReferenceExtractor referenceExtractor, ReferenceResolver referenceResolver,
+			ReferenceCleaner referenceCleaner, ResponseGenerator responseGenerator,
+			AuthorizationHelper authorizationHelper, ValidationHelper validationHelper, EventGenerator eventGenerator,
+			EventHandler eventHandler, int batchSize, int threads)
+	{
+		this.serverBase = serverBase;
+		this.fhirContext = fhirContext;
+		this.dataSource = dataSource;
+		this.daoProvider = daoProvider;
+		this.referenceExtractor = referenceExtractor;
+		this.referenceResolver = referenceResolver;
+		this.referenceCleaner = referenceCleaner;
+		this.responseGenerator = responseGenerator;
+		this.authorizationHelper = authorizationHelper;
+		this.validationHelper = validationHelper;
+		this.eventGenerator = eventGenerator;
+		this.eventHandler = eventHandler;
+		this.batchSize = batchSize;
+		this.threads = threads;
+	}
+
+	@Override
+	public void afterPropertiesSet() throws Exception
+	{
+		Objects.requireNonNull(serverBase, "serverBase");
+		Objects.requireNonNull(fhirContext, "fhirContext");
+		Objects.requireNonNull(dataSource, "dataSource");
+		Objects.requireNonNull(daoProvider, "daoProvider");
+		Objects.requireNonNull(referenceExtractor, "referenceExtractor");
+		Objects.requireNonNull(referenceResolver, "referenceResolver");
+		Objects.requireNonNull(referenceCleaner, "referenceCleaner");
+		Objects.requireNonNull(responseGenerator, "responseGenerator");
+		Objects.requireNonNull(authorizationHelper, "authorizationHelper");
+		Objects.requireNonNull(validationHelper, "validationHelper");
+		Objects.requireNonNull(eventGenerator, "eventGenerator");
+		Objects.requireNonNull(eventHandler, "eventHandler");
+		if (batchSize <= 0)
+			throw new IllegalArgumentException("batchSize <= 0");
+		if (threads <= 0)
+			throw new IllegalArgumentException("threads <= 0");
+
+		executor = Executors.newFixedThreadPool(threads);
+	}
+
+	@Override
+	public void destroy() throws Exception
+	{
+		executor.shutdownNow();
+		try
+		{
+			if (!executor.awaitTermination(60, TimeUnit.SECONDS))
+				logger.warn("Bulk import executor did not terminate");
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public BulkImportResult importResources(Identity identity, Reader ndjson)
+	{
+		Objects.requireNonNull(identity, "identity");
+		Objects.requireNonNull(ndjson, "ndjson");
+
+		Map<String, Long> imported = new LinkedHashMap<>();
+		List<Entry> batch = new ArrayList<>(batchSize);
+		int line = 0;
+
+		long start = System.nanoTime();
+
+		try
+		{
+			BufferedReader reader = ndjson instanceof BufferedReader b ? b : new BufferedReader(ndjson);
+
+			String json;
+			while ((json = reader.readLine()) != null)
+			{
+				line++;
+				if (json.isBlank())
+					continue;
+
+				batch.add(new Entry(line, json));
+
+				if (batch.size() >= batchSize)
+				{
+					importBatch(identity, batch, imported);
+					batch.clear();
+				}
+			}
+
+			if (!batch.isEmpty())
+				importBatch(identity, batch, imported);
+		}
+		catch (IOException e)
+		{
+			logger.warn("Bulk import for identity '{}' failed, unable to read line {}: {} - {}", identity.getName(),
+					line + 1, e.getClass().getName(), e.getMessage());
+
+			return new BulkImportResult(imported, line + 1, badRequest(line + 1, "Unable to read line"));
+		}
+		catch (ImportFailedException e)
+		{
+			logger.warn("Bulk import for identity '{}' stopped at line {}, {} resources imported", identity.getName(),
+					e.line, imported.values().stream().mapToLong(Long::longValue).sum());
+
+			return new BulkImportResult(imported, e.line, e.response);
+		}
+
+		long count = imported.values().stream().mapToLong(Long::longValue).sum();
+		long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+		logger.info("Bulk import for identity '{}': {} resources imported in {} ms, {} resources/s", identity.getName(),
+				count, millis, count * 1000 / millis);
+
+		return new BulkImportResult(imported, null, null);
+	}
+
+	private void importBatch(Identity identity, List<Entry> batch, Map<String, Long> imported)
+	{
+		inParallel(batch, this::parse);
+
+		List<Resource> created = createAll(identity, batch);
+
+		// events of a batch published together after commit, like events of a transaction bundle
+		List<Event> events = new ArrayList<>(created.size());
+		for (Resource resource : created)
+		{
+			referenceCleaner.cleanLiteralReferences(resource);
+			events.add(eventGenerator.newResourceCreatedEvent(resource));
+			imported.merge(resource.getResourceType().name(), 1L, Long::sum);
+		}
+
+		try
+		{
+			eventHandler.handleEvents(events);
+		}
+		catch (Exception e)
+		{
+			logger.warn("Error while handling resource created events", e);
+		}
+
+		logger.debug("Bulk import batch of lines {} to {} committed", batch.get(0).line,
+				batch.get(batch.size() - 1).line);
+	}
+
+	private void parse(Entry entry)
+	{
+		IParser parser = fhirContext.newJsonParser();
+
+		Resource resource;
+		try
+		{
+			resource = (Resource) parser.parseResource(entry.json);
+		}
+		catch (DataFormatException | ClassCastException e)
+		{
+			throw new ImportFailedException(entry.line,
+					badRequest(entry.line, "Unable to parse resource: " + e.getMessage()));
+		}
+
+		if (resource instanceof StructureDefinition)
+			throw new ImportFailedException(entry.line,
+					badRequest(entry.line, "Resource type StructureDefinition not supported, use transaction bundle"));
+		else if (daoProvider.getDao(resource.getClass()).isEmpty())
+			throw new ImportFailedException(entry.line,
+					badRequest(entry.line, "Resource type " + resource.fhirType() + " not supported"));
+
+		entry.resource = resource;
+	}
+
+	private List<Resource> createAll(Identity identity, List<Entry> batch)
+	{
+		try (Connection connection = dataSource.getConnection())
+		{
+			connection.setReadOnly(false);
+			connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+			connection.setAutoCommit(false);
+
+			try
+			{
+				List<Resource> created = createAll(identity, batch, connection);
+
+				connection.commit();
+
+				return created;
+			}
+			catch (Exception e)
+			{
+				connection.rollback();
+				throw e;
+			}
+		}
+		catch (SQLException e)
+		{
+			logger.warn("Bulk import of lines {} to {} failed: {} - {}", batch.get(0).line,
+					batch.get(batch.size() - 1).line, e.getClass().getName(), e.getMessage());
+
+			OperationOutcome outcome = responseGenerator.createOutcome(IssueSeverity.ERROR, IssueType.EXCEPTION,
+					"Import of lines " + batch.get(0).line + " to " + batch.get(batch.size() - 1).line + " failed");
+			throw new ImportFailedException(batch.get(0).line,
+					Response.status(Status.INTERNAL_SERVER_ERROR).entity(outcome).build());
+		}
+	}
+
+	private List<Resource> createAll(Identity identity, List<Entry> batch, Connection connection) throws SQLException
+	{
+		// literal internal references of the whole batch checked with one query per target resource type
+		ReferenceCheckCache referenceCheckCache = new ReferenceCheckCache(
+				() -> batch.stream().map(e -> e.resource).flatMap(referenceExtractor::getReferences));
+
+		batch.forEach(e -> e.references = referenceExtractor.getReferences(e.resource).toList());
+
+		// resources not modified by reference resolution validated in parallel up front
+		List<Entry> unresolved = batch.stream()
+				.filter(e -> e.references.stream().noneMatch(r -> RESOLVED_TYPES.contains(r.getType(serverBase))))
+				.toList();
+		inParallel(unresolved, e -> validationHelper.checkResourceValidForCreate(identity, e.resource));
+		unresolved.forEach(e -> e.validated = true);
+
+		// create rules are evaluated right before each insert, like CreateCommand, so that rule queries see all
+		// previous resources of the batch: resource types read by create rules are inserted immediately, pending
+		// inserts of other types are flushed before a resource that could reference them is processed
+		Map<Class<? extends Resource>, List<Entry>> pending = new LinkedHashMap<>();
+		List<Resource> created = new ArrayList<>(batch.size());
+
+		for (Entry entry : batch)
+		{
+			if (!pending.isEmpty() && entry.references.stream().anyMatch(r -> mayTarget(r, pending.keySet())))
+				flush(connection, pending, created);
+
+			try
+			{
+				ReferencesHelper<Resource> referencesHelper = referencesHelper(identity, entry);
+				referencesHelper
+						.resolveTemporaryAndConditionalReferencesOrLiteralInternalRelatedArtifactOrAttachmentUrls(
+								NO_TEMPORARY_IDS, connection);
+
+				if (!entry.validated)
+					validationHelper.checkResourceValidForCreate(identity, entry.resource);
+
+				referencesHelper.resolveLogicalReferences(connection);
+				authorizationHelper.checkCreateAllowed(entry.getIndex(), connection, identity, entry.resource);
+			}
+			catch (WebApplicationException e)
+			{
+				throw new ImportFailedException(entry.line, e.getResponse());
+			}
+
+			if (READ_BY_CREATE_RULES.contains(entry.resource.getClass()))
+				created.add(create(connection, entry));
+			else
+				pending.computeIfAbsent(entry.resource.getClass(), k -> new ArrayList<>()).add(entry);
+		}
+
+		flush(connection, pending, created);
+
+		forEach(batch, e -> referencesHelper(identity, e).checkReferences(NO_TEMPORARY_IDS, connection, ref -> true,
+				referenceCheckCache));
+
+		return created;
+	}
+
+	private boolean mayTarget(ResourceReference reference, Set<Class<? extends Resource>> types)
+	{
+		if (EXTERNAL_TYPES.contains(reference.getType(serverBase)))
+			return false;
+		else if (reference.hasReference() && reference.getReference().hasType())
+			return types.stream().anyMatch(t -> t.getSimpleName().equals(reference.getReference().getType()));
+		else
+			return reference.getReferenceTypes().isEmpty() || types.stream().anyMatch(reference::supportsType);
+	}
+
+	private void flush(Connection connection, Map<Class<? extends Resource>, List<Entry>> pending,
+			List<Resource> created) throws SQLException
+	{
+		for (List<Entry> entries : pending.values())
+			created.addAll(createAll(connection, entries));
+
+		pending.clear();
+	}
+
+	@SuppressWarnings("unchecked")
+	private <R extends Resource> List<R> createAll(Connection connection, List<Entry> entries) throws SQLException
+	{
+		ResourceDao<R> dao = (ResourceDao<R>) daoProvider.getDao(entries.get(0).resource.getClass()).get();
+
+		return dao.createAllWithTransaction(connection, entries.stream().map(e -> (R) e.resource).toList());
+	}
+
+	@SuppressWarnings("unchecked")
+	private <R extends Resource> R create(Connection connection, Entry entry) throws SQLException
+	{
+		ResourceDao<R> dao = (ResourceDao<R>) daoProvider.getDao(entry.resource.getClass()).get();
+
+		return dao.createWithTransactionAndId(connection, (R) entry.resource, UUID.randomUUID());
+	}
+
+	private ReferencesHelper<Resource> referencesHelper(Identity identity, Entry entry)
+	{
+		return new ReferencesHelperImpl<>(entry.getIndex(), identity, entry.resource, serverBase, referenceExtractor,
+				referenceResolver, responseGenerator);
+	}
+
+	private void forEach(List<Entry> batch, Consumer<Entry> action)
+	{
+		for (Entry entry : batch)
+		{
+			try
+			{
+				action.accept(entry);
+			}
+			catch (WebApplicationException e)
+			{
+				throw new ImportFailedException(entry.line, e.getResponse());
+			}
+		}
+	}
+
+	private void inParallel(List<Entry> batch, Consumer<Entry> action)
+	{
+		List<Future<?>> futures = batch.stream().map(e -> executor.submit(() -> action.accept(e)))
+				.collect(Collectors.toList());
+
+		try
+		{
+			for (int i = 0; i < futures.size(); i++)
+			{
+				try
+				{
+					futures.get(i).get();
+				}
+				catch (ExecutionException e)
+				{
+					if (e.getCause() instanceof ImportFailedException f)
+						throw f;
+					else if (e.getCause() instanceof WebApplicationException w)
+						throw new ImportFailedException(batch.get(i).line, w.getResponse());
+
+					logger.warn("Bulk import of line {} failed: {} - {}", batch.get(i).line,
+							e.getCause().getClass().getName(), e.getCause().getMessage());
+
+					OperationOutcome outcome = responseGenerator.createOutcome(IssueSeverity.ERROR, IssueType.EXCEPTION,
+							"Import of line " + batch.get(i).line + " failed");
+					throw new ImportFailedException(batch.get(i).line,
+							Response.status(Status.INTERNAL_SERVER_ERROR).entity(outcome).build());
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+
+			OperationOutcome outcome = responseGenerator.createOutcome(IssueSeverity.ERROR, IssueType.EXCEPTION,
+					"Import interrupted");
+			throw new ImportFailedException(batch.get(0).line,
+					Response.status(Status.SERVICE_UNAVAILABLE).entity(outcome).build());
+		}
+		finally
+		{
+			futures.forEach(f -> f.cancel(true));
+		}
+	}
+
+	private Response badRequest(int line, String diagnostics)
+	{
+		OperationOutcome outcome = responseGenerator.createOutcome(IssueSeverity.ERROR, IssueType.STRUCTURE,
+				"Line " + line + ": " + diagnostics);
+		return Response.status(Status.BAD_REQUEST).entity(outcome).build();
+	}
+}
@@ -1,6 +1,5 @@
 package dev.dsf.fhir.client;
 
-import java.security.KeyStore;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -20,9 +19,7 @@ public class ClientProviderImpl implements ClientProvider, InitializingBean
 	private static final Logger logger = LoggerFactory.getLogger(ClientProviderImpl.class);
 	private static final String USER_AGENT_VALUE = "DSF/";
 
-	private final KeyStore webserviceTrustStore;
-	private final KeyStore webserviceKeyStore;
-	private final char[] webserviceKeyStorePassword;
+	private final ClientConnectionPool webserviceConnectionPool;
 
 	private final int remoteReadTimeout;
 	private final int remoteConnectTimeout;
@@ -34,14 +31,12 @@ public class ClientProviderImpl implements ClientProvider, InitializingBean
 	private final ExceptionHandler exceptionHandler;
 	private final BuildInfoReader buildInfoReader;
 
-	public ClientProviderImpl(KeyStore webserviceTrustStore, KeyStore webserviceKeyStore,
-			char[] webserviceKeyStorePassword, int remoteReadTimeout, int remoteConnectTimeout, ProxyConfig proxyConfig,
-			boolean logRequests, FhirContext fhirContext, ReferenceCleaner referenceCleaner, EndpointDao endpointDao,
-			ExceptionHandler exceptionHandler, BuildInfoReader buildInfoReader)
+	public ClientProviderImpl(ClientConnectionPool webserviceConnectionPool, int remoteReadTimeout,
+			int remoteConnectTimeout, ProxyConfig proxyConfig, boolean logRequests, FhirContext fhirContext,
+			ReferenceCleaner referenceCleaner, EndpointDao endpointDao, ExceptionHandler exceptionHandler,
+			BuildInfoReader buildInfoReader)
 	{
-		this.webserviceTrustStore = webserviceTrustStore;
-		this.webserviceKeyStore = webserviceKeyStore;
-		this.webserviceKeyStorePassword = webserviceKeyStorePassword;
+		this.webserviceConnectionPool = webserviceConnectionPool;
 		this.remoteReadTimeout = remoteReadTimeout;
 		this.remoteConnectTimeout = remoteConnectTimeout;
 		this.proxyConfig = proxyConfig;
@@ -56,9 +51,7 @@ public class ClientProviderImpl implements ClientProvider, InitializingBean
 	@Override
 	public void afterPropertiesSet() throws Exception
 	{
-		Objects.requireNonNull(webserviceTrustStore, "webserviceTrustStore");
-		Objects.requireNonNull(webserviceKeyStore, "webserviceKeyStore");
-		Objects.requireNonNull(webserviceKeyStorePassword, "webserviceKeyStorePassword");
+		Objects.requireNonNull(webserviceConnectionPool, "webserviceConnectionPool");
 		Objects.requireNonNull(proxyConfig, "proxyConfig");
 		Objects.requireNonNull(fhirContext, "fhirContext");
 		Objects.requireNonNull(referenceCleaner, "referenceCleaner");
@@ -76,9 +69,8 @@ public class ClientProviderImpl implements ClientProvider, InitializingBean
 			String proxyUsername = proxyConfig.isEnabled(serverBase) ? proxyConfig.getUsername() : null;
 			char[] proxyPassword = proxyConfig.isEnabled(serverBase) ? proxyConfig.getPassword() : null;
 
-			FhirWebserviceClient client = new FhirWebserviceClientJersey(serverBase, webserviceTrustStore,
-					webserviceKeyStore, webserviceKeyStorePassword, null, proxyUrl, proxyUsername, proxyPassword,
-					remoteConnectTimeout, remoteReadTimeout, logRequests,
+			FhirWebserviceClient client = new FhirWebserviceClientJersey(serverBase, webserviceConnectionPool, null,
+					proxyUrl, proxyUsername, proxyPassword, remoteConnectTimeout, remoteReadTimeout, logRequests,
 					USER_AGENT_VALUE + buildInfoReader.getProjectVersion(), fhirContext, referenceCleaner);
 
 			return Optional.of(client);
@@ -2,6 +2,8 @@ package dev.dsf.fhir.dao;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 import org.hl7.fhir.r4.model.DomainResource;
@@ -16,4 +18,27 @@ public interface ReadByUrlDao<R extends DomainResource>
 
 	Optional<R> readByUrlAndVersionWithTransaction(Connection connection, String url, String version)
 			throws SQLException;
+
+	/**
+	 * @param urlAndVersions
+	 *            not <code>null</code>, url|version or url values
+	 * @return resources by requested url|version or url value, values without a matching resource are not contained in
+	 *         the returned map
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	Map<String, R> readByUrlAndVersions(Collection<String> urlAndVersions) throws SQLException;
+
+	/**
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param urlAndVersions
+	 *            not <code>null</code>, url|version or url values
+	 * @return resources by requested url|version or url value, values without a matching resource are not contained in
+	 *         the returned map
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	Map<String, R> readByUrlAndVersionsWithTransaction(Connection connection, Collection<String> urlAndVersions)
+			throws SQLException;
 }
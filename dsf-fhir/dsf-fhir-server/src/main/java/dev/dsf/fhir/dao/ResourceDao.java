@@ -2,9 +2,12 @@ package dev.dsf.fhir.dao;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import org.hl7.fhir.r4.model.Resource;
 
@@ -63,6 +66,21 @@ public interface ResourceDao<R extends Resource>
 	 */
 	R createWithTransactionAndId(Connection connection, R resource, UUID uuid) throws SQLException;
 
+	/**
+	 * Inserts all given resources using a single JDBC batch, ids are generated.
+	 *
+	 * @param connection
+	 *            not <code>null</code>, not {@link Connection#isReadOnly()}
+	 * @param resources
+	 *            not <code>null</code>
+	 * @return the stored resources in the order of the given resources, not the same objects as the given resources
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @throws IllegalArgumentException
+	 *             if the given connection is {@link Connection#isReadOnly()}
+	 */
+	List<R> createAllWithTransaction(Connection connection, List<R> resources) throws SQLException;
+
 	/**
 	 * @param uuid
 	 *            may be <code>null</code>
@@ -185,6 +203,18 @@ public interface ResourceDao<R extends Resource>
 	 */
 	boolean existsNotDeletedWithTransaction(Connection connection, String id, String version) throws SQLException;
 
+	/**
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param ids
+	 *            not <code>null</code>
+	 * @return ids from the given <b>ids</b> where the latest version of the resource exists and is not marked as
+	 *         deleted, one database query for all given <b>ids</b>
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	Set<UUID> existsNotDeletedWithTransaction(Connection connection, Collection<UUID> ids) throws SQLException;
+
 	/**
 	 * Sets the version of the stored resource to latest version from DB plus 1.
 	 *
@@ -344,6 +374,38 @@ public interface ResourceDao<R extends Resource>
 	 */
 	PartialResult<R> search(DbSearchQuery query) throws SQLException;
 
+	/**
+	 * Same as {@link #search(DbSearchQuery)}, but resources of {@link PartialResult#getPartialResult()} may be parsed
+	 * from the database only when accessed and are not retained by the returned list. Intended for search results that
+	 * are iterated once while writing the response. The json of all resources of the requested page is read from the
+	 * database before this method returns, only parsing is deferred.
+	 *
+	 * @param query
+	 *            not <code>null</code>
+	 * @return {@link PartialResult} that matched the search query
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	default PartialResult<R> searchLazy(DbSearchQuery query) throws SQLException
+	{
+		return search(query);
+	}
+
+	/**
+	 * Streams all resources matching the given query via a database cursor, sort and paging parameters of the query are
+	 * ignored. Resources are given to the consumer as single line json strings while the statement is executed, the
+	 * consumer should not block.
+	 *
+	 * @param query
+	 *            not <code>null</code>
+	 * @param jsonConsumer
+	 *            not <code>null</code>, unchecked exceptions thrown by the consumer abort the export
+	 * @return number of exported resources
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	long export(DbSearchQuery query, Consumer<String> jsonConsumer) throws SQLException;
+
 	/**
 	 * @param connection
 	 *            not <code>null</code>
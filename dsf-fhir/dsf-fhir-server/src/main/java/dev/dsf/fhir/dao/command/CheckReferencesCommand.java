@@ -21,6 +21,7 @@ import dev.dsf.fhir.help.ExceptionHandler;
 import dev.dsf.fhir.help.ParameterConverter;
 import dev.dsf.fhir.help.ResponseGenerator;
 import dev.dsf.fhir.prefer.PreferReturnType;
+import dev.dsf.fhir.service.ReferenceCheckCache;
 import dev.dsf.fhir.service.ReferenceExtractor;
 import dev.dsf.fhir.service.ReferenceResolver;
 import dev.dsf.fhir.service.ResourceReference;
@@ -34,17 +35,19 @@ public class CheckReferencesCommand<R extends Resource, D extends ResourceDao<R>
 	private static final Logger logger = LoggerFactory.getLogger(CheckReferencesCommand.class);
 
 	private final HTTPVerb verb;
+	private final ReferenceCheckCache referenceCheckCache;
 
 	public CheckReferencesCommand(int index, Identity identity, PreferReturnType returnType, Bundle bundle,
 			BundleEntryComponent entry, String serverBase, AuthorizationHelper authorizationHelper, R resource,
 			HTTPVerb verb, D dao, ExceptionHandler exceptionHandler, ParameterConverter parameterConverter,
 			ResponseGenerator responseGenerator, ReferenceExtractor referenceExtractor,
-			ReferenceResolver referenceResolver)
+			ReferenceResolver referenceResolver, ReferenceCheckCache referenceCheckCache)
 	{
 		super(4, index, identity, returnType, bundle, entry, serverBase, authorizationHelper, resource, dao,
 				exceptionHandler, parameterConverter, responseGenerator, referenceExtractor, referenceResolver);
 
 		this.verb = verb;
+		this.referenceCheckCache = referenceCheckCache;
 	}
 
 	@Override
@@ -52,7 +55,11 @@ public class CheckReferencesCommand<R extends Resource, D extends ResourceDao<R>
 			ValidationHelper validationHelper, SnapshotGenerator snapshotGenerator)
 			throws SQLException, WebApplicationException
 	{
-		referencesHelper.checkReferences(idTranslationTable, connection, this::checkReferenceAfterUpdate);
+		if (referenceCheckCache == null)
+			referencesHelper.checkReferences(idTranslationTable, connection, this::checkReferenceAfterUpdate);
+		else
+			referencesHelper.checkReferences(idTranslationTable, connection, this::checkReferenceAfterUpdate,
+					referenceCheckCache);
 	}
 
 	// See also TaskServiceImpl#checkReferenceAfterUpdate
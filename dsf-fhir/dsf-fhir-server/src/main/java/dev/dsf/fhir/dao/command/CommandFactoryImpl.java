@@ -13,6 +13,7 @@ import javax.sql.DataSource;
 
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
+import org.hl7.fhir.r4.model.Bundle.BundleType;
 import org.hl7.fhir.r4.model.Bundle.HTTPVerb;
 import org.hl7.fhir.r4.model.Resource;
 import org.hl7.fhir.r4.model.StructureDefinition;
@@ -30,6 +31,7 @@ import dev.dsf.fhir.help.ParameterConverter;
 import dev.dsf.fhir.help.ResponseGenerator;
 import dev.dsf.fhir.prefer.PreferHandlingType;
 import dev.dsf.fhir.prefer.PreferReturnType;
+import dev.dsf.fhir.service.ReferenceCheckCache;
 import dev.dsf.fhir.service.ReferenceCleaner;
 import dev.dsf.fhir.service.ReferenceExtractor;
 import dev.dsf.fhir.service.ReferenceResolver;
@@ -202,9 +204,16 @@ public class CommandFactoryImpl implements InitializingBean, CommandFactory
 
 		if (bundle.getType() != null)
 		{
-			List<Command> commands = IntStream
-					.range(0, bundle.getEntry().size()).mapToObj(index -> createCommand(index, identity, returnType,
-							handlingType, bundle, bundle.getEntry().get(index)))
+			// reference checks run after all create, update and delete commands of a transaction, results can be
+			// shared; batch entries modify the database between checks
+			ReferenceCheckCache referenceCheckCache = BundleType.TRANSACTION.equals(bundle.getType())
+					? new ReferenceCheckCache(() -> bundle.getEntry().stream().filter(BundleEntryComponent::hasResource)
+							.map(e -> (Resource) e.getResource()).flatMap(referenceExtractor::getReferences))
+					: null;
+
+			List<Command> commands = IntStream.range(0, bundle.getEntry().size())
+					.mapToObj(index -> createCommand(index, identity, returnType, handlingType, bundle,
+							bundle.getEntry().get(index), referenceCheckCache))
 					.flatMap(Function.identity()).collect(Collectors.toList());
 
 			switch (bundle.getType())
@@ -224,7 +233,8 @@ public class CommandFactoryImpl implements InitializingBean, CommandFactory
 	}
 
 	protected Stream<Command> createCommand(int index, Identity identity, PreferReturnType returnType,
-			PreferHandlingType handlingType, Bundle bundle, BundleEntryComponent entry)
+			PreferHandlingType handlingType, Bundle bundle, BundleEntryComponent entry,
+			ReferenceCheckCache referenceCheckCache)
 	{
 		if (entry.hasRequest() && entry.getRequest().hasMethod())
 		{
@@ -250,11 +260,11 @@ public class CommandFactoryImpl implements InitializingBean, CommandFactory
 					case POST: // create
 						Command post = post(index, identity, returnType, bundle, entry, (Resource) entry.getResource());
 						return resolveReferences(post, index, identity, returnType, bundle, entry,
-								(Resource) entry.getResource(), HTTPVerb.POST);
+								(Resource) entry.getResource(), HTTPVerb.POST, referenceCheckCache);
 					case PUT: // update
 						Command put = put(index, identity, returnType, bundle, entry, (Resource) entry.getResource());
 						return resolveReferences(put, index, identity, returnType, bundle, entry,
-								(Resource) entry.getResource(), HTTPVerb.PUT);
+								(Resource) entry.getResource(), HTTPVerb.PUT, referenceCheckCache);
 					default:
 						throw new BadBundleException("Request method " + entry.getRequest().getMethod() + " at index "
 								+ index + " not supported with resource");
@@ -266,7 +276,8 @@ public class CommandFactoryImpl implements InitializingBean, CommandFactory
 	}
 
 	private <R extends Resource> Stream<Command> resolveReferences(Command cmd, int index, Identity identity,
-			PreferReturnType returnType, Bundle bundle, BundleEntryComponent entry, R resource, HTTPVerb verb)
+			PreferReturnType returnType, Bundle bundle, BundleEntryComponent entry, R resource, HTTPVerb verb,
+			ReferenceCheckCache referenceCheckCache)
 	{
 		@SuppressWarnings("unchecked")
 		Optional<? extends ResourceDao<R>> dao = (Optional<? extends ResourceDao<R>>) daoProvider
@@ -274,11 +285,10 @@ public class CommandFactoryImpl implements InitializingBean, CommandFactory
 
 		if (referenceExtractor.getReferences(resource).anyMatch(r -> true)) // at least one entry
 		{
-			return dao
-					.map(d -> Stream.of(cmd,
-							new CheckReferencesCommand<R, ResourceDao<R>>(index, identity, returnType, bundle, entry,
-									serverBase, authorizationHelper, resource, verb, d, exceptionHandler,
-									parameterConverter, responseGenerator, referenceExtractor, referenceResolver)))
+			return dao.map(d -> Stream.of(cmd,
+					new CheckReferencesCommand<R, ResourceDao<R>>(index, identity, returnType, bundle, entry,
+							serverBase, authorizationHelper, resource, verb, d, exceptionHandler, parameterConverter,
+							responseGenerator, referenceExtractor, referenceResolver, referenceCheckCache)))
 					.orElseThrow(() -> new IllegalStateException(
 							"Resource of type " + resource.getClass().getName() + " not supported"));
 		}
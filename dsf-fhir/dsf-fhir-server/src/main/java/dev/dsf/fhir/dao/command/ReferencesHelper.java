@@ -7,6 +7,7 @@ import java.util.function.Predicate;
 import org.hl7.fhir.r4.model.IdType;
 import org.hl7.fhir.r4.model.Resource;
 
+import dev.dsf.fhir.service.ReferenceCheckCache;
 import dev.dsf.fhir.service.ResourceReference;
 import jakarta.ws.rs.WebApplicationException;
 
@@ -19,4 +20,19 @@ public interface ReferencesHelper<R extends Resource>
 
 	void checkReferences(Map<String, IdType> idTranslationTable, Connection connection,
 			Predicate<ResourceReference> checkReference) throws WebApplicationException;
+
+	/**
+	 * @param idTranslationTable
+	 *            not <code>null</code>
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param checkReference
+	 *            not <code>null</code>
+	 * @param cache
+	 *            not <code>null</code>, shared by all reference checks within the same transaction
+	 * @throws WebApplicationException
+	 *             if a reference could not be resolved
+	 */
+	void checkReferences(Map<String, IdType> idTranslationTable, Connection connection,
+			Predicate<ResourceReference> checkReference, ReferenceCheckCache cache) throws WebApplicationException;
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package dev.dsf.fhir.dao.command;
 
 import java.sql.Connection;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
@@ -18,6 +19,7 @@ import org.hl7.fhir.r4.model.Type;
 
 import dev.dsf.common.auth.conf.Identity;
 import dev.dsf.fhir.help.ResponseGenerator;
+import dev.dsf.fhir.service.ReferenceCheckCache;
 import dev.dsf.fhir.service.ReferenceExtractor;
 import dev.dsf.fhir.service.ReferenceResolver;
 import dev.dsf.fhir.service.ResourceReference;
@@ -207,10 +209,20 @@ public final class ReferencesHelperImpl<R extends Resource> implements Reference
 	public void checkReferences(Map<String, IdType> idTranslationTable, Connection connection,
 			Predicate<ResourceReference> checkReference) throws WebApplicationException
 	{
+		checkReferences(idTranslationTable, connection, checkReference,
+				new ReferenceCheckCache(() -> referenceExtractor.getReferences(resource)));
+	}
+
+	@Override
+	public void checkReferences(Map<String, IdType> idTranslationTable, Connection connection,
+			Predicate<ResourceReference> checkReference, ReferenceCheckCache cache) throws WebApplicationException
+	{
+		Objects.requireNonNull(cache, "cache");
+
 		referenceExtractor.getReferences(resource).filter(checkReference)
-				.filter(ref -> referenceResolver.referenceCanBeChecked(ref, connection)).forEach(ref ->
+				.filter(ref -> referenceResolver.referenceCanBeChecked(ref, connection, cache)).forEach(ref ->
 				{
-					Optional<OperationOutcome> outcome = checkReference(idTranslationTable, connection, ref);
+					Optional<OperationOutcome> outcome = checkReference(idTranslationTable, connection, ref, cache);
 					if (outcome.isPresent())
 					{
 						Response response = Response.status(Status.FORBIDDEN).entity(outcome.get()).build();
@@ -220,7 +232,7 @@ public final class ReferencesHelperImpl<R extends Resource> implements Reference
 	}
 
 	private Optional<OperationOutcome> checkReference(Map<String, IdType> idTranslationTable, Connection connection,
-			ResourceReference reference) throws WebApplicationException
+			ResourceReference reference, ReferenceCheckCache cache) throws WebApplicationException
 	{
 		ReferenceType type = reference.getType(serverBase);
 		switch (type)
@@ -228,13 +240,13 @@ public final class ReferencesHelperImpl<R extends Resource> implements Reference
 			case LITERAL_INTERNAL:
 			case RELATED_ARTEFACT_LITERAL_INTERNAL_URL:
 			case ATTACHMENT_LITERAL_INTERNAL_URL:
-				return referenceResolver.checkLiteralInternalReference(resource, reference, connection, index);
+				return referenceResolver.checkLiteralInternalReference(resource, reference, connection, index, cache);
 			case LITERAL_EXTERNAL:
 			case RELATED_ARTEFACT_LITERAL_EXTERNAL_URL:
 			case ATTACHMENT_LITERAL_EXTERNAL_URL:
 				return referenceResolver.checkLiteralExternalReference(resource, reference, index);
 			case LOGICAL:
-				return referenceResolver.checkLogicalReference(identity, resource, reference, connection, index);
+				return referenceResolver.checkLogicalReference(identity, resource, reference, connection, index, cache);
 			// unknown URLs to non FHIR servers in related artifacts must not be checked
 			case RELATED_ARTEFACT_UNKNOWN_URL:
 			case ATTACHMENT_UNKNOWN_URL:
@@ -1,19 +1,24 @@
 package dev.dsf.fhir.dao.jdbc;
 
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
-import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -28,10 +33,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.InitializingBean;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonParser;
-
 import ca.uhn.fhir.context.FhirContext;
 import ca.uhn.fhir.model.api.annotation.ResourceDef;
 import dev.dsf.common.auth.conf.Identity;
@@ -42,6 +43,7 @@ import dev.dsf.fhir.dao.exception.ResourceNotMarkedDeletedException;
 import dev.dsf.fhir.dao.exception.ResourceVersionNoMatchException;
 import dev.dsf.fhir.search.DbSearchQuery;
 import dev.dsf.fhir.search.PartialResult;
+import dev.dsf.fhir.search.ResourceElements;
 import dev.dsf.fhir.search.SearchQuery;
 import dev.dsf.fhir.search.SearchQuery.SearchQueryBuilder;
 import dev.dsf.fhir.search.SearchQueryIdentityFilter;
@@ -58,6 +60,8 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 {
 	private static final Logger logger = LoggerFactory.getLogger(AbstractResourceDaoJdbc.class);
 
+	private static final int EXPORT_FETCH_SIZE = 500;
+
 	protected static <R extends Resource> SearchQueryParameterFactory<R> factory(String parameterName,
 			Supplier<SearchQueryParameter<R>> supplier)
 	{
@@ -131,6 +135,8 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 	private final SearchQueryParameterFactory<R> resourceLastUpdatedFactory;
 	private final SearchQueryParameterFactory<R> resourceProfileFactory;
 
+	private final ResourceElements resourceElements;
+
 	protected static SearchQueryRevIncludeParameterFactory factory(
 			Supplier<SearchQueryRevIncludeParameter> revIncludeSupplier, List<String> revIncludeParameterValues)
 	{
@@ -207,6 +213,8 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 				() -> new ResourceLastUpdated<>(resourceColumn), null, null, null);
 		resourceProfileFactory = new SearchQueryParameterFactory<>(ResourceProfile.PARAMETER_NAME,
 				() -> new ResourceProfile<>(resourceColumn), ResourceProfile.getNameModifiers(), null, null);
+
+		resourceElements = fhirContext == null ? null : ResourceElements.of(fhirContext, resourceType);
 	}
 
 	@Override
@@ -287,7 +295,21 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		try (Connection connection = dataSource.getConnection())
 		{
 			connection.setReadOnly(false);
-			return createWithTransactionAndId(connection, resource, uuid);
+			connection.setAutoCommit(false);
+
+			try
+			{
+				R created = createWithTransactionAndId(connection, resource, uuid);
+
+				connection.commit();
+
+				return created;
+			}
+			catch (Exception e)
+			{
+				connection.rollback();
+				throw e;
+			}
 		}
 	}
 
@@ -306,13 +328,59 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		return inserted;
 	}
 
-	private R create(Connection connection, R resource, UUID uuid) throws SQLException
+	@Override
+	public List<R> createAllWithTransaction(Connection connection, List<R> resources) throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(resources, "resources");
+		if (connection.isReadOnly())
+			throw new IllegalArgumentException("Connection is read-only");
+
+		if (resources.isEmpty())
+			return List.of();
+
+		List<UUID> uuids = new ArrayList<>(resources.size());
+		List<R> inserted = new ArrayList<>(resources.size());
+
+		try (PreparedStatement statement = connection.prepareStatement(preparedStatementFactory.getCreateSql()))
+		{
+			for (R resource : resources)
+			{
+				UUID uuid = UUID.randomUUID();
+				R toInsert = toCreate(resource, uuid);
+
+				preparedStatementFactory.configureCreateStatement(statement, toInsert, uuid);
+				statement.addBatch();
+
+				uuids.add(uuid);
+				inserted.add(toInsert);
+			}
+
+			logger.trace("Executing batch of {} '{}'", inserted.size(), preparedStatementFactory.getCreateSql());
+			statement.executeBatch();
+		}
+
+		for (int i = 0; i < inserted.size(); i++)
+			afterCreateOrUpdate(connection, inserted.get(i), uuids.get(i), FIRST_VERSION);
+
+		logger.debug("{} {} resources created", inserted.size(), resourceTypeName);
+		return inserted;
+	}
+
+	private R toCreate(R resource, UUID uuid)
 	{
 		resource = copy(resource); // XXX defensive copy, might want to remove this call
 		resource.setIdElement(new IdType(resourceTypeName, uuid.toString(), FIRST_VERSION_STRING));
 		resource.getMeta().setVersionId(FIRST_VERSION_STRING);
 		resource.getMeta().setLastUpdated(new Date());
 
+		return resource;
+	}
+
+	private R create(Connection connection, R resource, UUID uuid) throws SQLException
+	{
+		resource = toCreate(resource, uuid);
+
 		try (PreparedStatement statement = connection.prepareStatement(preparedStatementFactory.getCreateSql()))
 		{
 			preparedStatementFactory.configureCreateStatement(statement, resource, uuid);
@@ -321,14 +389,54 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 			statement.execute();
 		}
 
+		afterCreateOrUpdate(connection, resource, uuid, FIRST_VERSION);
+
 		return resource;
 	}
 
+	/**
+	 * Override this method to maintain additional tables after a resource was created or updated. This method is called
+	 * with the connection of the create or update operation.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param resource
+	 *            not <code>null</code>, created or updated resource with id and version
+	 * @param uuid
+	 *            not <code>null</code>
+	 * @param version
+	 *            version of the created or updated resource
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	protected void afterCreateOrUpdate(Connection connection, R resource, UUID uuid, long version) throws SQLException
+	{
+	}
+
+	/**
+	 * Override this method to maintain additional tables after a resource was marked as deleted or deleted permanently.
+	 * This method is called with the connection of the delete or permanent delete operation.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param uuid
+	 *            not <code>null</code>
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	protected void afterDelete(Connection connection, UUID uuid) throws SQLException
+	{
+	}
+
 	protected abstract R copy(R resource);
 
 	protected R getResource(ResultSet result, int index) throws SQLException
 	{
-		String json = result.getString(index);
+		return getResource(result.getString(index));
+	}
+
+	protected R getResource(String json)
+	{
 		return preparedStatementFactory.getJsonParser().parseResource(resourceType, json);
 	}
 
@@ -570,6 +678,35 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		}
 	}
 
+	@Override
+	public Set<UUID> existsNotDeletedWithTransaction(Connection connection, Collection<UUID> ids) throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(ids, "ids");
+
+		if (ids.isEmpty())
+			return Collections.emptySet();
+
+		try (PreparedStatement statement = connection
+				.prepareStatement("SELECT " + resourceIdColumn + " FROM (SELECT DISTINCT ON (" + resourceIdColumn + ") "
+						+ resourceIdColumn + ", deleted FROM " + resourceTable + " WHERE " + resourceIdColumn
+						+ " = ANY(?) ORDER BY " + resourceIdColumn + ", version DESC) AS latest WHERE deleted IS NULL"))
+		{
+			Array array = connection.createArrayOf("UUID", ids.toArray());
+			statement.setArray(1, array);
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				Set<UUID> existing = new HashSet<>();
+				while (result.next())
+					existing.add(result.getObject(1, UUID.class));
+
+				return existing;
+			}
+		}
+	}
+
 	@Override
 	public final R update(R resource, Long expectedVersion)
 			throws SQLException, ResourceNotFoundException, ResourceVersionNoMatchException
@@ -687,6 +824,8 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 			statement.execute();
 		}
 
+		afterCreateOrUpdate(connection, resource, uuid, version);
+
 		return resource;
 	}
 
@@ -760,8 +899,21 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		try (Connection connection = dataSource.getConnection())
 		{
 			connection.setReadOnly(false);
+			connection.setAutoCommit(false);
+
+			try
+			{
+				boolean deleted = deleteWithTransaction(connection, uuid);
+
+				connection.commit();
 
-			return deleteWithTransaction(connection, uuid);
+				return deleted;
+			}
+			catch (Exception e)
+			{
+				connection.rollback();
+				throw e;
+			}
 		}
 	}
 
@@ -795,10 +947,12 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 
 			logger.trace("Executing query '{}'", statement);
 			statement.execute();
-
-			logger.debug("{} with ID {} marked as deleted", resourceTypeName, uuid);
-			return true;
 		}
+
+		afterDelete(connection, uuid);
+
+		logger.debug("{} with ID {} marked as deleted", resourceTypeName, uuid);
+		return true;
 	}
 
 	@Override
@@ -838,23 +992,33 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		{
 			try (PreparedStatement statement = connection.prepareStatement(query.getSearchSql()))
 			{
-				query.modifyStatement(statement, connection::createArrayOf);
+				query.modifySearchStatement(statement, connection::createArrayOf);
 
 				logger.trace("Executing query '{}'", statement);
 				try (ResultSet result = statement.executeQuery())
 				{
-					ResultSetMetaData metaData = result.getMetaData();
 					while (result.next())
 					{
 						R resource = getResource(result, 1);
-						modifySearchResultResource(resource, connection);
+						modifySearchResultResource(resource, query, connection);
 						partialResult.add(resource);
-
-						for (int columnIndex = 2; columnIndex <= metaData.getColumnCount(); columnIndex++)
-							getResources(result, columnIndex, includes, connection, query);
 					}
 				}
 			}
+
+			if (!partialResult.isEmpty())
+			{
+				List<String> includeSql = query.getIncludeSql(resourceIdColumn);
+				if (!includeSql.isEmpty())
+				{
+					UUID[] ids = partialResult.stream().map(r -> toUuid(r.getIdElement().getIdPart()))
+							.filter(Objects::nonNull).distinct().toArray(UUID[]::new);
+
+					for (int includeIndex = 0; includeIndex < includeSql.size(); includeIndex++)
+						getIncludeResources(connection, query, includeSql.get(includeIndex), includeIndex, ids,
+								includes);
+				}
+			}
 		}
 
 		// needs to be filtered by read rules, before returning to user, see rest access layer
@@ -864,6 +1028,141 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		return new PartialResult<>(total, query.getPageAndCount(), partialResult, includes);
 	}
 
+	@Override
+	public PartialResult<R> searchLazy(DbSearchQuery query) throws SQLException
+	{
+		Objects.requireNonNull(query, "query");
+
+		if (!query.getIncludeSql(resourceIdColumn).isEmpty())
+			return search(query);
+
+		try (Connection connection = dataSource.getConnection())
+		{
+			int total = 0;
+			try (PreparedStatement statement = connection.prepareStatement(query.getCountSql()))
+			{
+				query.modifyStatement(statement, connection::createArrayOf);
+
+				logger.trace("Executing query '{}'", statement);
+				try (ResultSet result = statement.executeQuery())
+				{
+					if (result.next())
+						total = result.getInt(1);
+				}
+			}
+
+			List<String> jsons = new ArrayList<>();
+
+			if (!query.getPageAndCount().isCountOnly(total))
+			{
+				try (PreparedStatement statement = connection.prepareStatement(query.getSearchSql()))
+				{
+					query.modifySearchStatement(statement, connection::createArrayOf);
+
+					logger.trace("Executing query '{}'", statement);
+					try (ResultSet result = statement.executeQuery())
+					{
+						while (result.next())
+							jsons.add(result.getString(1));
+					}
+				}
+			}
+
+			return new PartialResult<>(total, query.getPageAndCount(), new LazyResourceList(jsons),
+					Collections.emptyList());
+		}
+	}
+
+	/**
+	 * Parses resources from their json representation on every access, parsed resources are not retained by the list.
+	 */
+	private final class LazyResourceList extends AbstractList<R>
+	{
+		private final List<String> jsons;
+
+		LazyResourceList(List<String> jsons)
+		{
+			this.jsons = jsons;
+		}
+
+		@Override
+		public R get(int index)
+		{
+			return getResource(jsons.get(index));
+		}
+
+		@Override
+		public int size()
+		{
+			return jsons.size();
+		}
+	}
+
+	@Override
+	public long export(DbSearchQuery query, Consumer<String> jsonConsumer) throws SQLException
+	{
+		Objects.requireNonNull(query, "query");
+		Objects.requireNonNull(jsonConsumer, "jsonConsumer");
+
+		try (Connection connection = dataSource.getConnection())
+		{
+			// rows only fetched in batches via a cursor if auto commit is disabled, repeatable read for a consistent
+			// snapshot of the current resources while the export is running
+			connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+			connection.setAutoCommit(false);
+
+			try (PreparedStatement statement = connection.prepareStatement(query.getExportSql()))
+			{
+				statement.setFetchSize(EXPORT_FETCH_SIZE);
+				query.modifyStatement(statement, connection::createArrayOf);
+
+				logger.trace("Executing query '{}'", statement);
+				try (ResultSet result = statement.executeQuery())
+				{
+					long count = 0;
+					while (result.next())
+					{
+						jsonConsumer.accept(toExportJson(result.getString(1), connection));
+						count++;
+					}
+
+					return count;
+				}
+			}
+			finally
+			{
+				connection.rollback();
+			}
+		}
+	}
+
+	private void getIncludeResources(Connection connection, DbSearchQuery query, String includeSql, int includeIndex,
+			UUID[] ids, List<? super Resource> includeResources) throws SQLException
+	{
+		try (PreparedStatement statement = connection.prepareStatement(includeSql))
+		{
+			statement.setArray(1, connection.createArrayOf("UUID", ids));
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				while (result.next())
+				{
+					IBaseResource resource = preparedStatementFactory.getJsonParser()
+							.parseResource(result.getString(1));
+					if (resource instanceof Resource)
+					{
+						query.modifyIncludeResource((Resource) resource, includeIndex, connection);
+						includeResources.add((Resource) resource);
+					}
+					else
+						logger.warn("parsed resouce of type {} not instance of {}, ignoring include resource",
+								resource.getClass().getName(), Resource.class.getName());
+				}
+			}
+		}
+	}
+
 	/**
 	 * Override this method to modify resources retrieved by search queries before returning to the user. This method
 	 * can be used, if the resource returned by the search is not complete and additional content needs to be retrieved.
@@ -880,30 +1179,42 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 	{
 	}
 
-	private void getResources(ResultSet result, int columnIndex, List<? super Resource> includeResources,
-			Connection connection, DbSearchQuery query) throws SQLException
+	/**
+	 * Calls {@link #modifySearchResultResource(Resource, Connection)} by default. Override this method to skip
+	 * retrieving additional content for elements removed by the query, see
+	 * {@link DbSearchQuery#isElementIncluded(String)}.
+	 *
+	 * @param resource
+	 *            not <code>null</code>
+	 * @param query
+	 *            not <code>null</code>
+	 * @param connection
+	 *            not <code>null</code>
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	protected void modifySearchResultResource(R resource, DbSearchQuery query, Connection connection)
+			throws SQLException
 	{
-		String json = result.getString(columnIndex);
-
-		if (json == null)
-			return;
-
-		JsonArray array = (JsonArray) JsonParser.parseString(json);
+		modifySearchResultResource(resource, connection);
+	}
 
-		Iterator<JsonElement> it = array.iterator();
-		while (it.hasNext())
-		{
-			JsonElement jsonElement = it.next();
-			IBaseResource resource = preparedStatementFactory.getJsonParser().parseResource(jsonElement.toString());
-			if (resource instanceof Resource)
-			{
-				query.modifyIncludeResource((Resource) resource, columnIndex, connection);
-				includeResources.add((Resource) resource);
-			}
-			else
-				logger.warn("parsed resouce of type {} not instance of {}, ignoring include resource",
-						resource.getClass().getName(), Resource.class.getName());
-		}
+	/**
+	 * Override this method to modify resources exported by {@link #export(DbSearchQuery, Consumer)}, if the json column
+	 * does not contain the complete resource. For example the content of a {@link Binary} resource might not be stored
+	 * in the json column.
+	 *
+	 * @param json
+	 *            not <code>null</code>, resource from the json column
+	 * @param connection
+	 *            not <code>null</code>, cursor of the export statement open
+	 * @return single line json representation of the resource
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	protected String toExportJson(String json, Connection connection) throws SQLException
+	{
+		return json;
 	}
 
 	@Override
@@ -925,8 +1236,9 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 		if (identity != null)
 			builder = builder.with(identityFilter.apply(identity));
 
-		return builder.with(resourceIdFactory).with(resourceLastUpdatedFactory).with(resourceProfileFactory)
-				.with(searchParameterFactories).withRevInclude(searchRevIncludeParameterFactories).build();
+		return builder.with(resourceElements).with(resourceIdFactory).with(resourceLastUpdatedFactory)
+				.with(resourceProfileFactory).with(searchParameterFactories)
+				.withRevInclude(searchRevIncludeParameterFactories).build();
 	}
 
 	@Override
@@ -966,5 +1278,7 @@ abstract class AbstractResourceDaoJdbc<R extends Resource> implements ResourceDa
 
 			logger.debug("{} with ID {} deleted permanently", resourceTypeName, uuid);
 		}
+
+		afterDelete(connection, uuid);
 	}
 }
@@ -3,9 +3,12 @@ package dev.dsf.fhir.dao.jdbc;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.function.Function;
 
 import javax.sql.DataSource;
@@ -61,7 +64,7 @@ abstract class AbstractStructureDefinitionDaoJdbc extends AbstractResourceDaoJdb
 				Collections.emptyList());
 
 		readByUrl = new ReadByUrlDaoJdbc<StructureDefinition>(this::getDataSource, this::getResource, resourceTable,
-				resourceColumn);
+				resourceColumn, resourceIdColumn);
 	}
 
 	@Override
@@ -89,4 +92,30 @@ abstract class AbstractStructureDefinitionDaoJdbc extends AbstractResourceDaoJdb
 	{
 		return readByUrl.readByUrlAndVersionWithTransaction(connection, url, version);
 	}
+
+	@Override
+	public Map<String, StructureDefinition> readByUrlAndVersions(Collection<String> urlAndVersions) throws SQLException
+	{
+		return readByUrl.readByUrlAndVersions(urlAndVersions);
+	}
+
+	@Override
+	public Map<String, StructureDefinition> readByUrlAndVersionsWithTransaction(Connection connection,
+			Collection<String> urlAndVersions) throws SQLException
+	{
+		return readByUrl.readByUrlAndVersionsWithTransaction(connection, urlAndVersions);
+	}
+
+	@Override
+	protected void afterCreateOrUpdate(Connection connection, StructureDefinition resource, UUID uuid, long version)
+			throws SQLException
+	{
+		readByUrl.createOrUpdateWithTransaction(connection, resource, uuid, version);
+	}
+
+	@Override
+	protected void afterDelete(Connection connection, UUID uuid) throws SQLException
+	{
+		readByUrl.deleteWithTransaction(connection, uuid);
+	}
 }
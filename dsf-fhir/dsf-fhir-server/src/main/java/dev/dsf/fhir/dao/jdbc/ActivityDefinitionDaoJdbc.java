@@ -1,19 +1,20 @@
 package dev.dsf.fhir.dao.jdbc;
 
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.UUID;
 
 import javax.sql.DataSource;
 
 import org.hl7.fhir.r4.model.ActivityDefinition;
+import org.hl7.fhir.r4.model.Enumerations.PublicationStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,7 +52,7 @@ public class ActivityDefinitionDaoJdbc extends AbstractResourceDaoJdbc<ActivityD
 				Collections.emptyList());
 
 		readByUrl = new ReadByUrlDaoJdbc<ActivityDefinition>(this::getDataSource, this::getResource, getResourceTable(),
-				getResourceColumn());
+				getResourceColumn(), getResourceIdColumn());
 	}
 
 	@Override
@@ -86,6 +87,32 @@ public class ActivityDefinitionDaoJdbc extends AbstractResourceDaoJdbc<ActivityD
 		return readByUrl.readByUrlAndVersionWithTransaction(connection, url, version);
 	}
 
+	@Override
+	public Map<String, ActivityDefinition> readByUrlAndVersions(Collection<String> urlAndVersions) throws SQLException
+	{
+		return readByUrl.readByUrlAndVersions(urlAndVersions);
+	}
+
+	@Override
+	public Map<String, ActivityDefinition> readByUrlAndVersionsWithTransaction(Connection connection,
+			Collection<String> urlAndVersions) throws SQLException
+	{
+		return readByUrl.readByUrlAndVersionsWithTransaction(connection, urlAndVersions);
+	}
+
+	@Override
+	protected void afterCreateOrUpdate(Connection connection, ActivityDefinition resource, UUID uuid, long version)
+			throws SQLException
+	{
+		readByUrl.createOrUpdateWithTransaction(connection, resource, uuid, version);
+	}
+
+	@Override
+	protected void afterDelete(Connection connection, UUID uuid) throws SQLException
+	{
+		readByUrl.deleteWithTransaction(connection, uuid);
+	}
+
 	@Override
 	public Optional<ActivityDefinition> readByProcessUrlVersionAndStatusDraftOrActiveWithTransaction(
 			Connection connection, String processUrl, String processVersion) throws SQLException
@@ -98,31 +125,16 @@ public class ActivityDefinitionDaoJdbc extends AbstractResourceDaoJdbc<ActivityD
 		if (processVersion.isBlank())
 			throw new IllegalArgumentException("processVersion blank");
 
-		try (PreparedStatement statement = connection
-				.prepareStatement("SELECT activity_definition FROM current_activity_definitions WHERE "
-						+ "activity_definition->>'url' = ? AND " + "activity_definition->>'version' = ? AND "
-						+ "(lower(activity_definition->>'status') = 'draft' OR lower(activity_definition->>'status') = 'active')"))
+		List<ActivityDefinition> definitions = readByUrl.readByUrlVersionAndStatusWithTransaction(connection,
+				processUrl, processVersion, PublicationStatus.DRAFT, PublicationStatus.ACTIVE);
+
+		if (definitions.size() != 1)
 		{
-			statement.setString(1, processUrl);
-			statement.setString(2, processVersion);
-
-			logger.trace("Executing query '{}'", statement);
-			try (ResultSet result = statement.executeQuery())
-			{
-				List<ActivityDefinition> definitions = new ArrayList<>();
-				if (result.next())
-					definitions.add(getResource(result, 1));
-
-				if (definitions.size() != 1)
-				{
-					logger.warn(
-							"ActivityDefinition with process-url '{}' and process-version '{}' not found, or more than one",
-							processUrl, processVersion);
-					return Optional.empty();
-				}
-				else
-					return Optional.of(definitions.get(0));
-			}
+			logger.warn("ActivityDefinition with process-url '{}' and process-version '{}' not found, or more than one",
+					processUrl, processVersion);
+			return Optional.empty();
 		}
+		else
+			return Optional.of(definitions.get(0));
 	}
 }
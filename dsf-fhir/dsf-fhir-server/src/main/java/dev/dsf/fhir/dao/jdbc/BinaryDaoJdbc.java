@@ -15,6 +15,8 @@ import org.postgresql.util.PGobject;
 
 import ca.uhn.fhir.context.FhirContext;
 import dev.dsf.fhir.dao.BinaryDao;
+import dev.dsf.fhir.search.DbSearchQuery;
+import dev.dsf.fhir.search.PartialResult;
 import dev.dsf.fhir.search.filter.BinaryIdentityFilter;
 import dev.dsf.fhir.search.parameters.BinaryContentType;
 
@@ -36,16 +38,42 @@ public class BinaryDaoJdbc extends AbstractResourceDaoJdbc<Binary> implements Bi
 	}
 
 	@Override
-	protected Binary getResource(ResultSet result, int index) throws SQLException
+	protected Binary getResource(String json)
 	{
 		// TODO Bugfix HAPI is removing version information from binary.id
-		Binary binary = super.getResource(result, index);
+		Binary binary = super.getResource(json);
 		IdType fixedId = new IdType(binary.getResourceType().name(), binary.getIdElement().getIdPart(),
 				binary.getMeta().getVersionId());
 		binary.setIdElement(fixedId);
 		return binary;
 	}
 
+	@Override
+	public PartialResult<Binary> searchLazy(DbSearchQuery query) throws SQLException
+	{
+		// binary data not stored in the json column, needs to be loaded while the connection is open
+		return search(query);
+	}
+
+	@Override
+	protected void modifySearchResultResource(Binary resource, DbSearchQuery query, Connection connection)
+			throws SQLException
+	{
+		// binary data not needed if removed by _summary or _elements
+		if (query.isElementIncluded("data"))
+			modifySearchResultResource(resource, connection);
+	}
+
+	@Override
+	protected String toExportJson(String json, Connection connection) throws SQLException
+	{
+		// binary data not stored in the json column
+		Binary binary = getResource(json);
+		modifySearchResultResource(binary, connection);
+
+		return getPreparedStatementFactory().getJsonParser().encodeResourceToString(binary);
+	}
+
 	@Override
 	protected void modifySearchResultResource(Binary resource, Connection connection) throws SQLException
 	{
@@ -1,7 +1,5 @@
 package dev.dsf.fhir.dao.jdbc;
 
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collections;
 
@@ -32,10 +30,10 @@ public class BundleDaoJdbc extends AbstractResourceDaoJdbc<Bundle> implements Bu
 	}
 
 	@Override
-	protected Bundle getResource(ResultSet result, int index) throws SQLException
+	protected Bundle getResource(String json)
 	{
 		// TODO Bugfix HAPI is removing version information from bundle.id
-		Bundle bundle = super.getResource(result, index);
+		Bundle bundle = super.getResource(json);
 		IdType fixedId = new IdType(bundle.getResourceType().name(), bundle.getIdElement().getIdPart(),
 				bundle.getMeta().getVersionId());
 		bundle.setIdElement(fixedId);
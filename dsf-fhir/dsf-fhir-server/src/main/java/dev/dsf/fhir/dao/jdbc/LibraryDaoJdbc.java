@@ -3,8 +3,11 @@ package dev.dsf.fhir.dao.jdbc;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 import javax.sql.DataSource;
 
@@ -37,7 +40,7 @@ public class LibraryDaoJdbc extends AbstractResourceDaoJdbc<Library> implements
 				Collections.emptyList());
 
 		readByUrl = new ReadByUrlDaoJdbc<>(this::getDataSource, this::getResource, getResourceTable(),
-				getResourceColumn());
+				getResourceColumn(), getResourceIdColumn());
 	}
 
 	@Override
@@ -71,4 +74,30 @@ public class LibraryDaoJdbc extends AbstractResourceDaoJdbc<Library> implements
 	{
 		return readByUrl.readByUrlAndVersionWithTransaction(connection, url, version);
 	}
+
+	@Override
+	public Map<String, Library> readByUrlAndVersions(Collection<String> urlAndVersions) throws SQLException
+	{
+		return readByUrl.readByUrlAndVersions(urlAndVersions);
+	}
+
+	@Override
+	public Map<String, Library> readByUrlAndVersionsWithTransaction(Connection connection,
+			Collection<String> urlAndVersions) throws SQLException
+	{
+		return readByUrl.readByUrlAndVersionsWithTransaction(connection, urlAndVersions);
+	}
+
+	@Override
+	protected void afterCreateOrUpdate(Connection connection, Library resource, UUID uuid, long version)
+			throws SQLException
+	{
+		readByUrl.createOrUpdateWithTransaction(connection, resource, uuid, version);
+	}
+
+	@Override
+	protected void afterDelete(Connection connection, UUID uuid) throws SQLException
+	{
+		readByUrl.deleteWithTransaction(connection, uuid);
+	}
 }
@@ -1,22 +1,41 @@
 package dev.dsf.fhir.dao.jdbc;
 
+import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.function.Supplier;
 
 import javax.sql.DataSource;
 
-import org.hl7.fhir.r4.model.DomainResource;
+import org.hl7.fhir.r4.model.Enumerations.PublicationStatus;
+import org.hl7.fhir.r4.model.MetadataResource;
+import org.postgresql.util.PGobject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ca.uhn.fhir.parser.DataFormatException;
 import dev.dsf.fhir.function.BiFunctionWithSqlException;
 
-class ReadByUrlDaoJdbc<R extends DomainResource>
+/**
+ * Resolves canonical urls via the <code>canonical_urls</code> table. The table is maintained by the DAO write path, see
+ * {@link #createOrUpdateWithTransaction(Connection, MetadataResource, UUID, long)} and
+ * {@link #deleteWithTransaction(Connection, UUID)}, and contains one row for every current, not deleted resource of the
+ * configured resource table with a <code>url</code>.
+ */
+class ReadByUrlDaoJdbc<R extends MetadataResource>
 {
 	private static final Logger logger = LoggerFactory.getLogger(ReadByUrlDaoJdbc.class);
 
@@ -24,16 +43,30 @@ class ReadByUrlDaoJdbc<R extends DomainResource>
 	private final BiFunctionWithSqlException<ResultSet, Integer, R> resourceExtractor;
 
 	private final String resourceTable;
-	private final String resourceColumn;
+
+	private final String readByUrlSql;
+	private final String readByUrlAndVersionSql;
+	private final String readByUrlVersionAndStatusSql;
+	private final String readByUrlsSql;
 
 	ReadByUrlDaoJdbc(Supplier<DataSource> dataSourceSupplier,
 			BiFunctionWithSqlException<ResultSet, Integer, R> resourceExtractor, String resourceTable,
-			String resourceColumn)
+			String resourceColumn, String resourceIdColumn)
 	{
 		this.dataSourceSupplier = dataSourceSupplier;
 		this.resourceExtractor = resourceExtractor;
 		this.resourceTable = resourceTable;
-		this.resourceColumn = resourceColumn;
+
+		String select = "SELECT " + resourceColumn + " FROM canonical_urls JOIN " + resourceTable + " ON "
+				+ resourceIdColumn + " = resource_id AND " + resourceTable
+				+ ".version = resource_version WHERE resource_table = ? AND url = ?";
+
+		readByUrlSql = select + " LIMIT 1";
+		readByUrlAndVersionSql = select + " AND canonical_urls.version = ? LIMIT 1";
+		readByUrlVersionAndStatusSql = select + " AND canonical_urls.version = ? AND status = ANY (?)";
+		readByUrlsSql = "SELECT url, canonical_urls.version, " + resourceColumn + " FROM canonical_urls JOIN "
+				+ resourceTable + " ON " + resourceIdColumn + " = resource_id AND " + resourceTable
+				+ ".version = resource_version WHERE resource_table = ? AND url = ANY (?)";
 	}
 
 	/**
@@ -109,15 +142,14 @@ class ReadByUrlDaoJdbc<R extends DomainResource>
 		if (url == null || url.isBlank())
 			return Optional.empty();
 
-		String versionSql = version != null && !version.isBlank() ? "AND " + resourceColumn + "->>'version' = ? " : "";
-		String sql = "SELECT " + resourceColumn + " FROM current_" + resourceTable + " WHERE " + resourceColumn
-				+ "->>'url' = ? " + versionSql;
-
-		try (PreparedStatement statement = connection.prepareStatement(sql))
+		boolean withVersion = version != null && !version.isBlank();
+		try (PreparedStatement statement = connection
+				.prepareStatement(withVersion ? readByUrlAndVersionSql : readByUrlSql))
 		{
-			statement.setString(1, url);
-			if (version != null && !version.isBlank())
-				statement.setString(2, version);
+			statement.setString(1, resourceTable);
+			statement.setString(2, url);
+			if (withVersion)
+				statement.setString(3, version);
 
 			logger.trace("Executing query '{}'", statement);
 			try (ResultSet result = statement.executeQuery())
@@ -129,4 +161,239 @@ class ReadByUrlDaoJdbc<R extends DomainResource>
 			}
 		}
 	}
+
+	/**
+	 * @param urlAndVersions
+	 *            not <code>null</code>, url|version or url values
+	 * @return resources by requested url|version or url value, urls without a matching resource are not contained in
+	 *         the returned map
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	Map<String, R> readByUrlAndVersions(Collection<String> urlAndVersions) throws SQLException
+	{
+		try (Connection connection = dataSourceSupplier.get().getConnection())
+		{
+			return readByUrlAndVersionsWithTransaction(connection, urlAndVersions);
+		}
+	}
+
+	/**
+	 * Resolves all given canonical urls with a single query.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param urlAndVersions
+	 *            not <code>null</code>, url|version or url values
+	 * @return resources by requested url|version or url value, urls without a matching resource are not contained in
+	 *         the returned map
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	Map<String, R> readByUrlAndVersionsWithTransaction(Connection connection, Collection<String> urlAndVersions)
+			throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(urlAndVersions, "urlAndVersions");
+
+		Set<String> requested = new HashSet<>();
+		Set<String> urls = new HashSet<>();
+		for (String urlAndVersion : urlAndVersions)
+		{
+			if (urlAndVersion == null || urlAndVersion.isBlank())
+				continue;
+
+			String[] split = urlAndVersion.split("[|]");
+			if (split.length < 1 || split.length > 2 || split[0].isBlank())
+				continue;
+
+			urls.add(split[0]);
+			requested.add(split.length == 2 && !split[1].isBlank() ? split[0] + "|" + split[1] : split[0]);
+		}
+
+		if (urls.isEmpty())
+			return Map.of();
+
+		try (PreparedStatement statement = connection.prepareStatement(readByUrlsSql))
+		{
+			Array array = connection.createArrayOf("TEXT", urls.toArray());
+			statement.setString(1, resourceTable);
+			statement.setArray(2, array);
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				Map<String, R> resources = new HashMap<>();
+				while (result.next())
+				{
+					String url = result.getString(1);
+					String version = result.getString(2);
+
+					boolean urlRequested = requested.contains(url) && !resources.containsKey(url);
+					boolean urlAndVersionRequested = version != null && requested.contains(url + "|" + version);
+
+					if (urlRequested || urlAndVersionRequested)
+					{
+						R resource = resourceExtractor.apply(result, 3);
+
+						if (urlRequested)
+							resources.put(url, resource);
+						if (urlAndVersionRequested)
+							resources.put(url + "|" + version, resource);
+					}
+				}
+
+				// "url|" is treated as url without version, see readByUrlAndVersionWithTransaction
+				for (String urlAndVersion : urlAndVersions)
+				{
+					if (urlAndVersion != null && urlAndVersion.endsWith("|"))
+					{
+						R resource = resources.get(urlAndVersion.substring(0, urlAndVersion.length() - 1));
+						if (resource != null)
+							resources.put(urlAndVersion, resource);
+					}
+				}
+
+				return resources;
+			}
+			finally
+			{
+				array.free();
+			}
+		}
+	}
+
+	/**
+	 * Inserts or updates the canonical url entry for the given resource, removes the entry if the resource has no url.
+	 *
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param resource
+	 *            not <code>null</code>
+	 * @param uuid
+	 *            not <code>null</code>
+	 * @param version
+	 *            &gt; 0
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	void createOrUpdateWithTransaction(Connection connection, R resource, UUID uuid, long version) throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(resource, "resource");
+		Objects.requireNonNull(uuid, "uuid");
+
+		if (!resource.hasUrl())
+		{
+			deleteWithTransaction(connection, uuid);
+			return;
+		}
+
+		try (PreparedStatement statement = connection.prepareStatement(
+				"INSERT INTO canonical_urls (resource_table, resource_id, resource_version, url, version, status) "
+						+ "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (resource_table, resource_id) DO UPDATE SET "
+						+ "resource_version = EXCLUDED.resource_version, url = EXCLUDED.url, "
+						+ "version = EXCLUDED.version, status = EXCLUDED.status"))
+		{
+			statement.setString(1, resourceTable);
+			statement.setObject(2, uuidToPgObject(uuid));
+			statement.setLong(3, version);
+			statement.setString(4, resource.getUrl());
+			statement.setString(5, resource.hasVersion() ? resource.getVersion() : null);
+			statement.setString(6, resource.hasStatus() ? resource.getStatus().toCode() : null);
+
+			logger.trace("Executing query '{}'", statement);
+			statement.execute();
+		}
+	}
+
+	/**
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param uuid
+	 *            not <code>null</code>
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	void deleteWithTransaction(Connection connection, UUID uuid) throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(uuid, "uuid");
+
+		try (PreparedStatement statement = connection
+				.prepareStatement("DELETE FROM canonical_urls WHERE resource_table = ? AND resource_id = ?"))
+		{
+			statement.setString(1, resourceTable);
+			statement.setObject(2, uuidToPgObject(uuid));
+
+			logger.trace("Executing query '{}'", statement);
+			statement.execute();
+		}
+	}
+
+	/**
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param url
+	 *            not <code>null</code>
+	 * @param version
+	 *            not <code>null</code>
+	 * @param status
+	 *            not <code>null</code>, at least one
+	 * @return resources with the given url and version and one of the given status values
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	List<R> readByUrlVersionAndStatusWithTransaction(Connection connection, String url, String version,
+			PublicationStatus... status) throws SQLException
+	{
+		Objects.requireNonNull(connection, "connection");
+		Objects.requireNonNull(url, "url");
+		Objects.requireNonNull(version, "version");
+		Objects.requireNonNull(status, "status");
+		if (status.length == 0)
+			throw new IllegalArgumentException("status.length 0");
+
+		try (PreparedStatement statement = connection.prepareStatement(readByUrlVersionAndStatusSql))
+		{
+			Array array = connection.createArrayOf("TEXT",
+					Arrays.stream(status).map(PublicationStatus::toCode).toArray());
+			statement.setString(1, resourceTable);
+			statement.setString(2, url);
+			statement.setString(3, version);
+			statement.setArray(4, array);
+
+			logger.trace("Executing query '{}'", statement);
+			try (ResultSet result = statement.executeQuery())
+			{
+				List<R> resources = new ArrayList<>();
+				while (result.next())
+					resources.add(resourceExtractor.apply(result, 1));
+
+				return resources;
+			}
+			finally
+			{
+				array.free();
+			}
+		}
+	}
+
+	private PGobject uuidToPgObject(UUID uuid)
+	{
+		if (uuid == null)
+			return null;
+
+		try
+		{
+			PGobject o = new PGobject();
+			o.setType("UUID");
+			o.setValue(uuid.toString());
+			return o;
+		}
+		catch (DataFormatException | SQLException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
 }
@@ -11,6 +11,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -40,6 +41,8 @@ public class ParameterConverter
 	public static final List<String> XML_FORMATS = Arrays.asList(Constants.CT_FHIR_XML, Constants.CT_FHIR_XML_NEW,
 			MediaType.APPLICATION_XML, MediaType.TEXT_XML);
 
+	private static final Pattern ELEMENT_NAME_PATTERN = Pattern.compile("^[a-zA-Z][a-zA-Z0-9]*$");
+
 	private final ExceptionHandler exceptionHandler;
 
 	public ParameterConverter(ExceptionHandler exceptionHandler)
@@ -98,57 +101,71 @@ public class ParameterConverter
 		String format = uri.getQueryParameters().getFirst("_format");
 		boolean pretty = "true".equals(uri.getQueryParameters().getFirst("_pretty"));
 		SummaryMode summaryMode = SummaryMode.fromString(uri.getQueryParameters().getFirst("_summary"));
+		String elements = getElements(uri.getQueryParameters().getFirst("_elements"));
 		String accept = headers.getHeaderString(HttpHeaders.ACCEPT);
 
 		if (format == null || format.isBlank())
-			return getMediaType(accept, pretty, summaryMode);
+			return getMediaType(accept, pretty, summaryMode, elements);
 
 		else if (XML_FORMATS.contains(format) || JSON_FORMATS.contains(format) || MediaType.TEXT_HTML.equals(format))
-			return getMediaType(format, pretty, summaryMode);
+			return getMediaType(format, pretty, summaryMode, elements);
 		else if (XML_FORMAT.equals(format))
-			return Optional.of(mediaType("application", "fhir+xml", pretty, summaryMode));
+			return Optional.of(mediaType("application", "fhir+xml", pretty, summaryMode, elements));
 		else if (JSON_FORMAT.equals(format))
-			return Optional.of(mediaType("application", "fhir+json", pretty, summaryMode));
+			return Optional.of(mediaType("application", "fhir+json", pretty, summaryMode, elements));
 		else if (HTML_FORMAT.equals(format))
-			return Optional.of(mediaType("text", "html", pretty, summaryMode));
+			return Optional.of(mediaType("text", "html", pretty, summaryMode, elements));
 		else
 			return Optional.empty();
 	}
 
-	private Optional<MediaType> getMediaType(String mediaType, boolean pretty, SummaryMode summaryMode)
+	private String getElements(String elements)
+	{
+		if (elements == null)
+			return null;
+
+		// top-level element names only, values are added to the content-type header
+		String e = Arrays.stream(elements.split(",")).map(String::trim).filter(ELEMENT_NAME_PATTERN.asPredicate())
+				.distinct().collect(Collectors.joining(","));
+		return e.isEmpty() ? null : e;
+	}
+
+	private Optional<MediaType> getMediaType(String mediaType, boolean pretty, SummaryMode summaryMode, String elements)
 	{
 		if (mediaType == null || mediaType.isBlank())
 			mediaType = MediaType.WILDCARD;
 
 		if (mediaType.contains(MediaType.TEXT_HTML))
-			return Optional.of(mediaType("text", "html", pretty, summaryMode));
+			return Optional.of(mediaType("text", "html", pretty, summaryMode, elements));
 		else if (mediaType.contains(Constants.CT_FHIR_JSON_NEW))
-			return Optional.of(mediaType("application", "fhir+json", pretty, summaryMode));
+			return Optional.of(mediaType("application", "fhir+json", pretty, summaryMode, elements));
 		else if (mediaType.contains(Constants.CT_FHIR_JSON))
-			return Optional.of(mediaType("application", "json+fhir", pretty, summaryMode));
+			return Optional.of(mediaType("application", "json+fhir", pretty, summaryMode, elements));
 		else if (mediaType.contains(MediaType.APPLICATION_JSON))
-			return Optional.of(mediaType("application", "json", pretty, summaryMode));
+			return Optional.of(mediaType("application", "json", pretty, summaryMode, elements));
 		else if (mediaType.contains(Constants.CT_FHIR_XML_NEW))
-			return Optional.of(mediaType("application", "fhir+xml", pretty, summaryMode));
+			return Optional.of(mediaType("application", "fhir+xml", pretty, summaryMode, elements));
 		else if (mediaType.contains(Constants.CT_FHIR_XML))
-			return Optional.of(mediaType("application", "xml+fhir", pretty, summaryMode));
+			return Optional.of(mediaType("application", "xml+fhir", pretty, summaryMode, elements));
 		else if (mediaType.contains(MediaType.APPLICATION_XML))
-			return Optional.of(mediaType("application", "xml", pretty, summaryMode));
+			return Optional.of(mediaType("application", "xml", pretty, summaryMode, elements));
 		else if (mediaType.contains(MediaType.TEXT_XML))
-			return Optional.of(mediaType("text", "xml", pretty, summaryMode));
+			return Optional.of(mediaType("text", "xml", pretty, summaryMode, elements));
 		else if (mediaType.contains(MediaType.WILDCARD))
-			return Optional.of(mediaType("application", "fhir+xml", pretty, summaryMode));
+			return Optional.of(mediaType("application", "fhir+xml", pretty, summaryMode, elements));
 		else
 			return Optional.empty();
 	}
 
-	private MediaType mediaType(String type, String subtype, boolean pretty, SummaryMode summaryMode)
+	private MediaType mediaType(String type, String subtype, boolean pretty, SummaryMode summaryMode, String elements)
 	{
 		Map<String, String> parameters = new HashMap<>();
 		if (pretty)
 			parameters.put(AbstractAdapter.PRETTY, "true");
 		if (summaryMode != null)
 			parameters.put(AbstractAdapter.SUMMARY, summaryMode.toString());
+		if (elements != null)
+			parameters.put(AbstractAdapter.ELEMENTS, elements);
 
 		return new MediaType(type, subtype, parameters);
 	}
@@ -7,7 +7,9 @@ import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
@@ -29,6 +31,7 @@ import org.slf4j.LoggerFactory;
 import ca.uhn.fhir.rest.api.Constants;
 import ca.uhn.fhir.validation.ValidationResult;
 import dev.dsf.common.auth.conf.Identity;
+import dev.dsf.fhir.adapter.StreamingBundle;
 import dev.dsf.fhir.history.History;
 import dev.dsf.fhir.history.HistoryEntry;
 import dev.dsf.fhir.prefer.PreferReturnType;
@@ -129,6 +132,19 @@ public class ResponseGenerator
 		return b;
 	}
 
+	public ResponseBuilder response(Status status, StreamingBundle bundle, MediaType mediaType)
+	{
+		Objects.requireNonNull(status, "status");
+		Objects.requireNonNull(bundle, "bundle");
+
+		ResponseBuilder b = Response.status(status).entity(bundle);
+
+		if (mediaType != null)
+			b = b.type(mediaType.withCharset(StandardCharsets.UTF_8.displayName()));
+
+		return b.cacheControl(PRIVATE_NO_CACHE_NO_TRANSFORM);
+	}
+
 	public OperationOutcome created(URI location, Resource resource)
 	{
 		return created(location.toString(), resource);
@@ -169,9 +185,7 @@ public class ResponseGenerator
 	public Bundle createSearchSet(PartialResult<? extends Resource> result, List<SearchQueryParameterError> errors,
 			UriBuilder bundleUri, String format, String pretty, SummaryMode summaryMode)
 	{
-		Bundle bundle = new Bundle();
-		bundle.setTimestamp(new Date());
-		bundle.setType(BundleType.SEARCHSET);
+		Bundle bundle = createSearchSetWithoutEntries(result, bundleUri, format, pretty, summaryMode);
 
 		if (!SummaryMode.COUNT.equals(summaryMode))
 		{
@@ -184,6 +198,61 @@ public class ResponseGenerator
 		if (!errors.isEmpty())
 			bundle.addEntry(toBundleEntryComponent(toOperationOutcomeWarning(errors), SearchEntryMode.OUTCOME));
 
+		return bundle;
+	}
+
+	/**
+	 * Same as {@link #createSearchSet(PartialResult, List, UriBuilder, String, String, SummaryMode)}, but bundle
+	 * entries are created while the response is written. Resources of the given {@link PartialResult} are accessed
+	 * once, the given <b>entryResourceModifier</b> is applied to every resource before it is added as an entry.
+	 *
+	 * @param result
+	 *            not <code>null</code>
+	 * @param errors
+	 *            not <code>null</code>
+	 * @param bundleUri
+	 *            not <code>null</code>
+	 * @param format
+	 *            may be <code>null</code>
+	 * @param pretty
+	 *            may be <code>null</code>
+	 * @param summaryMode
+	 *            may be <code>null</code>
+	 * @param entryResourceModifier
+	 *            not <code>null</code>
+	 * @return {@link StreamingBundle} of type {@link BundleType#SEARCHSET}
+	 */
+	public StreamingBundle createStreamingSearchSet(PartialResult<? extends Resource> result,
+			List<SearchQueryParameterError> errors, UriBuilder bundleUri, String format, String pretty,
+			SummaryMode summaryMode, UnaryOperator<Resource> entryResourceModifier)
+	{
+		Objects.requireNonNull(entryResourceModifier, "entryResourceModifier");
+
+		Bundle bundle = createSearchSetWithoutEntries(result, bundleUri, format, pretty, summaryMode);
+
+		Stream<BundleEntryComponent> entries = Stream.empty();
+		if (!SummaryMode.COUNT.equals(summaryMode))
+		{
+			entries = Stream.concat(
+					result.getPartialResult().stream().map(entryResourceModifier)
+							.map(r -> toBundleEntryComponent(r, SearchEntryMode.MATCH)),
+					result.getIncludes().stream().map(entryResourceModifier)
+							.map(r -> toBundleEntryComponent(r, SearchEntryMode.INCLUDE)));
+		}
+
+		if (!errors.isEmpty())
+			entries = Stream.concat(entries,
+					Stream.of(toBundleEntryComponent(toOperationOutcomeWarning(errors), SearchEntryMode.OUTCOME)));
+
+		return new StreamingBundle(bundle, entries);
+	}
+
+	private Bundle createSearchSetWithoutEntries(PartialResult<? extends Resource> result, UriBuilder bundleUri,
+			String format, String pretty, SummaryMode summaryMode)
+	{
+		Bundle bundle = new Bundle();
+		bundle.setTimestamp(new Date());
+		bundle.setType(BundleType.SEARCHSET);
 		bundle.setTotal(result.getTotal());
 
 		setLinks(result.getPageAndCount(), bundleUri, format, pretty, summaryMode, bundle,
@@ -0,0 +1,280 @@
+package dev.dsf.fhir.help;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.codec.binary.Hex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+/**
+ * Static resources from the <code>/static/</code> classpath directory. Resources are either read and gzip compressed
+ * once at startup, see {@link #preloaded()}, or read from the classpath for every request, see {@link #uncached()}.
+ * <p>
+ * Preloaded resources are also available with the first {@value #HASH_LENGTH} hex characters of their SHA-256 content
+ * hash inserted before the file suffix, e.g. <code>dsf.0123456789abcdef.css</code>. Content-hashed file names change
+ * whenever the content changes and can be cached by browsers indefinitely, see {@link #getUrlFileName(String)}.
+ */
+public abstract class StaticResourceCache
+{
+	private static final Logger logger = LoggerFactory.getLogger(StaticResourceCache.class);
+
+	private static final String CLASSPATH_DIRECTORY = "/static/";
+
+	public static final int HASH_LENGTH = 16;
+
+	private static final Map<String, String> MIME_TYPE_BY_SUFFIX = Map.of("css", "text/css", "js", "text/javascript",
+			"html", "text/html", "pdf", "application/pdf", "png", "image/png", "svg", "image/svg+xml", "jpg",
+			"image/jpeg");
+
+	private static final Set<String> COMPRESSIBLE_SUFFIXES = Set.of("css", "js", "html", "svg");
+
+	public static final class Entry
+	{
+		private final String fileName;
+		private final String hashedFileName;
+		private final String mimeType;
+		private final String hash;
+		private final byte[] data;
+		private final byte[] gzipData;
+
+		private Entry(String fileName, String hashedFileName, String mimeType, String hash, byte[] data,
+				byte[] gzipData)
+		{
+			this.fileName = fileName;
+			this.hashedFileName = hashedFileName;
+			this.mimeType = mimeType;
+			this.hash = hash;
+			this.data = data;
+			this.gzipData = gzipData;
+		}
+
+		public String getFileName()
+		{
+			return fileName;
+		}
+
+		/**
+		 * @return <code>null</code> if not preloaded
+		 */
+		public String getHashedFileName()
+		{
+			return hashedFileName;
+		}
+
+		public String getMimeType()
+		{
+			return mimeType;
+		}
+
+		/**
+		 * @return hex encoded SHA-256 hash of the uncompressed data
+		 */
+		public String getHash()
+		{
+			return hash;
+		}
+
+		public byte[] getData()
+		{
+			return data;
+		}
+
+		/**
+		 * @return <code>null</code> if not preloaded, not a text resource or not smaller than the uncompressed data
+		 */
+		public byte[] getGzipData()
+		{
+			return gzipData;
+		}
+	}
+
+	private static final class Preloaded extends StaticResourceCache
+	{
+		private final Map<String, Entry> entriesByFileName;
+
+		Preloaded(Map<String, Entry> entriesByFileName)
+		{
+			this.entriesByFileName = Map.copyOf(entriesByFileName);
+		}
+
+		@Override
+		public Optional<Entry> get(String fileName)
+		{
+			return Optional.ofNullable(entriesByFileName.get(fileName));
+		}
+
+		@Override
+		public String getUrlFileName(String fileName)
+		{
+			Entry entry = entriesByFileName.get(fileName);
+			return entry == null ? fileName : entry.getHashedFileName();
+		}
+	}
+
+	private static final class Uncached extends StaticResourceCache
+	{
+		@Override
+		public Optional<Entry> get(String fileName)
+		{
+			String mimeType = mimeType(fileName);
+			if (mimeType == null)
+				return Optional.empty();
+
+			try (InputStream stream = StaticResourceCache.class.getResourceAsStream(CLASSPATH_DIRECTORY + fileName))
+			{
+				if (stream == null)
+					return Optional.empty();
+
+				byte[] data = stream.readAllBytes();
+				return Optional.of(new Entry(fileName, null, mimeType, hash(data), data, null));
+			}
+			catch (IOException e)
+			{
+				throw new RuntimeException(e);
+			}
+		}
+
+		@Override
+		public String getUrlFileName(String fileName)
+		{
+			return fileName;
+		}
+	}
+
+	/**
+	 * Reads and compresses all static resources with known file suffixes.
+	 *
+	 * @return immutable cache
+	 */
+	public static StaticResourceCache preloaded()
+	{
+		try
+		{
+			Map<String, Entry> entries = new HashMap<>();
+			long uncompressedSize = 0, compressedSize = 0;
+
+			for (Resource resource : new PathMatchingResourcePatternResolver()
+					.getResources("classpath*:" + CLASSPATH_DIRECTORY.substring(1) + "*"))
+			{
+				String fileName = resource.getFilename();
+				String mimeType = fileName == null ? null : mimeType(fileName);
+
+				if (mimeType == null || !resource.isReadable() || entries.containsKey(fileName))
+					continue;
+
+				byte[] data;
+				try (InputStream stream = resource.getInputStream())
+				{
+					data = stream.readAllBytes();
+				}
+
+				String hash = hash(data);
+				String hashedFileName = hashedFileName(fileName, hash);
+				byte[] gzipData = COMPRESSIBLE_SUFFIXES.contains(suffix(fileName)) ? gzip(data) : null;
+				if (gzipData != null && gzipData.length >= data.length)
+					gzipData = null;
+
+				Entry entry = new Entry(fileName, hashedFileName, mimeType, hash, data, gzipData);
+				entries.put(fileName, entry);
+				entries.put(hashedFileName, entry);
+
+				uncompressedSize += data.length;
+				compressedSize += gzipData != null ? gzipData.length : data.length;
+			}
+
+			logger.info("{} static resources preloaded, {} bytes, {} bytes compressed", entries.size() / 2,
+					uncompressedSize, compressedSize);
+
+			return new Preloaded(entries);
+		}
+		catch (IOException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Static resources are read from the classpath for every request, content-hashed file names are not supported.
+	 *
+	 * @return cache for development
+	 */
+	public static StaticResourceCache uncached()
+	{
+		return new Uncached();
+	}
+
+	private static String suffix(String fileName)
+	{
+		int dot = fileName.lastIndexOf('.');
+		return dot < 0 ? "" : fileName.substring(dot + 1);
+	}
+
+	private static String mimeType(String fileName)
+	{
+		return MIME_TYPE_BY_SUFFIX.get(suffix(fileName));
+	}
+
+	private static String hashedFileName(String fileName, String hash)
+	{
+		int dot = fileName.lastIndexOf('.');
+		return fileName.substring(0, dot) + "." + hash.substring(0, HASH_LENGTH) + fileName.substring(dot);
+	}
+
+	private static String hash(byte[] data)
+	{
+		try
+		{
+			return Hex.encodeHexString(MessageDigest.getInstance("SHA-256").digest(data));
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static byte[] gzip(byte[] data) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)
+		{
+			{
+				def.setLevel(Deflater.BEST_COMPRESSION);
+			}
+		})
+		{
+			gzip.write(data);
+		}
+
+		return out.toByteArray();
+	}
+
+	private StaticResourceCache()
+	{
+	}
+
+	/**
+	 * @param fileName
+	 *            not <code>null</code>, plain or content-hashed file name
+	 * @return {@link Optional#empty()} if no static resource with the given file name exists
+	 */
+	public abstract Optional<Entry> get(String fileName);
+
+	/**
+	 * @param fileName
+	 *            not <code>null</code>
+	 * @return content-hashed file name if the resource is preloaded, the given file name otherwise
+	 */
+	public abstract String getUrlFileName(String fileName);
+}
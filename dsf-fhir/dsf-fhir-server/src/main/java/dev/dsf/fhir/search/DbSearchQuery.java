@@ -4,6 +4,7 @@ import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.List;
 
 import org.hl7.fhir.r4.model.Resource;
 
@@ -15,10 +16,72 @@ public interface DbSearchQuery
 
 	String getSearchSql();
 
+	/**
+	 * Selects all matching resources, without sort, limit and offset. Parameters are set by
+	 * {@link #modifyStatement(PreparedStatement, BiFunctionWithSqlException)}.
+	 *
+	 * @return statement for bulk exports
+	 */
+	String getExportSql();
+
+	/**
+	 * Include and revinclude resources are not part of the search statement, they are resolved with one statement per
+	 * include and revinclude parameter for all resources of the current page. The statements evaluate the correlated
+	 * include subquery of the search parameter for every resource of the page and return distinct include resources,
+	 * one per row.
+	 *
+	 * @param resourceIdColumn
+	 *            not <code>null</code>
+	 * @return one statement per configured include and revinclude parameter, each statement expects a single
+	 *         <code>UUID[]</code> parameter with the ids of the resources on the current page
+	 */
+	List<String> getIncludeSql(String resourceIdColumn);
+
+	/**
+	 * Sets the filter parameters of the statements created from {@link #getCountSql()}
+	 *
+	 * @param statement
+	 *            not <code>null</code>
+	 * @param arrayCreator
+	 *            not <code>null</code>
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
 	void modifyStatement(PreparedStatement statement, BiFunctionWithSqlException<String, Object[], Array> arrayCreator)
 			throws SQLException;
 
+	/**
+	 * Sets the filter, limit and offset parameters of the statements created from {@link #getSearchSql()}
+	 *
+	 * @param statement
+	 *            not <code>null</code>
+	 * @param arrayCreator
+	 *            not <code>null</code>
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	void modifySearchStatement(PreparedStatement statement,
+			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException;
+
 	PageAndCount getPageAndCount();
 
-	void modifyIncludeResource(Resource resource, int columnIndex, Connection connection) throws SQLException;
+	/**
+	 * @param elementName
+	 *            not <code>null</code>, top-level element name
+	 * @return <code>false</code> if the element is removed from search results within the database, because of the
+	 *         <code>_summary</code> or <code>_elements</code> parameter
+	 */
+	boolean isElementIncluded(String elementName);
+
+	/**
+	 * @param resource
+	 *            not <code>null</code>
+	 * @param includeIndex
+	 *            index of the include statement, see {@link #getIncludeSql(String)}
+	 * @param connection
+	 *            not <code>null</code>
+	 * @throws SQLException
+	 *             if database access errors occur
+	 */
+	void modifyIncludeResource(Resource resource, int includeIndex, Connection connection) throws SQLException;
 }
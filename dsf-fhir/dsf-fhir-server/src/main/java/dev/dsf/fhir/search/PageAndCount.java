@@ -1,5 +1,8 @@
 package dev.dsf.fhir.search;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
 public class PageAndCount
 {
 	private final int page;
@@ -16,6 +19,32 @@ public class PageAndCount
 		return " LIMIT " + count + (page > 1 ? (" OFFSET " + ((page - 1) * count)) : "");
 	}
 
+	/**
+	 * Limit and offset are bound as statement parameters, the returned SQL does not change with different page and
+	 * count values, see {@link #modifyStatement(int, PreparedStatement)}.
+	 *
+	 * @return <code>" LIMIT ? OFFSET ?"</code>
+	 */
+	public String getParameterizedSql()
+	{
+		return " LIMIT ? OFFSET ?";
+	}
+
+	/**
+	 * @param parameterIndex
+	 *            index of the limit parameter, offset parameter at <code>parameterIndex + 1</code>
+	 * @param statement
+	 *            not <code>null</code>
+	 * @throws SQLException
+	 *             if database access errors occur
+	 * @see #getParameterizedSql()
+	 */
+	public void modifyStatement(int parameterIndex, PreparedStatement statement) throws SQLException
+	{
+		statement.setInt(parameterIndex, count);
+		statement.setInt(parameterIndex + 1, page > 1 ? (page - 1) * count : 0);
+	}
+
 	public boolean isCountOnly(int total)
 	{
 		return page < 1 || count < 1 || getPageStart() > total;
@@ -0,0 +1,122 @@
+package dev.dsf.fhir.search;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.hl7.fhir.r4.model.Resource;
+
+import ca.uhn.fhir.context.BaseRuntimeChildDefinition;
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.context.RuntimeChildChoiceDefinition;
+import ca.uhn.fhir.context.RuntimeResourceDefinition;
+
+/**
+ * Top-level elements of a resource type and their JSON property names, used to project resources within the database
+ * for the <code>_summary</code> and <code>_elements</code> search parameters.
+ * <p>
+ * JSON property names returned by {@link #getJsonPropertyNames(Collection)} are taken from the HAPI resource
+ * definition, never from the given element names, and can be used as SQL literals.
+ */
+public final class ResourceElements
+{
+	private static final List<String> ALWAYS_INCLUDED = List.of("resourceType", "id", "meta");
+
+	private final Map<String, List<String>> jsonPropertyNamesByElementName;
+	private final List<String> summaryElementNames;
+	private final List<String> mandatoryElementNames;
+
+	private ResourceElements(Map<String, List<String>> jsonPropertyNamesByElementName, List<String> summaryElementNames,
+			List<String> mandatoryElementNames)
+	{
+		this.jsonPropertyNamesByElementName = Collections.unmodifiableMap(jsonPropertyNamesByElementName);
+		this.summaryElementNames = List.copyOf(summaryElementNames);
+		this.mandatoryElementNames = List.copyOf(mandatoryElementNames);
+	}
+
+	/**
+	 * @param fhirContext
+	 *            not <code>null</code>
+	 * @param resourceType
+	 *            not <code>null</code>
+	 * @return elements of the given resource type
+	 */
+	public static ResourceElements of(FhirContext fhirContext, Class<? extends Resource> resourceType)
+	{
+		Objects.requireNonNull(fhirContext, "fhirContext");
+		Objects.requireNonNull(resourceType, "resourceType");
+
+		RuntimeResourceDefinition definition = fhirContext.getResourceDefinition(resourceType);
+
+		Map<String, List<String>> jsonPropertyNamesByElementName = new LinkedHashMap<>();
+		for (BaseRuntimeChildDefinition child : definition.getChildren())
+		{
+			// choice elements, e.g. Observation.value[x], are stored as valueString, valueQuantity, ...
+			List<String> jsonPropertyNames = child instanceof RuntimeChildChoiceDefinition
+					? child.getValidChildNames().stream().sorted().toList()
+					: List.of(child.getElementName());
+
+			jsonPropertyNamesByElementName.put(child.getElementName(), jsonPropertyNames);
+		}
+
+		List<String> summaryElementNames = definition.getChildren().stream()
+				.filter(BaseRuntimeChildDefinition::isSummary).map(BaseRuntimeChildDefinition::getElementName).toList();
+		List<String> mandatoryElementNames = definition.getChildren().stream().filter(c -> c.getMin() > 0)
+				.map(BaseRuntimeChildDefinition::getElementName).toList();
+
+		return new ResourceElements(jsonPropertyNamesByElementName, summaryElementNames, mandatoryElementNames);
+	}
+
+	/**
+	 * @param elementName
+	 *            may be <code>null</code>
+	 * @return <code>true</code> if the given name is a top-level element of the resource type
+	 */
+	public boolean isElement(String elementName)
+	{
+		return elementName != null && jsonPropertyNamesByElementName.containsKey(elementName);
+	}
+
+	/**
+	 * @return elements marked as summary elements by the resource definition
+	 */
+	public List<String> getSummaryElementNames()
+	{
+		return summaryElementNames;
+	}
+
+	/**
+	 * @return elements with a minimum cardinality &gt; 0
+	 */
+	public List<String> getMandatoryElementNames()
+	{
+		return mandatoryElementNames;
+	}
+
+	/**
+	 * Includes <code>resourceType</code>, <code>id</code> and <code>meta</code> as well as the <code>_</code> prefixed
+	 * properties holding ids and extensions of primitive elements.
+	 *
+	 * @param elementNames
+	 *            not <code>null</code>, names not defined for the resource type are ignored
+	 * @return sorted JSON property names of the given elements
+	 */
+	public Set<String> getJsonPropertyNames(Collection<String> elementNames)
+	{
+		Objects.requireNonNull(elementNames, "elementNames");
+
+		Set<String> jsonPropertyNames = elementNames.stream().filter(this::isElement)
+				.map(jsonPropertyNamesByElementName::get).flatMap(List::stream)
+				.flatMap(name -> Stream.of(name, "_" + name)).collect(Collectors.toCollection(TreeSet::new));
+		jsonPropertyNames.addAll(ALWAYS_INCLUDED);
+
+		return Collections.unmodifiableSet(jsonPropertyNames);
+	}
+}
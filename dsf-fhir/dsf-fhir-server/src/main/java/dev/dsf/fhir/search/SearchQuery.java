@@ -15,6 +15,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -24,6 +25,7 @@ import org.slf4j.LoggerFactory;
 
 import dev.dsf.fhir.dao.provider.DaoProvider;
 import dev.dsf.fhir.function.BiFunctionWithSqlException;
+import dev.dsf.fhir.help.SummaryMode;
 import dev.dsf.fhir.search.SearchQueryParameterError.SearchQueryParameterErrorType;
 import jakarta.ws.rs.core.UriBuilder;
 
@@ -38,12 +40,14 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 	public static final String PARAMETER_FORMAT = "_format";
 	public static final String PARAMETER_PRETTY = "_pretty";
 	public static final String PARAMETER_SUMMARY = "_summary";
+	public static final String PARAMETER_ELEMENTS = "_elements";
 
 	public static final String[] STANDARD_PARAMETERS = { PARAMETER_SORT, PARAMETER_INCLUDE, PARAMETER_REVINCLUDE,
-			PARAMETER_PAGE, PARAMETER_COUNT, PARAMETER_FORMAT, PARAMETER_PRETTY, PARAMETER_SUMMARY };
+			PARAMETER_PAGE, PARAMETER_COUNT, PARAMETER_FORMAT, PARAMETER_PRETTY, PARAMETER_SUMMARY,
+			PARAMETER_ELEMENTS };
 
 	public static final String[] SINGLE_VALUE_PARAMETERS = { PARAMETER_SORT, PARAMETER_PAGE, PARAMETER_COUNT,
-			PARAMETER_FORMAT, PARAMETER_PRETTY, PARAMETER_SUMMARY };
+			PARAMETER_FORMAT, PARAMETER_PRETTY, PARAMETER_SUMMARY, PARAMETER_ELEMENTS };
 
 	public static class SearchQueryBuilder<R extends Resource>
 	{
@@ -64,6 +68,7 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 		private final List<SearchQueryRevIncludeParameterFactory> revIncludeParameters = new ArrayList<>();
 
 		private SearchQueryIdentityFilter identityFilter; // may be null
+		private ResourceElements resourceElements; // may be null
 
 		private SearchQueryBuilder(Class<R> resourceType, String resourceTable, String resourceColumn, int page,
 				int count)
@@ -82,6 +87,18 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 			return this;
 		}
 
+		/**
+		 * @param resourceElements
+		 *            may be <code>null</code>, <code>_summary</code> and <code>_elements</code> projections not applied
+		 *            within the database if <code>null</code>
+		 * @return this builder
+		 */
+		public SearchQueryBuilder<R> with(ResourceElements resourceElements)
+		{
+			this.resourceElements = resourceElements;
+			return this;
+		}
+
 		public SearchQueryBuilder<R> with(SearchQueryParameterFactory<R> searchParameters)
 		{
 			this.searchParameters.add(searchParameters);
@@ -119,8 +136,8 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 
 		public SearchQuery<R> build()
 		{
-			return new SearchQuery<R>(resourceType, resourceTable, resourceColumn, identityFilter, page, count,
-					searchParameters, revIncludeParameters);
+			return new SearchQuery<R>(resourceType, resourceTable, resourceColumn, identityFilter, resourceElements,
+					page, count, searchParameters, revIncludeParameters);
 		}
 	}
 
@@ -131,6 +148,7 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 	private final String resourceTable;
 
 	private final SearchQueryIdentityFilter identityFilter;
+	private final ResourceElements resourceElements;
 
 	private final PageAndCount pageAndCount;
 
@@ -145,21 +163,25 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 	private final List<SearchQueryIncludeParameterConfiguration> revIncludeParameters = new ArrayList<>();
 	private final List<SearchQueryParameterError> errors = new ArrayList<>();
 
+	private final List<String> elements = new ArrayList<>();
+
 	private String filterQuery;
 	private String sortSql;
-	private String includeSql;
-	private String revIncludeSql;
+	private String resourceSql;
+	private Predicate<String> elementIncluded = e -> true;
 
 	SearchQuery(Class<R> resourceType, String resourceTable, String resourceColumn,
-			SearchQueryIdentityFilter identityFilter, int page, int count,
+			SearchQueryIdentityFilter identityFilter, ResourceElements resourceElements, int page, int count,
 			List<SearchQueryParameterFactory<R>> searchParameterFactories,
 			List<SearchQueryRevIncludeParameterFactory> searchRevIncludeParameterFactories)
 	{
 		this.resourceType = resourceType;
 		this.resourceTable = resourceTable;
 		this.resourceColumn = resourceColumn;
+		this.resourceSql = resourceColumn;
 
 		this.identityFilter = identityFilter;
+		this.resourceElements = resourceElements;
 
 		this.pageAndCount = new PageAndCount(page, count);
 
@@ -222,15 +244,31 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 
 		filterQuery = createFilterQuery(queryParameters);
 
-		includeSql = createIncludeSql(queryParameters.getOrDefault(PARAMETER_INCLUDE, Collections.emptyList()));
-		revIncludeSql = createRevIncludeSql(
-				queryParameters.getOrDefault(PARAMETER_REVINCLUDE, Collections.emptyList()));
+		configureIncludeParameters(queryParameters.getOrDefault(PARAMETER_INCLUDE, Collections.emptyList()));
+		configureRevIncludeParameters(queryParameters.getOrDefault(PARAMETER_REVINCLUDE, Collections.emptyList()));
 
 		sortSql = createSortSql(queryParameters.getOrDefault(PARAMETER_SORT, Collections.emptyList()));
 
 		return this;
 	}
 
+	/**
+	 * Configures the projection of search results within the database for the <code>_summary</code> and
+	 * <code>_elements</code> parameters, only the requested top-level elements are transferred and parsed. Must not be
+	 * used if search results are processed further, e.g. checked by authorization rules or updated.
+	 *
+	 * @param queryParameters
+	 *            not <code>null</code>
+	 * @return this query
+	 */
+	public SearchQuery<R> configureProjection(Map<String, List<String>> queryParameters)
+	{
+		resourceSql = createResourceSql(queryParameters.getOrDefault(PARAMETER_SUMMARY, Collections.emptyList()),
+				queryParameters.getOrDefault(PARAMETER_ELEMENTS, Collections.emptyList()));
+
+		return this;
+	}
+
 	private void checkSingleValueParameters(Map<String, List<String>> queryParameters)
 	{
 		Arrays.stream(SINGLE_VALUE_PARAMETERS).forEach(parameter ->
@@ -324,7 +362,71 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 						.collect(Collectors.joining(", ", " ORDER BY ", ""));
 	}
 
-	private String createIncludeSql(List<String> includeParameterValues)
+	/**
+	 * Mandatory elements as well as <code>resourceType</code>, <code>id</code> and <code>meta</code> are always
+	 * included. Elements given via <code>_elements</code> take precedence over <code>_summary</code> modes.
+	 */
+	private String createResourceSql(List<String> summaryParameterValues, List<String> elementsParameterValues)
+	{
+		SummaryMode summaryMode = summaryParameterValues.isEmpty() ? null
+				: SummaryMode.fromString(summaryParameterValues.get(0));
+
+		if (resourceElements == null || SummaryMode.COUNT.equals(summaryMode))
+			return resourceColumn;
+
+		if (!elementsParameterValues.isEmpty() && elementsParameterValues.get(0) != null)
+		{
+			for (String value : elementsParameterValues.get(0).split(","))
+			{
+				String element = value.trim();
+				if (element.isEmpty() || elements.contains(element))
+					continue;
+
+				if (resourceElements.isElement(element))
+					elements.add(element);
+				else
+					errors.add(new SearchQueryParameterError(SearchQueryParameterErrorType.UNPARSABLE_VALUE,
+							PARAMETER_ELEMENTS, null,
+							PARAMETER_ELEMENTS + " query parameter value `" + element + "` not supported"));
+			}
+
+			if (!elements.isEmpty())
+				return createProjectionSql(Stream
+						.concat(elements.stream(), resourceElements.getMandatoryElementNames().stream()).toList());
+		}
+
+		if (summaryMode == null)
+			return resourceColumn;
+
+		return switch (summaryMode)
+		{
+			case TRUE -> createProjectionSql(Stream.concat(resourceElements.getSummaryElementNames().stream(),
+					resourceElements.getMandatoryElementNames().stream()).toList());
+			case TEXT -> createProjectionSql(
+					Stream.concat(Stream.of("text"), resourceElements.getMandatoryElementNames().stream()).toList());
+			case DATA ->
+			{
+				elementIncluded = e -> !"text".equals(e);
+				yield "(" + resourceColumn + " - 'text')";
+			}
+			default -> resourceColumn;
+		};
+	}
+
+	private String createProjectionSql(List<String> elementNames)
+	{
+		Set<String> included = new HashSet<>(elementNames);
+		elementIncluded = included::contains;
+
+		// property names from the resource definition, not from query parameter values
+		String keys = resourceElements.getJsonPropertyNames(elementNames).stream().map(k -> "'" + k + "'")
+				.collect(Collectors.joining(", "));
+
+		return "(SELECT jsonb_object_agg(e.key, e.value) FROM jsonb_each(" + resourceColumn + ") AS e WHERE e.key IN ("
+				+ keys + "))";
+	}
+
+	private void configureIncludeParameters(List<String> includeParameterValues)
 	{
 		Set<String> supportedIncludeValues = new HashSet<>();
 		for (String value : includeParameterValues)
@@ -355,13 +457,9 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 				}
 			}
 		}
-
-		return includeParameters.isEmpty() ? ""
-				: includeParameters.stream().map(SearchQueryIncludeParameterConfiguration::getSql)
-						.collect(Collectors.joining(", ", ", ", ""));
 	}
 
-	private String createRevIncludeSql(List<String> revIncludeParameterValues)
+	private void configureRevIncludeParameters(List<String> revIncludeParameterValues)
 	{
 		Set<String> supportedRevIncludeValues = new HashSet<>();
 		for (String value : revIncludeParameterValues)
@@ -393,10 +491,20 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 				}
 			}
 		}
+	}
 
-		return revIncludeParameters.isEmpty() ? ""
-				: revIncludeParameters.stream().map(SearchQueryIncludeParameterConfiguration::getSql)
-						.collect(Collectors.joining(", ", ", ", ""));
+	@Override
+	public List<String> getIncludeSql(String resourceIdColumn)
+	{
+		Objects.requireNonNull(resourceIdColumn, "resourceIdColumn");
+
+		// include SQL of the search parameters is a correlated subquery per matched resource, including logical
+		// identifier references and revincludes; reused as is over the ids of the page instead of a join per parameter
+		return Stream.concat(includeParameters.stream(), revIncludeParameters.stream())
+				.map(p -> "SELECT DISTINCT ON (include_resource->>'id') include_resource FROM (SELECT " + p.getSql()
+						+ " FROM current_" + resourceTable + " WHERE " + resourceIdColumn
+						+ " = ANY (?)) AS include_resources (resources), jsonb_array_elements(include_resources.resources) AS include_resource")
+				.toList();
 	}
 
 	@Override
@@ -410,16 +518,37 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 	@Override
 	public String getSearchSql()
 	{
-		String searchQueryMain = "SELECT " + resourceColumn + includeSql + revIncludeSql + " FROM current_"
-				+ resourceTable;
+		String searchQueryMain = "SELECT " + resourceSql + " FROM current_" + resourceTable;
 
 		return searchQueryMain + (!filterQuery.isEmpty() ? (" WHERE " + filterQuery) : "") + sortSql
-				+ pageAndCount.getSql();
+				+ pageAndCount.getParameterizedSql();
+	}
+
+	@Override
+	public String getExportSql()
+	{
+		String exportQueryMain = "SELECT " + resourceColumn + " FROM current_" + resourceTable;
+
+		return exportQueryMain + (!filterQuery.isEmpty() ? (" WHERE " + filterQuery) : "");
 	}
 
 	@Override
 	public void modifyStatement(PreparedStatement statement,
 			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException
+	{
+		modifyFilterStatement(statement, arrayCreator);
+	}
+
+	@Override
+	public void modifySearchStatement(PreparedStatement statement,
+			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException
+	{
+		int index = modifyFilterStatement(statement, arrayCreator);
+		pageAndCount.modifyStatement(index + 1, statement);
+	}
+
+	private int modifyFilterStatement(PreparedStatement statement,
+			BiFunctionWithSqlException<String, Object[], Array> arrayCreator) throws SQLException
 	{
 		try
 		{
@@ -439,6 +568,8 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 			for (SearchQueryParameter<?> q : filtered)
 				for (int i = 0; i < q.getSqlParameterCount(); i++)
 					q.modifyStatement(++index, i + 1, statement, arrayCreator);
+
+			return index;
 		}
 		catch (SQLException e)
 		{
@@ -447,6 +578,12 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 		}
 	}
 
+	@Override
+	public boolean isElementIncluded(String elementName)
+	{
+		return elementIncluded.test(elementName);
+	}
+
 	@Override
 	public PageAndCount getPageAndCount()
 	{
@@ -486,6 +623,8 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 					.map(SearchQueryIncludeParameterConfiguration::getBundleUriQueryParameterValues).toArray();
 			bundleUri.replaceQueryParam(PARAMETER_REVINCLUDE, values);
 		}
+		if (!elements.isEmpty())
+			bundleUri.replaceQueryParam(PARAMETER_ELEMENTS, String.join(",", elements));
 
 		return bundleUri;
 	}
@@ -539,30 +678,28 @@ public class SearchQuery<R extends Resource> implements DbSearchQuery, Matcher
 	}
 
 	@Override
-	public void modifyIncludeResource(Resource resource, int columnIndex, Connection connection) throws SQLException
+	public void modifyIncludeResource(Resource resource, int includeIndex, Connection connection) throws SQLException
 	{
 		int includeParameterCount = includeParameters.size();
 		int revIncludeParameterCount = revIncludeParameters.size();
 
-		if (includeParameterCount > 0 && columnIndex - 1 <= includeParameterCount)
+		if (includeIndex >= 0 && includeIndex < includeParameterCount)
 		{
-			includeParameters.get(columnIndex - 2).modifyIncludeResource(resource, connection);
+			includeParameters.get(includeIndex).modifyIncludeResource(resource, connection);
 		}
-		else if (revIncludeParameters.size() > 0 && columnIndex - 1 - includeParameterCount <= revIncludeParameterCount)
+		else if (includeIndex >= includeParameterCount
+				&& includeIndex < includeParameterCount + revIncludeParameterCount)
 		{
-			revIncludeParameters.get(columnIndex - 2 - includeParameterCount).modifyIncludeResource(resource,
-					connection);
+			revIncludeParameters.get(includeIndex - includeParameterCount).modifyIncludeResource(resource, connection);
 		}
 		else
 		{
-			logger.warn(
-					"Unexpected column-index {}, column-index - 1 larger than include ({}) + revinclude ({}) parameter count {}",
-					columnIndex, includeParameterCount, revIncludeParameterCount,
+			logger.warn("Unexpected include-index {}, not within include ({}) + revinclude ({}) parameter count {}",
+					includeIndex, includeParameterCount, revIncludeParameterCount,
 					includeParameterCount + revIncludeParameterCount);
-			throw new IllegalStateException(
-					"Unexpected column-index " + columnIndex + ", column-index - 1 larger than include ("
-							+ includeParameterCount + ") + revinclude (" + revIncludeParameterCount
-							+ ") parameter count " + (includeParameterCount + revIncludeParameterCount));
+			throw new IllegalStateException("Unexpected include-index " + includeIndex + ", not within include ("
+					+ includeParameterCount + ") + revinclude (" + revIncludeParameterCount + ") parameter count "
+					+ (includeParameterCount + revIncludeParameterCount));
 		}
 	}
 }
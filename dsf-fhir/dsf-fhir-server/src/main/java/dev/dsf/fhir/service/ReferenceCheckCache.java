@@ -0,0 +1,80 @@
+package dev.dsf.fhir.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Memoizes reference check results within a single database transaction. Not thread safe.
+ * <p>
+ * Literal internal references from the given reference supplier are checked with one query per target resource type on
+ * first access, see
+ * {@link ReferenceResolver#checkLiteralInternalReference(org.hl7.fhir.r4.model.Resource, ResourceReference, java.sql.Connection, Integer, ReferenceCheckCache)}.
+ * The cache must not be used after resources have been created, updated or deleted within the transaction.
+ */
+public class ReferenceCheckCache
+{
+	private final Supplier<Stream<ResourceReference>> references;
+
+	private final Map<String, Boolean> literalInternalExists = new HashMap<>();
+	private final Map<String, Integer> logicalMatches = new HashMap<>();
+	private final Map<String, Boolean> logicalCanBeChecked = new HashMap<>();
+
+	private boolean literalInternalPrefetched;
+
+	/**
+	 * @param references
+	 *            not <code>null</code>, references to prefetch, evaluated on first access
+	 */
+	public ReferenceCheckCache(Supplier<Stream<ResourceReference>> references)
+	{
+		this.references = Objects.requireNonNull(references, "references");
+	}
+
+	Stream<ResourceReference> getReferences()
+	{
+		return references.get();
+	}
+
+	boolean isLiteralInternalPrefetched()
+	{
+		return literalInternalPrefetched;
+	}
+
+	void setLiteralInternalPrefetched()
+	{
+		literalInternalPrefetched = true;
+	}
+
+	Boolean getLiteralInternalExists(String typeAndId)
+	{
+		return literalInternalExists.get(typeAndId);
+	}
+
+	void putLiteralInternalExists(String typeAndId, boolean exists)
+	{
+		literalInternalExists.put(typeAndId, exists);
+	}
+
+	Integer getLogicalMatches(String typeSystemAndValue)
+	{
+		return logicalMatches.get(typeSystemAndValue);
+	}
+
+	void putLogicalMatches(String typeSystemAndValue, int matches)
+	{
+		logicalMatches.put(typeSystemAndValue, matches);
+	}
+
+	Boolean getLogicalCanBeChecked(String identifierSystem)
+	{
+		return logicalCanBeChecked.get(identifierSystem);
+	}
+
+	void putLogicalCanBeChecked(String identifierSystem, boolean canBeChecked)
+	{
+		logicalCanBeChecked.put(identifierSystem, canBeChecked);
+	}
+}
@@ -44,6 +44,17 @@ public interface ReferenceResolver
 	 */
 	boolean referenceCanBeChecked(ResourceReference reference, Connection connection);
 
+	/**
+	 * @param reference
+	 *            not <code>null</code>
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param cache
+	 *            may be <code>null</code>
+	 * @return <code>true</code> if the {@link ResourceReference} can be checked
+	 */
+	boolean referenceCanBeChecked(ResourceReference reference, Connection connection, ReferenceCheckCache cache);
+
 	/**
 	 * @param resource
 	 *            not <code>null</code>
@@ -76,6 +87,28 @@ public interface ReferenceResolver
 	Optional<OperationOutcome> checkLiteralInternalReference(Resource resource, ResourceReference resourceReference,
 			Connection connection, Integer bundleIndex) throws IllegalArgumentException;
 
+	/**
+	 * Unversioned references are looked up in the given <b>cache</b>. On first access all unversioned literal internal
+	 * references known to the cache are checked with one query per target resource type.
+	 *
+	 * @param resource
+	 *            not <code>null</code>
+	 * @param resourceReference
+	 *            not <code>null</code>
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param bundleIndex
+	 *            may be <code>null</code>
+	 * @param cache
+	 *            may be <code>null</code>
+	 * @return {@link Optional#empty()} if the reference could be resolved
+	 * @throws IllegalArgumentException
+	 *             if the reference is not of type {@link ResourceReference.ReferenceType#LITERAL_INTERNAL}
+	 * @see ResourceReference#getType(String)
+	 */
+	Optional<OperationOutcome> checkLiteralInternalReference(Resource resource, ResourceReference resourceReference,
+			Connection connection, Integer bundleIndex, ReferenceCheckCache cache) throws IllegalArgumentException;
+
 	/**
 	 * @param resource
 	 *            not <code>null</code>
@@ -160,4 +193,29 @@ public interface ReferenceResolver
 	Optional<OperationOutcome> checkLogicalReference(Identity identity, Resource resource,
 			ResourceReference resourceReference, Connection connection, Integer bundleIndex)
 			throws IllegalArgumentException;
+
+	/**
+	 * Identifier search results are memoized in the given <b>cache</b>, each distinct target type and identifier is
+	 * searched only once.
+	 *
+	 * @param identity
+	 *            not <code>null</code>
+	 * @param resource
+	 *            not <code>null</code>
+	 * @param resourceReference
+	 *            not <code>null</code>
+	 * @param connection
+	 *            not <code>null</code>
+	 * @param bundleIndex
+	 *            may be <code>null</code>
+	 * @param cache
+	 *            may be <code>null</code>
+	 * @return {@link Optional#empty()} if the reference check was successful
+	 * @throws IllegalArgumentException
+	 *             if the reference is not of type {@link ResourceReference.ReferenceType#LOGICAL}
+	 * @see ResourceReference#getType(String)
+	 */
+	Optional<OperationOutcome> checkLogicalReference(Identity identity, Resource resource,
+			ResourceReference resourceReference, Connection connection, Integer bundleIndex, ReferenceCheckCache cache)
+			throws IllegalArgumentException;
 }
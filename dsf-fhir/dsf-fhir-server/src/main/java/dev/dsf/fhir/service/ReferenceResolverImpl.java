@@ -1,6 +1,7 @@
 package dev.dsf.fhir.service;
 
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
@@ -9,6 +10,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -78,6 +80,12 @@ public class ReferenceResolverImpl implements ReferenceResolver, InitializingBea
 
 	@Override
 	public boolean referenceCanBeChecked(ResourceReference reference, Connection connection)
+	{
+		return referenceCanBeChecked(reference, connection, null);
+	}
+
+	@Override
+	public boolean referenceCanBeChecked(ResourceReference reference, Connection connection, ReferenceCheckCache cache)
 	{
 		Objects.requireNonNull(reference, "reference");
 		Objects.requireNonNull(connection, "connection");
@@ -90,23 +98,34 @@ public class ReferenceResolverImpl implements ReferenceResolver, InitializingBea
 			case ATTACHMENT_LITERAL_EXTERNAL_URL:
 				return literalExternalReferenceCanBeCheckedAndResolved(reference);
 			case LOGICAL:
-				return logicalReferenceCanBeCheckedAndResolved(reference, connection);
+				return logicalReferenceCanBeCheckedAndResolved(reference, connection, cache);
 			default:
 				return true;
 		}
 	}
 
-	private boolean logicalReferenceCanBeCheckedAndResolved(ResourceReference reference, Connection connection)
+	private boolean logicalReferenceCanBeCheckedAndResolved(ResourceReference reference, Connection connection,
+			ReferenceCheckCache cache)
 	{
 		ReferenceType type = reference.getType(serverBase);
 		if (!ReferenceType.LOGICAL.equals(type))
 			throw new IllegalArgumentException("Not a logical reference");
 
+		String identifierSystem = reference.getReference().getIdentifier().getSystem();
+
+		Boolean cached = cache != null ? cache.getLogicalCanBeChecked(identifierSystem) : null;
+		if (cached != null)
+			return cached;
+
 		NamingSystemDao namingSystemDao = daoProvider.getNamingSystemDao();
 
-		return exceptionHandler
-				.handleSqlException(() -> namingSystemDao.existsWithUniqueIdUriEntryResolvable(connection,
-						reference.getReference().getIdentifier().getSystem()));
+		boolean canBeChecked = exceptionHandler.handleSqlException(
+				() -> namingSystemDao.existsWithUniqueIdUriEntryResolvable(connection, identifierSystem));
+
+		if (cache != null)
+			cache.putLogicalCanBeChecked(identifierSystem, canBeChecked);
+
+		return canBeChecked;
 	}
 
 	private boolean literalExternalReferenceCanBeCheckedAndResolved(ResourceReference reference)
@@ -408,6 +427,13 @@ public class ReferenceResolverImpl implements ReferenceResolver, InitializingBea
 	@Override
 	public Optional<OperationOutcome> checkLiteralInternalReference(Resource resource, ResourceReference reference,
 			Connection connection, Integer bundleIndex) throws IllegalArgumentException
+	{
+		return checkLiteralInternalReference(resource, reference, connection, bundleIndex, null);
+	}
+
+	@Override
+	public Optional<OperationOutcome> checkLiteralInternalReference(Resource resource, ResourceReference reference,
+			Connection connection, Integer bundleIndex, ReferenceCheckCache cache) throws IllegalArgumentException
 	{
 		Objects.requireNonNull(resource, "resource");
 		Objects.requireNonNull(reference, "reference");
@@ -428,8 +454,7 @@ public class ReferenceResolverImpl implements ReferenceResolver, InitializingBea
 				return Optional.of(
 						responseGenerator.referenceTargetTypeNotSupportedByResource(bundleIndex, resource, reference));
 
-			boolean exists = exceptionHandler.handleSqlException(
-					() -> d.existsNotDeletedWithTransaction(connection, id.getIdPart(), id.getVersionIdPart()));
+			boolean exists = exceptionHandler.handleSqlException(() -> existsNotDeleted(connection, d, id, cache));
 			if (!exists)
 				return Optional.of(responseGenerator.referenceTargetNotFoundLocally(bundleIndex, resource, reference));
 		}
@@ -437,6 +462,60 @@ public class ReferenceResolverImpl implements ReferenceResolver, InitializingBea
 		return Optional.empty();
 	}
 
+	private boolean existsNotDeleted(Connection connection, ResourceDao<?> dao, IdType id, ReferenceCheckCache cache)
+			throws SQLException
+	{
+		if (cache == null || id.hasVersionIdPart())
+			return dao.existsNotDeletedWithTransaction(connection, id.getIdPart(), id.getVersionIdPart());
+
+		Optional<UUID> uuid = parameterConverter.toUuid(id.getIdPart());
+		if (uuid.isEmpty())
+			return false;
+
+		if (!cache.isLiteralInternalPrefetched())
+			prefetchLiteralInternalReferences(connection, cache);
+
+		String key = dao.getResourceTypeName() + "/" + uuid.get().toString();
+		Boolean exists = cache.getLiteralInternalExists(key);
+		if (exists == null)
+		{
+			exists = dao.existsNotDeletedWithTransaction(connection, id.getIdPart(), null);
+			cache.putLiteralInternalExists(key, exists);
+		}
+
+		return exists;
+	}
+
+	private void prefetchLiteralInternalReferences(Connection connection, ReferenceCheckCache cache) throws SQLException
+	{
+		cache.setLiteralInternalPrefetched();
+
+		Map<String, Set<UUID>> idsByResourceType = cache
+				.getReferences().filter(
+						ref -> EnumSet
+								.of(ReferenceType.LITERAL_INTERNAL, ReferenceType.RELATED_ARTEFACT_LITERAL_INTERNAL_URL,
+										ReferenceType.ATTACHMENT_LITERAL_INTERNAL_URL)
+								.contains(ref.getType(serverBase)))
+				.map(ref -> new IdType(ref.getValue())).filter(id -> !id.hasVersionIdPart() && id.hasResourceType())
+				.flatMap(id -> parameterConverter.toUuid(id.getIdPart())
+						.map(uuid -> Map.entry(id.getResourceType(), uuid)).stream())
+				.collect(Collectors.groupingBy(Entry::getKey, Collectors.mapping(Entry::getValue, Collectors.toSet())));
+
+		for (Entry<String, Set<UUID>> entry : idsByResourceType.entrySet())
+		{
+			Optional<ResourceDao<?>> dao = daoProvider.getDao(entry.getKey());
+			if (dao.isEmpty())
+				continue;
+
+			Set<UUID> existing = dao.get().existsNotDeletedWithTransaction(connection, entry.getValue());
+			logger.debug("Checked {} literal internal {} reference{} with one query, {} found", entry.getValue().size(),
+					entry.getKey(), entry.getValue().size() != 1 ? "s" : "", existing.size());
+
+			entry.getValue().forEach(uuid -> cache.putLiteralInternalExists(
+					dao.get().getResourceTypeName() + "/" + uuid.toString(), existing.contains(uuid)));
+		}
+	}
+
 	@Override
 	public Optional<OperationOutcome> checkLiteralExternalReference(Resource resource,
 			ResourceReference resourceReference) throws IllegalArgumentException
@@ -529,7 +608,8 @@ public class ReferenceResolverImpl implements ReferenceResolver, InitializingBea
 						responseGenerator.referenceTargetTypeNotSupportedByResource(bundleIndex, resource, reference));
 
 			// Resource target =
-			return search(identity, resource, bundleIndex, connection, d, reference, condition.getQueryParams(), true);
+			return search(identity, resource, bundleIndex, connection, d, reference, condition.getQueryParams(), true,
+					null, null);
 
 			// TODO add literal reference for conditional reference somewhere else
 			// reference.getReference().setIdentifier(null).setReferenceElement(
@@ -549,6 +629,14 @@ public class ReferenceResolverImpl implements ReferenceResolver, InitializingBea
 	@Override
 	public Optional<OperationOutcome> checkLogicalReference(Identity identity, Resource resource,
 			ResourceReference reference, Connection connection, Integer bundleIndex) throws IllegalArgumentException
+	{
+		return checkLogicalReference(identity, resource, reference, connection, bundleIndex, null);
+	}
+
+	@Override
+	public Optional<OperationOutcome> checkLogicalReference(Identity identity, Resource resource,
+			ResourceReference reference, Connection connection, Integer bundleIndex, ReferenceCheckCache cache)
+			throws IllegalArgumentException
 	{
 		Objects.requireNonNull(identity, "identity");
 		Objects.requireNonNull(resource, "resource");
@@ -572,8 +660,10 @@ public class ReferenceResolverImpl implements ReferenceResolver, InitializingBea
 
 			Identifier targetIdentifier = reference.getReference().getIdentifier();
 			// Resource target =
-			return search(identity, resource, bundleIndex, connection, d, reference, Map.of("identifier",
-					Collections.singletonList(targetIdentifier.getSystem() + "|" + targetIdentifier.getValue())), true);
+			String identifierValue = targetIdentifier.getSystem() + "|" + targetIdentifier.getValue();
+			return search(identity, resource, bundleIndex, connection, d, reference,
+					Map.of("identifier", Collections.singletonList(identifierValue)), true, cache,
+					d.getResourceTypeName() + "|" + identifierValue);
 
 			// resourceReference.getReference().setIdentifier(null).setReferenceElement(
 			// new IdType(target.getResourceType().name(), target.getIdElement().getIdPart()));
@@ -588,7 +678,8 @@ public class ReferenceResolverImpl implements ReferenceResolver, InitializingBea
 
 	private Optional<OperationOutcome> search(Identity identity, Resource resource, Integer bundleIndex,
 			Connection connection, ResourceDao<?> referenceTargetDao, ResourceReference resourceReference,
-			Map<String, List<String>> queryParameters, boolean logicalNotConditional)
+			Map<String, List<String>> queryParameters, boolean logicalNotConditional, ReferenceCheckCache cache,
+			String cacheKey)
 	{
 		if (Arrays.stream(SearchQuery.STANDARD_PARAMETERS).anyMatch(queryParameters::containsKey))
 		{
@@ -603,21 +694,29 @@ public class ReferenceResolverImpl implements ReferenceResolver, InitializingBea
 					.collect(Collectors.toMap(Entry::getKey, Entry::getValue));
 		}
 
-		SearchQuery<?> query = referenceTargetDao.createSearchQuery(identity, 1, 1);
-		query.configureParameters(queryParameters);
+		Integer total = cache != null ? cache.getLogicalMatches(cacheKey) : null;
+		if (total == null)
+		{
+			SearchQuery<?> query = referenceTargetDao.createSearchQuery(identity, 1, 1);
+			query.configureParameters(queryParameters);
+
+			List<SearchQueryParameterError> unsupportedQueryParameters = query.getUnsupportedQueryParameters();
+			if (!unsupportedQueryParameters.isEmpty())
+				return Optional.of(responseGenerator.badReference(logicalNotConditional, bundleIndex, resource,
+						resourceReference,
+						UriComponentsBuilder.newInstance()
+								.replaceQueryParams(CollectionUtils.toMultiValueMap(queryParameters)).toUriString(),
+						unsupportedQueryParameters));
 
-		List<SearchQueryParameterError> unsupportedQueryParameters = query.getUnsupportedQueryParameters();
-		if (!unsupportedQueryParameters.isEmpty())
-			return Optional
-					.of(responseGenerator.badReference(logicalNotConditional, bundleIndex, resource, resourceReference,
-							UriComponentsBuilder.newInstance()
-									.replaceQueryParams(CollectionUtils.toMultiValueMap(queryParameters)).toUriString(),
-							unsupportedQueryParameters));
+			PartialResult<?> result = exceptionHandler
+					.handleSqlException(() -> referenceTargetDao.searchWithTransaction(connection, query));
 
-		PartialResult<?> result = exceptionHandler
-				.handleSqlException(() -> referenceTargetDao.searchWithTransaction(connection, query));
+			total = result.getTotal();
+			if (cache != null)
+				cache.putLogicalMatches(cacheKey, total);
+		}
 
-		if (result.getTotal() <= 0)
+		if (total <= 0)
 		{
 			if (logicalNotConditional)
 				return Optional.of(responseGenerator.referenceTargetNotFoundLocallyByIdentifier(bundleIndex, resource,
@@ -626,7 +725,7 @@ public class ReferenceResolverImpl implements ReferenceResolver, InitializingBea
 				return Optional.of(responseGenerator.referenceTargetNotFoundLocallyByCondition(bundleIndex, resource,
 						resourceReference));
 		}
-		else if (result.getTotal() == 1)
+		else if (total == 1)
 		{
 			// return result.getPartialResult().get(0);
 			return Optional.empty();
@@ -635,10 +734,10 @@ public class ReferenceResolverImpl implements ReferenceResolver, InitializingBea
 		{
 			if (logicalNotConditional)
 				return Optional.of(responseGenerator.referenceTargetMultipleMatchesLocallyByIdentifier(bundleIndex,
-						resource, resourceReference, result.getTotal()));
+						resource, resourceReference, total));
 			else
 				return Optional.of(responseGenerator.referenceTargetMultipleMatchesLocallyByCondition(bundleIndex,
-						resource, resourceReference, result.getTotal()));
+						resource, resourceReference, total));
 		}
 	}
-}
\ No newline at end of file
+}
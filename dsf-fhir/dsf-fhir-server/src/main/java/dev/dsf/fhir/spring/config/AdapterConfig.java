@@ -10,6 +10,7 @@ import dev.dsf.fhir.adapter.FhirAdapter;
 import dev.dsf.fhir.adapter.HtmlFhirAdapter;
 import dev.dsf.fhir.adapter.QuestionnaireResponseHtmlGenerator;
 import dev.dsf.fhir.adapter.SearchBundleHtmlGenerator;
+import dev.dsf.fhir.adapter.StreamingBundleAdapter;
 import dev.dsf.fhir.adapter.TaskHtmlGenerator;
 
 @Configuration
@@ -21,16 +22,26 @@ public class AdapterConfig
 	@Autowired
 	private PropertiesConfig propertiesConfig;
 
+	@Autowired
+	private HelperConfig helperConfig;
+
 	@Bean
 	public FhirAdapter fhirAdapter()
 	{
 		return new FhirAdapter(fhirConfig.fhirContext());
 	}
 
+	@Bean
+	public StreamingBundleAdapter streamingBundleAdapter()
+	{
+		return new StreamingBundleAdapter(fhirConfig.fhirContext());
+	}
+
 	@Bean
 	public HtmlFhirAdapter htmlFhirAdapter()
 	{
 		return new HtmlFhirAdapter(propertiesConfig.getServerBaseUrl(), fhirConfig.fhirContext(),
+				helperConfig.staticResourceCache(),
 				List.of(new QuestionnaireResponseHtmlGenerator(), new TaskHtmlGenerator(),
 						new SearchBundleHtmlGenerator(propertiesConfig.getServerBaseUrl(),
 								propertiesConfig.getDefaultPageCount())));
@@ -0,0 +1,59 @@
+package dev.dsf.fhir.spring.config;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import dev.dsf.fhir.bulk.BulkExportService;
+import dev.dsf.fhir.bulk.BulkExportServiceImpl;
+import dev.dsf.fhir.bulk.BulkImportService;
+import dev.dsf.fhir.bulk.BulkImportServiceImpl;
+
+@Configuration
+public class BulkDataConfig
+{
+	@Autowired
+	private PropertiesConfig propertiesConfig;
+
+	@Autowired
+	private DaoConfig daoConfig;
+
+	@Autowired
+	private FhirConfig fhirConfig;
+
+	@Autowired
+	private HelperConfig helperConfig;
+
+	@Autowired
+	private ReferenceConfig referenceConfig;
+
+	@Autowired
+	private AuthorizationConfig authorizationConfig;
+
+	@Autowired
+	private ValidationConfig validationConfig;
+
+	@Autowired
+	private EventConfig eventConfig;
+
+	@Bean
+	public BulkExportService bulkExportService()
+	{
+		return new BulkExportServiceImpl(daoConfig.daoProvider(), Paths.get(propertiesConfig.getExportDirectory()),
+				propertiesConfig.getExportThreads(), Duration.ofHours(propertiesConfig.getExportRetentionHours()));
+	}
+
+	@Bean
+	public BulkImportService bulkImportService()
+	{
+		return new BulkImportServiceImpl(propertiesConfig.getServerBaseUrl(), fhirConfig.fhirContext(),
+				daoConfig.dataSource(), daoConfig.daoProvider(), referenceConfig.referenceExtractor(),
+				referenceConfig.referenceResolver(), referenceConfig.referenceCleaner(),
+				helperConfig.responseGenerator(), authorizationConfig.authorizationHelper(),
+				validationConfig.validationHelper(), eventConfig.eventGenerator(), eventConfig.eventManager(),
+				propertiesConfig.getImportBatchSize(), propertiesConfig.getImportThreads());
+	}
+}
@@ -25,6 +25,7 @@ import org.springframework.context.annotation.Configuration;
 import de.rwh.utils.crypto.CertificateHelper;
 import de.rwh.utils.crypto.io.CertificateReader;
 import de.rwh.utils.crypto.io.PemIo;
+import dev.dsf.fhir.client.ClientConnectionPool;
 import dev.dsf.fhir.client.ClientProvider;
 import dev.dsf.fhir.client.ClientProviderImpl;
 
@@ -55,6 +56,16 @@ public class ClientConfig implements InitializingBean
 
 	@Bean
 	public ClientProvider clientProvider()
+	{
+		return new ClientProviderImpl(webserviceClientConnectionPool(),
+				propertiesConfig.getWebserviceClientReadTimeout(), propertiesConfig.getWebserviceClientConnectTimeout(),
+				propertiesConfig.proxyConfig(), propertiesConfig.getWebserviceClientVerbose(), fhirConfig.fhirContext(),
+				referenceConfig.referenceCleaner(), daoConfig.endpointDao(), helperConfig.exceptionHandler(),
+				buildInfoReaderConfig.buildInfoReader());
+	}
+
+	@Bean
+	public ClientConnectionPool webserviceClientConnectionPool()
 	{
 		char[] keyStorePassword = UUID.randomUUID().toString().toCharArray();
 
@@ -66,12 +77,12 @@ public class ClientConfig implements InitializingBean
 			KeyStore webserviceTrustStore = createTrustStore(
 					propertiesConfig.getWebserviceClientCertificateTrustCertificatesFile());
 
-			return new ClientProviderImpl(webserviceTrustStore, webserviceKeyStore, keyStorePassword,
-					propertiesConfig.getWebserviceClientReadTimeout(),
-					propertiesConfig.getWebserviceClientConnectTimeout(), propertiesConfig.proxyConfig(),
-					propertiesConfig.getWebserviceClientVerbose(), fhirConfig.fhirContext(),
-					referenceConfig.referenceCleaner(), daoConfig.endpointDao(), helperConfig.exceptionHandler(),
-					buildInfoReaderConfig.buildInfoReader());
+			return new ClientConnectionPool(webserviceTrustStore, webserviceKeyStore, keyStorePassword,
+					propertiesConfig.getWebserviceClientConnectionsMax(),
+					propertiesConfig.getWebserviceClientConnectionsMaxPerServer(),
+					propertiesConfig.getWebserviceClientConnectionsIdleTimeout(),
+					propertiesConfig.getWebserviceClientHttp2(),
+					propertiesConfig.getWebserviceClientRequestCompression());
 		}
 		catch (KeyStoreException | CertificateException | NoSuchAlgorithmException | IOException | PKCSException e)
 		{
@@ -122,5 +133,11 @@ public class ClientConfig implements InitializingBean
 				propertiesConfig.getWebserviceClientCertificatePrivateKeyFilePassword() != null ? "***" : "null",
 				propertiesConfig.proxyConfig().isEnabled() ? "enabled" : "disabled",
 				propertiesConfig.proxyConfig().getNoProxyUrls());
+		logger.info(
+				"Remote webservice client connection pool config: {maxTotal: {}, maxPerServer: {}, idleTimeout: {}, http2: {}}",
+				propertiesConfig.getWebserviceClientConnectionsMax(),
+				propertiesConfig.getWebserviceClientConnectionsMaxPerServer(),
+				propertiesConfig.getWebserviceClientConnectionsIdleTimeout(),
+				propertiesConfig.getWebserviceClientHttp2());
 	}
 }
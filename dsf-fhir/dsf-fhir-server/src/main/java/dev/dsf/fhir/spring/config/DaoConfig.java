@@ -87,6 +87,8 @@ public class DaoConfig
 
 		dataSource.setTestOnBorrow(true);
 		dataSource.setValidationQuery("SELECT 1");
+
+		configureStatementCache(dataSource);
 		return dataSource;
 	}
 
@@ -102,9 +104,22 @@ public class DaoConfig
 
 		dataSource.setTestOnBorrow(true);
 		dataSource.setValidationQuery("SELECT 1");
+
+		configureStatementCache(dataSource);
 		return dataSource;
 	}
 
+	private void configureStatementCache(BasicDataSource dataSource)
+	{
+		// statements are cached per connection by the postgres driver and switched to server-side prepared statements
+		// after the driver's default prepare threshold; with more than 30 resource DAOs and search statements differing
+		// by resource type and search parameters the driver's default of 256 cached queries is too small
+		dataSource.addConnectionProperty("preparedStatementCacheQueries",
+				String.valueOf(propertiesConfig.getDbStatementCacheQueries()));
+		dataSource.addConnectionProperty("preparedStatementCacheSizeMiB",
+				String.valueOf(propertiesConfig.getDbStatementCacheSizeMiB()));
+	}
+
 	private String toString(char[] password)
 	{
 		return password == null ? null : String.valueOf(password);
@@ -7,6 +7,7 @@ import org.springframework.context.annotation.Configuration;
 import dev.dsf.fhir.help.ExceptionHandler;
 import dev.dsf.fhir.help.ParameterConverter;
 import dev.dsf.fhir.help.ResponseGenerator;
+import dev.dsf.fhir.help.StaticResourceCache;
 
 @Configuration
 public class HelperConfig
@@ -31,4 +32,11 @@ public class HelperConfig
 	{
 		return new ParameterConverter(exceptionHandler());
 	}
+
+	@Bean
+	public StaticResourceCache staticResourceCache()
+	{
+		return propertiesConfig.getStaticResourceCacheEnabled() ? StaticResourceCache.preloaded()
+				: StaticResourceCache.uncached();
+	}
 }
@@ -48,6 +48,14 @@ public class PropertiesConfig implements InitializingBean
 	@Value("${dev.dsf.fhir.db.user.permanent.delete.password}")
 	private char[] dbPermanentDeletePassword;
 
+	@Documentation(description = "Maximum number of prepared statements cached by the database driver per database connection, set to `0` to disable the cache", recommendation = "Change default value only if the database reports memory issues with many connections")
+	@Value("${dev.dsf.fhir.db.statement.cache.queries:1024}")
+	private int dbStatementCacheQueries;
+
+	@Documentation(description = "Maximum size in MiB of prepared statements cached by the database driver per database connection", recommendation = "Change default value only if the database reports memory issues with many connections")
+	@Value("${dev.dsf.fhir.db.statement.cache.size.mib:16}")
+	private int dbStatementCacheSizeMiB;
+
 	@Documentation(required = true, description = "The base address of this DSF FHIR server to read/store fhir resources", example = "https://foo.bar/fhir")
 	@Value("${dev.dsf.fhir.server.base.url}")
 	private String serverBaseUrl;
@@ -96,10 +104,50 @@ public class PropertiesConfig implements InitializingBean
 	@Value("${dev.dsf.fhir.client.verbose:false}")
 	private boolean webserviceClientVerbose;
 
-	@Documentation(description = "To disable static resource caching, set to `false`", recommendation = "Only set to `false` for development")
+	@Documentation(description = "Maximum number of pooled connections to all remote DSF FHIR servers, connections are shared by all webservice clients")
+	@Value("${dev.dsf.fhir.client.connections.max:200}")
+	private int webserviceClientConnectionsMax;
+
+	@Documentation(description = "Maximum number of pooled connections to a single remote DSF FHIR server")
+	@Value("${dev.dsf.fhir.client.connections.max.per.server:20}")
+	private int webserviceClientConnectionsMaxPerServer;
+
+	@Documentation(description = "Time in milliseconds after which idle pooled connections to remote DSF FHIR servers are closed")
+	@Value("${dev.dsf.fhir.client.connections.idle.timeout:60000}")
+	private long webserviceClientConnectionsIdleTimeout;
+
+	@Documentation(description = "To use HTTP/2 for connections to remote DSF FHIR servers supporting it, set to `true`; not used for connections via forward proxy")
+	@Value("${dev.dsf.fhir.client.http2:false}")
+	private boolean webserviceClientHttp2;
+
+	@Documentation(description = "To gzip compress request bodies sent to remote DSF FHIR servers, set to `true`; compressed responses are always accepted", recommendation = "Only enable if all servers support compressed requests")
+	@Value("${dev.dsf.fhir.client.compression.request:false}")
+	private boolean webserviceClientRequestCompression;
+
+	@Documentation(description = "To disable static resource caching, set to `false`; if enabled, static resources are read and compressed at startup and referenced by content-hashed URLs cached by browsers for one year", recommendation = "Only set to `false` for development")
 	@Value("${dev.dsf.fhir.server.static.resource.cache:true}")
 	private boolean staticResourceCacheEnabled;
 
+	@Documentation(description = "Directory for bulk export output files, one sub directory per export job; created if not existing, sub directories of previous runs are deleted on startup", recommendation = "Use a dedicated directory with enough free disk space for the exported resources")
+	@Value("${dev.dsf.fhir.server.export.directory:export}")
+	private String exportDirectory;
+
+	@Documentation(description = "Maximum number of concurrently running bulk export jobs, further jobs are queued")
+	@Value("${dev.dsf.fhir.server.export.threads:2}")
+	private int exportThreads;
+
+	@Documentation(description = "Time in hours after which finished bulk export jobs and their output files are deleted")
+	@Value("${dev.dsf.fhir.server.export.retention.hours:24}")
+	private int exportRetentionHours;
+
+	@Documentation(description = "Number of resources inserted and committed together by the bulk import operation, events for created resources are published once per batch")
+	@Value("${dev.dsf.fhir.server.import.batch.size:500}")
+	private int importBatchSize;
+
+	@Documentation(description = "Number of threads used by the bulk import operation to parse and validate resources, shared by all running imports")
+	@Value("${dev.dsf.fhir.server.import.threads:4}")
+	private int importThreads;
+
 	@Value("${dev.dsf.server.status.port}")
 	private int jettyStatusConnectorPort;
 
@@ -200,6 +248,16 @@ public class PropertiesConfig implements InitializingBean
 		return dbPermanentDeletePassword;
 	}
 
+	public int getDbStatementCacheQueries()
+	{
+		return dbStatementCacheQueries;
+	}
+
+	public int getDbStatementCacheSizeMiB()
+	{
+		return dbStatementCacheSizeMiB;
+	}
+
 	public String getServerBaseUrl()
 	{
 		return serverBaseUrl.endsWith("/") ? serverBaseUrl.substring(serverBaseUrl.length() - 1) : serverBaseUrl;
@@ -260,11 +318,61 @@ public class PropertiesConfig implements InitializingBean
 		return webserviceClientVerbose;
 	}
 
+	public int getWebserviceClientConnectionsMax()
+	{
+		return webserviceClientConnectionsMax;
+	}
+
+	public int getWebserviceClientConnectionsMaxPerServer()
+	{
+		return webserviceClientConnectionsMaxPerServer;
+	}
+
+	public long getWebserviceClientConnectionsIdleTimeout()
+	{
+		return webserviceClientConnectionsIdleTimeout;
+	}
+
+	public boolean getWebserviceClientHttp2()
+	{
+		return webserviceClientHttp2;
+	}
+
+	public boolean getWebserviceClientRequestCompression()
+	{
+		return webserviceClientRequestCompression;
+	}
+
 	public boolean getStaticResourceCacheEnabled()
 	{
 		return staticResourceCacheEnabled;
 	}
 
+	public String getExportDirectory()
+	{
+		return exportDirectory;
+	}
+
+	public int getExportThreads()
+	{
+		return exportThreads;
+	}
+
+	public int getExportRetentionHours()
+	{
+		return exportRetentionHours;
+	}
+
+	public int getImportBatchSize()
+	{
+		return importBatchSize;
+	}
+
+	public int getImportThreads()
+	{
+		return importThreads;
+	}
+
 	public int getJettyStatusConnectorPort()
 	{
 		return jettyStatusConnectorPort;
@@ -160,6 +160,12 @@ public class WebserviceConfig
 	@Autowired
 	private HistoryConfig historyConfig;
 
+	@Autowired
+	private BulkDataConfig bulkDataConfig;
+
+	@Autowired
+	private JsonConfig jsonConfig;
+
 	@Bean
 	public DataFormatExceptionHandler dataFormatExceptionHandler()
 	{
@@ -863,14 +869,15 @@ public class WebserviceConfig
 	{
 		return new RootServiceSecure(rootServiceImpl(), propertiesConfig.getServerBaseUrl(),
 				helperConfig.responseGenerator(), referenceConfig.referenceResolver(),
-				authorizationConfig.rootAuthorizationRule());
+				authorizationConfig.rootAuthorizationRule(), authorizationConfig.authorizationRuleProvider());
 	}
 
 	private RootServiceImpl rootServiceImpl()
 	{
 		return new RootServiceImpl(commandConfig.commandFactory(), helperConfig.responseGenerator(),
 				helperConfig.parameterConverter(), helperConfig.exceptionHandler(), referenceConfig.referenceCleaner(),
-				historyConfig.historyService());
+				historyConfig.historyService(), daoConfig.daoProvider(), bulkDataConfig.bulkExportService(),
+				bulkDataConfig.bulkImportService(), jsonConfig.objectMapper(), propertiesConfig.getServerBaseUrl());
 	}
 
 	@Bean
@@ -906,7 +913,8 @@ public class WebserviceConfig
 
 	private StaticResourcesServiceImpl staticResourcesServiceImpl()
 	{
-		return new StaticResourcesServiceImpl(propertiesConfig.getStaticResourceCacheEnabled());
+		return new StaticResourcesServiceImpl(helperConfig.staticResourceCache(),
+				propertiesConfig.getStaticResourceCacheEnabled());
 	}
 
 	@Bean
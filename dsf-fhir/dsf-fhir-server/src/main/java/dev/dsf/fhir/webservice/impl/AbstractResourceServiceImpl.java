@@ -50,6 +50,8 @@ import ca.uhn.fhir.rest.api.Constants;
 import ca.uhn.fhir.validation.ResultSeverityEnum;
 import ca.uhn.fhir.validation.SingleValidationMessage;
 import ca.uhn.fhir.validation.ValidationResult;
+import dev.dsf.fhir.adapter.StreamingBundle;
+import dev.dsf.fhir.adapter.StreamingBundleAdapter;
 import dev.dsf.fhir.authorization.AuthorizationRule;
 import dev.dsf.fhir.authorization.AuthorizationRuleProvider;
 import dev.dsf.fhir.dao.ResourceDao;
@@ -65,6 +67,7 @@ import dev.dsf.fhir.prefer.PreferHandlingType;
 import dev.dsf.fhir.search.PartialResult;
 import dev.dsf.fhir.search.SearchQuery;
 import dev.dsf.fhir.search.SearchQueryParameterError;
+import dev.dsf.fhir.service.ReferenceCheckCache;
 import dev.dsf.fhir.service.ReferenceCleaner;
 import dev.dsf.fhir.service.ReferenceExtractor;
 import dev.dsf.fhir.service.ReferenceResolver;
@@ -256,10 +259,12 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 	private void checkReferences(Resource resource, Connection connection, Predicate<ResourceReference> checkReference)
 			throws WebApplicationException
 	{
+		ReferenceCheckCache cache = new ReferenceCheckCache(() -> referenceExtractor.getReferences(resource));
+
 		referenceExtractor.getReferences(resource).filter(checkReference)
-				.filter(ref -> referenceResolver.referenceCanBeChecked(ref, connection)).forEach(ref ->
+				.filter(ref -> referenceResolver.referenceCanBeChecked(ref, connection, cache)).forEach(ref ->
 				{
-					Optional<OperationOutcome> outcome = checkReference(resource, connection, ref);
+					Optional<OperationOutcome> outcome = checkReference(resource, connection, ref, cache);
 					if (outcome.isPresent())
 					{
 						Response response = Response.status(Status.FORBIDDEN).entity(outcome.get()).build();
@@ -269,7 +274,7 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 	}
 
 	private Optional<OperationOutcome> checkReference(Resource resource, Connection connection,
-			ResourceReference reference) throws WebApplicationException
+			ResourceReference reference, ReferenceCheckCache cache) throws WebApplicationException
 	{
 		ReferenceType type = reference.getType(serverBase);
 		switch (type)
@@ -277,13 +282,14 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 			case LITERAL_INTERNAL:
 			case RELATED_ARTEFACT_LITERAL_INTERNAL_URL:
 			case ATTACHMENT_LITERAL_INTERNAL_URL:
-				return referenceResolver.checkLiteralInternalReference(resource, reference, connection);
+				return referenceResolver.checkLiteralInternalReference(resource, reference, connection, null, cache);
 			case LITERAL_EXTERNAL:
 			case RELATED_ARTEFACT_LITERAL_EXTERNAL_URL:
 			case ATTACHMENT_LITERAL_EXTERNAL_URL:
 				return referenceResolver.checkLiteralExternalReference(resource, reference);
 			case LOGICAL:
-				return referenceResolver.checkLogicalReference(getCurrentIdentity(), resource, reference, connection);
+				return referenceResolver.checkLogicalReference(getCurrentIdentity(), resource, reference, connection,
+						null, cache);
 			// unknown urls to non FHIR servers in related artifacts must not be checked
 			case RELATED_ARTEFACT_UNKNOWN_URL:
 			case ATTACHMENT_UNKNOWN_URL:
@@ -643,11 +649,15 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 		Integer page = parameterConverter.getFirstInt(queryParameters, SearchQuery.PARAMETER_PAGE);
 		int effectivePage = page == null ? 1 : page;
 
+		SummaryMode summary = SummaryMode.fromString(queryParameters.getFirst(SearchQuery.PARAMETER_SUMMARY));
+
+		// _summary=count: only the total is returned, resources are not selected
 		Integer count = parameterConverter.getFirstInt(queryParameters, SearchQuery.PARAMETER_COUNT);
-		int effectiveCount = (count == null || count < 0) ? defaultPageCount : count;
+		int effectiveCount = SummaryMode.COUNT.equals(summary) ? 0
+				: (count == null || count < 0) ? defaultPageCount : count;
 
 		SearchQuery<R> query = dao.createSearchQuery(getCurrentIdentity(), effectivePage, effectiveCount);
-		query.configureParameters(queryParameters);
+		query.configureParameters(queryParameters).configureProjection(queryParameters);
 		List<SearchQueryParameterError> errors = query.getUnsupportedQueryParameters();
 
 		// if query parameter errors and client requests strict handling -> bad request outcome
@@ -655,7 +665,13 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 			return responseGenerator.response(Status.BAD_REQUEST, responseGenerator.toOperationOutcomeError(errors),
 					parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers)).build();
 
-		PartialResult<R> result = exceptionHandler.handleSqlException(() -> dao.search(query));
+		MediaType mediaType = parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers);
+
+		// resources parsed and encoded one by one while writing the response, if supported by the media type
+		boolean streaming = StreamingBundleAdapter.isStreamingSupported(mediaType);
+
+		PartialResult<R> result = exceptionHandler
+				.handleSqlException(() -> streaming ? dao.searchLazy(query) : dao.search(query));
 
 		result = filterIncludeResources(result);
 
@@ -663,16 +679,22 @@ public abstract class AbstractResourceServiceImpl<D extends ResourceDao<R>, R ex
 
 		String format = queryParameters.getFirst(SearchQuery.PARAMETER_FORMAT);
 		String pretty = queryParameters.getFirst(SearchQuery.PARAMETER_PRETTY);
-		SummaryMode summary = SummaryMode.fromString(queryParameters.getFirst(SearchQuery.PARAMETER_SUMMARY));
+
+		if (streaming)
+		{
+			StreamingBundle searchSet = responseGenerator.createStreamingSearchSet(result, errors, bundleUri, format,
+					pretty, summary, referenceCleaner::cleanLiteralReferences);
+
+			return responseGenerator.response(Status.OK, searchSet, mediaType).build();
+		}
+
 		Bundle searchSet = responseGenerator.createSearchSet(result, errors, bundleUri, format, pretty, summary);
 
 		// clean literal references from bundle entries
 		searchSet.getEntry().stream().filter(BundleEntryComponent::hasResource).map(BundleEntryComponent::getResource)
 				.forEach(referenceCleaner::cleanLiteralReferences);
 
-		return responseGenerator
-				.response(Status.OK, searchSet, parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers))
-				.build();
+		return responseGenerator.response(Status.OK, searchSet, mediaType).build();
 	}
 
 	private PartialResult<R> filterIncludeResources(PartialResult<R> result)
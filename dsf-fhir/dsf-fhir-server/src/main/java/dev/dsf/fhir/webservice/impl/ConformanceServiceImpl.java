@@ -303,6 +303,11 @@ public class ConformanceServiceImpl extends AbstractBasicService implements Conf
 		websocketExtension.setUrl("http://hl7.org/fhir/StructureDefinition/capabilitystatement-websocket");
 		websocketExtension.setValue(new UrlType(serverBase.replace("http", "ws") + ServerEndpoint.PATH));
 
+		rest.addOperation(createOperation("export", "http://hl7.org/fhir/uv/bulkdata/OperationDefinition/export",
+				"Asynchronous export of all resources of the types given by the required _type parameter as NDJSON files, supports the _since parameter, resources filtered by read access rules"));
+		rest.addOperation(createOperation("import", "http://dsf.dev/fhir/OperationDefinition/import",
+				"Creates one resource per line of the NDJSON request body, resources are validated, checked against create authorization rules and committed in batches; processing stops at the first line that can not be imported"));
+
 		var resources = Arrays.asList(ActivityDefinition.class, Binary.class, Bundle.class, CodeSystem.class,
 				DocumentReference.class, Endpoint.class, Group.class, HealthcareService.class, Library.class,
 				Location.class, Measure.class, MeasureReport.class, NamingSystem.class, Organization.class,
@@ -442,6 +447,7 @@ public class ConformanceServiceImpl extends AbstractBasicService implements Conf
 					.forEach(r::addSearchParam);
 
 			r.addSearchParam(createCountParameter(defaultPageCount));
+			r.addSearchParam(createElementsParameter());
 			r.addSearchParam(createFormatParameter());
 			r.addSearchParam(createIdParameter());
 
@@ -596,6 +602,12 @@ public class ConformanceServiceImpl extends AbstractBasicService implements Conf
 		return createFormatParameter;
 	}
 
+	private CapabilityStatementRestResourceSearchParamComponent createElementsParameter()
+	{
+		return createSearchParameter("_elements", "", SearchParamType.SPECIAL,
+				"Comma separated list of top-level elements to return, mandatory elements, id and meta are always returned");
+	}
+
 	private CapabilityStatementRestResourceSearchParamComponent createProfileParameter()
 	{
 		return createSearchParameter(ResourceProfile.class);
@@ -1,6 +1,21 @@
 package dev.dsf.fhir.webservice.impl;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 import org.hl7.fhir.r4.model.Bundle;
 import org.hl7.fhir.r4.model.OperationOutcome;
@@ -8,33 +23,64 @@ import org.hl7.fhir.r4.model.OperationOutcome.IssueSeverity;
 import org.hl7.fhir.r4.model.OperationOutcome.IssueType;
 import org.springframework.beans.factory.InitializingBean;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import ca.uhn.fhir.rest.api.Constants;
+import dev.dsf.fhir.bulk.BulkExportJob;
+import dev.dsf.fhir.bulk.BulkExportJob.Output;
+import dev.dsf.fhir.bulk.BulkExportParameters;
+import dev.dsf.fhir.bulk.BulkExportService;
+import dev.dsf.fhir.bulk.BulkImportResult;
+import dev.dsf.fhir.bulk.BulkImportService;
+import dev.dsf.fhir.dao.ResourceDao;
 import dev.dsf.fhir.dao.command.CommandFactory;
 import dev.dsf.fhir.dao.command.CommandList;
+import dev.dsf.fhir.dao.provider.DaoProvider;
 import dev.dsf.fhir.help.ExceptionHandler;
 import dev.dsf.fhir.help.ParameterConverter;
 import dev.dsf.fhir.help.ResponseGenerator;
 import dev.dsf.fhir.history.HistoryService;
+import dev.dsf.fhir.search.DbSearchQuery;
+import dev.dsf.fhir.search.SearchQuery;
+import dev.dsf.fhir.search.SearchQueryParameterError;
+import dev.dsf.fhir.search.parameters.ResourceLastUpdated;
 import dev.dsf.fhir.service.ReferenceCleaner;
 import dev.dsf.fhir.webservice.base.AbstractBasicService;
 import dev.dsf.fhir.webservice.specification.RootService;
 import jakarta.ws.rs.HttpMethod;
 import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.Status;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriBuilder;
 import jakarta.ws.rs.core.UriInfo;
 
 public class RootServiceImpl extends AbstractBasicService implements RootService, InitializingBean
 {
+	public static final String EXPORT_STATUS_PATH = "$export-poll-status";
+
+	private static final String EXPORT_RETRY_AFTER_SECONDS = "10";
+
 	private final CommandFactory commandFactory;
 	private final ResponseGenerator responseGenerator;
 	private final ParameterConverter parameterConverter;
 	private final ExceptionHandler exceptionHandler;
 	private final ReferenceCleaner referenceCleaner;
 	private final HistoryService historyService;
+	private final DaoProvider daoProvider;
+	private final BulkExportService bulkExportService;
+	private final BulkImportService bulkImportService;
+	private final ObjectMapper objectMapper;
+	private final String serverBase;
 
 	public RootServiceImpl(CommandFactory commandFactory, ResponseGenerator responseGenerator,
 			ParameterConverter parameterConverter, ExceptionHandler exceptionHandler, ReferenceCleaner referenceCleaner,
-			HistoryService historyService)
+			HistoryService historyService, DaoProvider daoProvider, BulkExportService bulkExportService,
+			BulkImportService bulkImportService, ObjectMapper objectMapper, String serverBase)
 	{
 		this.commandFactory = commandFactory;
 		this.responseGenerator = responseGenerator;
@@ -42,6 +88,11 @@ public class RootServiceImpl extends AbstractBasicService implements RootService
 		this.exceptionHandler = exceptionHandler;
 		this.referenceCleaner = referenceCleaner;
 		this.historyService = historyService;
+		this.daoProvider = daoProvider;
+		this.bulkExportService = bulkExportService;
+		this.bulkImportService = bulkImportService;
+		this.objectMapper = objectMapper;
+		this.serverBase = serverBase;
 	}
 
 	@Override
@@ -53,6 +104,11 @@ public class RootServiceImpl extends AbstractBasicService implements RootService
 		Objects.requireNonNull(exceptionHandler, "exceptionHandler");
 		Objects.requireNonNull(referenceCleaner, "referenceCleaner");
 		Objects.requireNonNull(historyService, "historyService");
+		Objects.requireNonNull(daoProvider, "daoProvider");
+		Objects.requireNonNull(bulkExportService, "bulkExportService");
+		Objects.requireNonNull(bulkImportService, "bulkImportService");
+		Objects.requireNonNull(objectMapper, "objectMapper");
+		Objects.requireNonNull(serverBase, "serverBase");
 	}
 
 	@Override
@@ -90,4 +146,200 @@ public class RootServiceImpl extends AbstractBasicService implements RootService
 		return responseGenerator.response(Status.OK, referenceCleaner.cleanLiteralReferences(history),
 				parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers)).build();
 	}
+
+	@Override
+	public Response export(String exportPath, UriInfo uri, HttpHeaders headers)
+	{
+		MediaType mediaType = parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers);
+		MultivaluedMap<String, String> queryParameters = uri.getQueryParameters();
+
+		String outputFormat = queryParameters.getFirst(BulkExportParameters.PARAMETER_OUTPUT_FORMAT);
+		if (outputFormat != null && !Constants.CTS_NDJSON.contains(outputFormat))
+			return badExportRequest("Parameter " + BulkExportParameters.PARAMETER_OUTPUT_FORMAT + " value '"
+					+ outputFormat + "' not supported, only " + Constants.CT_FHIR_NDJSON + " supported", mediaType);
+
+		List<String> resourceTypes = BulkExportParameters.getResourceTypes(queryParameters);
+		if (resourceTypes.isEmpty())
+			return badExportRequest("Parameter " + BulkExportParameters.PARAMETER_TYPE
+					+ " missing, resource types to export need to be specified", mediaType);
+
+		String since = queryParameters.getFirst(BulkExportParameters.PARAMETER_SINCE);
+		if (since != null && !isInstant(since))
+			return badExportRequest(
+					"Parameter " + BulkExportParameters.PARAMETER_SINCE + " value '" + since + "' not an instant",
+					mediaType);
+
+		Map<String, DbSearchQuery> queriesByResourceType = new LinkedHashMap<>();
+		List<SearchQueryParameterError> errors = new ArrayList<>();
+		for (String resourceType : resourceTypes)
+		{
+			Optional<ResourceDao<?>> dao = daoProvider.getDao(resourceType);
+			if (dao.isEmpty())
+				return badExportRequest("Resource type " + resourceType + " not supported", mediaType);
+
+			// page and count not used by export statements, read access rules part of the query
+			SearchQuery<?> query = dao.get().createSearchQuery(getCurrentIdentity(), 1, 1);
+			if (since != null)
+				query.configureParameters(Map.of(ResourceLastUpdated.PARAMETER_NAME, List.of("ge" + since)));
+
+			errors.addAll(query.getUnsupportedQueryParameters());
+			queriesByResourceType.put(resourceType, query);
+		}
+
+		if (!errors.isEmpty())
+			return responseGenerator
+					.response(Status.BAD_REQUEST, responseGenerator.toOperationOutcomeError(errors), mediaType).build();
+
+		String request = UriBuilder.fromPath(serverBase).path(exportPath)
+				.replaceQuery(uri.getRequestUri().getRawQuery()).build().toString();
+
+		BulkExportJob job = bulkExportService.start(getCurrentIdentity(), request, queriesByResourceType);
+
+		return Response.status(Status.ACCEPTED).header(Constants.HEADER_CONTENT_LOCATION, getExportStatusUrl(job))
+				.build();
+	}
+
+	private boolean isInstant(String value)
+	{
+		try
+		{
+			OffsetDateTime.parse(value);
+			return true;
+		}
+		catch (DateTimeParseException e)
+		{
+			return false;
+		}
+	}
+
+	private Response badExportRequest(String diagnostics, MediaType mediaType)
+	{
+		OperationOutcome outcome = responseGenerator.createOutcome(IssueSeverity.ERROR, IssueType.PROCESSING,
+				diagnostics);
+		return responseGenerator.response(Status.BAD_REQUEST, outcome, mediaType).build();
+	}
+
+	private String getExportStatusUrl(BulkExportJob job)
+	{
+		return UriBuilder.fromPath(serverBase).path(EXPORT_STATUS_PATH).path(job.getId()).build().toString();
+	}
+
+	@Override
+	public Response exportStatus(String statusPath, String id, UriInfo uri, HttpHeaders headers)
+	{
+		Optional<BulkExportJob> job = bulkExportService.getJob(getCurrentIdentity(), id);
+		if (job.isEmpty())
+			return Response.status(Status.NOT_FOUND).build();
+
+		switch (job.get().getStatus())
+		{
+			case ACCEPTED:
+				return Response.status(Status.ACCEPTED).header(Constants.HEADER_X_PROGRESS, "Queued")
+						.header(Constants.HEADER_RETRY_AFTER, EXPORT_RETRY_AFTER_SECONDS).build();
+
+			case IN_PROGRESS:
+				return Response.status(Status.ACCEPTED)
+						.header(Constants.HEADER_X_PROGRESS,
+								"Exporting " + job.get().getCurrentResourceType().orElse("resources") + ", "
+										+ job.get().getExportedResources() + " resources exported")
+						.header(Constants.HEADER_RETRY_AFTER, EXPORT_RETRY_AFTER_SECONDS).build();
+
+			case FAILED:
+				OperationOutcome outcome = responseGenerator.createOutcome(IssueSeverity.ERROR, IssueType.EXCEPTION,
+						job.get().getError().orElse("Export failed"));
+				return responseGenerator.response(Status.INTERNAL_SERVER_ERROR, outcome,
+						parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers)).build();
+
+			case COMPLETED:
+			default:
+				ObjectNode manifest = createExportManifest(job.get());
+				return Response.ok((StreamingOutput) output -> objectMapper.writeValue(output, manifest),
+						MediaType.APPLICATION_JSON_TYPE).build();
+		}
+	}
+
+	private ObjectNode createExportManifest(BulkExportJob job)
+	{
+		ObjectNode manifest = objectMapper.createObjectNode();
+		manifest.put("transactionTime", job.getTransactionTime().toString());
+		manifest.put("request", job.getRequest());
+		manifest.put("requiresAccessToken", true);
+
+		ArrayNode output = manifest.putArray("output");
+		for (Output o : job.getOutputs())
+		{
+			// files without resources not listed
+			if (o.getCount() > 0)
+				output.addObject().put("type", o.getResourceType())
+						.put("url", getExportStatusUrl(job) + "/" + o.getFileName()).put("count", o.getCount());
+		}
+
+		manifest.putArray("error");
+
+		return manifest;
+	}
+
+	@Override
+	public Response deleteExport(String statusPath, String id, UriInfo uri, HttpHeaders headers)
+	{
+		if (!bulkExportService.deleteJob(getCurrentIdentity(), id))
+			return Response.status(Status.NOT_FOUND).build();
+
+		return Response.status(Status.ACCEPTED).build();
+	}
+
+	@Override
+	public Response exportFile(String statusPath, String id, String fileName, UriInfo uri, HttpHeaders headers)
+	{
+		Optional<Path> file = bulkExportService.getOutputFile(getCurrentIdentity(), id, fileName);
+		if (file.isEmpty())
+			return Response.status(Status.NOT_FOUND).build();
+
+		return Response.ok((StreamingOutput) output -> Files.copy(file.get(), output), Constants.CT_FHIR_NDJSON)
+				.build();
+	}
+
+	@Override
+	public Response importResources(String importPath, InputStream ndjson, UriInfo uri, HttpHeaders headers)
+	{
+		MediaType mediaType = parameterConverter.getMediaTypeThrowIfNotSupported(uri, headers);
+
+		BulkImportResult result;
+		try (Reader reader = new InputStreamReader(ndjson, StandardCharsets.UTF_8))
+		{
+			result = bulkImportService.importResources(getCurrentIdentity(), reader);
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+
+		Status status;
+		OperationOutcome outcome;
+		if (result.isFailed())
+		{
+			Response error = result.getError().get();
+			status = Status.fromStatusCode(error.getStatus());
+			outcome = error.getEntity() instanceof OperationOutcome o ? o
+					: responseGenerator.createOutcome(IssueSeverity.ERROR, IssueType.PROCESSING,
+							"Import of line " + result.getFailedLine().get() + " failed");
+
+			// batches before the failed line are committed
+			outcome.addIssue().setSeverity(IssueSeverity.INFORMATION).setCode(IssueType.INFORMATIONAL)
+					.setDiagnostics(result.getImported() + " resources imported, processing stopped at line "
+							+ result.getFailedLine().get());
+		}
+		else
+		{
+			status = Status.OK;
+			outcome = responseGenerator.createOutcome(IssueSeverity.INFORMATION, IssueType.INFORMATIONAL,
+					result.getImported() + " resources imported");
+		}
+
+		result.getImportedByResourceType()
+				.forEach((type, count) -> outcome.addIssue().setSeverity(IssueSeverity.INFORMATION)
+						.setCode(IssueType.INFORMATIONAL).setDiagnostics(count + " " + type + " resources imported"));
+
+		return responseGenerator.response(status, outcome, mediaType).build();
+	}
 }
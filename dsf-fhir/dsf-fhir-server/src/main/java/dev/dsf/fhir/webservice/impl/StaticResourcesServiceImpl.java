@@ -1,22 +1,14 @@
 package dev.dsf.fhir.webservice.impl;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.lang.ref.SoftReference;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.function.Function;
-
-import org.apache.commons.codec.binary.Hex;
 
 import ca.uhn.fhir.rest.api.Constants;
+import dev.dsf.fhir.help.StaticResourceCache;
+import dev.dsf.fhir.help.StaticResourceCache.Entry;
 import dev.dsf.fhir.webservice.base.AbstractBasicService;
 import dev.dsf.fhir.webservice.specification.StaticResourcesService;
-import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.CacheControl;
 import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.HttpHeaders;
@@ -28,169 +20,95 @@ import jakarta.ws.rs.core.UriInfo;
 
 public class StaticResourcesServiceImpl extends AbstractBasicService implements StaticResourcesService
 {
-	private static CacheControl NO_TRANSFORM = new CacheControl();
-	private static CacheControl NO_CACHE_NO_TRANSFORM = new CacheControl();
+	private static final String GZIP = "gzip";
+	private static final String GZIP_TAG_SUFFIX = "-" + GZIP;
+
+	private static final CacheControl NO_TRANSFORM = new CacheControl();
+	private static final CacheControl NO_CACHE_NO_TRANSFORM = new CacheControl();
+	private static final CacheControl IMMUTABLE_NO_TRANSFORM = new CacheControl();
 	static
 	{
 		// no-transform set by default
 		NO_CACHE_NO_TRANSFORM.setNoCache(true);
-	}
 
-	private static final class CacheEntry
-	{
-		private final byte[] data;
-		private final byte[] hash;
-		private final String mimeType;
-
-		CacheEntry(byte[] data, byte[] hash, String mimeType)
-		{
-			this.data = data;
-			this.hash = hash;
-			this.mimeType = mimeType;
-		}
-
-		byte[] getData()
-		{
-			return data;
-		}
-
-		EntityTag getTag()
-		{
-			return new EntityTag(Hex.encodeHexString(hash));
-		}
-
-		String getMimeType()
-		{
-			return mimeType;
-		}
+		// content-hashed file names change if the content changes
+		IMMUTABLE_NO_TRANSFORM.setMaxAge(365 * 24 * 60 * 60);
+		IMMUTABLE_NO_TRANSFORM.getCacheExtension().put("immutable", "");
 	}
 
-	private static abstract class AbstractCache
+	private final StaticResourceCache cache;
+	private final CacheControl cacheControl;
+
+	/**
+	 * @param cache
+	 *            not <code>null</code>
+	 * @param cacheEnabled
+	 *            <code>false</code> if browsers should revalidate static resources for every request
+	 */
+	public StaticResourcesServiceImpl(StaticResourceCache cache, boolean cacheEnabled)
 	{
-		abstract Optional<CacheEntry> get(String fileName);
-
-		protected CacheEntry read(InputStream stream, String fileName) throws IOException
-		{
-			byte[] data = stream.readAllBytes();
-			byte[] hash = hash(data);
-			String mimeType = mimeType(fileName);
-
-			return new CacheEntry(data, hash, mimeType);
-		}
-
-		private byte[] hash(byte[] data)
-		{
-			try
-			{
-				MessageDigest digest = MessageDigest.getInstance("MD5");
-				return digest.digest(data);
-			}
-			catch (NoSuchAlgorithmException e)
-			{
-				throw new RuntimeException(e);
-			}
-		}
-
-		private String mimeType(String fileName)
-		{
-			String[] parts = fileName.split("\\.");
-			return MIME_TYPE_BY_SUFFIX.get(parts[parts.length - 1]);
-		}
+		this.cache = Objects.requireNonNull(cache, "cache");
+		cacheControl = cacheEnabled ? NO_TRANSFORM : NO_CACHE_NO_TRANSFORM;
 	}
 
-	private static final class Cache extends AbstractCache
+	@Override
+	public Response getFile(String fileName, UriInfo uri, HttpHeaders headers)
 	{
-		private final Map<String, SoftReference<CacheEntry>> entries = new HashMap<>();
-
-		@Override
-		Optional<CacheEntry> get(String fileName)
-		{
-			SoftReference<CacheEntry> entry = entries.get(fileName);
-			if (entry == null || entry.get() == null)
-				return read(fileName);
-			else
-				return Optional.of(entry.get());
-		}
-
-		Optional<CacheEntry> read(String fileName)
-		{
-			try (InputStream stream = StaticResourcesServiceImpl.class.getResourceAsStream("/static/" + fileName))
-			{
-				if (stream == null)
-					return Optional.empty();
-				else
-				{
-					CacheEntry entry = read(stream, fileName);
-					entries.put(fileName, new SoftReference<>(entry));
-					return Optional.of(entry);
-				}
-			}
-			catch (IOException e)
-			{
-				throw new WebApplicationException(e);
-			}
-		}
+		if (fileName == null || fileName.isBlank())
+			return Response.status(Status.NOT_FOUND).build();
+
+		Optional<Entry> entry = cache.get(fileName);
+		if (entry.isEmpty())
+			return Response.status(Status.NOT_FOUND).build();
+
+		return toNotModifiedOrOkResponse(entry.get(), fileName.equals(entry.get().getHashedFileName()), headers)
+				.build();
 	}
 
-	private static final class NoCache extends AbstractCache
+	private ResponseBuilder toNotModifiedOrOkResponse(Entry entry, boolean immutable, HttpHeaders headers)
 	{
-		@Override
-		Optional<CacheEntry> get(String fileName)
-		{
-			try (InputStream stream = StaticResourcesServiceImpl.class.getResourceAsStream("/static/" + fileName))
-			{
-				if (stream == null)
-					return Optional.empty();
-				else
-					return Optional.of(read(stream, fileName));
-			}
-			catch (IOException e)
-			{
-				throw new WebApplicationException(e);
-			}
-		}
-	}
+		boolean gzip = entry.getGzipData() != null && isGzipAccepted(headers);
+		EntityTag tag = new EntityTag(gzip ? entry.getHash() + GZIP_TAG_SUFFIX : entry.getHash());
+		CacheControl cacheControl = immutable ? IMMUTABLE_NO_TRANSFORM : this.cacheControl;
+
+		ResponseBuilder builder;
+		if (isMatch(tag, headers))
+			builder = Response.status(Status.NOT_MODIFIED);
+		else if (gzip)
+			builder = Response.ok(entry.getGzipData(), MediaType.valueOf(entry.getMimeType()))
+					.header(HttpHeaders.CONTENT_ENCODING, GZIP);
+		else
+			builder = Response.ok(entry.getData(), MediaType.valueOf(entry.getMimeType()));
 
-	private static final Map<String, String> MIME_TYPE_BY_SUFFIX = Map.of("css", "text/css", "js", "text/javascript",
-			"html", "text/html", "pdf", "application/pdf", "png", "image/png", "svg", "image/svg+xml", "jpg",
-			"image/jpeg");
+		if (entry.getGzipData() != null)
+			builder.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
 
-	private final AbstractCache cache;
-	private final CacheControl cacheControl;
+		return builder.tag(tag).cacheControl(cacheControl);
+	}
 
-	public StaticResourcesServiceImpl(boolean cacheEnabled)
+	private boolean isMatch(EntityTag tag, HttpHeaders headers)
 	{
-		cache = cacheEnabled ? new Cache() : new NoCache();
-		cacheControl = cacheEnabled ? NO_TRANSFORM : NO_CACHE_NO_TRANSFORM;
+		return Arrays.asList(Constants.HEADER_IF_NONE_MATCH, Constants.HEADER_IF_NONE_MATCH_LC).stream()
+				.map(headers::getHeaderString).filter(Objects::nonNull).findFirst()
+				.map(h -> Arrays.stream(h.split(",")).map(String::trim)
+						.map(t -> t.startsWith("W/") ? t.substring(2) : t).map(t -> t.replace("\"", ""))
+						.anyMatch(t -> "*".equals(t) || tag.getValue().equals(t)))
+				.orElse(false);
 	}
 
-	@Override
-	public Response getFile(String fileName, UriInfo uri, HttpHeaders headers)
+	private boolean isGzipAccepted(HttpHeaders headers)
 	{
-		if (fileName == null || fileName.isBlank())
-			return Response.status(Status.NOT_FOUND).build();
-		else if (!MIME_TYPE_BY_SUFFIX.keySet().stream().anyMatch(key -> fileName.endsWith(key)))
-			return Response.status(Status.NOT_FOUND).build();
-		else
-		{
-			Optional<CacheEntry> entry = cache.get(fileName);
-			Optional<String> matchTag = Arrays.asList(Constants.HEADER_IF_NONE_MATCH, Constants.HEADER_IF_NONE_MATCH_LC)
-					.stream().map(name -> headers.getHeaderString(name)).filter(h -> h != null).findFirst();
-
-			return entry.map(toNotModifiedOrOkResponse(matchTag.orElse(""))).orElse(Response.status(Status.NOT_FOUND))
-					.build();
-		}
+		String acceptEncoding = headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING);
+		if (acceptEncoding == null)
+			return false;
+
+		return Arrays.stream(acceptEncoding.split(",")).map(String::trim).map(e -> e.split(";"))
+				.anyMatch(e -> GZIP.equalsIgnoreCase(e[0].trim()) && !isZeroQuality(e));
 	}
 
-	private Function<CacheEntry, ResponseBuilder> toNotModifiedOrOkResponse(String matchTag)
+	private boolean isZeroQuality(String[] encodingAndParameters)
 	{
-		return entry ->
-		{
-			if (entry.getTag().getValue().equals(matchTag.replace("\"", "")))
-				return Response.status(Status.NOT_MODIFIED);
-			else
-				return Response.ok(entry.getData(), MediaType.valueOf(entry.getMimeType())).tag(entry.getTag())
-						.cacheControl(cacheControl);
-		};
+		return Arrays.stream(encodingAndParameters).skip(1).map(String::trim)
+				.anyMatch(p -> p.matches("[qQ]\\s*=\\s*0(\\.0{0,3})?"));
 	}
 }
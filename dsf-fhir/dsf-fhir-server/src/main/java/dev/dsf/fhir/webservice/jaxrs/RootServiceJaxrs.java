@@ -1,5 +1,7 @@
 package dev.dsf.fhir.webservice.jaxrs;
 
+import java.io.InputStream;
+
 import org.hl7.fhir.r4.model.Bundle;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -7,9 +9,11 @@ import org.slf4j.LoggerFactory;
 import ca.uhn.fhir.rest.api.Constants;
 import dev.dsf.fhir.webservice.specification.RootService;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.HttpHeaders;
@@ -60,4 +64,62 @@ public class RootServiceJaxrs extends AbstractServiceJaxrs<RootService> implemen
 
 		return delegate.handleBundle(bundle, uri, headers);
 	}
+
+	@GET
+	@Path("/{export : [$]export(/)?}")
+	@Override
+	public Response export(@PathParam("export") String exportPath, @Context UriInfo uri, @Context HttpHeaders headers)
+	{
+		logger.trace("GET {}", uri.getRequestUri().toString());
+
+		return delegate.export(exportPath, uri, headers);
+	}
+
+	@GET
+	@Path("/{status : [$]export-poll-status}/{id}")
+	@Override
+	public Response exportStatus(@PathParam("status") String statusPath, @PathParam("id") String id,
+			@Context UriInfo uri, @Context HttpHeaders headers)
+	{
+		logger.trace("GET {}", uri.getRequestUri().toString());
+
+		return delegate.exportStatus(statusPath, id, uri, headers);
+	}
+
+	@DELETE
+	@Path("/{status : [$]export-poll-status}/{id}")
+	@Override
+	public Response deleteExport(@PathParam("status") String statusPath, @PathParam("id") String id,
+			@Context UriInfo uri, @Context HttpHeaders headers)
+	{
+		logger.trace("DELETE {}", uri.getRequestUri().toString());
+
+		return delegate.deleteExport(statusPath, id, uri, headers);
+	}
+
+	@GET
+	@Path("/{status : [$]export-poll-status}/{id}/{fileName}")
+	@Produces({ Constants.CT_FHIR_NDJSON, Constants.CT_APP_NDJSON, Constants.CT_FHIR_XML, Constants.CT_FHIR_XML_NEW,
+			MediaType.APPLICATION_XML, Constants.CT_FHIR_JSON, Constants.CT_FHIR_JSON_NEW, MediaType.APPLICATION_JSON,
+			MediaType.TEXT_HTML })
+	@Override
+	public Response exportFile(@PathParam("status") String statusPath, @PathParam("id") String id,
+			@PathParam("fileName") String fileName, @Context UriInfo uri, @Context HttpHeaders headers)
+	{
+		logger.trace("GET {}", uri.getRequestUri().toString());
+
+		return delegate.exportFile(statusPath, id, fileName, uri, headers);
+	}
+
+	@POST
+	@Path("/{import : [$]import(/)?}")
+	@Consumes({ Constants.CT_FHIR_NDJSON, Constants.CT_APP_NDJSON })
+	@Override
+	public Response importResources(@PathParam("import") String importPath, InputStream ndjson, @Context UriInfo uri,
+			@Context HttpHeaders headers)
+	{
+		logger.trace("POST {}", uri.getRequestUri().toString());
+
+		return delegate.importResources(importPath, ndjson, uri, headers);
+	}
 }
@@ -1,5 +1,7 @@
 package dev.dsf.fhir.webservice.secure;
 
+import java.io.InputStream;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -10,6 +12,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import dev.dsf.fhir.authorization.AuthorizationRule;
+import dev.dsf.fhir.authorization.AuthorizationRuleProvider;
+import dev.dsf.fhir.bulk.BulkExportParameters;
 import dev.dsf.fhir.help.ResponseGenerator;
 import dev.dsf.fhir.service.ReferenceResolver;
 import dev.dsf.fhir.webservice.specification.RootService;
@@ -22,13 +26,16 @@ public class RootServiceSecure extends AbstractServiceSecure<RootService> implem
 	private static final Logger logger = LoggerFactory.getLogger(AbstractResourceServiceSecure.class);
 
 	private final AuthorizationRule<Resource> authorizationRule;
+	private final AuthorizationRuleProvider authorizationRuleProvider;
 
 	public RootServiceSecure(RootService delegate, String serverBase, ResponseGenerator responseGenerator,
-			ReferenceResolver referenceResolver, AuthorizationRule<Resource> authorizationRule)
+			ReferenceResolver referenceResolver, AuthorizationRule<Resource> authorizationRule,
+			AuthorizationRuleProvider authorizationRuleProvider)
 	{
 		super(delegate, serverBase, responseGenerator, referenceResolver);
 
 		this.authorizationRule = authorizationRule;
+		this.authorizationRuleProvider = authorizationRuleProvider;
 	}
 
 	@Override
@@ -37,6 +44,7 @@ public class RootServiceSecure extends AbstractServiceSecure<RootService> implem
 		super.afterPropertiesSet();
 
 		Objects.requireNonNull(authorizationRule, "authorizationRule");
+		Objects.requireNonNull(authorizationRuleProvider, "authorizationRuleProvider");
 	}
 
 	@Override
@@ -103,4 +111,73 @@ public class RootServiceSecure extends AbstractServiceSecure<RootService> implem
 			return delegate.history(uri, headers);
 		}
 	}
+
+	@Override
+	public Response export(String exportPath, UriInfo uri, HttpHeaders headers)
+	{
+		logCurrentIdentity();
+
+		List<String> resourceTypes = BulkExportParameters.getResourceTypes(uri.getQueryParameters());
+
+		// exported resources filtered by read access rules, same as search results
+		for (String resourceType : resourceTypes)
+		{
+			Optional<String> reasonSearchAllowed = authorizationRuleProvider.getAuthorizationRule(resourceType)
+					.flatMap(rule -> rule.reasonSearchAllowed(getCurrentIdentity()));
+
+			if (reasonSearchAllowed.isEmpty())
+			{
+				audit.info("Bulk export of {} denied for identity '{}'", resourceType, getCurrentIdentity().getName());
+				return forbidden("export");
+			}
+			else
+				audit.info("Bulk export of {} allowed for identity '{}': {}", resourceType,
+						getCurrentIdentity().getName(), reasonSearchAllowed.get());
+		}
+
+		// request without resource types rejected by delegate
+		return delegate.export(exportPath, uri, headers);
+	}
+
+	@Override
+	public Response exportStatus(String statusPath, String id, UriInfo uri, HttpHeaders headers)
+	{
+		logCurrentIdentity();
+
+		// export jobs only visible to the identity that started the export
+
+		return delegate.exportStatus(statusPath, id, uri, headers);
+	}
+
+	@Override
+	public Response deleteExport(String statusPath, String id, UriInfo uri, HttpHeaders headers)
+	{
+		logCurrentIdentity();
+
+		// export jobs only visible to the identity that started the export
+
+		return delegate.deleteExport(statusPath, id, uri, headers);
+	}
+
+	@Override
+	public Response exportFile(String statusPath, String id, String fileName, UriInfo uri, HttpHeaders headers)
+	{
+		logCurrentIdentity();
+
+		// export jobs only visible to the identity that started the export
+
+		return delegate.exportFile(statusPath, id, fileName, uri, headers);
+	}
+
+	@Override
+	public Response importResources(String importPath, InputStream ndjson, UriInfo uri, HttpHeaders headers)
+	{
+		logCurrentIdentity();
+
+		logger.info("Bulk import generally allowed for all, resources will be individually evaluated");
+		audit.info("Bulk import allowed for identity '{}': Allowed for all, resources individually evaluated",
+				getCurrentIdentity().getName());
+
+		return delegate.importResources(importPath, ndjson, uri, headers);
+	}
 }
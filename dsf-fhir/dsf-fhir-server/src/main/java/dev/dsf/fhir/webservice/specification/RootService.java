@@ -1,5 +1,7 @@
 package dev.dsf.fhir.webservice.specification;
 
+import java.io.InputStream;
+
 import org.hl7.fhir.r4.model.Bundle;
 
 import dev.dsf.fhir.webservice.base.BasicService;
@@ -14,4 +16,14 @@ public interface RootService extends BasicService
 	Response history(UriInfo uri, HttpHeaders headers);
 
 	Response handleBundle(Bundle bundle, UriInfo uri, HttpHeaders headers);
+
+	Response export(String exportPath, UriInfo uri, HttpHeaders headers);
+
+	Response exportStatus(String statusPath, String id, UriInfo uri, HttpHeaders headers);
+
+	Response deleteExport(String statusPath, String id, UriInfo uri, HttpHeaders headers);
+
+	Response exportFile(String statusPath, String id, String fileName, UriInfo uri, HttpHeaders headers);
+
+	Response importResources(String importPath, InputStream ndjson, UriInfo uri, HttpHeaders headers);
 }
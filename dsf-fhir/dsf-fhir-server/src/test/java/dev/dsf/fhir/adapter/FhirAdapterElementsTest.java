@@ -0,0 +1,89 @@
+package dev.dsf.fhir.adapter;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+import org.hl7.fhir.r4.model.BaseResource;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.BundleType;
+import org.hl7.fhir.r4.model.Bundle.SearchEntryMode;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Narrative.NarrativeStatus;
+import org.hl7.fhir.r4.model.Task;
+import org.hl7.fhir.r4.model.Task.TaskIntent;
+import org.hl7.fhir.r4.model.Task.TaskStatus;
+import org.junit.Test;
+
+import ca.uhn.fhir.context.FhirContext;
+import jakarta.ws.rs.core.MediaType;
+
+public class FhirAdapterElementsTest
+{
+	private static final FhirContext fhirContext = FhirContext.forR4();
+
+	private Task createTask()
+	{
+		Task task = new Task();
+		task.setIdElement(new IdType("Task", UUID.randomUUID().toString(), "1"));
+		task.setStatus(TaskStatus.REQUESTED).setIntent(TaskIntent.ORDER).setDescription("description");
+		task.getText().setStatus(NarrativeStatus.GENERATED).setDivAsString("<div>narrative</div>");
+		task.getRestriction().setRepetitions(1);
+		return task;
+	}
+
+	private Bundle createSearchSet()
+	{
+		Bundle bundle = new Bundle().setType(BundleType.SEARCHSET).setTotal(1);
+		bundle.addEntry().setFullUrl("https://localhost/fhir/Task/1").setResource(createTask()).getSearch()
+				.setMode(SearchEntryMode.MATCH);
+		return bundle;
+	}
+
+	private String write(BaseResource resource, Map<String, String> parameters) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new FhirAdapter(fhirContext).writeTo(resource, resource.getClass(), null, null,
+				new MediaType("application", "fhir+json", parameters), null, out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void testElementsResource() throws Exception
+	{
+		String json = write(createTask(), Map.of(AbstractAdapter.ELEMENTS, "description"));
+
+		assertTrue(json.contains("\"description\""));
+		assertTrue(json.contains("\"status\""));
+		assertTrue(json.contains("SUBSETTED"));
+		assertFalse(json.contains("\"restriction\""));
+		assertFalse(json.contains("\"text\""));
+	}
+
+	@Test
+	public void testElementsSearchSet() throws Exception
+	{
+		String json = write(createSearchSet(), Map.of(AbstractAdapter.ELEMENTS, "description"));
+
+		assertTrue(json.contains("\"entry\""));
+		assertTrue(json.contains("\"total\""));
+		assertTrue(json.contains("\"description\""));
+		assertTrue(json.contains("SUBSETTED"));
+		assertFalse(json.contains("\"restriction\""));
+	}
+
+	@Test
+	public void testSummaryTextSearchSet() throws Exception
+	{
+		String json = write(createSearchSet(), Map.of(AbstractAdapter.SUMMARY, "text"));
+
+		assertTrue(json.contains("\"entry\""));
+		assertTrue(json.contains("narrative"));
+		assertFalse(json.contains("\"description\""));
+	}
+}
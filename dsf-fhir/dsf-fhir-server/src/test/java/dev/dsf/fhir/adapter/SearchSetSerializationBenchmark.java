@@ -0,0 +1,207 @@
+package dev.dsf.fhir.adapter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Reference;
+import org.hl7.fhir.r4.model.StringType;
+import org.hl7.fhir.r4.model.Task;
+import org.hl7.fhir.r4.model.Task.TaskIntent;
+import org.hl7.fhir.r4.model.Task.TaskStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.parser.IParser;
+import dev.dsf.fhir.help.ResponseGenerator;
+import dev.dsf.fhir.search.PageAndCount;
+import dev.dsf.fhir.search.PartialResult;
+import dev.dsf.fhir.service.ReferenceCleaner;
+import dev.dsf.fhir.service.ReferenceCleanerImpl;
+import dev.dsf.fhir.service.ReferenceExtractorImpl;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.UriBuilder;
+
+/**
+ * Measures time-to-first-byte and total time for writing a {@value #ENTRIES} entry searchset Bundle, starting from the
+ * json strings returned by the database. Compares parsing all resources and writing the bundle with {@link FhirAdapter}
+ * to parsing resources while writing the bundle with {@link StreamingBundleAdapter}. Average time-to-first-byte is
+ * printed after each iteration.
+ * <p>
+ * Not executed as part of the build, run {@link #main(String[])} from the test classpath. The gc profiler reports
+ * allocated bytes per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchSetSerializationBenchmark
+{
+	private static final int ENTRIES = 1000;
+
+	public static void main(String[] args) throws Exception
+	{
+		Options options = new OptionsBuilder().include(SearchSetSerializationBenchmark.class.getSimpleName())
+				.addProfiler("gc").build();
+		new Runner(options).run();
+	}
+
+	private static final class TimeToFirstByteOutputStream extends OutputStream
+	{
+		final long start = System.nanoTime();
+		long firstByte;
+
+		@Override
+		public void write(int b) throws IOException
+		{
+			if (firstByte == 0)
+				firstByte = System.nanoTime();
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			if (firstByte == 0 && len > 0)
+				firstByte = System.nanoTime();
+		}
+	}
+
+	@Param({ "application/fhir+json", "application/fhir+xml" })
+	public String mediaType;
+
+	private final AtomicInteger operations = new AtomicInteger();
+	private final AtomicLong timeToFirstByte = new AtomicLong();
+
+	private FhirContext fhirContext;
+	private ResponseGenerator responseGenerator;
+	private ReferenceCleaner referenceCleaner;
+	private FhirAdapter fhirAdapter;
+	private StreamingBundleAdapter streamingBundleAdapter;
+	private List<String> jsons;
+
+	@Setup
+	public void setup()
+	{
+		fhirContext = FhirContext.forR4();
+		responseGenerator = new ResponseGenerator("https://localhost/fhir");
+		referenceCleaner = new ReferenceCleanerImpl(new ReferenceExtractorImpl());
+		fhirAdapter = new FhirAdapter(fhirContext);
+		streamingBundleAdapter = new StreamingBundleAdapter(fhirContext);
+
+		IParser parser = fhirContext.newJsonParser();
+		jsons = new ArrayList<>();
+		for (int i = 0; i < ENTRIES; i++)
+			jsons.add(parser.encodeResourceToString(createTask()));
+	}
+
+	private Task createTask()
+	{
+		Task task = new Task();
+		task.setIdElement(new IdType("Task", UUID.randomUUID().toString(), "1"));
+		task.getMeta().addProfile("http://dsf.dev/fhir/StructureDefinition/task-ping|1.0");
+		task.setInstantiatesCanonical("http://dsf.dev/bpe/Process/ping|1.0");
+		task.setStatus(TaskStatus.COMPLETED).setIntent(TaskIntent.ORDER);
+		task.getRequester().setType("Organization").getIdentifier()
+				.setSystem("http://dsf.dev/sid/organization-identifier").setValue("Test_Organization");
+		Reference recipient = new Reference().setType("Organization");
+		recipient.getIdentifier().setSystem("http://dsf.dev/sid/organization-identifier").setValue("Test_Organization");
+		task.getRestriction().addRecipient(recipient);
+		task.addInput().setValue(new StringType("startPingProcessMessage")).getType().addCoding()
+				.setSystem("http://dsf.dev/fhir/CodeSystem/bpmn-message").setCode("message-name");
+		task.addInput().setValue(new StringType(UUID.randomUUID().toString())).getType().addCoding()
+				.setSystem("http://dsf.dev/fhir/CodeSystem/bpmn-message").setCode("business-key");
+		return task;
+	}
+
+	@TearDown(Level.Iteration)
+	public void printTimeToFirstByte()
+	{
+		int n = operations.getAndSet(0);
+		long ttfb = timeToFirstByte.getAndSet(0);
+
+		if (n > 0)
+			System.out.printf("%n%s: %.3f ms time-to-first-byte%n", mediaType, ttfb / (double) n / 1_000_000d);
+	}
+
+	private void record(TimeToFirstByteOutputStream out)
+	{
+		operations.incrementAndGet();
+		timeToFirstByte.addAndGet(out.firstByte - out.start);
+	}
+
+	@Benchmark
+	public void eager() throws IOException
+	{
+		TimeToFirstByteOutputStream out = new TimeToFirstByteOutputStream();
+
+		IParser parser = fhirContext.newJsonParser();
+		List<Task> tasks = new ArrayList<>(jsons.size());
+		for (String json : jsons)
+			tasks.add(parser.parseResource(Task.class, json));
+
+		Bundle bundle = responseGenerator.createSearchSet(
+				new PartialResult<>(ENTRIES, new PageAndCount(1, ENTRIES), tasks, Collections.emptyList()),
+				Collections.emptyList(), UriBuilder.fromPath("https://localhost/fhir/Task"), null, null, null);
+		bundle.getEntry().forEach(e -> referenceCleaner.cleanLiteralReferences(e.getResource()));
+
+		fhirAdapter.writeTo(bundle, Bundle.class, null, null, MediaType.valueOf(mediaType), null, out);
+		record(out);
+	}
+
+	@Benchmark
+	public void streaming() throws IOException
+	{
+		TimeToFirstByteOutputStream out = new TimeToFirstByteOutputStream();
+
+		IParser parser = fhirContext.newJsonParser();
+		List<Task> tasks = new AbstractList<>()
+		{
+			@Override
+			public Task get(int index)
+			{
+				return parser.parseResource(Task.class, jsons.get(index));
+			}
+
+			@Override
+			public int size()
+			{
+				return jsons.size();
+			}
+		};
+
+		StreamingBundle bundle = responseGenerator.createStreamingSearchSet(
+				new PartialResult<>(ENTRIES, new PageAndCount(1, ENTRIES), tasks, Collections.emptyList()),
+				Collections.emptyList(), UriBuilder.fromPath("https://localhost/fhir/Task"), null, null, null,
+				referenceCleaner::cleanLiteralReferences);
+
+		streamingBundleAdapter.writeTo(bundle, StreamingBundle.class, null, null, MediaType.valueOf(mediaType), null,
+				out);
+		record(out);
+	}
+}
@@ -0,0 +1,194 @@
+package dev.dsf.fhir.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.BundleEntryComponent;
+import org.hl7.fhir.r4.model.Bundle.BundleType;
+import org.hl7.fhir.r4.model.Bundle.SearchEntryMode;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.OperationOutcome;
+import org.hl7.fhir.r4.model.OperationOutcome.IssueSeverity;
+import org.hl7.fhir.r4.model.StringType;
+import org.hl7.fhir.r4.model.Task;
+import org.hl7.fhir.r4.model.Task.TaskIntent;
+import org.hl7.fhir.r4.model.Task.TaskStatus;
+import org.junit.Test;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.rest.api.Constants;
+import jakarta.ws.rs.core.MediaType;
+
+public class StreamingBundleAdapterTest
+{
+	private static final FhirContext fhirContext = FhirContext.forR4();
+
+	private Bundle createBundle()
+	{
+		Bundle bundle = new Bundle().setType(BundleType.SEARCHSET).setTimestamp(new Date()).setTotal(3);
+		bundle.addLink().setRelation("self").setUrl("https://localhost/fhir/Task?_count=2");
+		bundle.addLink().setRelation("next").setUrl("https://localhost/fhir/Task?_count=2&_page=2");
+		return bundle;
+	}
+
+	private List<BundleEntryComponent> createEntries()
+	{
+		return List.of(createEntry(), createEntry(), new BundleEntryComponent()
+				.setResource(new OperationOutcome().addIssue(new OperationOutcome.OperationOutcomeIssueComponent()
+						.setSeverity(IssueSeverity.WARNING).setDiagnostics("warning")))
+				.setSearch(new Bundle.BundleEntrySearchComponent().setMode(SearchEntryMode.OUTCOME)));
+	}
+
+	private BundleEntryComponent createEntry()
+	{
+		Task task = new Task();
+		task.setIdElement(new IdType("Task", UUID.randomUUID().toString(), "1"));
+		task.getMeta().addProfile("http://dsf.dev/fhir/StructureDefinition/task-ping|1.0");
+		task.setStatus(TaskStatus.REQUESTED).setIntent(TaskIntent.ORDER);
+		task.addInput().setValue(new StringType("startPingProcessMessage")).getType().addCoding()
+				.setSystem("http://dsf.dev/fhir/CodeSystem/bpmn-message").setCode("message-name");
+
+		BundleEntryComponent entry = new BundleEntryComponent();
+		entry.setFullUrl("https://localhost/fhir/Task/" + task.getIdElement().getIdPart());
+		entry.setResource(task);
+		entry.getSearch().setMode(SearchEntryMode.MATCH);
+		return entry;
+	}
+
+	private String writeFhirAdapter(Bundle bundle, MediaType mediaType) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new FhirAdapter(fhirContext).writeTo(bundle, Bundle.class, null, null, mediaType, null, out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	private String writeStreamingBundleAdapter(StreamingBundle bundle, MediaType mediaType) throws IOException
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new StreamingBundleAdapter(fhirContext).writeTo(bundle, StreamingBundle.class, null, null, mediaType, null,
+				out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	private void testSameOutput(MediaType mediaType, List<BundleEntryComponent> entries) throws Exception
+	{
+		testSameOutput(createBundle(), mediaType, entries);
+	}
+
+	private void testSameOutput(Bundle bundle, MediaType mediaType, List<BundleEntryComponent> entries) throws Exception
+	{
+		Bundle expected = bundle.copy();
+		entries.forEach(expected::addEntry);
+
+		assertEquals(writeFhirAdapter(expected, mediaType),
+				writeStreamingBundleAdapter(new StreamingBundle(bundle, entries.stream()), mediaType));
+	}
+
+	@Test
+	public void testJson() throws Exception
+	{
+		testSameOutput(new MediaType("application", "fhir+json"), createEntries());
+	}
+
+	@Test
+	public void testJsonPretty() throws Exception
+	{
+		testSameOutput(new MediaType("application", "fhir+json", Map.of(AbstractAdapter.PRETTY, "true")),
+				createEntries());
+	}
+
+	@Test
+	public void testJsonWithoutEntries() throws Exception
+	{
+		testSameOutput(new MediaType("application", "fhir+json"), List.of());
+	}
+
+	@Test
+	public void testXml() throws Exception
+	{
+		testSameOutput(new MediaType("application", "fhir+xml"), createEntries());
+	}
+
+	@Test
+	public void testXmlPretty() throws Exception
+	{
+		testSameOutput(new MediaType("application", "fhir+xml", Map.of(AbstractAdapter.PRETTY, "true")),
+				createEntries());
+	}
+
+	@Test
+	public void testXmlWithoutEntries() throws Exception
+	{
+		testSameOutput(new MediaType("application", "fhir+xml", Map.of(AbstractAdapter.PRETTY, "true")), List.of());
+	}
+
+	private Bundle createBundleWithSpecialCharacters()
+	{
+		Bundle bundle = createBundle();
+		bundle.setId(UUID.randomUUID().toString());
+		bundle.addLink().setRelation("previous")
+				.setUrl("https://localhost/fhir/Task?identifier=\"a\\b\"<&>\t\u00e4&_count=2");
+		return bundle;
+	}
+
+	private List<BundleEntryComponent> createEntriesWithScore()
+	{
+		BundleEntryComponent entry = createEntry();
+		entry.getSearch().setScore(0.5);
+		return List.of(entry);
+	}
+
+	@Test
+	public void testJsonSpecialCharacters() throws Exception
+	{
+		testSameOutput(createBundleWithSpecialCharacters(), new MediaType("application", "fhir+json"),
+				createEntriesWithScore());
+	}
+
+	@Test
+	public void testJsonPrettySpecialCharacters() throws Exception
+	{
+		testSameOutput(createBundleWithSpecialCharacters(),
+				new MediaType("application", "fhir+json", Map.of(AbstractAdapter.PRETTY, "true")),
+				createEntriesWithScore());
+	}
+
+	@Test
+	public void testXmlSpecialCharacters() throws Exception
+	{
+		testSameOutput(createBundleWithSpecialCharacters(), new MediaType("application", "fhir+xml"),
+				createEntriesWithScore());
+	}
+
+	@Test
+	public void testXmlPrettySpecialCharacters() throws Exception
+	{
+		testSameOutput(createBundleWithSpecialCharacters(),
+				new MediaType("application", "fhir+xml", Map.of(AbstractAdapter.PRETTY, "true")),
+				createEntriesWithScore());
+	}
+
+	@Test
+	public void testIsStreamingSupported() throws Exception
+	{
+		assertTrue(StreamingBundleAdapter.isStreamingSupported(MediaType.valueOf(Constants.CT_FHIR_JSON_NEW)));
+		assertTrue(StreamingBundleAdapter.isStreamingSupported(MediaType.valueOf(Constants.CT_FHIR_XML_NEW)));
+		assertTrue(StreamingBundleAdapter.isStreamingSupported(MediaType.APPLICATION_XML_TYPE));
+		assertFalse(StreamingBundleAdapter.isStreamingSupported(MediaType.TEXT_HTML_TYPE));
+		assertFalse(StreamingBundleAdapter.isStreamingSupported(
+				new MediaType("application", "fhir+json", Map.of(AbstractAdapter.SUMMARY, "true"))));
+		assertFalse(StreamingBundleAdapter.isStreamingSupported(
+				new MediaType("application", "fhir+json", Map.of(AbstractAdapter.ELEMENTS, "status"))));
+		assertFalse(StreamingBundleAdapter.isStreamingSupported(null));
+	}
+}
@@ -0,0 +1,237 @@
+package dev.dsf.fhir.bulk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import dev.dsf.common.auth.conf.Identity;
+import dev.dsf.fhir.bulk.BulkExportJob.Output;
+import dev.dsf.fhir.bulk.BulkExportJob.Status;
+import dev.dsf.fhir.dao.ResourceDao;
+import dev.dsf.fhir.dao.provider.DaoProvider;
+import dev.dsf.fhir.search.DbSearchQuery;
+
+public class BulkExportServiceImplTest
+{
+	private static final String TASK_1 = "{\"resourceType\":\"Task\",\"id\":\"1\"}";
+	private static final String TASK_2 = "{\"resourceType\":\"Task\",\"id\":\"2\"}";
+
+	@Rule
+	public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private final DaoProvider daoProvider = mock(DaoProvider.class);
+	private final DbSearchQuery taskQuery = mock(DbSearchQuery.class);
+	private final DbSearchQuery patientQuery = mock(DbSearchQuery.class);
+
+	private Path exportDirectory;
+	private BulkExportServiceImpl service;
+
+	@SuppressWarnings("unchecked")
+	private ResourceDao<?> dao(String resourceTypeName)
+	{
+		ResourceDao<?> dao = mock(ResourceDao.class);
+		when(daoProvider.getDao(resourceTypeName)).thenReturn(Optional.of(dao));
+		return dao;
+	}
+
+	private static Identity identity(String name)
+	{
+		Identity identity = mock(Identity.class);
+		when(identity.getName()).thenReturn(name);
+		return identity;
+	}
+
+	private static void awaitFinished(BulkExportJob job) throws InterruptedException
+	{
+		for (int i = 0; i < 500 && !job.isFinished(); i++)
+			Thread.sleep(10);
+
+		assertTrue("job not finished", job.isFinished());
+	}
+
+	@Before
+	public void before() throws Exception
+	{
+		exportDirectory = temporaryFolder.getRoot().toPath().resolve("export");
+
+		service = new BulkExportServiceImpl(daoProvider, exportDirectory, 1, Duration.ofHours(1));
+		service.afterPropertiesSet();
+	}
+
+	@After
+	public void after() throws Exception
+	{
+		service.destroy();
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testExport() throws Exception
+	{
+		when(dao("Task").export(eq(taskQuery), any())).thenAnswer(i ->
+		{
+			Consumer<String> consumer = i.getArgument(1);
+			consumer.accept(TASK_1);
+			consumer.accept(TASK_2);
+			return 2L;
+		});
+		when(dao("Patient").export(eq(patientQuery), any())).thenReturn(0L);
+
+		Map<String, DbSearchQuery> queries = new LinkedHashMap<>();
+		queries.put("Task", taskQuery);
+		queries.put("Patient", patientQuery);
+
+		Identity owner = identity("owner");
+		BulkExportJob job = service.start(owner, "https://localhost/fhir/$export?_type=Task,Patient", queries);
+		awaitFinished(job);
+
+		assertEquals(Status.COMPLETED, job.getStatus());
+		assertEquals(List.of("Task", "Patient"), job.getResourceTypes());
+		assertEquals(2, job.getExportedResources());
+		assertTrue(job.getError().isEmpty());
+		assertTrue(job.getFinished().isPresent());
+
+		List<Output> outputs = job.getOutputs();
+		assertEquals(2, outputs.size());
+		assertEquals("Task", outputs.get(0).getResourceType());
+		assertEquals("Task.ndjson", outputs.get(0).getFileName());
+		assertEquals(2, outputs.get(0).getCount());
+		assertEquals("Patient", outputs.get(1).getResourceType());
+		assertEquals(0, outputs.get(1).getCount());
+
+		Optional<Path> file = service.getOutputFile(owner, job.getId(), "Task.ndjson");
+		assertTrue(file.isPresent());
+		assertEquals(TASK_1 + "\n" + TASK_2 + "\n", Files.readString(file.get(), StandardCharsets.UTF_8));
+
+		assertTrue(service.getJob(owner, job.getId()).isPresent());
+		assertTrue(service.getOutputFile(owner, job.getId(), "../Task.ndjson").isEmpty());
+		assertTrue(service.getOutputFile(owner, job.getId(), "Observation.ndjson").isEmpty());
+	}
+
+	@Test
+	public void testExportNotVisibleForOtherIdentities() throws Exception
+	{
+		when(dao("Task").export(eq(taskQuery), any())).thenReturn(0L);
+
+		Identity owner = identity("owner");
+		Identity other = identity("other");
+		BulkExportJob job = service.start(owner, "https://localhost/fhir/$export?_type=Task", Map.of("Task", taskQuery));
+		awaitFinished(job);
+
+		assertTrue(service.getJob(other, job.getId()).isEmpty());
+		assertTrue(service.getOutputFile(other, job.getId(), "Task.ndjson").isEmpty());
+		assertFalse(service.deleteJob(other, job.getId()));
+
+		assertTrue(service.getJob(owner, job.getId()).isPresent());
+		assertTrue(service.getJob(owner, UUID.randomUUID().toString()).isEmpty());
+		assertTrue(service.getJob(owner, null).isEmpty());
+	}
+
+	@Test
+	public void testExportFailed() throws Exception
+	{
+		when(dao("Task").export(eq(taskQuery), any())).thenThrow(new SQLException("test"));
+
+		Identity owner = identity("owner");
+		BulkExportJob job = service.start(owner, "https://localhost/fhir/$export?_type=Task", Map.of("Task", taskQuery));
+		awaitFinished(job);
+
+		assertEquals(Status.FAILED, job.getStatus());
+		assertEquals("Export of Task failed", job.getError().get());
+		assertTrue(job.getOutputs().isEmpty());
+		assertTrue(service.getOutputFile(owner, job.getId(), "Task.ndjson").isEmpty());
+		assertFalse(Files.exists(exportDirectory.resolve(job.getId())));
+	}
+
+	@Test
+	public void testDeleteJob() throws Exception
+	{
+		when(dao("Task").export(eq(taskQuery), any())).thenAnswer(i ->
+		{
+			Consumer<String> consumer = i.getArgument(1);
+			consumer.accept(TASK_1);
+			return 1L;
+		});
+
+		Identity owner = identity("owner");
+		BulkExportJob job = service.start(owner, "https://localhost/fhir/$export?_type=Task", Map.of("Task", taskQuery));
+		awaitFinished(job);
+
+		assertTrue(Files.exists(exportDirectory.resolve(job.getId()).resolve("Task.ndjson")));
+
+		assertTrue(service.deleteJob(owner, job.getId()));
+		assertFalse(Files.exists(exportDirectory.resolve(job.getId())));
+		assertTrue(service.getJob(owner, job.getId()).isEmpty());
+		assertFalse(service.deleteJob(owner, job.getId()));
+	}
+
+	@Test
+	public void testDeleteRunningJob() throws Exception
+	{
+		CountDownLatch exporting = new CountDownLatch(1);
+		when(dao("Task").export(eq(taskQuery), any())).thenAnswer(i ->
+		{
+			Consumer<String> consumer = i.getArgument(1);
+			exporting.countDown();
+
+			// exports until cancelled
+			while (true)
+			{
+				consumer.accept(TASK_1);
+				Thread.yield();
+			}
+		});
+
+		Identity owner = identity("owner");
+		BulkExportJob job = service.start(owner, "https://localhost/fhir/$export?_type=Task",
+				Map.of("Task", taskQuery));
+		assertTrue(exporting.await(5, TimeUnit.SECONDS));
+
+		assertTrue(service.deleteJob(owner, job.getId()));
+
+		for (int i = 0; i < 500 && Files.exists(exportDirectory.resolve(job.getId())); i++)
+			Thread.sleep(10);
+
+		assertFalse(Files.exists(exportDirectory.resolve(job.getId())));
+		assertTrue(service.getJob(owner, job.getId()).isEmpty());
+	}
+
+	@Test
+	public void testDirectoriesFromPreviousRunsDeleted() throws Exception
+	{
+		Path jobDirectory = Files.createDirectories(exportDirectory.resolve(UUID.randomUUID().toString()));
+		Files.writeString(jobDirectory.resolve("Task.ndjson"), TASK_1);
+		Path otherDirectory = Files.createDirectories(exportDirectory.resolve("other"));
+
+		service.destroy();
+		service = new BulkExportServiceImpl(daoProvider, exportDirectory, 1, Duration.ofHours(1));
+		service.afterPropertiesSet();
+
+		assertFalse(Files.exists(jobDirectory));
+		assertTrue(Files.exists(otherDirectory));
+	}
+}
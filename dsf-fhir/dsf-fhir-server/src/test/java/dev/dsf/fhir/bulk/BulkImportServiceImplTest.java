@@ -0,0 +1,242 @@
+package dev.dsf.fhir.bulk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.StringReader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.hl7.fhir.r4.model.Endpoint;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.OperationOutcome;
+import org.hl7.fhir.r4.model.Patient;
+import org.hl7.fhir.r4.model.Resource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import ca.uhn.fhir.context.FhirContext;
+import dev.dsf.common.auth.conf.Identity;
+import dev.dsf.fhir.dao.EndpointDao;
+import dev.dsf.fhir.dao.PatientDao;
+import dev.dsf.fhir.dao.command.AuthorizationHelper;
+import dev.dsf.fhir.dao.command.ValidationHelper;
+import dev.dsf.fhir.dao.provider.DaoProvider;
+import dev.dsf.fhir.event.EventGenerator;
+import dev.dsf.fhir.event.EventHandler;
+import dev.dsf.fhir.help.ResponseGenerator;
+import dev.dsf.fhir.service.ReferenceCleaner;
+import dev.dsf.fhir.service.ReferenceExtractor;
+import dev.dsf.fhir.service.ReferenceResolver;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Response.Status;
+
+public class BulkImportServiceImplTest
+{
+	private static final String PATIENT = "{\"resourceType\":\"Patient\",\"active\":true}";
+	private static final String ENDPOINT = "{\"resourceType\":\"Endpoint\",\"address\":\"https://foo/fhir\"}";
+	private static final String STRUCTURE_DEFINITION = "{\"resourceType\":\"StructureDefinition\"}";
+
+	private final DataSource dataSource = mock(DataSource.class);
+	private final Connection connection = mock(Connection.class);
+	private final DaoProvider daoProvider = mock(DaoProvider.class);
+	private final PatientDao patientDao = mock(PatientDao.class);
+	private final EndpointDao endpointDao = mock(EndpointDao.class);
+	private final ReferenceExtractor referenceExtractor = mock(ReferenceExtractor.class);
+	private final ReferenceResolver referenceResolver = mock(ReferenceResolver.class);
+	private final ReferenceCleaner referenceCleaner = mock(ReferenceCleaner.class);
+	private final AuthorizationHelper authorizationHelper = mock(AuthorizationHelper.class);
+	private final ValidationHelper validationHelper = mock(ValidationHelper.class);
+	private final EventHandler eventHandler = mock(EventHandler.class);
+	private final Identity identity = mock(Identity.class);
+
+	private BulkImportServiceImpl service;
+
+	@Before
+	public void before() throws Exception
+	{
+		when(dataSource.getConnection()).thenReturn(connection);
+		doReturn(Optional.of(patientDao)).when(daoProvider).getDao(Patient.class);
+		when(patientDao.createAllWithTransaction(eq(connection), anyList())).thenAnswer(i ->
+		{
+			List<Patient> patients = i.getArgument(1);
+			patients.forEach(p -> p.setIdElement(new IdType("Patient", UUID.randomUUID().toString(), "1")));
+			return patients;
+		});
+		doReturn(Optional.of(endpointDao)).when(daoProvider).getDao(Endpoint.class);
+		when(referenceExtractor.getReferences(any(Resource.class))).thenAnswer(i -> Stream.empty());
+		when(referenceCleaner.cleanLiteralReferences(any(Resource.class))).thenAnswer(i -> i.getArgument(0));
+		when(identity.getName()).thenReturn("test");
+
+		service = new BulkImportServiceImpl("https://localhost/fhir", FhirContext.forR4(), dataSource, daoProvider,
+				referenceExtractor, referenceResolver, referenceCleaner, new ResponseGenerator("https://localhost/fhir"),
+				authorizationHelper, validationHelper, new EventGenerator(), eventHandler, 2, 2);
+		service.afterPropertiesSet();
+	}
+
+	@After
+	public void after() throws Exception
+	{
+		service.destroy();
+	}
+
+	@Test
+	public void testImport() throws Exception
+	{
+		BulkImportResult result = service.importResources(identity,
+				new StringReader(PATIENT + "\n\n" + PATIENT + "\n" + PATIENT + "\n"));
+
+		assertFalse(result.isFailed());
+		assertTrue(result.getFailedLine().isEmpty());
+		assertTrue(result.getError().isEmpty());
+		assertEquals(3, result.getImported());
+		assertEquals(Map.of("Patient", 3L), result.getImportedByResourceType());
+
+		// batch size 2, blank lines ignored
+		verify(patientDao, times(2)).createAllWithTransaction(eq(connection), anyList());
+		verify(connection, times(2)).commit();
+		verify(connection, never()).rollback();
+		verify(eventHandler, times(2)).handleEvents(anyList());
+		verify(validationHelper, times(3)).checkResourceValidForCreate(eq(identity), any(Patient.class));
+		verify(authorizationHelper, times(3)).checkCreateAllowed(anyInt(), eq(connection), eq(identity),
+				any(Patient.class));
+	}
+
+	@Test
+	public void testImportParseError() throws Exception
+	{
+		BulkImportResult result = service.importResources(identity, new StringReader(PATIENT + "\n{\"foo\""));
+
+		assertTrue(result.isFailed());
+		assertEquals(Integer.valueOf(2), result.getFailedLine().get());
+		assertEquals(0, result.getImported());
+		assertEquals(Status.BAD_REQUEST.getStatusCode(), result.getError().get().getStatus());
+		assertTrue(result.getError().get().getEntity() instanceof OperationOutcome);
+
+		verify(dataSource, never()).getConnection();
+		verify(eventHandler, never()).handleEvents(anyList());
+	}
+
+	@Test
+	public void testImportStructureDefinitionNotSupported() throws Exception
+	{
+		BulkImportResult result = service.importResources(identity, new StringReader(STRUCTURE_DEFINITION));
+
+		assertTrue(result.isFailed());
+		assertEquals(Integer.valueOf(1), result.getFailedLine().get());
+		assertEquals(Status.BAD_REQUEST.getStatusCode(), result.getError().get().getStatus());
+
+		verify(dataSource, never()).getConnection();
+	}
+
+	@Test
+	public void testImportInvalid() throws Exception
+	{
+		Response forbidden = Response.status(Status.FORBIDDEN).build();
+		doThrow(new WebApplicationException(forbidden)).doReturn(null).when(validationHelper)
+				.checkResourceValidForCreate(eq(identity), any(Patient.class));
+
+		BulkImportResult result = service.importResources(identity, new StringReader(PATIENT + "\n" + PATIENT));
+
+		assertTrue(result.isFailed());
+		assertEquals(Status.FORBIDDEN.getStatusCode(), result.getError().get().getStatus());
+		assertEquals(0, result.getImported());
+
+		verify(patientDao, never()).createAllWithTransaction(any(), anyList());
+		verify(connection).rollback();
+		verify(connection, never()).commit();
+	}
+
+	@Test
+	public void testImportCreateNotAllowed() throws Exception
+	{
+		Response forbidden = Response.status(Status.FORBIDDEN).build();
+		doAnswer(i ->
+		{
+			if (i.getArgument(0, Integer.class) == 2)
+				throw new WebApplicationException(forbidden);
+			return null;
+		}).when(authorizationHelper).checkCreateAllowed(anyInt(), eq(connection), eq(identity), any(Patient.class));
+
+		BulkImportResult result = service.importResources(identity,
+				new StringReader(PATIENT + "\n" + PATIENT + "\n" + PATIENT + "\n" + PATIENT));
+
+		// first batch committed, second batch rolled back
+		assertTrue(result.isFailed());
+		assertEquals(Integer.valueOf(3), result.getFailedLine().get());
+		assertEquals(Status.FORBIDDEN.getStatusCode(), result.getError().get().getStatus());
+		assertEquals(2, result.getImported());
+
+		verify(patientDao, times(1)).createAllWithTransaction(eq(connection), anyList());
+		verify(connection, times(1)).commit();
+		verify(connection, times(1)).rollback();
+		verify(eventHandler, times(1)).handleEvents(anyList());
+	}
+
+	@Test
+	public void testImportDuplicateInSameBatchNotAllowed() throws Exception
+	{
+		List<Endpoint> stored = new ArrayList<>();
+		when(endpointDao.createWithTransactionAndId(eq(connection), any(Endpoint.class), any(UUID.class)))
+				.thenAnswer(i ->
+				{
+					Endpoint endpoint = i.getArgument(1);
+					endpoint.setIdElement(new IdType("Endpoint", i.getArgument(2, UUID.class).toString(), "1"));
+					stored.add(endpoint);
+					return endpoint;
+				});
+
+		// like EndpointAuthorizationRule: create not allowed if an endpoint with the same address exists
+		Response forbidden = Response.status(Status.FORBIDDEN).build();
+		doAnswer(i ->
+		{
+			Endpoint endpoint = i.getArgument(3);
+			if (stored.stream().anyMatch(e -> e.getAddress().equals(endpoint.getAddress())))
+				throw new WebApplicationException(forbidden);
+			return null;
+		}).when(authorizationHelper).checkCreateAllowed(anyInt(), eq(connection), eq(identity), any(Endpoint.class));
+
+		BulkImportResult result = service.importResources(identity, new StringReader(ENDPOINT + "\n" + ENDPOINT));
+
+		assertTrue(result.isFailed());
+		assertEquals(Integer.valueOf(2), result.getFailedLine().get());
+		assertEquals(Status.FORBIDDEN.getStatusCode(), result.getError().get().getStatus());
+		assertEquals(0, result.getImported());
+
+		InOrder inOrder = inOrder(authorizationHelper, endpointDao);
+		inOrder.verify(authorizationHelper).checkCreateAllowed(eq(0), eq(connection), eq(identity),
+				any(Endpoint.class));
+		inOrder.verify(endpointDao).createWithTransactionAndId(eq(connection), any(Endpoint.class), any(UUID.class));
+		inOrder.verify(authorizationHelper).checkCreateAllowed(eq(1), eq(connection), eq(identity),
+				any(Endpoint.class));
+		inOrder.verifyNoMoreInteractions();
+
+		verify(connection).rollback();
+		verify(connection, never()).commit();
+		verify(eventHandler, never()).handleEvents(anyList());
+	}
+}
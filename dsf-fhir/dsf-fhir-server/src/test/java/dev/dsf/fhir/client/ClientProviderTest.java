@@ -12,6 +12,7 @@ import static org.mockito.Mockito.when;
 import java.security.KeyStore;
 import java.util.Optional;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -30,6 +31,7 @@ public class ClientProviderTest
 	private ExceptionHandler exceptionHandler;
 	private ClientProvider provider;
 	private BuildInfoReader buildInfoReader;
+	private ClientConnectionPool connectionPool;
 
 	@Before
 	public void before() throws Exception
@@ -53,12 +55,21 @@ public class ClientProviderTest
 		exceptionHandler = mock(ExceptionHandler.class);
 		buildInfoReader = mock(BuildInfoReader.class);
 
-		provider = new ClientProviderImpl(webserviceTrustStore, webserviceKeyStore, webserviceKeyStorePassword,
-				remoteReadTimeout, remoteConnectTimeout,
+		connectionPool = new ClientConnectionPool(webserviceTrustStore, webserviceKeyStore, webserviceKeyStorePassword,
+				ClientConnectionPool.DEFAULT_MAX_TOTAL, ClientConnectionPool.DEFAULT_MAX_PER_ROUTE,
+				ClientConnectionPool.DEFAULT_IDLE_TIMEOUT_MILLIS, false);
+
+		provider = new ClientProviderImpl(connectionPool, remoteReadTimeout, remoteConnectTimeout,
 				new ProxyConfigImpl(remoteProxySchemeHostPort, remoteProxyUsername, remoteProxyPassword, null),
 				logRequests, fhirContext, referenceCleaner, endpointDao, exceptionHandler, buildInfoReader);
 	}
 
+	@After
+	public void after() throws Exception
+	{
+		connectionPool.close();
+	}
+
 	@Test
 	@SuppressWarnings("unchecked")
 	public void testGetClientExisting() throws Exception
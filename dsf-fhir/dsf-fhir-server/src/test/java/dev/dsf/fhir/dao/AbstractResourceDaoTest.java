@@ -2,12 +2,16 @@ package dev.dsf.fhir.dao;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.sql.Connection;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import javax.sql.DataSource;
@@ -552,4 +556,71 @@ public abstract class AbstractResourceDaoTest<D extends Resource, C extends Reso
 				createdResource.getIdElement().getVersionIdPart());
 		assertFalse(existsNotDeleted2);
 	}
+
+	@Test
+	public void testExistsNotDeletedBatch() throws Exception
+	{
+		D created1 = dao.create(createResource());
+		D created2 = dao.create(createResource());
+		dao.delete(UUID.fromString(created2.getIdElement().getIdPart()));
+
+		UUID id1 = UUID.fromString(created1.getIdElement().getIdPart());
+		UUID id2 = UUID.fromString(created2.getIdElement().getIdPart());
+		UUID id3 = UUID.randomUUID();
+
+		try (Connection connection = defaultDataSource.getConnection())
+		{
+			Set<UUID> existing = dao.existsNotDeletedWithTransaction(connection, List.of(id1, id2, id3));
+			assertNotNull(existing);
+			assertEquals(Set.of(id1), existing);
+
+			assertTrue(dao.existsNotDeletedWithTransaction(connection, List.of()).isEmpty());
+		}
+	}
+
+	@Test
+	public void testExport() throws Exception
+	{
+		D created1 = dao.create(createResource());
+		D updated1 = dao.update(updateResource(created1));
+		D created2 = dao.create(createResource());
+		dao.delete(UUID.fromString(created2.getIdElement().getIdPart()));
+
+		List<String> jsons = new ArrayList<>();
+		long count = dao.export(dao.createSearchQueryWithoutUserFilter(1, 1), jsons::add);
+
+		assertEquals(1, count);
+		assertEquals(1, jsons.size());
+		assertFalse(jsons.get(0).contains("\n"));
+
+		D exported = fhirContext.newJsonParser().parseResource(resouceClass, jsons.get(0));
+		assertEquals(updated1.getIdElement().getIdPart(), exported.getIdElement().getIdPart());
+		assertEquals(updated1.getMeta().getVersionId(), exported.getMeta().getVersionId());
+		checkUpdates(exported);
+	}
+
+	@Test
+	public void testCreateAllWithTransaction() throws Exception
+	{
+		List<D> created;
+		try (Connection connection = dao.newReadWriteTransaction())
+		{
+			created = dao.createAllWithTransaction(connection, List.of(createResource(), createResource()));
+			connection.commit();
+		}
+
+		assertEquals(2, created.size());
+		assertNotEquals(created.get(0).getIdElement().getIdPart(), created.get(1).getIdElement().getIdPart());
+
+		for (D c : created)
+		{
+			assertEquals("1", c.getIdElement().getVersionIdPart());
+			assertEquals("1", c.getMeta().getVersionId());
+			assertNotNull(c.getMeta().getLastUpdated());
+
+			Optional<D> read = dao.read(UUID.fromString(c.getIdElement().getIdPart()));
+			assertTrue(read.isPresent());
+			checkCreated(read.get());
+		}
+	}
 }
@@ -1,8 +1,18 @@
 package dev.dsf.fhir.dao;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+
+import javax.sql.DataSource;
 
 import org.hl7.fhir.r4.model.DomainResource;
 import org.junit.Test;
@@ -19,6 +29,8 @@ public interface ReadByUrlDaoTest<D extends DomainResource>
 
 	ResourceDao<D> getDao();
 
+	DataSource getDefaultDataSource();
+
 	@Test
 	default void testReadByUrlAndVersionWithUrl1() throws Exception
 	{
@@ -58,4 +70,75 @@ public interface ReadByUrlDaoTest<D extends DomainResource>
 		Optional<D> readByUrlAndVersion = readByUrlDao().readByUrlAndVersion(getUrl(), getVersion());
 		assertTrue(readByUrlAndVersion.isPresent());
 	}
+
+	@Test
+	default void testReadByUrlAndVersions() throws Exception
+	{
+		D newResource = createResourceWithUrlAndVersion();
+		D created = getDao().create(newResource);
+
+		Map<String, D> read = readByUrlDao().readByUrlAndVersions(
+				List.of(getUrl(), getUrl() + "|" + getVersion(), getUrl() + "|unknown", "http://unknown.url"));
+		assertEquals(2, read.size());
+		assertTrue(read.containsKey(getUrl()));
+		assertTrue(read.containsKey(getUrl() + "|" + getVersion()));
+		assertEquals(created.getIdElement().getIdPart(), read.get(getUrl()).getIdElement().getIdPart());
+		assertEquals(created.getIdElement().getIdPart(),
+				read.get(getUrl() + "|" + getVersion()).getIdElement().getIdPart());
+	}
+
+	@Test
+	default void testReadByUrlAndVersionAfterUpdate() throws Exception
+	{
+		D newResource = createResourceWithUrlAndVersion();
+		D created = getDao().create(newResource);
+		D updated = getDao().update(created, null);
+
+		Optional<D> readByUrlAndVersion = readByUrlDao().readByUrlAndVersion(getUrl(), getVersion());
+		assertTrue(readByUrlAndVersion.isPresent());
+		assertEquals(updated.getIdElement().getVersionIdPart(),
+				readByUrlAndVersion.get().getIdElement().getVersionIdPart());
+	}
+
+	@Test
+	default void testReadByUrlAndVersionAfterDelete() throws Exception
+	{
+		D newResource = createResourceWithUrlAndVersion();
+		D created = getDao().create(newResource);
+		getDao().delete(UUID.fromString(created.getIdElement().getIdPart()));
+
+		Optional<D> readByUrlAndVersion = readByUrlDao().readByUrlAndVersion(getUrl(), getVersion());
+		assertFalse(readByUrlAndVersion.isPresent());
+	}
+
+	@Test
+	default void testCanonicalUrlRemovedAfterDeletePermanently() throws Exception
+	{
+		D newResource = createResourceWithUrlAndVersion();
+		D created = getDao().create(newResource);
+		UUID uuid = UUID.fromString(created.getIdElement().getIdPart());
+
+		assertEquals(1, countCanonicalUrls(uuid));
+
+		getDao().delete(uuid);
+		getDao().deletePermanently(uuid);
+
+		assertEquals(0, countCanonicalUrls(uuid));
+	}
+
+	private long countCanonicalUrls(UUID uuid) throws Exception
+	{
+		try (Connection connection = getDefaultDataSource().getConnection();
+				PreparedStatement statement = connection
+						.prepareStatement("SELECT count(*) FROM canonical_urls WHERE resource_id = ?"))
+		{
+			statement.setObject(1, uuid);
+
+			try (ResultSet result = statement.executeQuery())
+			{
+				result.next();
+				return result.getLong(1);
+			}
+		}
+	}
 }
@@ -2,13 +2,21 @@ package dev.dsf.fhir.dao;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.hl7.fhir.r4.model.Task;
 import org.hl7.fhir.r4.model.Task.TaskStatus;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import dev.dsf.fhir.dao.jdbc.TaskDaoJdbc;
 
 public class TaskDaoTest extends AbstractResourceDaoTest<Task, TaskDao>
 {
+	private static final Logger logger = LoggerFactory.getLogger(TaskDaoTest.class);
+
 	private static final TaskStatus status = TaskStatus.REQUESTED;
 	private static final String description = "Demo Task Description";
 
@@ -43,4 +51,22 @@ public class TaskDaoTest extends AbstractResourceDaoTest<Task, TaskDao>
 	{
 		assertEquals(description, resource.getDescription());
 	}
+
+	@Test
+	public void testExportThroughput() throws Exception
+	{
+		final int resourceCount = 10_000;
+		for (int i = 0; i < resourceCount; i++)
+			dao.create(createResource());
+
+		AtomicLong bytes = new AtomicLong();
+		long start = System.nanoTime();
+		long count = dao.export(dao.createSearchQueryWithoutUserFilter(1, 1), json -> bytes.addAndGet(json.length()));
+		long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+		assertEquals(resourceCount, count);
+
+		logger.info("{} Task resources ({} characters) exported in {} ms, {} resources/s", count, bytes.get(), millis,
+				count * 1000 / millis);
+	}
 }
@@ -185,6 +185,7 @@ public abstract class AbstractIntegrationTest extends AbstractDbTest
 		initParameters.put("dev.dsf.fhir.server.base.url", BASE_URL);
 		initParameters.put("dev.dsf.fhir.server.organization.identifier.value", "Test_Organization");
 		initParameters.put("dev.dsf.fhir.server.init.bundle", FHIR_BUNDLE_FILE.toString());
+		initParameters.put("dev.dsf.fhir.server.export.directory", Paths.get("target", "export").toString());
 
 		initParameters.put("dev.dsf.fhir.client.trust.server.certificate.cas",
 				certificates.getCaCertificateFile().toString());
@@ -241,7 +242,8 @@ public abstract class AbstractIntegrationTest extends AbstractDbTest
 		};
 
 		JettyServer server = new JettyServer(apiConnector, statusConnector, "dsf-fhir-server", CONTEXT_PATH,
-				servletContainerInitializers, initParameters, caCertificate, securityHandlerConfigurer);
+				servletContainerInitializers, initParameters, caCertificate, securityHandlerConfigurer,
+				JettyServer.gzipHandler(1024, List.of("application/octet-stream")));
 
 		server.start();
 
@@ -0,0 +1,168 @@
+package dev.dsf.fhir.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.hl7.fhir.r4.model.Binary;
+import org.hl7.fhir.r4.model.Observation;
+import org.hl7.fhir.r4.model.Task;
+import org.junit.Test;
+
+import ca.uhn.fhir.context.FhirContext;
+import dev.dsf.fhir.search.SearchQuery.SearchQueryBuilder;
+import dev.dsf.fhir.search.SearchQueryParameterError.SearchQueryParameterErrorType;
+import jakarta.ws.rs.core.UriBuilder;
+
+public class SearchQueryProjectionTest
+{
+	private static final FhirContext fhirContext = FhirContext.forR4();
+
+	private static SearchQuery<Task> createTaskQuery(Map<String, List<String>> queryParameters)
+	{
+		return SearchQueryBuilder.create(Task.class, "tasks", "task", 1, 20)
+				.with(ResourceElements.of(fhirContext, Task.class)).build().configureParameters(queryParameters)
+				.configureProjection(queryParameters);
+	}
+
+	@Test
+	public void testNoProjection() throws Exception
+	{
+		SearchQuery<Task> query = createTaskQuery(Map.of());
+
+		assertEquals("SELECT task FROM current_tasks LIMIT ? OFFSET ?", query.getSearchSql());
+		assertTrue(query.isElementIncluded("text"));
+		assertTrue(query.getUnsupportedQueryParameters().isEmpty());
+	}
+
+	@Test
+	public void testProjectionNotConfigured() throws Exception
+	{
+		Map<String, List<String>> queryParameters = Map.of(SearchQuery.PARAMETER_ELEMENTS, List.of("status"));
+		SearchQuery<Task> query = SearchQueryBuilder.create(Task.class, "tasks", "task", 1, 20)
+				.with(ResourceElements.of(fhirContext, Task.class)).build().configureParameters(queryParameters);
+
+		assertEquals("SELECT task FROM current_tasks LIMIT ? OFFSET ?", query.getSearchSql());
+		assertTrue(query.getUnsupportedQueryParameters().isEmpty());
+	}
+
+	@Test
+	public void testSummaryData() throws Exception
+	{
+		SearchQuery<Task> query = createTaskQuery(Map.of(SearchQuery.PARAMETER_SUMMARY, List.of("data")));
+
+		assertEquals("SELECT (task - 'text') FROM current_tasks LIMIT ? OFFSET ?", query.getSearchSql());
+		assertFalse(query.isElementIncluded("text"));
+		assertTrue(query.isElementIncluded("input"));
+	}
+
+	@Test
+	public void testSummaryText() throws Exception
+	{
+		SearchQuery<Task> query = createTaskQuery(Map.of(SearchQuery.PARAMETER_SUMMARY, List.of("text")));
+
+		assertEquals("SELECT (SELECT jsonb_object_agg(e.key, e.value) FROM jsonb_each(task) AS e WHERE e.key IN "
+				+ "('_intent', '_status', '_text', 'id', 'intent', 'meta', 'resourceType', 'status', 'text'))"
+				+ " FROM current_tasks LIMIT ? OFFSET ?", query.getSearchSql());
+		assertTrue(query.isElementIncluded("status"));
+		assertFalse(query.isElementIncluded("input"));
+	}
+
+	@Test
+	public void testSummaryTrue() throws Exception
+	{
+		SearchQuery<Task> query = createTaskQuery(Map.of(SearchQuery.PARAMETER_SUMMARY, List.of("true")));
+
+		assertTrue(query.getSearchSql().contains("'businessStatus'"));
+		assertFalse(query.getSearchSql().contains("'input'"));
+		assertTrue(query.isElementIncluded("businessStatus"));
+		assertFalse(query.isElementIncluded("input"));
+	}
+
+	@Test
+	public void testSummaryCount() throws Exception
+	{
+		SearchQuery<Task> query = createTaskQuery(Map.of(SearchQuery.PARAMETER_SUMMARY, List.of("count"),
+				SearchQuery.PARAMETER_ELEMENTS, List.of("status")));
+
+		assertEquals("SELECT task FROM current_tasks LIMIT ? OFFSET ?", query.getSearchSql());
+	}
+
+	@Test
+	public void testElements() throws Exception
+	{
+		SearchQuery<Task> query = createTaskQuery(Map.of(SearchQuery.PARAMETER_ELEMENTS, List.of("input, owner")));
+
+		assertEquals("SELECT (SELECT jsonb_object_agg(e.key, e.value) FROM jsonb_each(task) AS e WHERE e.key IN "
+				+ "('_input', '_intent', '_owner', '_status', 'id', 'input', 'intent', 'meta', 'owner', 'resourceType', 'status'))"
+				+ " FROM current_tasks LIMIT ? OFFSET ?", query.getSearchSql());
+		assertTrue(query.getUnsupportedQueryParameters().isEmpty());
+		assertEquals("/Task?_elements=input%2Cowner",
+				query.configureBundleUri(UriBuilder.fromPath("/Task")).build().toString());
+	}
+
+	@Test
+	public void testElementsOverSummary() throws Exception
+	{
+		SearchQuery<Task> query = createTaskQuery(Map.of(SearchQuery.PARAMETER_ELEMENTS, List.of("input"),
+				SearchQuery.PARAMETER_SUMMARY, List.of("data")));
+
+		assertTrue(query.getSearchSql().contains("'input'"));
+		assertFalse(query.isElementIncluded("text"));
+		assertFalse(query.isElementIncluded("owner"));
+	}
+
+	@Test
+	public void testElementsUnknown() throws Exception
+	{
+		SearchQuery<Task> query = createTaskQuery(
+				Map.of(SearchQuery.PARAMETER_ELEMENTS, List.of("status,unknown,task' OR 1=1")));
+
+		assertTrue(query.getSearchSql().contains("'status'"));
+		assertFalse(query.getSearchSql().contains("unknown"));
+		assertFalse(query.getSearchSql().contains("OR 1=1"));
+
+		List<SearchQueryParameterError> errors = query.getUnsupportedQueryParameters();
+		assertEquals(2, errors.size());
+		assertTrue(errors.stream().allMatch(e -> SearchQueryParameterErrorType.UNPARSABLE_VALUE.equals(e.getType())
+				&& SearchQuery.PARAMETER_ELEMENTS.equals(e.getParameterName())));
+	}
+
+	@Test
+	public void testElementsOnlyUnknown() throws Exception
+	{
+		SearchQuery<Task> query = createTaskQuery(Map.of(SearchQuery.PARAMETER_ELEMENTS, List.of("unknown")));
+
+		assertEquals("SELECT task FROM current_tasks LIMIT ? OFFSET ?", query.getSearchSql());
+		assertEquals(1, query.getUnsupportedQueryParameters().size());
+	}
+
+	@Test
+	public void testElementsChoice() throws Exception
+	{
+		Map<String, List<String>> queryParameters = Map.of(SearchQuery.PARAMETER_ELEMENTS, List.of("value"));
+		SearchQuery<Observation> query = SearchQueryBuilder
+				.create(Observation.class, "observations", "observation", 1, 20)
+				.with(ResourceElements.of(fhirContext, Observation.class)).build().configureParameters(queryParameters)
+				.configureProjection(queryParameters);
+
+		assertTrue(query.getSearchSql().contains("'valueQuantity'"));
+		assertTrue(query.getSearchSql().contains("'valueString'"));
+		assertTrue(query.getSearchSql().contains("'code'"));
+	}
+
+	@Test
+	public void testBinaryDataExcluded() throws Exception
+	{
+		Map<String, List<String>> queryParameters = Map.of(SearchQuery.PARAMETER_SUMMARY, List.of("true"));
+		SearchQuery<Binary> query = SearchQueryBuilder.create(Binary.class, "binaries", "binary_json", 1, 20)
+				.with(ResourceElements.of(fhirContext, Binary.class)).build().configureParameters(queryParameters)
+				.configureProjection(queryParameters);
+
+		assertFalse(query.isElementIncluded("data"));
+		assertTrue(query.isElementIncluded("contentType"));
+	}
+}
@@ -0,0 +1,138 @@
+package dev.dsf.fhir.webservice.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Test;
+
+import dev.dsf.fhir.help.StaticResourceCache;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Response.Status;
+
+public class StaticResourcesServiceImplTest
+{
+	private static final StaticResourceCache cache = StaticResourceCache.preloaded();
+
+	private static byte[] readClasspath(String fileName) throws Exception
+	{
+		try (InputStream in = StaticResourcesServiceImplTest.class.getResourceAsStream("/static/" + fileName))
+		{
+			return in.readAllBytes();
+		}
+	}
+
+	private static HttpHeaders headers(String acceptEncoding, String ifNoneMatch)
+	{
+		HttpHeaders headers = mock(HttpHeaders.class);
+		when(headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING)).thenReturn(acceptEncoding);
+		when(headers.getHeaderString(HttpHeaders.IF_NONE_MATCH)).thenReturn(ifNoneMatch);
+		return headers;
+	}
+
+	private static Response getFile(String fileName, HttpHeaders headers)
+	{
+		return new StaticResourcesServiceImpl(cache, true).getFile(fileName, null, headers);
+	}
+
+	@Test
+	public void testGetUrlFileName() throws Exception
+	{
+		String hashedFileName = cache.getUrlFileName("dsf.css");
+
+		assertTrue(hashedFileName,
+				hashedFileName.matches("dsf\\.[0-9a-f]{" + StaticResourceCache.HASH_LENGTH + "}\\.css"));
+		assertEquals("unknown.css", cache.getUrlFileName("unknown.css"));
+		assertEquals("dsf.css", StaticResourceCache.uncached().getUrlFileName("dsf.css"));
+	}
+
+	@Test
+	public void testGetFile() throws Exception
+	{
+		Response response = getFile("dsf.css", headers(null, null));
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertArrayEquals(readClasspath("dsf.css"), (byte[]) response.getEntity());
+		assertEquals("text/css", response.getMediaType().toString());
+		assertNull(response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeaderString(HttpHeaders.VARY));
+		assertNotNull(response.getEntityTag());
+		assertEquals("no-transform", response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+	}
+
+	@Test
+	public void testGetFileGzip() throws Exception
+	{
+		Response response = getFile("dsf.css", headers("deflate, gzip;q=0.8", null));
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertEquals("gzip", response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+		assertNotEquals(getFile("dsf.css", headers(null, null)).getEntityTag(), response.getEntityTag());
+
+		try (InputStream in = new GZIPInputStream(new ByteArrayInputStream((byte[]) response.getEntity())))
+		{
+			assertArrayEquals(readClasspath("dsf.css"), in.readAllBytes());
+		}
+	}
+
+	@Test
+	public void testGetFileGzipNotAccepted() throws Exception
+	{
+		Response response = getFile("dsf.css", headers("gzip;q=0", null));
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertNull(response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+	}
+
+	@Test
+	public void testGetFileNotCompressible() throws Exception
+	{
+		Response response = getFile("favicon_32x32.png", headers("gzip", null));
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertArrayEquals(readClasspath("favicon_32x32.png"), (byte[]) response.getEntity());
+		assertNull(response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+		assertNull(response.getHeaderString(HttpHeaders.VARY));
+	}
+
+	@Test
+	public void testGetFileContentHashed() throws Exception
+	{
+		Response response = getFile(cache.getUrlFileName("dsf.css"), headers(null, null));
+
+		assertEquals(Status.OK.getStatusCode(), response.getStatus());
+		assertArrayEquals(readClasspath("dsf.css"), (byte[]) response.getEntity());
+		assertEquals("no-transform, max-age=31536000, immutable", response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+	}
+
+	@Test
+	public void testGetFileNotModified() throws Exception
+	{
+		String tag = getFile("dsf.css", headers("gzip", null)).getEntityTag().getValue();
+
+		Response response = getFile("dsf.css", headers("gzip", "\"other\", \"" + tag + "\""));
+		assertEquals(Status.NOT_MODIFIED.getStatusCode(), response.getStatus());
+		assertNull(response.getEntity());
+
+		Response uncompressed = getFile("dsf.css", headers(null, "\"" + tag + "\""));
+		assertEquals(Status.OK.getStatusCode(), uncompressed.getStatus());
+	}
+
+	@Test
+	public void testGetFileNotFound() throws Exception
+	{
+		assertEquals(Status.NOT_FOUND.getStatusCode(), getFile("unknown.css", headers(null, null)).getStatus());
+		assertEquals(Status.NOT_FOUND.getStatusCode(), getFile("dsf.txt", headers(null, null)).getStatus());
+		assertEquals(Status.NOT_FOUND.getStatusCode(), getFile("", headers(null, null)).getStatus());
+	}
+}
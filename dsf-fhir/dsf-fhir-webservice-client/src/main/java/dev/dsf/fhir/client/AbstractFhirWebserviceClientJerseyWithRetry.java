@@ -1,6 +1,8 @@
 package dev.dsf.fhir.client;
 
+import java.net.ConnectException;
 import java.net.UnknownHostException;
+import java.net.http.HttpConnectTimeoutException;
 import java.util.function.Supplier;
 
 import org.apache.http.conn.ConnectTimeoutException;
@@ -76,7 +78,7 @@ public abstract class AbstractFhirWebserviceClientJerseyWithRetry
 		throw caughtException;
 	}
 
-	private boolean shouldRetry(RuntimeException e)
+	static boolean shouldRetry(RuntimeException e)
 	{
 		if (e instanceof WebApplicationException)
 		{
@@ -99,14 +101,15 @@ public abstract class AbstractFhirWebserviceClientJerseyWithRetry
 		return false;
 	}
 
-	private boolean isRetryStatusCode(WebApplicationException e)
+	private static boolean isRetryStatusCode(WebApplicationException e)
 	{
 		return Status.Family.SERVER_ERROR.equals(e.getResponse().getStatusInfo().getFamily());
 	}
 
-	private boolean isRetryCause(Throwable cause)
+	private static boolean isRetryCause(Throwable cause)
 	{
 		return cause instanceof ConnectTimeoutException || cause instanceof HttpHostConnectException
-				|| cause instanceof UnknownHostException;
+				|| cause instanceof UnknownHostException || cause instanceof ConnectException
+				|| cause instanceof HttpConnectTimeoutException;
 	}
 }
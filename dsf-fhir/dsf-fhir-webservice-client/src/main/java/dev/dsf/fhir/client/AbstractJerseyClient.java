@@ -2,19 +2,26 @@ package dev.dsf.fhir.client;
 
 import java.security.KeyStore;
 import java.util.Collection;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 import javax.net.ssl.SSLContext;
 
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.glassfish.jersey.SslConfigurator;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
 import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
+import org.glassfish.jersey.apache.connector.ApacheHttpClientBuilderConfigurator;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.filter.EncodingFeature;
 import org.glassfish.jersey.jackson.internal.jackson.jaxrs.json.JacksonJaxbJsonProvider;
 import org.glassfish.jersey.jackson.internal.jackson.jaxrs.json.JacksonJsonProvider;
 import org.glassfish.jersey.logging.LoggingFeature;
 import org.glassfish.jersey.logging.LoggingFeature.Verbosity;
+import org.glassfish.jersey.message.DeflateEncoder;
+import org.glassfish.jersey.message.GZipEncoder;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -55,22 +62,98 @@ public class AbstractJerseyClient
 			sslContext = SslConfigurator.newInstance().trustStore(trustStore).keyStore(keyStore)
 					.keyStorePassword(keyStorePassword).createSSLContext();
 
-		ClientBuilder builder = ClientBuilder.newBuilder();
-
-		if (sslContext != null)
-			builder = builder.sslContext(sslContext);
-
 		ClientConfig config = new ClientConfig();
 		config.connectorProvider(new ApacheConnectorProvider());
 		config.property(ClientProperties.PROXY_URI, proxySchemeHostPort);
 		config.property(ClientProperties.PROXY_USERNAME, proxyUserName);
 		config.property(ClientProperties.PROXY_PASSWORD, proxyPassword == null ? null : String.valueOf(proxyPassword));
+
+		client = createClient(sslContext, config, objectMapper, componentsToRegister, connectTimeout, readTimeout,
+				logRequests, userAgentValue, false);
+
+		this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+		// making sure the root url works, this might be a workaround for a jersey client bug
+	}
+
+	/**
+	 * Creates a client using connections from the given shared <b>connectionPool</b>. Uses the HTTP/2 capable
+	 * java.net.http connector if enabled for the pool and no proxy is configured. Request entities are gzip compressed
+	 * if enabled for the pool.
+	 *
+	 * @param baseUrl
+	 *            not <code>null</code>
+	 * @param connectionPool
+	 *            not <code>null</code>
+	 * @param objectMapper
+	 *            may be <code>null</code>
+	 * @param componentsToRegister
+	 *            may be <code>null</code>
+	 * @param proxySchemeHostPort
+	 *            may be <code>null</code>
+	 * @param proxyUserName
+	 *            may be <code>null</code>
+	 * @param proxyPassword
+	 *            may be <code>null</code>
+	 * @param connectTimeout
+	 *            milliseconds, <code>0</code> for no timeout
+	 * @param readTimeout
+	 *            milliseconds, <code>0</code> for no timeout
+	 * @param logRequests
+	 *            <code>true</code> to log requests and responses
+	 * @param userAgentValue
+	 *            may be <code>null</code>
+	 */
+	public AbstractJerseyClient(String baseUrl, ClientConnectionPool connectionPool, ObjectMapper objectMapper,
+			Collection<?> componentsToRegister, String proxySchemeHostPort, String proxyUserName, char[] proxyPassword,
+			int connectTimeout, int readTimeout, boolean logRequests, String userAgentValue)
+	{
+		Objects.requireNonNull(connectionPool, "connectionPool");
+
+		ClientConfig config = new ClientConfig();
+		if (connectionPool.isHttp2() && proxySchemeHostPort == null)
+			config.connectorProvider(connectionPool.getHttp2ConnectorProvider(connectTimeout));
+		else
+		{
+			config.connectorProvider(new ApacheConnectorProvider());
+			config.property(ApacheClientProperties.CONNECTION_MANAGER, connectionPool.getConnectionManager());
+			config.property(ApacheClientProperties.CONNECTION_MANAGER_SHARED, true);
+			config.property(ApacheClientProperties.KEEPALIVE_STRATEGY, connectionPool.getKeepAliveStrategy());
+
+			// connections authenticated with the client certificate would otherwise not be reused, all
+			// connections of the pool use the same certificate
+			config.register((ApacheHttpClientBuilderConfigurator) HttpClientBuilder::disableConnectionState);
+
+			config.property(ClientProperties.PROXY_URI, proxySchemeHostPort);
+			config.property(ClientProperties.PROXY_USERNAME, proxyUserName);
+			config.property(ClientProperties.PROXY_PASSWORD,
+					proxyPassword == null ? null : String.valueOf(proxyPassword));
+		}
+
+		client = createClient(connectionPool.getSslContext(), config, objectMapper, componentsToRegister,
+				connectTimeout, readTimeout, logRequests, userAgentValue, connectionPool.isRequestCompression());
+
+		this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+	}
+
+	private static Client createClient(SSLContext sslContext, ClientConfig config, ObjectMapper objectMapper,
+			Collection<?> componentsToRegister, int connectTimeout, int readTimeout, boolean logRequests,
+			String userAgentValue, boolean requestCompression)
+	{
+		ClientBuilder builder = ClientBuilder.newBuilder();
+
+		if (sslContext != null)
+			builder = builder.sslContext(sslContext);
+
 		builder = builder.withConfig(config);
 
 		if (userAgentValue != null && !userAgentValue.isBlank())
 			builder = builder.register((ClientRequestFilter) requestContext -> requestContext.getHeaders()
 					.add(HttpHeaders.USER_AGENT, userAgentValue));
 
+		// accepts gzip and deflate compressed responses
+		builder = builder.register(
+				new EncodingFeature(requestCompression ? "gzip" : null, GZipEncoder.class, DeflateEncoder.class));
+
 		builder = builder.readTimeout(readTimeout, TimeUnit.MILLISECONDS).connectTimeout(connectTimeout,
 				TimeUnit.MILLISECONDS);
 
@@ -90,10 +173,7 @@ public class AbstractJerseyClient
 					LoggingFeature.DEFAULT_MAX_ENTITY_SIZE));
 		}
 
-		client = builder.build();
-
-		this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
-		// making sure the root url works, this might be a workaround for a jersey client bug
+		return builder.build();
 	}
 
 	protected WebTarget getResource()
@@ -0,0 +1,58 @@
+package dev.dsf.fhir.client;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Resource;
+
+/**
+ * Non-blocking variant of {@link BasicFhirWebserviceClient}. Futures complete exceptionally with the same exceptions
+ * thrown by the blocking client. Retries are scheduled with a timer without blocking a thread while waiting. Cancelling
+ * a returned future cancels pending retries, a request already sent is not aborted but its response is discarded.
+ */
+public interface AsyncFhirWebserviceClient extends RetryClient<AsyncFhirWebserviceClient>
+{
+	String getBaseUrl();
+
+	/**
+	 * Requests of the returned client use the given read timeout instead of the configured default. The timeout is
+	 * enforced by the HTTP connector, a request not answered in time is aborted and the future completes exceptionally
+	 * with a {@link jakarta.ws.rs.ProcessingException}, a request is never reported as failed while still running.
+	 *
+	 * @param timeoutMillis
+	 *            {@code > 0}
+	 * @return client with the given per request timeout and the retry configuration of this client
+	 * @throws IllegalArgumentException
+	 *             if param <b>timeoutMillis</b> is {@code <= 0}
+	 */
+	AsyncFhirWebserviceClient withTimeout(long timeoutMillis);
+
+	<R extends Resource> CompletableFuture<R> create(R resource);
+
+	<R extends Resource> CompletableFuture<R> createConditionaly(R resource, String ifNoneExistCriteria);
+
+	<R extends Resource> CompletableFuture<R> update(R resource);
+
+	<R extends Resource> CompletableFuture<R> updateConditionaly(R resource, Map<String, List<String>> criteria);
+
+	CompletableFuture<Bundle> postBundle(Bundle bundle);
+
+	CompletableFuture<Void> delete(Class<? extends Resource> resourceClass, String id);
+
+	/**
+	 * @param <R>
+	 * @param resourceType
+	 *            not <code>null</code>
+	 * @param id
+	 *            not <code>null</code>
+	 * @return future completing with the resource
+	 */
+	<R extends Resource> CompletableFuture<R> read(Class<R> resourceType, String id);
+
+	CompletableFuture<Bundle> search(Class<? extends Resource> resourceType, Map<String, List<String>> parameters);
+
+	CompletableFuture<Bundle> searchWithStrictHandling(Class<? extends Resource> resourceType,
+			Map<String, List<String>> parameters);
+}
@@ -0,0 +1,367 @@
+package dev.dsf.fhir.client;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.glassfish.jersey.client.ClientProperties;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ca.uhn.fhir.model.api.annotation.ResourceDef;
+import ca.uhn.fhir.rest.api.Constants;
+import dev.dsf.fhir.prefer.PreferHandlingType;
+import dev.dsf.fhir.prefer.PreferReturnType;
+import dev.dsf.fhir.service.ReferenceCleaner;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.client.Entity;
+import jakarta.ws.rs.client.Invocation.Builder;
+import jakarta.ws.rs.client.WebTarget;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.Response.Status;
+
+/**
+ * Uses the Jersey reactive client API, requests are executed without blocking the calling thread. If the client is
+ * configured with the java.net.http connector, no thread is blocked while waiting for the server.
+ */
+class AsyncFhirWebserviceClientJersey implements AsyncFhirWebserviceClient
+{
+	private static final Logger logger = LoggerFactory.getLogger(AsyncFhirWebserviceClientJersey.class);
+
+	private final FhirWebserviceClientJersey delegate;
+	private final ReferenceCleaner referenceCleaner;
+	private final int nTimes;
+	private final long delayMillis;
+	private final int timeoutMillis;
+
+	/**
+	 * @param delegate
+	 *            not <code>null</code>
+	 * @param referenceCleaner
+	 *            not <code>null</code>
+	 * @param nTimes
+	 *            <code>0</code> for no retry, {@link RetryClient#RETRY_FOREVER} to retry forever
+	 * @param delayMillis
+	 *            <code>&gt;= 0</code>
+	 * @param timeoutMillis
+	 *            <code>0</code> for the configured read timeout, per request read timeout otherwise
+	 */
+	AsyncFhirWebserviceClientJersey(FhirWebserviceClientJersey delegate, ReferenceCleaner referenceCleaner, int nTimes,
+			long delayMillis, int timeoutMillis)
+	{
+		this.delegate = delegate;
+		this.referenceCleaner = referenceCleaner;
+		this.nTimes = nTimes;
+		this.delayMillis = delayMillis;
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	@Override
+	public String getBaseUrl()
+	{
+		return delegate.getBaseUrl();
+	}
+
+	@Override
+	public AsyncFhirWebserviceClient withRetry(int nTimes, long delayMillis)
+	{
+		if (nTimes < 0)
+			throw new IllegalArgumentException("nTimes < 0");
+		if (delayMillis < 0)
+			throw new IllegalArgumentException("delayMillis < 0");
+
+		return new AsyncFhirWebserviceClientJersey(delegate, referenceCleaner, nTimes, delayMillis, timeoutMillis);
+	}
+
+	@Override
+	public AsyncFhirWebserviceClient withRetryForever(long delayMillis)
+	{
+		if (delayMillis < 0)
+			throw new IllegalArgumentException("delayMillis < 0");
+
+		return new AsyncFhirWebserviceClientJersey(delegate, referenceCleaner, RETRY_FOREVER, delayMillis,
+				timeoutMillis);
+	}
+
+	@Override
+	public AsyncFhirWebserviceClient withTimeout(long timeoutMillis)
+	{
+		if (timeoutMillis <= 0)
+			throw new IllegalArgumentException("timeoutMillis <= 0");
+
+		return new AsyncFhirWebserviceClientJersey(delegate, referenceCleaner, nTimes, delayMillis,
+				(int) Math.min(timeoutMillis, Integer.MAX_VALUE));
+	}
+
+	@Override
+	public <R extends Resource> CompletableFuture<R> create(R resource)
+	{
+		Objects.requireNonNull(resource, "resource");
+
+		return retry(
+				() -> request(resourcePath(resource)).rx().post(Entity.entity(resource, Constants.CT_FHIR_JSON_NEW)),
+				response -> readResource(response, Status.CREATED, resource));
+	}
+
+	@Override
+	public <R extends Resource> CompletableFuture<R> createConditionaly(R resource, String ifNoneExistCriteria)
+	{
+		Objects.requireNonNull(resource, "resource");
+		Objects.requireNonNull(ifNoneExistCriteria, "ifNoneExistCriteria");
+
+		return retry(
+				() -> request(resourcePath(resource)).header(Constants.HEADER_IF_NONE_EXIST, ifNoneExistCriteria).rx()
+						.post(Entity.entity(resource, Constants.CT_FHIR_JSON_NEW)),
+				response -> readResource(response, Status.CREATED, resource));
+	}
+
+	@Override
+	public <R extends Resource> CompletableFuture<R> update(R resource)
+	{
+		Objects.requireNonNull(resource, "resource");
+
+		return retry(
+				() -> ifMatch(request(resourcePath(resource).path(resource.getIdElement().getIdPart())), resource).rx()
+						.put(Entity.entity(resource, Constants.CT_FHIR_JSON_NEW)),
+				response -> readResource(response, Status.OK, resource));
+	}
+
+	@Override
+	public <R extends Resource> CompletableFuture<R> updateConditionaly(R resource, Map<String, List<String>> criteria)
+	{
+		Objects.requireNonNull(resource, "resource");
+		Objects.requireNonNull(criteria, "criteria");
+		if (criteria.isEmpty())
+			throw new IllegalArgumentException("criteria map empty");
+
+		return retry(() -> ifMatch(request(queryParams(resourcePath(resource), criteria)), resource).rx()
+				.put(Entity.entity(resource, Constants.CT_FHIR_JSON_NEW)), response ->
+				{
+					if (Status.CREATED.getStatusCode() == response.getStatus())
+						return readResource(response, Status.CREATED, resource);
+					else
+						return readResource(response, Status.OK, resource);
+				});
+	}
+
+	@Override
+	public CompletableFuture<Bundle> postBundle(Bundle bundle)
+	{
+		Objects.requireNonNull(bundle, "bundle");
+
+		return retry(() -> request(delegate.getResource()).rx().post(Entity.entity(bundle, Constants.CT_FHIR_JSON_NEW)),
+				response -> readResource(response, Status.OK, bundle));
+	}
+
+	@Override
+	public CompletableFuture<Void> delete(Class<? extends Resource> resourceClass, String id)
+	{
+		Objects.requireNonNull(resourceClass, "resourceClass");
+		Objects.requireNonNull(id, "id");
+
+		return retry(() -> timeout(resourcePath(resourceClass).path(id).request()).accept(Constants.CT_FHIR_JSON_NEW)
+				.rx().delete(), response ->
+				{
+					delegate.logStatusAndHeaders(response);
+
+					if (Status.OK.getStatusCode() != response.getStatus()
+							&& Status.NO_CONTENT.getStatusCode() != response.getStatus())
+						throw delegate.handleError(response);
+
+					response.close();
+					return null;
+				});
+	}
+
+	@Override
+	public <R extends Resource> CompletableFuture<R> read(Class<R> resourceType, String id)
+	{
+		Objects.requireNonNull(resourceType, "resourceType");
+		Objects.requireNonNull(id, "id");
+
+		return retry(() -> timeout(resourcePath(resourceType).path(id).request()).accept(Constants.CT_FHIR_JSON_NEW)
+				.rx().get(), response -> readResource(response, Status.OK, resourceType));
+	}
+
+	@Override
+	public CompletableFuture<Bundle> search(Class<? extends Resource> resourceType,
+			Map<String, List<String>> parameters)
+	{
+		Objects.requireNonNull(resourceType, "resourceType");
+
+		return retry(
+				() -> timeout(queryParams(resourcePath(resourceType), parameters).request())
+						.accept(Constants.CT_FHIR_JSON_NEW).rx().get(),
+				response -> readResource(response, Status.OK, Bundle.class));
+	}
+
+	@Override
+	public CompletableFuture<Bundle> searchWithStrictHandling(Class<? extends Resource> resourceType,
+			Map<String, List<String>> parameters)
+	{
+		Objects.requireNonNull(resourceType, "resourceType");
+
+		return retry(
+				() -> timeout(queryParams(resourcePath(resourceType), parameters).request())
+						.header(Constants.HEADER_PREFER, PreferHandlingType.STRICT.getHeaderValue())
+						.accept(Constants.CT_FHIR_JSON_NEW).rx().get(),
+				response -> readResource(response, Status.OK, Bundle.class));
+	}
+
+	private WebTarget resourcePath(Resource resource)
+	{
+		return resourcePath(resource.getClass());
+	}
+
+	private WebTarget resourcePath(Class<? extends Resource> resourceType)
+	{
+		return delegate.getResource().path(resourceType.getAnnotation(ResourceDef.class).name());
+	}
+
+	private WebTarget queryParams(WebTarget target, Map<String, List<String>> parameters)
+	{
+		if (parameters != null)
+		{
+			for (Entry<String, List<String>> entry : parameters.entrySet())
+				target = target.queryParam(entry.getKey(), entry.getValue().toArray());
+		}
+
+		return target;
+	}
+
+	private Builder request(WebTarget target)
+	{
+		return timeout(target.request())
+				.header(Constants.HEADER_PREFER, PreferReturnType.REPRESENTATION.getHeaderValue())
+				.accept(Constants.CT_FHIR_JSON_NEW);
+	}
+
+	private Builder timeout(Builder builder)
+	{
+		if (timeoutMillis > 0)
+			builder.property(ClientProperties.READ_TIMEOUT, timeoutMillis);
+
+		return builder;
+	}
+
+	private Builder ifMatch(Builder builder, Resource resource)
+	{
+		if (resource.getMeta().hasVersionId())
+			builder.header(Constants.HEADER_IF_MATCH, new EntityTag(resource.getMeta().getVersionId(), true));
+
+		return builder;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <R extends Resource> R readResource(Response response, Status expectedStatus, R resource)
+	{
+		return readResource(response, expectedStatus, (Class<R>) resource.getClass());
+	}
+
+	private <R extends Resource> R readResource(Response response, Status expectedStatus, Class<R> resourceType)
+	{
+		delegate.logStatusAndHeaders(response);
+
+		if (expectedStatus.getStatusCode() == response.getStatus())
+			// TODO remove workaround if HAPI bug fixed
+			return referenceCleaner.cleanReferenceResourcesIfBundle(response.readEntity(resourceType));
+		else
+			throw delegate.handleError(response);
+	}
+
+	/**
+	 * Cancelling the returned future cancels pending retries. A request already sent is not aborted, its response is
+	 * closed when it arrives.
+	 */
+	<T> CompletableFuture<T> retry(Supplier<CompletionStage<Response>> request, Function<Response, T> responseHandler)
+	{
+		CompletableFuture<T> result = new CompletableFuture<>();
+		AtomicReference<CompletableFuture<T>> currentTry = new AtomicReference<>();
+
+		result.whenComplete((r, e) ->
+		{
+			CompletableFuture<T> current = currentTry.get();
+			if (result.isCancelled() && current != null)
+				current.cancel(true);
+		});
+
+		execute(request, responseHandler, result, currentTry, 0, null);
+
+		return result;
+	}
+
+	private <T> void execute(Supplier<CompletionStage<Response>> request, Function<Response, T> responseHandler,
+			CompletableFuture<T> result, AtomicReference<CompletableFuture<T>> currentTry, int tryNumber,
+			RuntimeException previousException)
+	{
+		if (result.isDone())
+			return;
+
+		if (tryNumber == 0)
+			logger.debug("First try ...");
+		else if (nTimes != RETRY_FOREVER)
+			logger.debug("Retry {} of {}", tryNumber, nTimes);
+
+		CompletableFuture<T> current;
+		try
+		{
+			CompletableFuture<Response> response = request.get().toCompletableFuture();
+
+			// cancelling the derived future does not abort the request, connection released by closing the response
+			response.whenComplete((r, e) ->
+			{
+				if (r != null && result.isCancelled())
+					r.close();
+			});
+
+			current = response.thenApply(responseHandler);
+		}
+		catch (RuntimeException e)
+		{
+			current = CompletableFuture.failedFuture(e);
+		}
+
+		currentTry.set(current);
+
+		current.whenComplete((value, exception) ->
+		{
+			if (exception == null)
+			{
+				result.complete(value);
+				return;
+			}
+
+			Throwable cause = exception instanceof CompletionException && exception.getCause() != null
+					? exception.getCause()
+					: exception;
+
+			if (previousException != null && previousException != cause)
+				cause.addSuppressed(previousException);
+
+			if ((cause instanceof ProcessingException || cause instanceof WebApplicationException)
+					&& AbstractFhirWebserviceClientJerseyWithRetry.shouldRetry((RuntimeException) cause)
+					&& (tryNumber < nTimes || nTimes == RETRY_FOREVER))
+			{
+				logger.warn("Caught {}: {}; trying again in {} ms{}", cause.getClass(), cause.getMessage(), delayMillis,
+						nTimes == RETRY_FOREVER ? " (retry " + (tryNumber + 1) + ")" : "");
+
+				CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS).execute(() -> execute(request,
+						responseHandler, result, currentTry, tryNumber + 1, (RuntimeException) cause));
+			}
+			else
+				result.completeExceptionally(cause);
+		});
+	}
+}
@@ -0,0 +1,208 @@
+package dev.dsf.fhir.client;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpClient.Redirect;
+import java.net.http.HttpClient.Version;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.glassfish.jersey.SslConfigurator;
+import org.glassfish.jersey.client.spi.ConnectorProvider;
+
+/**
+ * Connections and TLS context shared by all {@link AbstractJerseyClient} instances created with this pool. All clients
+ * use the same trust store and client certificate, TLS sessions are cached by the shared {@link SSLContext} and resumed
+ * for new connections to the same server.
+ * <p>
+ * HTTP/1.1 connections are kept alive for at most <b>idleTimeoutMillis</b> and closed by a background thread once idle
+ * for this long. Since all connections use the same client certificate, connections are reused independent of the
+ * authenticated client principal. If HTTP/2 is enabled, clients without proxy use the java.net.http client, negotiating
+ * HTTP/2 via ALPN and multiplexing requests to the same server over a single connection.
+ * <p>
+ * Clients always accept gzip and deflate compressed responses. Compression of request entities is optional, since
+ * servers not supporting compressed requests would reject them.
+ */
+public class ClientConnectionPool implements AutoCloseable
+{
+	public static final int DEFAULT_MAX_TOTAL = 200;
+	public static final int DEFAULT_MAX_PER_ROUTE = 20;
+	public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 60_000;
+
+	private final SSLContext sslContext;
+	private final long idleTimeoutMillis;
+	private final boolean http2;
+	private final boolean requestCompression;
+
+	private final PoolingHttpClientConnectionManager connectionManager;
+	private final IdleConnectionEvictor idleConnectionEvictor;
+	private final ConnectionKeepAliveStrategy keepAliveStrategy;
+	private final Map<Integer, HttpClient> http2ClientsByConnectTimeout = new ConcurrentHashMap<>();
+
+	/**
+	 * @param trustStore
+	 *            not <code>null</code>
+	 * @param keyStore
+	 *            may be <code>null</code>
+	 * @param keyStorePassword
+	 *            not <code>null</code> if <b>keyStore</b> is not <code>null</code>
+	 * @param maxTotal
+	 *            <code>&gt; 0</code>
+	 * @param maxPerRoute
+	 *            <code>&gt; 0</code>, maximum number of connections per server
+	 * @param idleTimeoutMillis
+	 *            <code>&gt; 0</code>
+	 * @param http2
+	 *            <code>true</code> to use HTTP/2 if supported by the server
+	 */
+	public ClientConnectionPool(KeyStore trustStore, KeyStore keyStore, char[] keyStorePassword, int maxTotal,
+			int maxPerRoute, long idleTimeoutMillis, boolean http2)
+	{
+		this(trustStore, keyStore, keyStorePassword, maxTotal, maxPerRoute, idleTimeoutMillis, http2, false);
+	}
+
+	/**
+	 * @param trustStore
+	 *            not <code>null</code>
+	 * @param keyStore
+	 *            may be <code>null</code>
+	 * @param keyStorePassword
+	 *            not <code>null</code> if <b>keyStore</b> is not <code>null</code>
+	 * @param maxTotal
+	 *            <code>&gt; 0</code>
+	 * @param maxPerRoute
+	 *            <code>&gt; 0</code>, maximum number of connections per server
+	 * @param idleTimeoutMillis
+	 *            <code>&gt; 0</code>
+	 * @param http2
+	 *            <code>true</code> to use HTTP/2 if supported by the server
+	 * @param requestCompression
+	 *            <code>true</code> to gzip compress request entities
+	 */
+	public ClientConnectionPool(KeyStore trustStore, KeyStore keyStore, char[] keyStorePassword, int maxTotal,
+			int maxPerRoute, long idleTimeoutMillis, boolean http2, boolean requestCompression)
+	{
+		if (maxTotal <= 0)
+			throw new IllegalArgumentException("maxTotal <= 0");
+		if (maxPerRoute <= 0)
+			throw new IllegalArgumentException("maxPerRoute <= 0");
+		if (idleTimeoutMillis <= 0)
+			throw new IllegalArgumentException("idleTimeoutMillis <= 0");
+
+		sslContext = createSslContext(trustStore, keyStore, keyStorePassword);
+		this.idleTimeoutMillis = idleTimeoutMillis;
+		this.http2 = http2;
+		this.requestCompression = requestCompression;
+
+		Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory> create()
+				.register("http", PlainConnectionSocketFactory.getSocketFactory())
+				.register("https", new SSLConnectionSocketFactory(sslContext,
+						SSLConnectionSocketFactory.getDefaultHostnameVerifier()))
+				.build();
+
+		connectionManager = new PoolingHttpClientConnectionManager(registry);
+		connectionManager.setMaxTotal(maxTotal);
+		connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+
+		idleConnectionEvictor = new IdleConnectionEvictor(connectionManager, Math.max(idleTimeoutMillis / 2, 1_000),
+				TimeUnit.MILLISECONDS, idleTimeoutMillis, TimeUnit.MILLISECONDS);
+		idleConnectionEvictor.start();
+
+		keepAliveStrategy = (response, context) ->
+		{
+			long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+			return keepAlive > 0 ? Math.min(keepAlive, idleTimeoutMillis) : idleTimeoutMillis;
+		};
+	}
+
+	private static SSLContext createSslContext(KeyStore trustStore, KeyStore keyStore, char[] keyStorePassword)
+	{
+		if (trustStore == null)
+			throw new IllegalArgumentException("trustStore null");
+
+		if (keyStore == null)
+			return SslConfigurator.newInstance().trustStore(trustStore).createSSLContext();
+		else if (keyStorePassword != null)
+			return SslConfigurator.newInstance().trustStore(trustStore).keyStore(keyStore)
+					.keyStorePassword(keyStorePassword).createSSLContext();
+		else
+			throw new IllegalArgumentException("keyStore not null but keyStorePassword null");
+	}
+
+	public SSLContext getSslContext()
+	{
+		return sslContext;
+	}
+
+	public boolean isHttp2()
+	{
+		return http2;
+	}
+
+	public boolean isRequestCompression()
+	{
+		return requestCompression;
+	}
+
+	HttpClientConnectionManager getConnectionManager()
+	{
+		return connectionManager;
+	}
+
+	ConnectionKeepAliveStrategy getKeepAliveStrategy()
+	{
+		return keepAliveStrategy;
+	}
+
+	/**
+	 * @param connectTimeout
+	 *            milliseconds, <code>0</code> for no timeout
+	 * @return connector provider using a shared java.net.http client with the given connect timeout
+	 */
+	ConnectorProvider getHttp2ConnectorProvider(int connectTimeout)
+	{
+		HttpClient httpClient = http2ClientsByConnectTimeout.computeIfAbsent(connectTimeout, this::createHttp2Client);
+
+		return (client, configuration) -> new JavaNetHttpConnector(httpClient, configuration);
+	}
+
+	private HttpClient createHttp2Client(int connectTimeout)
+	{
+		HttpClient.Builder builder = HttpClient.newBuilder().version(Version.HTTP_2).sslContext(sslContext)
+				.followRedirects(Redirect.NORMAL);
+
+		if (connectTimeout > 0)
+			builder.connectTimeout(Duration.ofMillis(connectTimeout));
+
+		return builder.build();
+	}
+
+	@Override
+	public void close()
+	{
+		idleConnectionEvictor.shutdown();
+		connectionManager.shutdown();
+	}
+
+	@Override
+	public String toString()
+	{
+		return "ClientConnectionPool [maxTotal=" + connectionManager.getMaxTotal() + ", maxPerRoute="
+				+ connectionManager.getDefaultMaxPerRoute() + ", idleTimeoutMillis=" + idleTimeoutMillis + ", http2="
+				+ http2 + ", requestCompression=" + requestCompression + "]";
+	}
+}
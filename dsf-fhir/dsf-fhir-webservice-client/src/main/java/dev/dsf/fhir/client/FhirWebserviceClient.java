@@ -7,4 +7,9 @@ public interface FhirWebserviceClient extends BasicFhirWebserviceClient, RetryCl
 	PreferReturnOutcomeWithRetry withOperationOutcomeReturn();
 
 	PreferReturnMinimalWithRetry withMinimalReturn();
+
+	/**
+	 * @return non-blocking client for the same server
+	 */
+	AsyncFhirWebserviceClient async();
 }
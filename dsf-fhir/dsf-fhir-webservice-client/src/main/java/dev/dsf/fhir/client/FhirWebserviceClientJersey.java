@@ -75,6 +75,7 @@ public class FhirWebserviceClientJersey extends AbstractJerseyClient implements
 
 	private final PreferReturnMinimalWithRetry preferReturnMinimal;
 	private final PreferReturnOutcomeWithRetry preferReturnOutcome;
+	private final AsyncFhirWebserviceClient asyncClient;
 
 	public FhirWebserviceClientJersey(String baseUrl, KeyStore trustStore, KeyStore keyStore, char[] keyStorePassword,
 			ObjectMapper objectMapper, String proxySchemeHostPort, String proxyUserName, char[] proxyPassword,
@@ -89,9 +90,25 @@ public class FhirWebserviceClientJersey extends AbstractJerseyClient implements
 
 		preferReturnMinimal = new PreferReturnMinimalWithRetryImpl(this);
 		preferReturnOutcome = new PreferReturnOutcomeWithRetryImpl(this);
+		asyncClient = new AsyncFhirWebserviceClientJersey(this, referenceCleaner, 0, 0, 0);
 	}
 
-	private WebApplicationException handleError(Response response)
+	public FhirWebserviceClientJersey(String baseUrl, ClientConnectionPool connectionPool, ObjectMapper objectMapper,
+			String proxySchemeHostPort, String proxyUserName, char[] proxyPassword, int connectTimeout, int readTimeout,
+			boolean logRequests, String userAgentValue, FhirContext fhirContext, ReferenceCleaner referenceCleaner)
+	{
+		super(baseUrl, connectionPool, objectMapper, Collections.singleton(new FhirAdapter(fhirContext)),
+				proxySchemeHostPort, proxyUserName, proxyPassword, connectTimeout, readTimeout, logRequests,
+				userAgentValue);
+
+		this.referenceCleaner = referenceCleaner;
+
+		preferReturnMinimal = new PreferReturnMinimalWithRetryImpl(this);
+		preferReturnOutcome = new PreferReturnOutcomeWithRetryImpl(this);
+		asyncClient = new AsyncFhirWebserviceClientJersey(this, referenceCleaner, 0, 0, 0);
+	}
+
+	WebApplicationException handleError(Response response)
 	{
 		try
 		{
@@ -120,7 +137,7 @@ public class FhirWebserviceClientJersey extends AbstractJerseyClient implements
 		return issue == null ? "" : issue.getSeverity() + " " + issue.getCode() + " " + issue.getDiagnostics();
 	}
 
-	private void logStatusAndHeaders(Response response)
+	void logStatusAndHeaders(Response response)
 	{
 		logger.debug("HTTP {}: {}", response.getStatusInfo().getStatusCode(),
 				response.getStatusInfo().getReasonPhrase());
@@ -147,6 +164,12 @@ public class FhirWebserviceClientJersey extends AbstractJerseyClient implements
 		}
 	}
 
+	@Override
+	public AsyncFhirWebserviceClient async()
+	{
+		return asyncClient;
+	}
+
 	@Override
 	public PreferReturnMinimalWithRetry withMinimalReturn()
 	{
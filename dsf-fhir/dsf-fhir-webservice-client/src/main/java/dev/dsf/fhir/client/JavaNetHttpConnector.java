@@ -0,0 +1,149 @@
+package dev.dsf.fhir.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.message.internal.Statuses;
+
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.core.Configuration;
+
+/**
+ * Jersey {@link Connector} using a shared {@link HttpClient}, negotiates HTTP/2 via ALPN for https connections and
+ * falls back to HTTP/1.1 if not supported by the server. Request entities are buffered before sending.
+ */
+class JavaNetHttpConnector implements Connector
+{
+	// headers set by the java.net.http client, not allowed to be set by the user
+	private static final Set<String> RESTRICTED_HEADERS = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+	static
+	{
+		RESTRICTED_HEADERS.addAll(Set.of("Connection", "Content-Length", "Expect", "Host", "Upgrade"));
+	}
+
+	private final HttpClient httpClient;
+	private final int readTimeout;
+
+	JavaNetHttpConnector(HttpClient httpClient, Configuration configuration)
+	{
+		this.httpClient = httpClient;
+		this.readTimeout = ClientProperties.getValue(configuration.getProperties(), ClientProperties.READ_TIMEOUT, 0);
+	}
+
+	@Override
+	public ClientResponse apply(ClientRequest request)
+	{
+		try
+		{
+			HttpResponse<InputStream> response = httpClient.send(toHttpRequest(request), BodyHandlers.ofInputStream());
+			return toClientResponse(request, response);
+		}
+		catch (IOException e)
+		{
+			throw new ProcessingException(e);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new ProcessingException(e);
+		}
+	}
+
+	@Override
+	public Future<?> apply(ClientRequest request, AsyncConnectorCallback callback)
+	{
+		HttpRequest httpRequest;
+		try
+		{
+			httpRequest = toHttpRequest(request);
+		}
+		catch (IOException | RuntimeException e)
+		{
+			callback.failure(e);
+			return CompletableFuture.failedFuture(e);
+		}
+
+		return httpClient.sendAsync(httpRequest, BodyHandlers.ofInputStream())
+				.thenApply(response -> toClientResponse(request, response)).whenComplete((response, error) ->
+				{
+					if (error != null)
+						callback.failure(error instanceof CompletionException ? error.getCause() : error);
+					else
+						callback.response(response);
+				});
+	}
+
+	private HttpRequest toHttpRequest(ClientRequest request) throws IOException
+	{
+		BodyPublisher body = BodyPublishers.noBody();
+		if (request.hasEntity())
+		{
+			ByteArrayOutputStream entity = new ByteArrayOutputStream();
+			request.setStreamProvider(contentLength -> entity);
+			request.writeEntity();
+
+			body = BodyPublishers.ofByteArray(entity.toByteArray());
+		}
+
+		HttpRequest.Builder builder = HttpRequest.newBuilder(request.getUri()).method(request.getMethod(), body);
+
+		int timeout = request.resolveProperty(ClientProperties.READ_TIMEOUT, readTimeout);
+		if (timeout > 0)
+			builder.timeout(Duration.ofMillis(timeout));
+
+		request.getStringHeaders().forEach((name, values) ->
+		{
+			if (!RESTRICTED_HEADERS.contains(name))
+				values.forEach(value -> builder.header(name, value));
+		});
+
+		return builder.build();
+	}
+
+	private ClientResponse toClientResponse(ClientRequest request, HttpResponse<InputStream> response)
+	{
+		ClientResponse clientResponse = new ClientResponse(Statuses.from(response.statusCode()), request,
+				response.uri());
+
+		response.headers().map().forEach((name, values) ->
+		{
+			// HTTP/2 pseudo headers
+			if (!name.startsWith(":"))
+				clientResponse.getHeaders().addAll(name, values);
+		});
+
+		clientResponse.setEntityStream(response.body());
+
+		return clientResponse;
+	}
+
+	@Override
+	public String getName()
+	{
+		return "java.net.http " + httpClient.version();
+	}
+
+	@Override
+	public void close()
+	{
+		// shared client, closed by owner
+	}
+}
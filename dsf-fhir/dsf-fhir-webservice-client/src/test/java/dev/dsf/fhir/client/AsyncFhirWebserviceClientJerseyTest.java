@@ -0,0 +1,233 @@
+package dev.dsf.fhir.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Task;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.rest.api.Constants;
+import dev.dsf.fhir.service.ReferenceCleanerImpl;
+import dev.dsf.fhir.service.ReferenceExtractorImpl;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+
+public class AsyncFhirWebserviceClientJerseyTest
+{
+	private final AtomicInteger requests = new AtomicInteger();
+	private volatile int failingRequests;
+	private volatile long responseDelayMillis;
+
+	private Server server;
+	private FhirWebserviceClientJersey client;
+
+	@Before
+	public void before() throws Exception
+	{
+		server = new Server();
+		ServerConnector connector = new ServerConnector(server);
+		connector.setHost("localhost");
+		connector.setPort(0);
+		server.addConnector(connector);
+		server.setHandler(new AbstractHandler()
+		{
+			@Override
+			public void handle(String target, Request baseRequest, HttpServletRequest request,
+					HttpServletResponse response) throws IOException
+			{
+				if (responseDelayMillis > 0)
+				{
+					try
+					{
+						Thread.sleep(responseDelayMillis);
+					}
+					catch (InterruptedException e)
+					{
+						Thread.currentThread().interrupt();
+					}
+				}
+
+				if (requests.incrementAndGet() <= failingRequests)
+					response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+				else
+				{
+					response.setContentType(Constants.CT_FHIR_JSON_NEW);
+					response.getOutputStream().write("{\"resourceType\":\"Bundle\",\"type\":\"searchset\",\"total\":0}"
+							.getBytes(StandardCharsets.UTF_8));
+				}
+
+				baseRequest.setHandled(true);
+			}
+		});
+		server.start();
+
+		client = new FhirWebserviceClientJersey("http://localhost:" + connector.getLocalPort() + "/fhir", null, null,
+				null, null, null, null, null, 0, 0, false, null, FhirContext.forR4(),
+				new ReferenceCleanerImpl(new ReferenceExtractorImpl()));
+	}
+
+	@After
+	public void after() throws Exception
+	{
+		server.stop();
+	}
+
+	@Test
+	public void testSearch() throws Exception
+	{
+		Bundle bundle = client.async().search(Task.class, null).get(10, TimeUnit.SECONDS);
+
+		assertNotNull(bundle);
+		assertEquals(0, bundle.getTotal());
+		assertEquals(1, requests.get());
+	}
+
+	@Test
+	public void testSearchWithoutRetry() throws Exception
+	{
+		failingRequests = 1;
+
+		try
+		{
+			client.async().search(Task.class, null).get(10, TimeUnit.SECONDS);
+			fail("ExecutionException expected");
+		}
+		catch (ExecutionException e)
+		{
+			assertTrue(e.getCause() instanceof WebApplicationException);
+			assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+					((WebApplicationException) e.getCause()).getResponse().getStatus());
+		}
+
+		assertEquals(1, requests.get());
+	}
+
+	@Test
+	public void testSearchWithTimeout() throws Exception
+	{
+		responseDelayMillis = 2_000;
+
+		long start = System.currentTimeMillis();
+		try
+		{
+			client.async().withTimeout(200).search(Task.class, null).get(10, TimeUnit.SECONDS);
+			fail("ExecutionException expected");
+		}
+		catch (ExecutionException e)
+		{
+			assertTrue(e.getCause() instanceof ProcessingException);
+		}
+
+		// aborted by the connector before the server responds
+		assertTrue(System.currentTimeMillis() - start < 1_500);
+	}
+
+	@Test
+	public void testSearchWithRetry() throws Exception
+	{
+		failingRequests = 2;
+
+		Bundle bundle = client.async().withRetry(2, 10).search(Task.class, null).get(10, TimeUnit.SECONDS);
+
+		assertNotNull(bundle);
+		assertEquals(3, requests.get());
+	}
+
+	@Test
+	public void testSearchWithRetryExhausted() throws Exception
+	{
+		failingRequests = 3;
+
+		try
+		{
+			client.async().withRetry(1, 10).search(Task.class, null).get(10, TimeUnit.SECONDS);
+			fail("ExecutionException expected");
+		}
+		catch (ExecutionException e)
+		{
+			assertTrue(e.getCause() instanceof WebApplicationException);
+			assertEquals(1, e.getCause().getSuppressed().length);
+		}
+
+		assertEquals(2, requests.get());
+	}
+
+	@Test
+	public void testCancelStopsRetries() throws Exception
+	{
+		failingRequests = Integer.MAX_VALUE;
+
+		CompletableFuture<Bundle> result = client.async().withRetryForever(200).search(Task.class, null);
+
+		// wait for the first request, retry is scheduled 200 ms later
+		for (int i = 0; i < 100 && requests.get() == 0; i++)
+			Thread.sleep(10);
+
+		assertTrue(result.cancel(true));
+
+		Thread.sleep(500);
+		assertEquals(1, requests.get());
+
+		try
+		{
+			result.get();
+			fail("CancellationException expected");
+		}
+		catch (CancellationException e)
+		{
+			// expected
+		}
+	}
+
+	@Test
+	public void testCancelClosesLateResponse() throws Exception
+	{
+		CompletableFuture<Response> rx = new CompletableFuture<>();
+		AtomicInteger handled = new AtomicInteger();
+
+		CompletableFuture<Object> result = ((AsyncFhirWebserviceClientJersey) client.async()).retry(() -> rx,
+				response ->
+				{
+					handled.incrementAndGet();
+					return response.readEntity(String.class);
+				});
+
+		assertTrue(result.cancel(true));
+
+		Response response = Response.ok("late").build();
+		rx.complete(response);
+
+		assertEquals(0, handled.get());
+
+		try
+		{
+			response.hasEntity();
+			fail("IllegalStateException expected, response not closed");
+		}
+		catch (IllegalStateException e)
+		{
+			// expected
+		}
+	}
+}
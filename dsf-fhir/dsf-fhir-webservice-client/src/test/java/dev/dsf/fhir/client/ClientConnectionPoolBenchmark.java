@@ -0,0 +1,218 @@
+package dev.dsf.fhir.client;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.io.ssl.SslHandshakeListener;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.SslConnectionFactory;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import de.rwh.utils.crypto.CertificateAuthority;
+import de.rwh.utils.crypto.CertificateHelper;
+import de.rwh.utils.crypto.CertificationRequestBuilder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Measures the latency of a Task fan-out, {@value #FAN_OUT} concurrent requests to a local Jetty https server requiring
+ * client certificates, for clients with the default per client connection handling and for clients using a shared
+ * {@link ClientConnectionPool}. The number of TLS handshakes per fan-out is printed after each iteration.
+ * <p>
+ * Not executed as part of the build, run {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientConnectionPoolBenchmark
+{
+	private static final int FAN_OUT = 8;
+	private static final char[] PASSWORD = "password".toCharArray();
+
+	public static void main(String[] args) throws Exception
+	{
+		Options options = new OptionsBuilder().include(ClientConnectionPoolBenchmark.class.getSimpleName()).build();
+		new Runner(options).run();
+	}
+
+	private static final class TestClient extends AbstractJerseyClient
+	{
+		TestClient(String baseUrl, KeyStore trustStore, KeyStore keyStore)
+		{
+			super(baseUrl, trustStore, keyStore, PASSWORD, null, null);
+		}
+
+		TestClient(String baseUrl, ClientConnectionPool connectionPool)
+		{
+			super(baseUrl, connectionPool, null, null, null, null, null, 0, 0, false, null);
+		}
+
+		String read()
+		{
+			try (Response response = getResource().path("Task").request(MediaType.APPLICATION_JSON).get())
+			{
+				return response.readEntity(String.class);
+			}
+		}
+	}
+
+	@Param({ "default", "pooled", "http2" })
+	public String connections;
+
+	private final AtomicInteger handshakes = new AtomicInteger();
+	private final AtomicInteger fanOuts = new AtomicInteger();
+
+	private Server server;
+	private ClientConnectionPool connectionPool;
+	private List<TestClient> clients;
+	private ExecutorService executor;
+
+	@Setup
+	public void setup() throws Exception
+	{
+		CertificateAuthority.registerBouncyCastleProvider();
+		CertificateAuthority ca = new CertificateAuthority("DE", null, null, null, null, "test-ca");
+		ca.initialize();
+
+		KeyPair serverKeyPair = CertificationRequestBuilder.createRsaKeyPair4096Bit();
+		X509Certificate serverCertificate = ca
+				.signWebServerCertificate(CertificationRequestBuilder.createServerCertificationRequest(
+						CertificationRequestBuilder.createSubject("DE", null, null, null, null, "localhost"),
+						serverKeyPair, null, "localhost"));
+		KeyStore serverKeyStore = CertificateHelper.toJksKeyStore(serverKeyPair.getPrivate(),
+				new Certificate[] { serverCertificate, ca.getCertificate() }, "localhost", PASSWORD);
+
+		KeyPair clientKeyPair = CertificationRequestBuilder.createRsaKeyPair4096Bit();
+		X509Certificate clientCertificate = ca
+				.signWebClientCertificate(CertificationRequestBuilder.createClientCertificationRequest(
+						CertificationRequestBuilder.createSubject("DE", null, null, null, null, "test-client"),
+						clientKeyPair));
+		KeyStore clientKeyStore = CertificateHelper.toJksKeyStore(clientKeyPair.getPrivate(),
+				new Certificate[] { clientCertificate, ca.getCertificate() }, "test-client", PASSWORD);
+
+		KeyStore trustStore = CertificateHelper.extractTrust(clientKeyStore);
+
+		SslContextFactory.Server sslContextFactory = new SslContextFactory.Server();
+		sslContextFactory.setKeyStore(serverKeyStore);
+		sslContextFactory.setKeyStorePassword(String.valueOf(PASSWORD));
+		sslContextFactory.setTrustStore(trustStore);
+		sslContextFactory.setNeedClientAuth(true);
+
+		server = new Server();
+		ServerConnector connector = new ServerConnector(server, new SslConnectionFactory(sslContextFactory, "http/1.1"),
+				new HttpConnectionFactory());
+		connector.setHost("localhost");
+		connector.setPort(0);
+		connector.addBean(new SslHandshakeListener()
+		{
+			@Override
+			public void handshakeSucceeded(Event event)
+			{
+				handshakes.incrementAndGet();
+			}
+		});
+		server.addConnector(connector);
+		server.setHandler(new AbstractHandler()
+		{
+			@Override
+			public void handle(String target, Request baseRequest, HttpServletRequest request,
+					HttpServletResponse response) throws IOException
+			{
+				response.setContentType(MediaType.APPLICATION_JSON);
+				response.getOutputStream().write("{\"resourceType\":\"Bundle\"}".getBytes(StandardCharsets.UTF_8));
+				baseRequest.setHandled(true);
+			}
+		});
+		server.start();
+
+		String baseUrl = "https://localhost:" + connector.getLocalPort() + "/fhir";
+
+		// one client per remote organization, all with the same remote base url to simulate a burst to one server
+		clients = new ArrayList<>();
+		if ("pooled".equals(connections) || "http2".equals(connections))
+		{
+			connectionPool = new ClientConnectionPool(trustStore, clientKeyStore, PASSWORD,
+					ClientConnectionPool.DEFAULT_MAX_TOTAL, ClientConnectionPool.DEFAULT_MAX_PER_ROUTE,
+					ClientConnectionPool.DEFAULT_IDLE_TIMEOUT_MILLIS, "http2".equals(connections));
+
+			for (int i = 0; i < FAN_OUT; i++)
+				clients.add(new TestClient(baseUrl, connectionPool));
+		}
+		else
+		{
+			for (int i = 0; i < FAN_OUT; i++)
+				clients.add(new TestClient(baseUrl, trustStore, clientKeyStore));
+		}
+
+		executor = Executors.newFixedThreadPool(FAN_OUT);
+	}
+
+	@TearDown(Level.Iteration)
+	public void printHandshakes()
+	{
+		System.out.printf("%n%s: %.2f TLS handshakes per fan-out%n", connections,
+				fanOuts.get() == 0 ? 0d : (double) handshakes.getAndSet(0) / fanOuts.getAndSet(0));
+	}
+
+	@TearDown
+	public void tearDown() throws Exception
+	{
+		executor.shutdownNow();
+
+		if (connectionPool != null)
+			connectionPool.close();
+
+		server.stop();
+	}
+
+	@Benchmark
+	public int fanOut() throws Exception
+	{
+		List<Future<String>> results = new ArrayList<>(FAN_OUT);
+		for (TestClient client : clients)
+			results.add(executor.submit(client::read));
+
+		int length = 0;
+		for (Future<String> result : results)
+			length += result.get().length();
+
+		fanOuts.incrementAndGet();
+		return length;
+	}
+}
@@ -0,0 +1,226 @@
+package dev.dsf.fhir.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jetty.io.NetworkTrafficListener;
+import org.eclipse.jetty.server.NetworkTrafficServerConnector;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import org.hl7.fhir.r4.model.Bundle;
+import org.hl7.fhir.r4.model.Bundle.BundleType;
+import org.hl7.fhir.r4.model.Bundle.HTTPVerb;
+import org.hl7.fhir.r4.model.IdType;
+import org.hl7.fhir.r4.model.Reference;
+import org.hl7.fhir.r4.model.StringType;
+import org.hl7.fhir.r4.model.Task;
+import org.hl7.fhir.r4.model.Task.TaskIntent;
+import org.hl7.fhir.r4.model.Task.TaskStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import ca.uhn.fhir.context.FhirContext;
+import ca.uhn.fhir.rest.api.Constants;
+import dev.dsf.common.jetty.JettyServer;
+import dev.dsf.fhir.service.ReferenceCleanerImpl;
+import dev.dsf.fhir.service.ReferenceExtractorImpl;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Measures bytes on the wire and latency for a search returning a {@value #BUNDLE_SIZE} entry Bundle and for posting a
+ * {@value #BUNDLE_SIZE} entry transaction Bundle to a local Jetty http server, with and without compression configured
+ * via {@link JettyServer#gzipHandler(int, List)} and {@link ClientConnectionPool}. Request and response bytes per
+ * operation are printed after each iteration.
+ * <p>
+ * Not executed as part of the build, run {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark
+{
+	private static final int BUNDLE_SIZE = 200;
+
+	public static void main(String[] args) throws Exception
+	{
+		Options options = new OptionsBuilder().include(CompressionBenchmark.class.getSimpleName()).build();
+		new Runner(options).run();
+	}
+
+	@Param({ "none", "gzip" })
+	public String compression;
+
+	private final AtomicInteger operations = new AtomicInteger();
+	private final AtomicLong requestBytes = new AtomicLong();
+	private final AtomicLong responseBytes = new AtomicLong();
+
+	private Server server;
+	private ClientConnectionPool connectionPool;
+	private FhirWebserviceClient client;
+	private Bundle transaction;
+
+	@Setup
+	public void setup() throws Exception
+	{
+		FhirContext fhirContext = FhirContext.forR4();
+
+		Bundle searchset = new Bundle().setType(BundleType.SEARCHSET).setTotal(BUNDLE_SIZE);
+		transaction = new Bundle().setType(BundleType.TRANSACTION);
+		for (int i = 0; i < BUNDLE_SIZE; i++)
+		{
+			Task task = createTask();
+			searchset.addEntry().setFullUrl("https://localhost/fhir/Task/" + task.getIdElement().getIdPart())
+					.setResource(task);
+			transaction.addEntry().setFullUrl("urn:uuid:" + UUID.randomUUID()).setResource(createTask()).getRequest()
+					.setMethod(HTTPVerb.POST).setUrl("Task");
+		}
+
+		byte[] searchsetJson = fhirContext.newJsonParser().encodeResourceToString(searchset)
+				.getBytes(StandardCharsets.UTF_8);
+		byte[] transactionResponseJson = fhirContext.newJsonParser()
+				.encodeResourceToString(new Bundle().setType(BundleType.TRANSACTIONRESPONSE))
+				.getBytes(StandardCharsets.UTF_8);
+
+		server = new Server();
+		NetworkTrafficServerConnector connector = new NetworkTrafficServerConnector(server);
+		connector.setHost("localhost");
+		connector.setPort(0);
+		connector.setNetworkTrafficListener(new NetworkTrafficListener()
+		{
+			@Override
+			public void incoming(Socket socket, ByteBuffer bytes)
+			{
+				requestBytes.addAndGet(bytes.remaining());
+			}
+
+			@Override
+			public void outgoing(Socket socket, ByteBuffer bytes)
+			{
+				responseBytes.addAndGet(bytes.remaining());
+			}
+		});
+		server.addConnector(connector);
+
+		AbstractHandler handler = new AbstractHandler()
+		{
+			@Override
+			public void handle(String target, Request baseRequest, HttpServletRequest request,
+					HttpServletResponse response) throws IOException
+			{
+				try (InputStream in = request.getInputStream())
+				{
+					in.transferTo(OutputStream.nullOutputStream());
+				}
+
+				response.setContentType(Constants.CT_FHIR_JSON_NEW);
+				response.getOutputStream()
+						.write("GET".equals(request.getMethod()) ? searchsetJson : transactionResponseJson);
+				baseRequest.setHandled(true);
+			}
+		};
+
+		if ("gzip".equals(compression))
+		{
+			GzipHandler gzipHandler = JettyServer.gzipHandler(1024, List.of("application/octet-stream"));
+			gzipHandler.setHandler(handler);
+			server.setHandler(gzipHandler);
+		}
+		else
+			server.setHandler(handler);
+
+		server.start();
+
+		KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
+		trustStore.load(null, null);
+
+		connectionPool = new ClientConnectionPool(trustStore, null, null, ClientConnectionPool.DEFAULT_MAX_TOTAL,
+				ClientConnectionPool.DEFAULT_MAX_PER_ROUTE, ClientConnectionPool.DEFAULT_IDLE_TIMEOUT_MILLIS, false,
+				"gzip".equals(compression));
+
+		client = new FhirWebserviceClientJersey("http://localhost:" + connector.getLocalPort() + "/fhir",
+				connectionPool, null, null, null, null, 0, 0, false, null, fhirContext,
+				new ReferenceCleanerImpl(new ReferenceExtractorImpl()));
+	}
+
+	private Task createTask()
+	{
+		Task task = new Task();
+		task.setIdElement(new IdType("Task", UUID.randomUUID().toString(), "1"));
+		task.getMeta().addProfile("http://dsf.dev/fhir/StructureDefinition/task-ping|1.0");
+		task.setInstantiatesCanonical("http://dsf.dev/bpe/Process/ping|1.0");
+		task.setStatus(TaskStatus.REQUESTED).setIntent(TaskIntent.ORDER);
+		task.getRequester().setType("Organization").getIdentifier()
+				.setSystem("http://dsf.dev/sid/organization-identifier").setValue("Test_Organization");
+		Reference recipient = new Reference().setType("Organization");
+		recipient.getIdentifier().setSystem("http://dsf.dev/sid/organization-identifier").setValue("Test_Organization");
+		task.getRestriction().addRecipient(recipient);
+		task.addInput().setValue(new StringType("startPingProcessMessage")).getType().addCoding()
+				.setSystem("http://dsf.dev/fhir/CodeSystem/bpmn-message").setCode("message-name");
+		task.addInput().setValue(new StringType(UUID.randomUUID().toString())).getType().addCoding()
+				.setSystem("http://dsf.dev/fhir/CodeSystem/bpmn-message").setCode("business-key");
+		return task;
+	}
+
+	@TearDown(Level.Iteration)
+	public void printBytes()
+	{
+		int n = operations.getAndSet(0);
+		long requests = requestBytes.getAndSet(0);
+		long responses = responseBytes.getAndSet(0);
+
+		if (n > 0)
+			System.out.printf("%n%s: %d request bytes, %d response bytes per operation%n", compression, requests / n,
+					responses / n);
+	}
+
+	@TearDown
+	public void tearDown() throws Exception
+	{
+		connectionPool.close();
+		server.stop();
+	}
+
+	@Benchmark
+	public Bundle search()
+	{
+		operations.incrementAndGet();
+		return client.search(Task.class, null);
+	}
+
+	@Benchmark
+	public Bundle postTransaction()
+	{
+		operations.incrementAndGet();
+		return client.postBundle(transaction);
+	}
+}
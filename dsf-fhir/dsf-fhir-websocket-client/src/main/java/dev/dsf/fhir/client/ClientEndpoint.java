@@ -19,11 +19,32 @@ public class ClientEndpoint extends Endpoint
 	private static final Logger logger = LoggerFactory.getLogger(ClientEndpoint.class);
 
 	private final Runnable reconnector;
+	private final Runnable boundHandler;
+	private final long maxIdleTimeoutMillis;
 	private final String subscriptionIdPart;
 
 	public ClientEndpoint(Runnable reconnector, String subscriptionIdPart)
+	{
+		this(reconnector, null, 0, subscriptionIdPart);
+	}
+
+	/**
+	 * @param reconnector
+	 *            not <code>null</code>, called if the server does not accept the subscription
+	 * @param boundHandler
+	 *            may be <code>null</code>, called every time the subscription was bound by the server
+	 * @param maxIdleTimeoutMillis
+	 *            sessions are closed if no message or ping is received from the server within the given time,
+	 *            <code>&lt;= 0</code> to use the container default
+	 * @param subscriptionIdPart
+	 *            not <code>null</code>
+	 */
+	public ClientEndpoint(Runnable reconnector, Runnable boundHandler, long maxIdleTimeoutMillis,
+			String subscriptionIdPart)
 	{
 		this.reconnector = reconnector;
+		this.boundHandler = boundHandler;
+		this.maxIdleTimeoutMillis = maxIdleTimeoutMillis;
 		this.subscriptionIdPart = subscriptionIdPart;
 	}
 
@@ -37,6 +58,10 @@ public class ClientEndpoint extends Endpoint
 		logger.info("Websocket connected {uri: {}, session-id: {}}", session.getRequestURI().toString(),
 				session.getId());
 
+		// server sends pings, received pings reset the idle timeout
+		if (maxIdleTimeoutMillis > 0)
+			session.setMaxIdleTimeout(maxIdleTimeoutMillis);
+
 		session.addMessageHandler(new MessageHandler.Whole<String>() // don't use lambda
 		{
 			private boolean boundReceived;
@@ -50,6 +75,10 @@ public class ClientEndpoint extends Endpoint
 				{
 					logger.debug("Bound received");
 					boundReceived = true;
+
+					if (boundHandler != null)
+						boundHandler.run();
+
 					return;
 				}
 
@@ -0,0 +1,58 @@
+package dev.dsf.fhir.client;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exponential backoff with jitter: The upper bound starts with the initial delay and is doubled with every attempt
+ * until the max delay is reached, returned delays are uniformly distributed between half the upper bound and the upper
+ * bound. Clients losing their connection at the same time, e.g. because of a server restart, reconnect spread out
+ * instead of in lockstep.
+ */
+final class ReconnectBackoff
+{
+	private final long initialDelayMillis;
+	private final long maxDelayMillis;
+	private final AtomicInteger attempt = new AtomicInteger();
+
+	/**
+	 * @param initialDelayMillis
+	 *            <code>&gt; 0</code>
+	 * @param maxDelayMillis
+	 *            <code>&gt;= initialDelayMillis</code>
+	 */
+	ReconnectBackoff(long initialDelayMillis, long maxDelayMillis)
+	{
+		if (initialDelayMillis <= 0)
+			throw new IllegalArgumentException("initialDelayMillis <= 0");
+		if (maxDelayMillis < initialDelayMillis)
+			throw new IllegalArgumentException("maxDelayMillis < initialDelayMillis");
+
+		this.initialDelayMillis = initialDelayMillis;
+		this.maxDelayMillis = maxDelayMillis;
+	}
+
+	/**
+	 * @return delay for the next attempt in milliseconds
+	 */
+	long nextDelayMillis()
+	{
+		int n = attempt.getAndUpdate(a -> a < Integer.MAX_VALUE ? a + 1 : a);
+
+		// shifting further would overflow
+		long upperBound = n >= Long.numberOfLeadingZeros(initialDelayMillis) - 1 ? maxDelayMillis
+				: Math.min(maxDelayMillis, initialDelayMillis << n);
+
+		return upperBound / 2 + ThreadLocalRandom.current().nextLong(upperBound - upperBound / 2 + 1);
+	}
+
+	int getAttempt()
+	{
+		return attempt.get();
+	}
+
+	void reset()
+	{
+		attempt.set(0);
+	}
+}
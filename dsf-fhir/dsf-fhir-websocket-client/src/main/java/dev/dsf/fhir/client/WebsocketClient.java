@@ -9,6 +9,29 @@ import ca.uhn.fhir.parser.IParser;
 
 public interface WebsocketClient
 {
+	enum ConnectionState
+	{
+		/**
+		 * Not connected, {@link WebsocketClient#connect()} not called or {@link WebsocketClient#disconnect()} called
+		 */
+		DISCONNECTED,
+
+		/**
+		 * First connection attempt, subscription not bound yet
+		 */
+		CONNECTING,
+
+		/**
+		 * Connected and subscription bound
+		 */
+		CONNECTED,
+
+		/**
+		 * Connection lost, waiting for the next reconnect attempt or reconnecting
+		 */
+		RECONNECTING
+	}
+
 	void connect();
 
 	void disconnect();
@@ -16,4 +39,28 @@ public interface WebsocketClient
 	void setResourceHandler(Consumer<Resource> handler, Supplier<IParser> parserFactory);
 
 	void setPingHandler(Consumer<String> handler);
-}
\ No newline at end of file
+
+	/**
+	 * Sets a handler called after a lost connection was reestablished and the subscription was bound again. Events sent
+	 * by the server while the connection was lost are not received by this client, the handler can be used to search
+	 * for resources changed in the meantime.
+	 * <p>
+	 * The handler is called on a websocket container thread and should not block.
+	 *
+	 * @param handler
+	 *            may be <code>null</code>
+	 */
+	void setReconnectedHandler(Runnable handler);
+
+	ConnectionState getConnectionState();
+
+	/**
+	 * @return number of reestablished connections
+	 */
+	long getReconnectCount();
+
+	/**
+	 * @return number of failed connection attempts
+	 */
+	long getConnectFailureCount();
+}
@@ -8,6 +8,10 @@ import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -33,14 +37,20 @@ public class WebsocketClientTyrus implements WebsocketClient
 {
 	private static final Logger logger = LoggerFactory.getLogger(WebsocketClientTyrus.class);
 
+	public static final long DEFAULT_RECONNECT_DELAY_INITIAL_MILLIS = 5_000;
+	public static final long DEFAULT_RECONNECT_DELAY_MAX_MILLIS = 300_000;
+	public static final long DEFAULT_MAX_IDLE_TIMEOUT_MILLIS = 90_000;
+
 	private final ReconnectHandler reconnectHandler = new ReconnectHandler()
 	{
 		@Override
 		public boolean onConnectFailure(Exception exception)
 		{
+			connectFailureCount.incrementAndGet();
+
 			logger.warn("Websocket connection failed: {}", getMessages(exception));
 			logger.debug("onConnectFailure", exception);
-			return true;
+			return !closed;
 		}
 
 		private String getMessages(Exception e)
@@ -70,7 +80,22 @@ public class WebsocketClientTyrus implements WebsocketClient
 		public boolean onDisconnect(CloseReason closeReason)
 		{
 			logger.debug("onDisconnect {}", closeReason.getReasonPhrase());
-			return !closed;
+
+			if (closed)
+				return false;
+
+			state.set(ConnectionState.RECONNECTING);
+			return true;
+		}
+
+		@Override
+		public long getDelay()
+		{
+			long delayMillis = backoff.nextDelayMillis();
+			logger.info("Reconnecting websocket {} in {} ms, attempt {}", wsUri, delayMillis, backoff.getAttempt());
+
+			// tyrus supports delays in seconds only
+			return Math.max(1, Math.round(delayMillis / 1000d));
 		}
 	};
 
@@ -80,15 +105,60 @@ public class WebsocketClientTyrus implements WebsocketClient
 	private final String proxyUserName;
 	private final char[] proxyPassword;
 	private final String userAgentValue;
+	private final ReconnectBackoff backoff;
 	private final ClientEndpoint endpoint;
 
+	private final AtomicReference<ConnectionState> state = new AtomicReference<>(ConnectionState.DISCONNECTED);
+	private final AtomicLong reconnectCount = new AtomicLong();
+	private final AtomicLong connectFailureCount = new AtomicLong();
+
 	private ClientManager manager;
 	private Session connection;
 	private volatile boolean closed;
+	private volatile Runnable reconnectedHandler;
 
 	public WebsocketClientTyrus(Runnable reconnector, URI wsUri, KeyStore trustStore, KeyStore keyStore,
 			char[] keyStorePassword, String proxySchemeHostPort, String proxyUserName, char[] proxyPassword,
 			String userAgentValue, String subscriptionIdPart)
+	{
+		this(reconnector, wsUri, trustStore, keyStore, keyStorePassword, proxySchemeHostPort, proxyUserName,
+				proxyPassword, userAgentValue, subscriptionIdPart, DEFAULT_RECONNECT_DELAY_INITIAL_MILLIS,
+				DEFAULT_RECONNECT_DELAY_MAX_MILLIS, DEFAULT_MAX_IDLE_TIMEOUT_MILLIS);
+	}
+
+	/**
+	 * @param reconnector
+	 *            not <code>null</code>, called with a backoff delay if the server does not accept the subscription
+	 * @param wsUri
+	 *            not <code>null</code>
+	 * @param trustStore
+	 *            may be <code>null</code>
+	 * @param keyStore
+	 *            may be <code>null</code>
+	 * @param keyStorePassword
+	 *            may be <code>null</code>
+	 * @param proxySchemeHostPort
+	 *            may be <code>null</code>
+	 * @param proxyUserName
+	 *            may be <code>null</code>
+	 * @param proxyPassword
+	 *            may be <code>null</code>
+	 * @param userAgentValue
+	 *            may be <code>null</code>
+	 * @param subscriptionIdPart
+	 *            not <code>null</code>
+	 * @param reconnectDelayInitialMillis
+	 *            <code>&gt; 0</code>, upper bound of the first reconnect delay, doubled with every failed attempt
+	 * @param reconnectDelayMaxMillis
+	 *            <code>&gt;= reconnectDelayInitialMillis</code>
+	 * @param maxIdleTimeoutMillis
+	 *            connection closed and reestablished if no message or ping is received from the server within the given
+	 *            time, <code>&lt;= 0</code> to use the container default
+	 */
+	public WebsocketClientTyrus(Runnable reconnector, URI wsUri, KeyStore trustStore, KeyStore keyStore,
+			char[] keyStorePassword, String proxySchemeHostPort, String proxyUserName, char[] proxyPassword,
+			String userAgentValue, String subscriptionIdPart, long reconnectDelayInitialMillis,
+			long reconnectDelayMaxMillis, long maxIdleTimeoutMillis)
 	{
 		this.wsUri = wsUri;
 
@@ -104,17 +174,40 @@ public class WebsocketClientTyrus implements WebsocketClient
 		this.proxyUserName = proxyUserName;
 		this.proxyPassword = proxyPassword;
 		this.userAgentValue = userAgentValue;
+		this.backoff = new ReconnectBackoff(reconnectDelayInitialMillis, reconnectDelayMaxMillis);
 
-		this.endpoint = createClientEndpoint(reconnector, subscriptionIdPart);
+		this.endpoint = createClientEndpoint(reconnector, subscriptionIdPart, maxIdleTimeoutMillis);
 	}
 
-	private ClientEndpoint createClientEndpoint(Runnable reconnector, String subscriptionIdPart)
+	private ClientEndpoint createClientEndpoint(Runnable reconnector, String subscriptionIdPart,
+			long maxIdleTimeoutMillis)
 	{
 		return new ClientEndpoint(() ->
 		{
 			disconnect();
-			reconnector.run();
-		}, subscriptionIdPart);
+
+			long delayMillis = backoff.nextDelayMillis();
+			logger.info("Restarting websocket subscription in {} ms, attempt {}", delayMillis, backoff.getAttempt());
+			CompletableFuture.delayedExecutor(delayMillis, TimeUnit.MILLISECONDS).execute(reconnector);
+		}, this::onBound, maxIdleTimeoutMillis, subscriptionIdPart);
+	}
+
+	private void onBound()
+	{
+		if (closed)
+			return;
+
+		backoff.reset();
+
+		if (ConnectionState.RECONNECTING.equals(state.getAndSet(ConnectionState.CONNECTED)))
+		{
+			logger.info("Websocket {} reconnected, reconnects: {}, failed connection attempts: {}", wsUri,
+					reconnectCount.incrementAndGet(), connectFailureCount.get());
+
+			Runnable handler = reconnectedHandler;
+			if (handler != null)
+				handler.run();
+		}
 	}
 
 	@Override
@@ -123,6 +216,9 @@ public class WebsocketClientTyrus implements WebsocketClient
 		if (manager != null)
 			throw new IllegalStateException("Allready connecting/connected");
 
+		closed = false;
+		state.set(ConnectionState.CONNECTING);
+
 		manager = ClientManager.createClient();
 		manager.getProperties().put(ClientProperties.RECONNECT_HANDLER, reconnectHandler);
 		manager.getProperties().put(ClientProperties.SSL_ENGINE_CONFIGURATOR, new SslEngineConfigurator(sslContext));
@@ -148,11 +244,13 @@ public class WebsocketClientTyrus implements WebsocketClient
 		catch (DeploymentException e)
 		{
 			logger.warn("Error while connecting to server", e);
+			state.set(ConnectionState.DISCONNECTED);
 			throw new RuntimeException(e);
 		}
 		catch (IOException e)
 		{
 			logger.warn("Error while connecting to server", e);
+			state.set(ConnectionState.DISCONNECTED);
 			throw new RuntimeException(e);
 		}
 	}
@@ -178,10 +276,15 @@ public class WebsocketClientTyrus implements WebsocketClient
 		if (closed)
 			return;
 
+		// set before closing, no reconnect after close
+		closed = true;
+		state.set(ConnectionState.DISCONNECTED);
+
 		logger.debug("Closing websocket {}", wsUri);
 		try
 		{
-			connection.close();
+			if (connection != null)
+				connection.close();
 			connection = null;
 		}
 		catch (IOException e)
@@ -189,10 +292,9 @@ public class WebsocketClientTyrus implements WebsocketClient
 			logger.warn("Error while closing websocket", e);
 		}
 
-		manager.shutdown();
+		if (manager != null)
+			manager.shutdown();
 		manager = null;
-
-		closed = true;
 	}
 
 	@Override
@@ -206,4 +308,28 @@ public class WebsocketClientTyrus implements WebsocketClient
 	{
 		endpoint.setPingHandler(handler);
 	}
+
+	@Override
+	public void setReconnectedHandler(Runnable handler)
+	{
+		reconnectedHandler = handler;
+	}
+
+	@Override
+	public ConnectionState getConnectionState()
+	{
+		return state.get();
+	}
+
+	@Override
+	public long getReconnectCount()
+	{
+		return reconnectCount.get();
+	}
+
+	@Override
+	public long getConnectFailureCount()
+	{
+		return connectFailureCount.get();
+	}
 }
@@ -0,0 +1,59 @@
+package dev.dsf.fhir.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class ReconnectBackoffTest
+{
+	private static void assertBetween(long min, long max, long actual)
+	{
+		assertTrue(actual + " not in [" + min + ", " + max + "]", min <= actual && actual <= max);
+	}
+
+	@Test
+	public void testNextDelayGrowsUntilMax() throws Exception
+	{
+		ReconnectBackoff backoff = new ReconnectBackoff(1_000, 10_000);
+
+		assertBetween(500, 1_000, backoff.nextDelayMillis());
+		assertBetween(1_000, 2_000, backoff.nextDelayMillis());
+		assertBetween(2_000, 4_000, backoff.nextDelayMillis());
+		assertBetween(4_000, 8_000, backoff.nextDelayMillis());
+
+		for (int i = 0; i < 100; i++)
+			assertBetween(5_000, 10_000, backoff.nextDelayMillis());
+
+		assertEquals(104, backoff.getAttempt());
+	}
+
+	@Test
+	public void testNextDelayDoesNotOverflow() throws Exception
+	{
+		ReconnectBackoff backoff = new ReconnectBackoff(Long.MAX_VALUE / 4, Long.MAX_VALUE);
+
+		for (int i = 0; i < 100; i++)
+			assertBetween(Long.MAX_VALUE / 8, Long.MAX_VALUE, backoff.nextDelayMillis());
+	}
+
+	@Test
+	public void testReset() throws Exception
+	{
+		ReconnectBackoff backoff = new ReconnectBackoff(1_000, 10_000);
+
+		for (int i = 0; i < 10; i++)
+			backoff.nextDelayMillis();
+
+		backoff.reset();
+
+		assertEquals(0, backoff.getAttempt());
+		assertBetween(500, 1_000, backoff.nextDelayMillis());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMaxDelayLessThanInitialDelay() throws Exception
+	{
+		new ReconnectBackoff(10_000, 1_000);
+	}
+}